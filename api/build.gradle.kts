@@ -1,5 +1,6 @@
 plugins {
     id("creative.publishing-conventions")
+    `java-test-fixtures`
 }
 
 description = "A resource-pack library for Minecraft: Java Edition."
@@ -9,4 +10,9 @@ dependencies {
     api("net.kyori:adventure-key:4.9.3")
     api("net.kyori:adventure-api:4.14.0")
     implementation("net.kyori:adventure-text-serializer-legacy:4.14.0")
-}
\ No newline at end of file
+}
+
+// test fixtures are shared with the other modules, not published
+val javaComponent = components["java"] as AdhocComponentWithVariants
+javaComponent.withVariantsFromConfiguration(configurations["testFixturesApiElements"]) { skip() }
+javaComponent.withVariantsFromConfiguration(configurations["testFixturesRuntimeElements"]) { skip() }
@@ -26,10 +26,12 @@ package team.unnamed.creative;
 import net.kyori.examination.Examinable;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.base.Writable;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.Objects;
 
 /**
@@ -53,7 +55,26 @@ public interface BuiltResourcePack extends Examinable {
      * @since 1.1.0
      */
     static @NotNull BuiltResourcePack of(final @NotNull Writable data, final @NotNull String hash) {
-        return new BuiltResourcePackImpl(data, hash);
+        return new BuiltResourcePackImpl(data, hash, null);
+    }
+
+    /**
+     * Creates a new {@link BuiltResourcePack} instance
+     * backed by the given file, which must not be modified
+     * while the instance is in use.
+     *
+     * <p>The file is read every time the pack data is
+     * written, and may be sent by resource-pack servers
+     * without loading it into memory.</p>
+     *
+     * @param file The resource-pack zip archive file
+     * @param hash The SHA-1 hash of the resource-pack
+     * @return The built resource-pack instance
+     * @since 1.7.0
+     */
+    static @NotNull BuiltResourcePack of(final @NotNull Path file, final @NotNull String hash) {
+        Objects.requireNonNull(file, "file");
+        return new BuiltResourcePackImpl(Writable.path(file), hash, file);
     }
 
     /**
@@ -70,7 +91,20 @@ public interface BuiltResourcePack extends Examinable {
     @ApiStatus.ScheduledForRemoval(inVersion = "2.0.0")
     static @NotNull BuiltResourcePack of(final byte @NotNull [] bytes, final @NotNull String hash) {
         Objects.requireNonNull(bytes, "bytes");
-        return new BuiltResourcePackImpl(Writable.bytes(bytes), hash);
+        return new BuiltResourcePackImpl(Writable.bytes(bytes), hash, null);
+    }
+
+    /**
+     * Returns the file holding the resource-pack zip archive,
+     * if this resource-pack is backed by a file, see
+     * {@link #of(Path, String)}.
+     *
+     * @return The resource-pack file, null if the data
+     * is not backed by a file
+     * @since 1.7.0
+     */
+    default @Nullable Path file() {
+        return null;
     }
 
     /**
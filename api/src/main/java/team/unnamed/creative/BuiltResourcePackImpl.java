@@ -24,21 +24,32 @@
 package team.unnamed.creative;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.base.Writable;
 
+import java.nio.file.Path;
+
 import static java.util.Objects.requireNonNull;
 
 final class BuiltResourcePackImpl implements BuiltResourcePack {
 
     private final Writable data;
     private final String hash;
+    private final Path file;
 
     BuiltResourcePackImpl(
             final @NotNull Writable data,
-            final @NotNull String hash
+            final @NotNull String hash,
+            final @Nullable Path file
     ) {
         this.data = requireNonNull(data, "data");
         this.hash = requireNonNull(hash, "hash");
+        this.file = file;
+    }
+
+    @Override
+    public @Nullable Path file() {
+        return file;
     }
 
     @Override
@@ -0,0 +1,274 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.blockstate.BlockState;
+import team.unnamed.creative.blockstate.MultiVariant;
+import team.unnamed.creative.blockstate.Selector;
+import team.unnamed.creative.blockstate.Variant;
+import team.unnamed.creative.model.Element;
+import team.unnamed.creative.model.ItemOverride;
+import team.unnamed.creative.model.ItemTransform;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.overlay.Overlay;
+import team.unnamed.creative.overlay.ResourceContainer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Optimizer that keeps a single model per structure, see
+ * {@link ResourcePackOptimizer#deduplicateModels(Predicate)}.
+ */
+final class ModelDeduplicator implements ResourcePackOptimizer {
+    static final ResourcePackOptimizer DEFAULT = new ModelDeduplicator(key -> key.namespace().equals(Key.MINECRAFT_NAMESPACE));
+
+    private final Predicate<Key> retained;
+
+    ModelDeduplicator(final @NotNull Predicate<Key> retained) {
+        this.retained = requireNonNull(retained, "retained");
+    }
+
+    @Override
+    public @NotNull OptimizationReport optimize(final @NotNull ResourcePack resourcePack) {
+        requireNonNull(resourcePack, "resourcePack");
+
+        // models overridden by an overlay are left as they are, the
+        // overlay could give them a different content
+        final Set<Key> overridden = new HashSet<>();
+        for (final Overlay overlay : resourcePack.overlays()) {
+            for (final Model model : overlay.models()) {
+                overridden.add(model.key());
+            }
+        }
+
+        int removed = 0;
+        final Set<ResourceReference> rewritten = new HashSet<>();
+        while (true) {
+            final Map<Key, Key> replacements = deduplicate(resourcePack, overridden);
+            if (replacements.isEmpty()) {
+                break;
+            }
+            removed += replacements.size();
+
+            // rewriting references may make more models equal (e.g.
+            // children of merged parents), so repeat until nothing changes
+            rewrite(resourcePack, replacements, rewritten);
+            for (final Overlay overlay : resourcePack.overlays()) {
+                rewrite(overlay, replacements, rewritten);
+            }
+        }
+
+        if (removed == 0) {
+            return OptimizationReport.empty();
+        }
+        return OptimizationReport.report(removed, rewritten.size(), 0);
+    }
+
+    /**
+     * Removes the duplicated models of the given resource-pack and
+     * returns the keys of the removed models to their canonical
+     * model key.
+     */
+    private @NotNull Map<Key, Key> deduplicate(final @NotNull ResourcePack resourcePack, final @NotNull Set<Key> overridden) {
+        final Map<Structure, List<Model>> models = new LinkedHashMap<>();
+        for (final Model model : resourcePack.models()) {
+            if (!overridden.contains(model.key())) {
+                models.computeIfAbsent(new Structure(model), k -> new ArrayList<>()).add(model);
+            }
+        }
+
+        final Map<Key, Key> replacements = new HashMap<>();
+        for (final List<Model> duplicates : models.values()) {
+            if (duplicates.size() < 2) {
+                continue;
+            }
+            // prefer a retained model, then the lowest key, so that
+            // the result doesn't depend on the iteration order
+            duplicates.sort(Comparator.<Model, Boolean>comparing(model -> !retained.test(model.key()))
+                    .thenComparing(model -> model.key().asString()));
+            final Key canonical = duplicates.get(0).key();
+            for (final Model duplicate : duplicates.subList(1, duplicates.size())) {
+                final Key key = duplicate.key();
+                if (retained.test(key)) {
+                    continue;
+                }
+                replacements.put(key, canonical);
+                resourcePack.removeModel(key);
+            }
+        }
+        return replacements;
+    }
+
+    private static void rewrite(
+            final @NotNull ResourceContainer container,
+            final @NotNull Map<Key, Key> replacements,
+            final @NotNull Set<ResourceReference> rewritten
+    ) {
+        for (final Model model : new ArrayList<>(container.models())) {
+            boolean changed = false;
+
+            final Key parent = model.parent();
+            final Key parentReplacement = parent == null ? null : replacements.get(parent);
+            changed |= parentReplacement != null;
+
+            final List<ItemOverride> overrides = new ArrayList<>(model.overrides().size());
+            for (final ItemOverride override : model.overrides()) {
+                final Key replacement = replacements.get(override.model());
+                if (replacement == null) {
+                    overrides.add(override);
+                } else {
+                    overrides.add(ItemOverride.of(replacement, override.predicate()));
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                container.model(model.toBuilder()
+                        .parent(parentReplacement == null ? parent : parentReplacement)
+                        .overrides(overrides)
+                        .build());
+                rewritten.add(ResourceReference.model(model.key()));
+            }
+        }
+
+        for (final BlockState blockState : new ArrayList<>(container.blockStates())) {
+            boolean changed = false;
+
+            final Map<String, MultiVariant> variants = new LinkedHashMap<>();
+            for (final Map.Entry<String, MultiVariant> entry : blockState.variants().entrySet()) {
+                final MultiVariant variant = rewrite(entry.getValue(), replacements);
+                variants.put(entry.getKey(), variant == null ? entry.getValue() : variant);
+                changed |= variant != null;
+            }
+
+            final List<Selector> multipart = new ArrayList<>(blockState.multipart().size());
+            for (final Selector selector : blockState.multipart()) {
+                final MultiVariant variant = rewrite(selector.variant(), replacements);
+                multipart.add(variant == null ? selector : Selector.of(selector.condition(), variant));
+                changed |= variant != null;
+            }
+
+            if (changed) {
+                container.blockState(BlockState.of(blockState.key(), variants, multipart));
+                rewritten.add(ResourceReference.reference(ResourceReference.Type.BLOCK_STATE, blockState.key()));
+            }
+        }
+    }
+
+    /**
+     * Rewrites the models of the given variants, returns null
+     * if there is nothing to rewrite.
+     */
+    private static @Nullable MultiVariant rewrite(final @NotNull MultiVariant multiVariant, final @NotNull Map<Key, Key> replacements) {
+        boolean changed = false;
+        final List<Variant> variants = new ArrayList<>(multiVariant.variants().size());
+        for (final Variant variant : multiVariant.variants()) {
+            final Key replacement = replacements.get(variant.model());
+            if (replacement == null) {
+                variants.add(variant);
+                continue;
+            }
+            variants.add(Variant.builder()
+                    .model(replacement)
+                    .x(variant.x())
+                    .y(variant.y())
+                    .uvLock(variant.uvLock())
+                    .weight(variant.weight())
+                    .build());
+            changed = true;
+        }
+        return changed ? MultiVariant.of(variants) : null;
+    }
+
+    /**
+     * The structure of a model: everything but its key. The hash
+     * is computed once, since models are compared several times
+     * while grouping them.
+     */
+    private static final class Structure {
+        private final @Nullable Key parent;
+        private final boolean ambientOcclusion;
+        private final Map<ItemTransform.Type, ItemTransform> display;
+        private final ModelTextures textures;
+        private final Model.@Nullable GuiLight guiLight;
+        private final List<Element> elements;
+        private final List<ItemOverride> overrides;
+        private final int hashCode;
+
+        private Structure(final @NotNull Model model) {
+            this.parent = model.parent();
+            this.ambientOcclusion = model.ambientOcclusion();
+            this.display = model.display();
+            this.textures = model.textures();
+            this.guiLight = model.guiLight();
+            this.elements = model.elements();
+            this.overrides = model.overrides();
+
+            int result = Objects.hashCode(parent);
+            result = 31 * result + Boolean.hashCode(ambientOcclusion);
+            result = 31 * result + display.hashCode();
+            result = 31 * result + textures.hashCode();
+            result = 31 * result + Objects.hashCode(guiLight);
+            result = 31 * result + elements.hashCode();
+            result = 31 * result + overrides.hashCode();
+            this.hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Structure that = (Structure) o;
+            return hashCode == that.hashCode
+                    && ambientOcclusion == that.ambientOcclusion
+                    && Objects.equals(parent, that.parent)
+                    && guiLight == that.guiLight
+                    && display.equals(that.display)
+                    && textures.equals(that.textures)
+                    && elements.equals(that.elements)
+                    && overrides.equals(that.overrides);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
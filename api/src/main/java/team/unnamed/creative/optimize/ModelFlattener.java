@@ -0,0 +1,228 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.model.ItemTransform;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTexture;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.overlay.Overlay;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Optimizer that inlines the parent chain of every model into
+ * the model itself, see {@link ResourcePackOptimizer#flattenModels(Predicate)}.
+ */
+final class ModelFlattener implements ResourcePackOptimizer {
+    static final ModelFlattener DEFAULT = new ModelFlattener(null);
+
+    // null if parents are never removed
+    private final @Nullable Predicate<Key> retained;
+
+    ModelFlattener(final @Nullable Predicate<Key> retained) {
+        this.retained = retained;
+    }
+
+    @Override
+    public @NotNull OptimizationReport optimize(final @NotNull ResourcePack resourcePack) {
+        requireNonNull(resourcePack, "resourcePack");
+
+        final Map<Key, Model> models = new HashMap<>();
+        for (final Model model : resourcePack.models()) {
+            models.put(model.key(), model);
+        }
+
+        // models overridden by an overlay can't be inlined, since
+        // their content depends on the active overlays
+        final Set<Key> boundaries = new HashSet<>();
+        for (final Overlay overlay : resourcePack.overlays()) {
+            for (final Model model : overlay.models()) {
+                boundaries.add(model.key());
+            }
+        }
+
+        final Resolver resolver = new Resolver(models, boundaries);
+        int rewritten = 0;
+        for (final Model model : new ArrayList<>(models.values())) {
+            final Model flattened = resolver.resolve(model);
+            if (flattened != model) {
+                resourcePack.model(flattened);
+                rewritten++;
+            }
+        }
+
+        int removed = 0;
+        if (retained != null && !resolver.inlined.isEmpty()) {
+            // intermediate parents that nothing references anymore
+            final ReferenceGraph graph = ReferenceGraph.referenceGraph(resourcePack);
+            final Set<ResourceReference> referenced = new HashSet<>();
+            for (final ResourceReference resource : graph.resources()) {
+                referenced.addAll(graph.references(resource));
+            }
+            for (final Key key : resolver.inlined) {
+                if (!retained.test(key) && !referenced.contains(ResourceReference.model(key))) {
+                    resourcePack.removeModel(key);
+                    removed++;
+                }
+            }
+        }
+
+        if (removed == 0 && rewritten == 0) {
+            return OptimizationReport.empty();
+        }
+        return OptimizationReport.report(removed, rewritten, 0);
+    }
+
+    /**
+     * Memoized, cycle-safe resolver of flattened models.
+     */
+    private static final class Resolver {
+        private final Map<Key, Model> models;
+        private final Set<Key> boundaries;
+
+        // key -> flattened model, for every model already resolved
+        private final Map<Key, Model> resolved = new HashMap<>();
+        // keys of the models inlined into at least one child
+        private final Set<Key> inlined = new LinkedHashSet<>();
+
+        Resolver(final @NotNull Map<Key, Model> models, final @NotNull Set<Key> boundaries) {
+            this.models = models;
+            this.boundaries = boundaries;
+        }
+
+        @NotNull Model resolve(final @NotNull Model model) {
+            final Model cached = resolved.get(model.key());
+            if (cached != null) {
+                return cached;
+            }
+
+            // walk up the chain until a resolved model or a parent
+            // that can't be inlined, iteratively so that long chains
+            // don't overflow the stack
+            final List<Model> chain = new ArrayList<>();
+            final Set<Key> visited = new HashSet<>();
+            Model current = model;
+            Model base = null;
+            while (true) {
+                if (!visited.add(current.key())) {
+                    // a cycle, the game can't load these models either,
+                    // keep them as they are and never inline them
+                    for (final Model cyclic : chain) {
+                        resolved.put(cyclic.key(), cyclic);
+                        boundaries.add(cyclic.key());
+                    }
+                    return model;
+                }
+                chain.add(current);
+
+                final Key parentKey = current.parent();
+                if (parentKey == null || boundaries.contains(parentKey)) {
+                    break;
+                }
+                final Model parent = models.get(parentKey);
+                if (parent == null) {
+                    // not in this resource-pack (e.g. a vanilla model)
+                    break;
+                }
+                final Model resolvedParent = resolved.get(parentKey);
+                if (resolvedParent != null) {
+                    base = resolvedParent;
+                    break;
+                }
+                current = parent;
+            }
+
+            // fold the chain down, from the top-most parent
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                final Model child = chain.get(i);
+                if (base != null) {
+                    inlined.add(requireNonNull(child.parent(), "parent"));
+                    base = merge(child, base);
+                } else {
+                    base = child;
+                }
+                resolved.put(child.key(), base);
+            }
+            return requireNonNull(base, "base");
+        }
+    }
+
+    /**
+     * Merges the given child model with its already flattened parent,
+     * with the same inheritance rules the game uses.
+     */
+    private static @NotNull Model merge(final @NotNull Model child, final @NotNull Model parent) {
+        final Map<ItemTransform.Type, ItemTransform> display = new EnumMap<>(ItemTransform.Type.class);
+        display.putAll(parent.display());
+        display.putAll(child.display());
+
+        return Model.model()
+                .key(child.key())
+                .parent(parent.parent())
+                // false is the only explicit value, true is the absent
+                // default, which inherits the parent value
+                .ambientOcclusion(child.ambientOcclusion() && parent.ambientOcclusion())
+                .display(display)
+                .textures(mergeTextures(child.textures(), parent.textures()))
+                .guiLight(child.guiLight() != null ? child.guiLight() : parent.guiLight())
+                .elements(child.elements().isEmpty() ? parent.elements() : child.elements())
+                // overrides are never inherited
+                .overrides(child.overrides())
+                .build();
+    }
+
+    private static @NotNull ModelTextures mergeTextures(final @NotNull ModelTextures child, final @NotNull ModelTextures parent) {
+        // layers are texture variables too ("layer0", "layer1", ...)
+        final List<ModelTexture> layers = new ArrayList<>(parent.layers());
+        for (int i = 0; i < child.layers().size(); i++) {
+            if (i < layers.size()) {
+                layers.set(i, child.layers().get(i));
+            } else {
+                layers.add(child.layers().get(i));
+            }
+        }
+
+        final Map<String, ModelTexture> variables = new LinkedHashMap<>(parent.variables());
+        variables.putAll(child.variables());
+
+        final ModelTexture particle = child.particle() != null ? child.particle() : parent.particle();
+        return ModelTextures.of(layers, particle, variables);
+    }
+}
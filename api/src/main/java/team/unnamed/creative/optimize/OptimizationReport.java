@@ -0,0 +1,103 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.examination.Examinable;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The result of a {@link ResourcePackOptimizer} run.
+ *
+ * @since 1.7.0
+ */
+public interface OptimizationReport extends Examinable {
+
+    /**
+     * Creates a new optimization report.
+     *
+     * @param removedResources The amount of removed resources
+     * @param rewrittenResources The amount of rewritten resources
+     * @param savedBytes The amount of saved bytes
+     * @return The optimization report
+     * @since 1.7.0
+     */
+    static @NotNull OptimizationReport report(final int removedResources, final int rewrittenResources, final long savedBytes) {
+        return new OptimizationReportImpl(removedResources, rewrittenResources, savedBytes);
+    }
+
+    /**
+     * Gets the report of an optimization that did nothing.
+     *
+     * @return The empty optimization report
+     * @since 1.7.0
+     */
+    static @NotNull OptimizationReport empty() {
+        return OptimizationReportImpl.EMPTY;
+    }
+
+    /**
+     * Returns the amount of resources (textures, models, etc.) that
+     * were removed from the resource-pack.
+     *
+     * @return The amount of removed resources
+     * @since 1.7.0
+     */
+    int removedResources();
+
+    /**
+     * Returns the amount of resources that were replaced by a
+     * rewritten version, e.g. models whose texture references
+     * changed.
+     *
+     * @return The amount of rewritten resources
+     * @since 1.7.0
+     */
+    int rewrittenResources();
+
+    /**
+     * Returns the amount of bytes saved, approximated by the size
+     * of the removed files' data.
+     *
+     * @return The amount of saved bytes
+     * @since 1.7.0
+     */
+    long savedBytes();
+
+    /**
+     * Combines this report with the given one, e.g. to report
+     * several optimizations at once.
+     *
+     * @param other The other report
+     * @return The combined report
+     * @since 1.7.0
+     */
+    default @NotNull OptimizationReport plus(final @NotNull OptimizationReport other) {
+        return report(
+                removedResources() + other.removedResources(),
+                rewrittenResources() + other.rewrittenResources(),
+                savedBytes() + other.savedBytes()
+        );
+    }
+
+}
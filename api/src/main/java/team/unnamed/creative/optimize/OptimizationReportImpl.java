@@ -0,0 +1,91 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.examination.ExaminableProperty;
+import net.kyori.examination.string.StringExaminer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.stream.Stream;
+
+final class OptimizationReportImpl implements OptimizationReport {
+    static final OptimizationReport EMPTY = new OptimizationReportImpl(0, 0, 0L);
+
+    private final int removedResources;
+    private final int rewrittenResources;
+    private final long savedBytes;
+
+    OptimizationReportImpl(final int removedResources, final int rewrittenResources, final long savedBytes) {
+        this.removedResources = removedResources;
+        this.rewrittenResources = rewrittenResources;
+        this.savedBytes = savedBytes;
+    }
+
+    @Override
+    public int removedResources() {
+        return removedResources;
+    }
+
+    @Override
+    public int rewrittenResources() {
+        return rewrittenResources;
+    }
+
+    @Override
+    public long savedBytes() {
+        return savedBytes;
+    }
+
+    @Override
+    public @NotNull Stream<? extends ExaminableProperty> examinableProperties() {
+        return Stream.of(
+                ExaminableProperty.of("removedResources", removedResources),
+                ExaminableProperty.of("rewrittenResources", rewrittenResources),
+                ExaminableProperty.of("savedBytes", savedBytes)
+        );
+    }
+
+    @Override
+    public String toString() {
+        return examine(StringExaminer.simpleEscaping());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OptimizationReportImpl that = (OptimizationReportImpl) o;
+        if (removedResources != that.removedResources) return false;
+        if (rewrittenResources != that.rewrittenResources) return false;
+        return savedBytes == that.savedBytes;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = removedResources;
+        result = 31 * result + rewrittenResources;
+        result = 31 * result + Long.hashCode(savedBytes);
+        return result;
+    }
+}
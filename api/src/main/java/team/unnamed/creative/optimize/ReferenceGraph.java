@@ -0,0 +1,94 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+import team.unnamed.creative.ResourcePack;
+
+import java.util.Collection;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The graph of references between the resources of a resource-pack
+ * (and its overlays), e.g. from models to their parents, textures and
+ * item override models, from block states to their variant models, from
+ * fonts to their bitmap textures or from sound events to their sound files.
+ *
+ * <p>Atlas directory and filter sources are not considered references,
+ * since they match textures by path.</p>
+ *
+ * <p>The graph is a snapshot, it doesn't change if the resource-pack
+ * is modified after it is created.</p>
+ *
+ * @since 1.7.0
+ */
+@ApiStatus.NonExtendable
+public interface ReferenceGraph {
+
+    /**
+     * Creates the reference graph of the given resource-pack.
+     *
+     * @param resourcePack The resource-pack
+     * @return The reference graph
+     * @since 1.7.0
+     */
+    static @NotNull ReferenceGraph referenceGraph(final @NotNull ResourcePack resourcePack) {
+        requireNonNull(resourcePack, "resourcePack");
+        return ReferenceGraphImpl.create(resourcePack);
+    }
+
+    /**
+     * Returns the resources in the resource-pack.
+     *
+     * @return The resources
+     * @since 1.7.0
+     */
+    @NotNull @Unmodifiable Set<ResourceReference> resources();
+
+    /**
+     * Returns the resources directly referenced by the given resource,
+     * they may not exist in the resource-pack (e.g. vanilla models).
+     *
+     * @param resource The resource
+     * @return The referenced resources, empty if the given resource
+     * doesn't exist or references nothing
+     * @since 1.7.0
+     */
+    @NotNull @Unmodifiable Set<ResourceReference> references(final @NotNull ResourceReference resource);
+
+    /**
+     * Returns the resources reachable from the given roots, including
+     * the roots themselves.
+     *
+     * @param roots The roots
+     * @return The reachable resources
+     * @since 1.7.0
+     */
+    @NotNull Set<ResourceReference> reachable(final @NotNull Collection<ResourceReference> roots);
+
+}
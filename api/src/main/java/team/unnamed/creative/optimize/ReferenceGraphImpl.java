@@ -0,0 +1,253 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.atlas.Atlas;
+import team.unnamed.creative.atlas.AtlasSource;
+import team.unnamed.creative.atlas.DirectoryAtlasSource;
+import team.unnamed.creative.atlas.PalettedPermutationsAtlasSource;
+import team.unnamed.creative.atlas.SingleAtlasSource;
+import team.unnamed.creative.atlas.UnstitchAtlasSource;
+import team.unnamed.creative.blockstate.BlockState;
+import team.unnamed.creative.blockstate.MultiVariant;
+import team.unnamed.creative.blockstate.Selector;
+import team.unnamed.creative.blockstate.Variant;
+import team.unnamed.creative.font.BitMapFontProvider;
+import team.unnamed.creative.font.Font;
+import team.unnamed.creative.font.FontProvider;
+import team.unnamed.creative.font.ReferenceFontProvider;
+import team.unnamed.creative.model.ItemOverride;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTexture;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.overlay.Overlay;
+import team.unnamed.creative.overlay.ResourceContainer;
+import team.unnamed.creative.sound.Sound;
+import team.unnamed.creative.sound.SoundEntry;
+import team.unnamed.creative.sound.SoundEvent;
+import team.unnamed.creative.sound.SoundRegistry;
+import team.unnamed.creative.texture.Texture;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+final class ReferenceGraphImpl implements ReferenceGraph {
+
+    private final Map<ResourceReference, Set<ResourceReference>> references;
+
+    private ReferenceGraphImpl(final @NotNull Map<ResourceReference, Set<ResourceReference>> references) {
+        this.references = references;
+    }
+
+    static @NotNull ReferenceGraph create(final @NotNull ResourcePack resourcePack) {
+        final Map<ResourceReference, Set<ResourceReference>> references = new LinkedHashMap<>();
+        addAll(references, resourcePack);
+        for (final Overlay overlay : resourcePack.overlays()) {
+            addAll(references, overlay);
+        }
+        // directory sources reference textures from any container,
+        // so they are added once every texture is known
+        addDirectorySources(references, resourcePack);
+        for (final Overlay overlay : resourcePack.overlays()) {
+            addDirectorySources(references, overlay);
+        }
+        return new ReferenceGraphImpl(references);
+    }
+
+    private static void addDirectorySources(final @NotNull Map<ResourceReference, Set<ResourceReference>> references, final @NotNull ResourceContainer container) {
+        for (final Atlas atlas : container.atlases()) {
+            Set<ResourceReference> referenced = null;
+            for (final AtlasSource source : atlas.sources()) {
+                if (!(source instanceof DirectoryAtlasSource)) {
+                    continue;
+                }
+                if (referenced == null) {
+                    referenced = node(references, ResourceReference.reference(ResourceReference.Type.ATLAS, atlas.key()));
+                }
+                // the directory is relative to the textures directory,
+                // in every namespace, and includes its subdirectories
+                String directory = ((DirectoryAtlasSource) source).source();
+                while (directory.endsWith("/")) {
+                    directory = directory.substring(0, directory.length() - 1);
+                }
+                final String prefix = directory.isEmpty() ? "" : directory + '/';
+                for (final ResourceReference resource : references.keySet()) {
+                    if (resource.type() == ResourceReference.Type.TEXTURE && resource.key().value().startsWith(prefix)) {
+                        referenced.add(resource);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addAll(final @NotNull Map<ResourceReference, Set<ResourceReference>> references, final @NotNull ResourceContainer container) {
+        for (final Model model : container.models()) {
+            final Set<ResourceReference> referenced = node(references, ResourceReference.model(model.key()));
+            final Key parent = model.parent();
+            if (parent != null) {
+                referenced.add(ResourceReference.model(parent));
+            }
+            final ModelTextures textures = model.textures();
+            for (final ModelTexture layer : textures.layers()) {
+                addTexture(referenced, layer);
+            }
+            if (textures.particle() != null) {
+                addTexture(referenced, textures.particle());
+            }
+            for (final ModelTexture variable : textures.variables().values()) {
+                addTexture(referenced, variable);
+            }
+            for (final ItemOverride override : model.overrides()) {
+                referenced.add(ResourceReference.model(override.model()));
+            }
+        }
+
+        for (final Texture texture : container.textures()) {
+            node(references, ResourceReference.texture(texture.key()));
+        }
+
+        for (final Font font : container.fonts()) {
+            final Set<ResourceReference> referenced = node(references, ResourceReference.font(font.key()));
+            for (final FontProvider provider : font.providers()) {
+                if (provider instanceof BitMapFontProvider) {
+                    referenced.add(ResourceReference.texture(((BitMapFontProvider) provider).file()));
+                } else if (provider instanceof ReferenceFontProvider) {
+                    referenced.add(ResourceReference.font(((ReferenceFontProvider) provider).id()));
+                }
+            }
+        }
+
+        for (final BlockState blockState : container.blockStates()) {
+            final Set<ResourceReference> referenced = node(references, ResourceReference.reference(ResourceReference.Type.BLOCK_STATE, blockState.key()));
+            for (final MultiVariant variant : blockState.variants().values()) {
+                addModels(referenced, variant);
+            }
+            for (final Selector selector : blockState.multipart()) {
+                addModels(referenced, selector.variant());
+            }
+        }
+
+        for (final Atlas atlas : container.atlases()) {
+            final Set<ResourceReference> referenced = node(references, ResourceReference.reference(ResourceReference.Type.ATLAS, atlas.key()));
+            for (final AtlasSource source : atlas.sources()) {
+                if (source instanceof SingleAtlasSource) {
+                    referenced.add(ResourceReference.texture(TextureKeys.withExtension(((SingleAtlasSource) source).resource())));
+                } else if (source instanceof UnstitchAtlasSource) {
+                    referenced.add(ResourceReference.texture(TextureKeys.withExtension(((UnstitchAtlasSource) source).resource())));
+                } else if (source instanceof PalettedPermutationsAtlasSource) {
+                    final PalettedPermutationsAtlasSource paletted = (PalettedPermutationsAtlasSource) source;
+                    for (final Key texture : paletted.textures()) {
+                        referenced.add(ResourceReference.texture(TextureKeys.withExtension(texture)));
+                    }
+                    referenced.add(ResourceReference.texture(TextureKeys.withExtension(paletted.paletteKey())));
+                    for (final Key permutation : paletted.permutations().values()) {
+                        referenced.add(ResourceReference.texture(TextureKeys.withExtension(permutation)));
+                    }
+                }
+            }
+        }
+
+        for (final SoundRegistry soundRegistry : container.soundRegistries()) {
+            for (final SoundEvent soundEvent : soundRegistry.sounds()) {
+                final Set<ResourceReference> referenced = node(references, ResourceReference.reference(ResourceReference.Type.SOUND_EVENT, soundEvent.key()));
+                for (final SoundEntry entry : soundEvent.sounds()) {
+                    referenced.add(entry.type() == SoundEntry.Type.FILE
+                            ? ResourceReference.sound(entry.key())
+                            : ResourceReference.reference(ResourceReference.Type.SOUND_EVENT, entry.key()));
+                }
+            }
+        }
+
+        for (final Sound sound : container.sounds()) {
+            node(references, ResourceReference.sound(sound.key()));
+        }
+    }
+
+    private static @NotNull Set<ResourceReference> node(final @NotNull Map<ResourceReference, Set<ResourceReference>> references, final @NotNull ResourceReference resource) {
+        // the same resource may be in several overlays
+        return references.computeIfAbsent(resource, k -> new LinkedHashSet<>());
+    }
+
+    private static void addTexture(final @NotNull Set<ResourceReference> referenced, final @NotNull ModelTexture texture) {
+        final Key key = texture.key();
+        if (key != null) {
+            referenced.add(ResourceReference.texture(TextureKeys.withExtension(key)));
+        }
+    }
+
+    private static void addModels(final @NotNull Set<ResourceReference> referenced, final @NotNull MultiVariant multiVariant) {
+        for (final Variant variant : multiVariant.variants()) {
+            referenced.add(ResourceReference.model(variant.model()));
+        }
+    }
+
+    @Override
+    public @NotNull @Unmodifiable Set<ResourceReference> resources() {
+        return Collections.unmodifiableSet(references.keySet());
+    }
+
+    @Override
+    public @NotNull @Unmodifiable Set<ResourceReference> references(final @NotNull ResourceReference resource) {
+        requireNonNull(resource, "resource");
+        final Set<ResourceReference> referenced = references.get(resource);
+        return referenced == null ? Collections.emptySet() : Collections.unmodifiableSet(referenced);
+    }
+
+    @Override
+    public @NotNull Set<ResourceReference> reachable(final @NotNull Collection<ResourceReference> roots) {
+        requireNonNull(roots, "roots");
+        final Set<ResourceReference> reachable = new HashSet<>();
+        final Deque<ResourceReference> pending = new ArrayDeque<>();
+        for (final ResourceReference root : roots) {
+            if (reachable.add(root)) {
+                pending.add(root);
+            }
+        }
+        while (!pending.isEmpty()) {
+            final Set<ResourceReference> referenced = references.get(pending.poll());
+            if (referenced == null) {
+                continue;
+            }
+            for (final ResourceReference resource : referenced) {
+                if (reachable.add(resource)) {
+                    pending.add(resource);
+                }
+            }
+        }
+        return reachable;
+    }
+}
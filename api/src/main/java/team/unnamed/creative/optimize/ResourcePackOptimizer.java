@@ -0,0 +1,207 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.ResourcePack;
+
+import java.util.Collection;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Represents an optimization pass over a {@link ResourcePack}.
+ *
+ * <p>Optimizers modify the given resource-pack in place and
+ * report what they did.</p>
+ *
+ * @since 1.7.0
+ */
+@FunctionalInterface
+public interface ResourcePackOptimizer {
+
+    /**
+     * Optimizes the given resource-pack, modifying it.
+     *
+     * @param resourcePack The resource-pack to optimize
+     * @return The report of the optimization
+     * @since 1.7.0
+     */
+    @NotNull OptimizationReport optimize(final @NotNull ResourcePack resourcePack);
+
+    /**
+     * Gets an optimizer that removes byte-identical textures (with equal
+     * metadata), keeping one canonical texture per content and rewriting
+     * the references from models, bitmap font providers and atlas sources
+     * to it.
+     *
+     * <p>Textures in the {@code minecraft} namespace are never removed,
+     * since the game may use them without a reference.</p>
+     *
+     * @return The texture deduplication optimizer
+     * @see #deduplicateTextures(Predicate)
+     * @since 1.7.0
+     */
+    static @NotNull ResourcePackOptimizer deduplicateTextures() {
+        return TextureDeduplicator.DEFAULT;
+    }
+
+    /**
+     * Gets an optimizer that removes byte-identical textures (with equal
+     * metadata), keeping one canonical texture per content and rewriting
+     * the references from models, bitmap font providers and atlas sources
+     * to it.
+     *
+     * <p>Textures matching the given predicate are never removed, use it
+     * for textures the game or other resources (e.g. shaders) use without
+     * a reference. Textures overridden by an overlay are never removed
+     * either.</p>
+     *
+     * <p>Only textures in the same top-level texture directory (e.g.
+     * {@code item} or {@code block}) are merged, so that the atlas
+     * directory sources that included a removed texture include its
+     * replacement too.</p>
+     *
+     * @param retained The predicate for texture keys that must be kept
+     * @return The texture deduplication optimizer
+     * @since 1.7.0
+     */
+    static @NotNull ResourcePackOptimizer deduplicateTextures(final @NotNull Predicate<Key> retained) {
+        requireNonNull(retained, "retained");
+        return new TextureDeduplicator(retained);
+    }
+
+    /**
+     * Gets an optimizer that removes the models, textures, fonts and
+     * sound files that can't be reached from the given roots in the
+     * {@link ReferenceGraph reference graph} of the resource-pack,
+     * e.g. textures and models no item uses.
+     *
+     * <p>Some resources are always roots, since the game may use them
+     * without a reference:</p>
+     * <ul>
+     *     <li>Block states, atlases and sound events</li>
+     *     <li>Every resource in the {@code minecraft} namespace, like
+     *     item models or the default font</li>
+     * </ul>
+     *
+     * <p>Other resources the game or the server use directly must be
+     * given as roots, e.g. the fonts used in chat messages or the models
+     * of custom items.</p>
+     *
+     * @param roots The resources to keep, along with the
+     *              resources they reference
+     * @return The unreachable resource remover
+     * @since 1.7.0
+     */
+    static @NotNull ResourcePackOptimizer removeUnreachable(final @NotNull Collection<ResourceReference> roots) {
+        requireNonNull(roots, "roots");
+        return new UnreachableResourceRemover(roots);
+    }
+
+    /**
+     * Gets an optimizer that inlines the parent chain of every model
+     * (display transforms, texture variables, elements, gui light and
+     * ambient occlusion) into the model itself, so that the game doesn't
+     * have to resolve it.
+     *
+     * <p>Flattened models keep the first parent that is not in the
+     * resource-pack (e.g. {@code minecraft:item/generated}), or that
+     * is overridden by an overlay. Parents are kept, see
+     * {@link #flattenModels(Predicate)} to remove them.</p>
+     *
+     * @return The model flattening optimizer
+     * @since 1.7.0
+     */
+    static @NotNull ResourcePackOptimizer flattenModels() {
+        return ModelFlattener.DEFAULT;
+    }
+
+    /**
+     * Gets an optimizer that inlines the parent chain of every model
+     * (display transforms, texture variables, elements, gui light and
+     * ambient occlusion) into the model itself, so that the game doesn't
+     * have to resolve it, and removes the inlined parents that are no
+     * longer referenced by any resource.
+     *
+     * <p>Flattened models keep the first parent that is not in the
+     * resource-pack (e.g. {@code minecraft:item/generated}), or that
+     * is overridden by an overlay. Models in a parent cycle are left
+     * as they are.</p>
+     *
+     * <p>Parents matching the given predicate are never removed, use
+     * it for models the game or the server use without a reference
+     * (e.g. the models of custom items).</p>
+     *
+     * @param retained The predicate for model keys that must be kept
+     * @return The model flattening optimizer
+     * @since 1.7.0
+     */
+    static @NotNull ResourcePackOptimizer flattenModels(final @NotNull Predicate<Key> retained) {
+        requireNonNull(retained, "retained");
+        return new ModelFlattener(retained);
+    }
+
+    /**
+     * Gets an optimizer that removes structurally identical models
+     * (same parent, textures, elements, display transforms and so on,
+     * only their key differs), keeping one canonical model per structure
+     * and rewriting the model parents, item overrides and block state
+     * variants that referenced a removed model.
+     *
+     * <p>Models in the {@code minecraft} namespace are never removed,
+     * since the game may use them without a reference.</p>
+     *
+     * @return The model deduplication optimizer
+     * @see #deduplicateModels(Predicate)
+     * @since 1.7.0
+     */
+    static @NotNull ResourcePackOptimizer deduplicateModels() {
+        return ModelDeduplicator.DEFAULT;
+    }
+
+    /**
+     * Gets an optimizer that removes structurally identical models
+     * (same parent, textures, elements, display transforms and so on,
+     * only their key differs), keeping one canonical model per structure
+     * and rewriting the model parents, item overrides and block state
+     * variants that referenced a removed model.
+     *
+     * <p>Models matching the given predicate are never removed, use it
+     * for models the game or the server use without a reference (e.g.
+     * the models of custom items). Models overridden by an overlay are
+     * never removed either.</p>
+     *
+     * @param retained The predicate for model keys that must be kept
+     * @return The model deduplication optimizer
+     * @since 1.7.0
+     */
+    static @NotNull ResourcePackOptimizer deduplicateModels(final @NotNull Predicate<Key> retained) {
+        requireNonNull(retained, "retained");
+        return new ModelDeduplicator(retained);
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.key.Keyed;
+import net.kyori.examination.Examinable;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A reference to a resource in a resource-pack, identified by its
+ * {@link Type type} and its key, e.g. the model {@code creative:item/sword}
+ * or the texture {@code creative:item/sword.png}.
+ *
+ * @see ReferenceGraph
+ * @since 1.7.0
+ */
+@ApiStatus.NonExtendable
+public interface ResourceReference extends Keyed, Examinable {
+
+    /**
+     * Creates a new resource reference.
+     *
+     * @param type The resource type
+     * @param key The resource key
+     * @return The resource reference
+     * @since 1.7.0
+     */
+    static @NotNull ResourceReference reference(final @NotNull Type type, final @NotNull Key key) {
+        return new ResourceReferenceImpl(type, key);
+    }
+
+    /**
+     * Creates a reference to a model.
+     *
+     * @param key The model key, e.g. {@code creative:item/sword}
+     * @return The model reference
+     * @since 1.7.0
+     */
+    static @NotNull ResourceReference model(final @NotNull Key key) {
+        return reference(Type.MODEL, key);
+    }
+
+    /**
+     * Creates a reference to a texture.
+     *
+     * @param key The texture key, including its extension,
+     *            e.g. {@code creative:item/sword.png}
+     * @return The texture reference
+     * @since 1.7.0
+     */
+    static @NotNull ResourceReference texture(final @NotNull Key key) {
+        return reference(Type.TEXTURE, key);
+    }
+
+    /**
+     * Creates a reference to a font.
+     *
+     * @param key The font key, e.g. {@code creative:icons}
+     * @return The font reference
+     * @since 1.7.0
+     */
+    static @NotNull ResourceReference font(final @NotNull Key key) {
+        return reference(Type.FONT, key);
+    }
+
+    /**
+     * Creates a reference to a sound file.
+     *
+     * @param key The sound key, e.g. {@code creative:music/theme}
+     * @return The sound reference
+     * @since 1.7.0
+     */
+    static @NotNull ResourceReference sound(final @NotNull Key key) {
+        return reference(Type.SOUND, key);
+    }
+
+    /**
+     * Returns the type of the referenced resource.
+     *
+     * @return The resource type
+     * @since 1.7.0
+     */
+    @NotNull Type type();
+
+    /**
+     * Returns the key of the referenced resource.
+     *
+     * @return The resource key
+     * @since 1.7.0
+     */
+    @Override
+    @NotNull Key key();
+
+    /**
+     * The types of resources that can reference or be
+     * referenced by other resources.
+     *
+     * @since 1.7.0
+     */
+    enum Type {
+        /**
+         * A {@link team.unnamed.creative.model.Model}, references its
+         * parent, textures and item override models.
+         */
+        MODEL,
+        /**
+         * A {@link team.unnamed.creative.texture.Texture}, references
+         * nothing.
+         */
+        TEXTURE,
+        /**
+         * A {@link team.unnamed.creative.font.Font}, references its
+         * bitmap textures and the fonts it includes.
+         */
+        FONT,
+        /**
+         * A {@link team.unnamed.creative.blockstate.BlockState},
+         * references its variant models.
+         */
+        BLOCK_STATE,
+        /**
+         * An {@link team.unnamed.creative.atlas.Atlas}, references the
+         * textures its single, unstitch and paletted permutations
+         * sources add.
+         */
+        ATLAS,
+        /**
+         * A {@link team.unnamed.creative.sound.SoundEvent}, references
+         * its sound files and sound events.
+         */
+        SOUND_EVENT,
+        /**
+         * A {@link team.unnamed.creative.sound.Sound} file, references
+         * nothing.
+         */
+        SOUND
+    }
+
+}
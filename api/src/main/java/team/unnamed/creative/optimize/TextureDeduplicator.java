@@ -0,0 +1,346 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.atlas.Atlas;
+import team.unnamed.creative.atlas.AtlasSource;
+import team.unnamed.creative.atlas.PalettedPermutationsAtlasSource;
+import team.unnamed.creative.atlas.SingleAtlasSource;
+import team.unnamed.creative.atlas.UnstitchAtlasSource;
+import team.unnamed.creative.font.BitMapFontProvider;
+import team.unnamed.creative.font.Font;
+import team.unnamed.creative.font.FontProvider;
+import team.unnamed.creative.metadata.Metadata;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTexture;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.overlay.Overlay;
+import team.unnamed.creative.overlay.ResourceContainer;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Optimizer that keeps a single texture per content, see
+ * {@link ResourcePackOptimizer#deduplicateTextures(Predicate)}.
+ */
+final class TextureDeduplicator implements ResourcePackOptimizer {
+    static final ResourcePackOptimizer DEFAULT = new TextureDeduplicator(key -> key.namespace().equals(Key.MINECRAFT_NAMESPACE));
+
+    private final Predicate<Key> retained;
+
+    TextureDeduplicator(final @NotNull Predicate<Key> retained) {
+        this.retained = requireNonNull(retained, "retained");
+    }
+
+    @Override
+    public @NotNull OptimizationReport optimize(final @NotNull ResourcePack resourcePack) {
+        requireNonNull(resourcePack, "resourcePack");
+
+        // textures overridden by an overlay are left as they are, the
+        // overlay could reference them with a different content
+        final Set<Key> overridden = new HashSet<>();
+        for (final Overlay overlay : resourcePack.overlays()) {
+            for (final Texture texture : overlay.textures()) {
+                overridden.add(texture.key());
+            }
+        }
+
+        final MessageDigest digest = sha256();
+        final Map<Content, List<Texture>> textures = new LinkedHashMap<>();
+        final Map<Key, Integer> sizes = new HashMap<>();
+        for (final Texture texture : resourcePack.textures()) {
+            if (overridden.contains(texture.key())) {
+                continue;
+            }
+            final byte[] data = toByteArray(texture);
+            sizes.put(texture.key(), data.length);
+            textures.computeIfAbsent(new Content(directory(texture.key()), digest.digest(data), texture.meta()), k -> new ArrayList<>())
+                    .add(texture);
+        }
+
+        // texture keys (e.g. "item/sword.png") to their canonical texture key
+        final Map<Key, Key> replacements = new HashMap<>();
+        long savedBytes = 0;
+        for (final List<Texture> duplicates : textures.values()) {
+            if (duplicates.size() < 2) {
+                continue;
+            }
+            // prefer a retained texture, then the lowest key, so that
+            // the result doesn't depend on the iteration order
+            duplicates.sort(Comparator.<Texture, Boolean>comparing(texture -> !retained.test(texture.key()))
+                    .thenComparing(texture -> texture.key().asString()));
+            final Key canonical = duplicates.get(0).key();
+            for (final Texture duplicate : duplicates.subList(1, duplicates.size())) {
+                final Key key = duplicate.key();
+                if (retained.test(key)) {
+                    continue;
+                }
+                replacements.put(key, canonical);
+                savedBytes += sizes.get(key);
+                resourcePack.removeTexture(key);
+            }
+        }
+
+        if (replacements.isEmpty()) {
+            return OptimizationReport.empty();
+        }
+
+        // models and atlases reference textures without the extension
+        final Map<Key, Key> spriteReplacements = new HashMap<>();
+        for (final Map.Entry<Key, Key> replacement : replacements.entrySet()) {
+            final Key from = TextureKeys.withoutExtension(replacement.getKey());
+            final Key to = TextureKeys.withoutExtension(replacement.getValue());
+            if (from != null && to != null) {
+                spriteReplacements.put(from, to);
+            }
+        }
+
+        int rewritten = rewrite(resourcePack, replacements, spriteReplacements);
+        for (final Overlay overlay : resourcePack.overlays()) {
+            rewritten += rewrite(overlay, replacements, spriteReplacements);
+        }
+        return OptimizationReport.report(replacements.size(), rewritten, savedBytes);
+    }
+
+    private static int rewrite(
+            final @NotNull ResourceContainer container,
+            final @NotNull Map<Key, Key> replacements,
+            final @NotNull Map<Key, Key> spriteReplacements
+    ) {
+        int rewritten = 0;
+
+        for (final Model model : new ArrayList<>(container.models())) {
+            final ModelTextures textures = rewrite(model.textures(), spriteReplacements);
+            if (textures != null) {
+                container.model(model.toBuilder().textures(textures).build());
+                rewritten++;
+            }
+        }
+
+        for (final Font font : new ArrayList<>(container.fonts())) {
+            boolean changed = false;
+            final List<FontProvider> providers = new ArrayList<>(font.providers().size());
+            for (final FontProvider provider : font.providers()) {
+                if (provider instanceof BitMapFontProvider) {
+                    final BitMapFontProvider bitMap = (BitMapFontProvider) provider;
+                    final Key file = replacements.get(bitMap.file());
+                    if (file != null) {
+                        providers.add(bitMap.file(file));
+                        changed = true;
+                        continue;
+                    }
+                }
+                providers.add(provider);
+            }
+            if (changed) {
+                container.font(Font.font(font.key(), providers));
+                rewritten++;
+            }
+        }
+
+        for (final Atlas atlas : new ArrayList<>(container.atlases())) {
+            boolean changed = false;
+            final List<AtlasSource> sources = new ArrayList<>(atlas.sources().size());
+            for (final AtlasSource source : atlas.sources()) {
+                final AtlasSource rewrittenSource = rewrite(source, spriteReplacements);
+                if (rewrittenSource == null) {
+                    sources.add(source);
+                    continue;
+                }
+                changed = true;
+                // two sources may now add the same sprite
+                if (!sources.contains(rewrittenSource)) {
+                    sources.add(rewrittenSource);
+                }
+            }
+            if (changed) {
+                container.atlas(atlas.toBuilder().sources(sources).build());
+                rewritten++;
+            }
+        }
+
+        return rewritten;
+    }
+
+    /**
+     * Rewrites the given model textures, returns null
+     * if there is nothing to rewrite.
+     */
+    private static @Nullable ModelTextures rewrite(final @NotNull ModelTextures textures, final @NotNull Map<Key, Key> replacements) {
+        boolean changed = false;
+
+        final List<ModelTexture> layers = new ArrayList<>(textures.layers().size());
+        for (final ModelTexture layer : textures.layers()) {
+            final ModelTexture rewritten = rewrite(layer, replacements);
+            layers.add(rewritten);
+            changed |= rewritten != layer;
+        }
+
+        final ModelTexture particle = textures.particle() == null ? null : rewrite(textures.particle(), replacements);
+        changed |= particle != textures.particle();
+
+        final Map<String, ModelTexture> variables = new LinkedHashMap<>();
+        for (final Map.Entry<String, ModelTexture> entry : textures.variables().entrySet()) {
+            final ModelTexture rewritten = rewrite(entry.getValue(), replacements);
+            variables.put(entry.getKey(), rewritten);
+            changed |= rewritten != entry.getValue();
+        }
+
+        if (!changed) {
+            return null;
+        }
+        return ModelTextures.builder()
+                .layers(layers)
+                .particle(particle)
+                .variables(variables)
+                .build();
+    }
+
+    private static @NotNull ModelTexture rewrite(final @NotNull ModelTexture texture, final @NotNull Map<Key, Key> replacements) {
+        final Key key = texture.key();
+        final Key replacement = key == null ? null : replacements.get(key);
+        if (replacement == null) {
+            return texture;
+        }
+        final String reference = texture.reference();
+        return reference == null ? ModelTexture.ofKey(replacement) : ModelTexture.of(replacement, reference);
+    }
+
+    /**
+     * Rewrites the given atlas source, returns null if
+     * there is nothing to rewrite.
+     */
+    private static @Nullable AtlasSource rewrite(final @NotNull AtlasSource source, final @NotNull Map<Key, Key> replacements) {
+        if (source instanceof SingleAtlasSource) {
+            final SingleAtlasSource single = (SingleAtlasSource) source;
+            final Key resource = replacements.get(single.resource());
+            // note that the sprite name changes too if it isn't set, the
+            // same as the model references
+            return resource == null ? null : AtlasSource.single(resource, single.sprite());
+        } else if (source instanceof UnstitchAtlasSource) {
+            final UnstitchAtlasSource unstitch = (UnstitchAtlasSource) source;
+            final Key resource = replacements.get(unstitch.resource());
+            return resource == null ? null : AtlasSource.unstitch(resource, unstitch.regions(), unstitch.divisor());
+        } else if (source instanceof PalettedPermutationsAtlasSource) {
+            final PalettedPermutationsAtlasSource paletted = (PalettedPermutationsAtlasSource) source;
+            boolean changed = false;
+            final List<Key> textures = new ArrayList<>(paletted.textures().size());
+            for (final Key texture : paletted.textures()) {
+                final Key replacement = replacements.getOrDefault(texture, texture);
+                textures.add(replacement);
+                changed |= replacement != texture;
+            }
+            final Key paletteKey = replacements.getOrDefault(paletted.paletteKey(), paletted.paletteKey());
+            changed |= paletteKey != paletted.paletteKey();
+            final Map<String, Key> permutations = new LinkedHashMap<>();
+            for (final Map.Entry<String, Key> permutation : paletted.permutations().entrySet()) {
+                final Key replacement = replacements.getOrDefault(permutation.getValue(), permutation.getValue());
+                permutations.put(permutation.getKey(), replacement);
+                changed |= replacement != permutation.getValue();
+            }
+            return changed ? AtlasSource.palettedPermutations(textures, paletteKey, permutations) : null;
+        }
+        return null;
+    }
+
+    private static byte @NotNull [] toByteArray(final @NotNull Texture texture) {
+        try {
+            return texture.data().toByteArray();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to read texture data: " + texture.key(), e);
+        }
+    }
+
+    private static @NotNull MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Returns the top-level directory of the given texture, atlas
+     * directory sources add whole directories, so textures are only
+     * merged within the same one.
+     */
+    private static @NotNull String directory(final @NotNull Key key) {
+        final String value = key.value();
+        final int separator = value.indexOf('/');
+        return separator == -1 ? "" : value.substring(0, separator);
+    }
+
+    /**
+     * The content of a texture: its directory, data digest and metadata.
+     */
+    private static final class Content {
+        private final String directory;
+        private final byte[] digest;
+        private final Metadata meta;
+
+        private Content(final @NotNull String directory, final byte @NotNull [] digest, final @NotNull Metadata meta) {
+            this.directory = directory;
+            this.digest = digest;
+            this.meta = meta;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Content that = (Content) o;
+            return directory.equals(that.directory)
+                    && Arrays.equals(digest, that.digest)
+                    && meta.equals(that.meta);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = directory.hashCode();
+            result = 31 * result + Arrays.hashCode(digest);
+            result = 31 * result + meta.hashCode();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Conversions between texture keys (e.g. {@code item/sword.png}) and
+ * the keys models and atlases use to reference them (e.g. {@code item/sword}).
+ */
+final class TextureKeys {
+    private static final String TEXTURE_EXTENSION = ".png";
+
+    private TextureKeys() {
+    }
+
+    @SuppressWarnings("PatternValidation")
+    static @NotNull Key withExtension(final @NotNull Key key) {
+        return Key.key(key.namespace(), key.value() + TEXTURE_EXTENSION);
+    }
+
+    @SuppressWarnings("PatternValidation")
+    static @Nullable Key withoutExtension(final @NotNull Key key) {
+        final String value = key.value();
+        if (!value.endsWith(TEXTURE_EXTENSION)) {
+            return null;
+        }
+        return Key.key(key.namespace(), value.substring(0, value.length() - TEXTURE_EXTENSION.length()));
+    }
+}
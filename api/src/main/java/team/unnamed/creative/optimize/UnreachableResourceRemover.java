@@ -0,0 +1,135 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.font.Font;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.overlay.Overlay;
+import team.unnamed.creative.overlay.ResourceContainer;
+import team.unnamed.creative.sound.Sound;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Optimizer that removes the models, textures, fonts and sounds that
+ * can't be reached from the roots, see
+ * {@link ResourcePackOptimizer#removeUnreachable(Collection)}.
+ */
+final class UnreachableResourceRemover implements ResourcePackOptimizer {
+
+    private final Set<ResourceReference> roots;
+
+    UnreachableResourceRemover(final @NotNull Collection<ResourceReference> roots) {
+        this.roots = new LinkedHashSet<>(requireNonNull(roots, "roots"));
+    }
+
+    @Override
+    public @NotNull OptimizationReport optimize(final @NotNull ResourcePack resourcePack) {
+        requireNonNull(resourcePack, "resourcePack");
+
+        final ReferenceGraph graph = ReferenceGraph.referenceGraph(resourcePack);
+        final Set<ResourceReference> roots = new LinkedHashSet<>(this.roots);
+        for (final ResourceReference resource : graph.resources()) {
+            if (isImplicitRoot(resource)) {
+                roots.add(resource);
+            }
+        }
+        final Set<ResourceReference> reachable = graph.reachable(roots);
+
+        OptimizationReport report = remove(resourcePack, reachable);
+        for (final Overlay overlay : resourcePack.overlays()) {
+            report = report.plus(remove(overlay, reachable));
+        }
+        return report;
+    }
+
+    /**
+     * Determines whether the given resource may be used by the game
+     * without a reference, and so it must be kept.
+     */
+    private static boolean isImplicitRoot(final @NotNull ResourceReference resource) {
+        switch (resource.type()) {
+            case BLOCK_STATE:
+            case ATLAS:
+            case SOUND_EVENT:
+                return true;
+            default:
+                return resource.key().namespace().equals(Key.MINECRAFT_NAMESPACE);
+        }
+    }
+
+    private static @NotNull OptimizationReport remove(final @NotNull ResourceContainer container, final @NotNull Set<ResourceReference> reachable) {
+        int removed = 0;
+        long savedBytes = 0;
+
+        for (final Model model : new ArrayList<>(container.models())) {
+            if (!reachable.contains(ResourceReference.model(model.key()))) {
+                container.removeModel(model.key());
+                removed++;
+            }
+        }
+        for (final Texture texture : new ArrayList<>(container.textures())) {
+            if (!reachable.contains(ResourceReference.texture(texture.key()))) {
+                container.removeTexture(texture.key());
+                savedBytes += size(texture.data());
+                removed++;
+            }
+        }
+        for (final Font font : new ArrayList<>(container.fonts())) {
+            if (!reachable.contains(ResourceReference.font(font.key()))) {
+                container.removeFont(font.key());
+                removed++;
+            }
+        }
+        for (final Sound sound : new ArrayList<>(container.sounds())) {
+            if (!reachable.contains(ResourceReference.sound(sound.key()))) {
+                container.removeSound(sound.key());
+                savedBytes += size(sound.data());
+                removed++;
+            }
+        }
+
+        return removed == 0 ? OptimizationReport.empty() : OptimizationReport.report(removed, 0, savedBytes);
+    }
+
+    private static long size(final @NotNull Writable data) {
+        try {
+            return data.toByteArray().length;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to read resource data", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.blockstate.BlockState;
+import team.unnamed.creative.blockstate.MultiVariant;
+import team.unnamed.creative.blockstate.Selector;
+import team.unnamed.creative.blockstate.Variant;
+import team.unnamed.creative.model.ItemOverride;
+import team.unnamed.creative.model.ItemPredicate;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTexture;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.overlay.Overlay;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ModelDeduplicationTest {
+
+    private static Model model(String key, Key parent, String texture) {
+        return Model.model()
+                .key(Key.key(key))
+                .parent(parent)
+                .textures(ModelTextures.builder().layers(ModelTexture.ofKey(Key.key(texture))).build())
+                .build();
+    }
+
+    private static ResourcePack createResourcePack() {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+
+        // a and b are equal, c is different
+        resourcePack.model(model("creative:item/a", Model.ITEM_GENERATED, "creative:item/gem"));
+        resourcePack.model(model("creative:item/b", Model.ITEM_GENERATED, "creative:item/gem"));
+        resourcePack.model(model("creative:item/c", Model.ITEM_GENERATED, "creative:item/ruby"));
+
+        // children of a and b, equal once their parents are merged
+        resourcePack.model(model("creative:item/a_child", Key.key("creative:item/a"), "creative:item/child"));
+        resourcePack.model(model("creative:item/b_child", Key.key("creative:item/b"), "creative:item/child"));
+
+        resourcePack.model(Model.model()
+                .key(Key.key("minecraft:item/stick"))
+                .parent(Model.ITEM_GENERATED)
+                .textures(ModelTextures.builder().layers(ModelTexture.ofKey(Key.key("minecraft:item/stick"))).build())
+                .overrides(
+                        ItemOverride.of(Key.key("creative:item/a"), ItemPredicate.customModelData(1)),
+                        ItemOverride.of(Key.key("creative:item/b_child"), ItemPredicate.customModelData(2)),
+                        ItemOverride.of(Key.key("creative:item/c"), ItemPredicate.customModelData(3))
+                )
+                .build());
+
+        resourcePack.blockState(BlockState.of(
+                Key.key("creative:block"),
+                Collections.singletonMap("", MultiVariant.of(Variant.builder().model(Key.key("creative:item/b")).y(90).build())),
+                Collections.singletonList(Selector.of(MultiVariant.of(Variant.builder().model(Key.key("creative:item/b_child")).build())))
+        ));
+        return resourcePack;
+    }
+
+    @Test
+    @DisplayName("Test that identical models are merged and their references rewritten")
+    void test_deduplicate() {
+        ResourcePack resourcePack = createResourcePack();
+        OptimizationReport report = ResourcePackOptimizer.deduplicateModels().optimize(resourcePack);
+
+        // b and b_child are removed
+        assertEquals(2, report.removedResources());
+        assertNull(resourcePack.model(Key.key("creative:item/b")));
+        assertNull(resourcePack.model(Key.key("creative:item/b_child")));
+        assertNotNull(resourcePack.model(Key.key("creative:item/a")));
+        assertNotNull(resourcePack.model(Key.key("creative:item/a_child")));
+        assertNotNull(resourcePack.model(Key.key("creative:item/c")));
+
+        // b_child (parent), stick (overrides) and the block state
+        assertEquals(3, report.rewrittenResources());
+
+        Model stick = resourcePack.model(Key.key("minecraft:item/stick"));
+        assertNotNull(stick);
+        assertEquals(Key.key("creative:item/a"), stick.overrides().get(0).model());
+        assertEquals(Key.key("creative:item/a_child"), stick.overrides().get(1).model());
+        assertEquals(Key.key("creative:item/c"), stick.overrides().get(2).model());
+        assertEquals(ItemPredicate.customModelData(2), stick.overrides().get(1).predicate().get(0));
+
+        BlockState blockState = resourcePack.blockState(Key.key("creative:block"));
+        assertNotNull(blockState);
+        Variant variant = blockState.variants().get("").variants().get(0);
+        assertEquals(Key.key("creative:item/a"), variant.model());
+        assertEquals(90, variant.y());
+        assertEquals(Key.key("creative:item/a_child"), blockState.multipart().get(0).variant().variants().get(0).model());
+    }
+
+    @Test
+    @DisplayName("Test that retained and overridden models are kept")
+    void test_retained() {
+        ResourcePack resourcePack = createResourcePack();
+        Overlay overlay = Overlay.overlay("overlay");
+        overlay.model(model("creative:item/a", Model.ITEM_GENERATED, "creative:item/other"));
+        resourcePack.overlay(overlay);
+
+        OptimizationReport report = ResourcePackOptimizer.deduplicateModels(key -> key.value().equals("item/b_child"))
+                .optimize(resourcePack);
+
+        // a is overridden, so b is kept, and b_child is retained
+        assertEquals(OptimizationReport.empty(), report);
+        assertNotNull(resourcePack.model(Key.key("creative:item/b")));
+        assertNotNull(resourcePack.model(Key.key("creative:item/b_child")));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.CubeFace;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.creative.blockstate.BlockState;
+import team.unnamed.creative.blockstate.MultiVariant;
+import team.unnamed.creative.blockstate.Variant;
+import team.unnamed.creative.model.Element;
+import team.unnamed.creative.model.ElementFace;
+import team.unnamed.creative.model.ItemTransform;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTexture;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.overlay.Overlay;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelFlatteningTest {
+    private static final Element CUBE = Element.element()
+            .from(0, 0, 0)
+            .to(16, 16, 16)
+            .addFace(CubeFace.NORTH, ElementFace.face().texture("#all").build())
+            .build();
+
+    private static Map<ItemTransform.Type, ItemTransform> display(ItemTransform.Type type, float scale) {
+        Map<ItemTransform.Type, ItemTransform> display = new EnumMap<>(ItemTransform.Type.class);
+        display.put(type, ItemTransform.transform(Vector3Float.ZERO, Vector3Float.ZERO, new Vector3Float(scale, scale, scale)));
+        return display;
+    }
+
+    private static ResourcePack createResourcePack() {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+
+        // base <- middle <- leaf, base extends a vanilla model
+        resourcePack.model(Model.model()
+                .key(Key.key("creative:block/base"))
+                .parent(Key.key("minecraft:block/block"))
+                .ambientOcclusion(false)
+                .display(display(ItemTransform.Type.GUI, 0.5F))
+                .guiLight(Model.GuiLight.SIDE)
+                .elements(CUBE)
+                .textures(ModelTextures.builder()
+                        .particle(ModelTexture.ofReference("all"))
+                        .addVariable("all", ModelTexture.ofKey(Key.key("creative:block/base")))
+                        .addVariable("side", ModelTexture.ofKey(Key.key("creative:block/side")))
+                        .build())
+                .build());
+        resourcePack.model(Model.model()
+                .key(Key.key("creative:block/middle"))
+                .parent(Key.key("creative:block/base"))
+                .display(display(ItemTransform.Type.HEAD, 2F))
+                .textures(ModelTextures.builder()
+                        .addVariable("all", ModelTexture.ofKey(Key.key("creative:block/middle")))
+                        .build())
+                .build());
+        resourcePack.model(Model.model()
+                .key(Key.key("creative:block/leaf"))
+                .parent(Key.key("creative:block/middle"))
+                .display(display(ItemTransform.Type.GUI, 1F))
+                .textures(ModelTextures.builder()
+                        .addVariable("side", ModelTexture.ofKey(Key.key("creative:block/leaf")))
+                        .build())
+                .build());
+        resourcePack.blockState(BlockState.of(Key.key("creative:leaf"), Collections.singletonMap("", MultiVariant.of(
+                Variant.builder().model(Key.key("creative:block/leaf")).build()
+        ))));
+        return resourcePack;
+    }
+
+    @Test
+    @DisplayName("Test that parent chains are inlined with the game inheritance rules")
+    void test_flatten() {
+        ResourcePack resourcePack = createResourcePack();
+        OptimizationReport report = ResourcePackOptimizer.flattenModels().optimize(resourcePack);
+        assertEquals(2, report.rewrittenResources());
+        assertEquals(0, report.removedResources());
+
+        Model leaf = resourcePack.model(Key.key("creative:block/leaf"));
+        assertNotNull(leaf);
+        assertEquals(Key.key("minecraft:block/block"), leaf.parent());
+        assertFalse(leaf.ambientOcclusion());
+        assertEquals(Model.GuiLight.SIDE, leaf.guiLight());
+        assertEquals(Collections.singletonList(CUBE), leaf.elements());
+
+        // child display transforms override the parent ones
+        assertEquals(2, leaf.display().size());
+        assertEquals(new Vector3Float(1F, 1F, 1F), leaf.display().get(ItemTransform.Type.GUI).scale());
+        assertEquals(new Vector3Float(2F, 2F, 2F), leaf.display().get(ItemTransform.Type.HEAD).scale());
+
+        // so do texture variables
+        ModelTextures textures = leaf.textures();
+        assertEquals(ModelTexture.ofReference("all"), textures.particle());
+        assertEquals(ModelTexture.ofKey(Key.key("creative:block/middle")), textures.variables().get("all"));
+        assertEquals(ModelTexture.ofKey(Key.key("creative:block/leaf")), textures.variables().get("side"));
+
+        // parents are kept, and flattened too
+        Model middle = resourcePack.model(Key.key("creative:block/middle"));
+        assertNotNull(middle);
+        assertEquals(Key.key("minecraft:block/block"), middle.parent());
+        assertNotNull(resourcePack.model(Key.key("creative:block/base")));
+    }
+
+    @Test
+    @DisplayName("Test that unreferenced parents are removed")
+    void test_remove_parents() {
+        ResourcePack resourcePack = createResourcePack();
+        OptimizationReport report = ResourcePackOptimizer.flattenModels(key -> false).optimize(resourcePack);
+        assertEquals(2, report.rewrittenResources());
+        assertEquals(2, report.removedResources());
+
+        assertNull(resourcePack.model(Key.key("creative:block/base")));
+        assertNull(resourcePack.model(Key.key("creative:block/middle")));
+        assertNotNull(resourcePack.model(Key.key("creative:block/leaf")));
+    }
+
+    @Test
+    @DisplayName("Test that retained parents are not removed")
+    void test_retained_parents() {
+        ResourcePack resourcePack = createResourcePack();
+        OptimizationReport report = ResourcePackOptimizer.flattenModels(key -> key.value().equals("block/middle"))
+                .optimize(resourcePack);
+        assertEquals(2, report.rewrittenResources());
+        assertEquals(1, report.removedResources());
+
+        assertNull(resourcePack.model(Key.key("creative:block/base")));
+        assertNotNull(resourcePack.model(Key.key("creative:block/middle")));
+    }
+
+    @Test
+    @DisplayName("Test that parents overridden by overlays and cycles are not inlined")
+    void test_boundaries() {
+        ResourcePack resourcePack = createResourcePack();
+        Overlay overlay = Overlay.overlay("overlay");
+        overlay.model(Model.model().key(Key.key("creative:block/middle")).parent(Key.key("creative:block/base")).build());
+        resourcePack.overlay(overlay);
+
+        Model first = Model.model().key(Key.key("creative:item/first")).parent(Key.key("creative:item/second")).build();
+        Model second = Model.model().key(Key.key("creative:item/second")).parent(Key.key("creative:item/first")).build();
+        resourcePack.model(first);
+        resourcePack.model(second);
+
+        OptimizationReport report = ResourcePackOptimizer.flattenModels(key -> false).optimize(resourcePack);
+
+        // only middle is flattened, leaf keeps middle as its parent
+        assertEquals(1, report.rewrittenResources());
+        assertEquals(0, report.removedResources());
+        Model leaf = resourcePack.model(Key.key("creative:block/leaf"));
+        assertNotNull(leaf);
+        assertEquals(Key.key("creative:block/middle"), leaf.parent());
+        assertTrue(leaf.elements().isEmpty());
+
+        assertSame(first, resourcePack.model(Key.key("creative:item/first")));
+        assertSame(second, resourcePack.model(Key.key("creative:item/second")));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.atlas.Atlas;
+import team.unnamed.creative.atlas.AtlasSource;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.font.BitMapFontProvider;
+import team.unnamed.creative.font.Font;
+import team.unnamed.creative.font.FontProvider;
+import team.unnamed.creative.metadata.Metadata;
+import team.unnamed.creative.metadata.animation.AnimationMeta;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTexture;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.overlay.Overlay;
+import team.unnamed.creative.texture.Texture;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TextureDeduplicationTest {
+    private static final Writable RED = Writable.stringUtf8("red pixels");
+    private static final Writable BLUE = Writable.stringUtf8("blue pixels");
+
+    private static Model model(Key key, ModelTexture layer) {
+        return Model.model()
+                .key(key)
+                .parent(Model.ITEM_GENERATED)
+                .textures(ModelTextures.builder().layers(Collections.singletonList(layer)).build())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Test that duplicated textures are removed and their references rewritten")
+    void test_deduplicate() {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.texture(Key.key("creative:item/a.png"), RED);
+        resourcePack.texture(Key.key("creative:item/b.png"), RED);
+        resourcePack.texture(Key.key("creative:item/c.png"), BLUE);
+        resourcePack.texture(Key.key("creative:font/glyphs_0.png"), BLUE);
+        resourcePack.texture(Key.key("creative:font/glyphs_1.png"), BLUE);
+
+        resourcePack.model(model(Key.key("creative:item/b"), ModelTexture.ofKey(Key.key("creative:item/b"))));
+        resourcePack.model(model(Key.key("creative:item/c"), ModelTexture.ofKey(Key.key("creative:item/c"))));
+        resourcePack.font(Font.font(Key.key("creative:glyphs"), Arrays.asList(
+                FontProvider.bitMap(Key.key("creative:font/glyphs_0.png"), 8, 7, Collections.singletonList("a")),
+                FontProvider.bitMap(Key.key("creative:font/glyphs_1.png"), 8, 7, Collections.singletonList("b"))
+        )));
+        resourcePack.atlas(Atlas.atlas(Atlas.BLOCKS, Arrays.asList(
+                AtlasSource.single(Key.key("creative:item/a")),
+                AtlasSource.single(Key.key("creative:item/b")),
+                AtlasSource.single(Key.key("creative:item/c"))
+        )));
+
+        OptimizationReport report = ResourcePackOptimizer.deduplicateTextures().optimize(resourcePack);
+
+        assertEquals(2, report.removedResources());
+        assertEquals(3, report.rewrittenResources());
+        assertEquals(3, resourcePack.textures().size());
+        assertNull(resourcePack.texture(Key.key("creative:item/b.png")));
+        assertNull(resourcePack.texture(Key.key("creative:font/glyphs_1.png")));
+
+        assertEquals(
+                ModelTexture.ofKey(Key.key("creative:item/a")),
+                resourcePack.model(Key.key("creative:item/b")).textures().layers().get(0)
+        );
+        assertEquals(
+                ModelTexture.ofKey(Key.key("creative:item/c")),
+                resourcePack.model(Key.key("creative:item/c")).textures().layers().get(0)
+        );
+        Font font = resourcePack.font(Key.key("creative:glyphs"));
+        assertNotNull(font);
+        assertEquals(Key.key("creative:font/glyphs_0.png"), ((BitMapFontProvider) font.providers().get(1)).file());
+        assertEquals(
+                Arrays.asList(AtlasSource.single(Key.key("creative:item/a")), AtlasSource.single(Key.key("creative:item/c"))),
+                resourcePack.atlas(Atlas.BLOCKS).sources()
+        );
+
+        // nothing else to deduplicate
+        assertEquals(OptimizationReport.empty(), ResourcePackOptimizer.deduplicateTextures().optimize(resourcePack));
+    }
+
+    @Test
+    @DisplayName("Test the saved bytes of a texture deduplication")
+    void test_saved_bytes() throws Exception {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.texture(Key.key("creative:item/a.png"), RED);
+        resourcePack.texture(Key.key("creative:item/b.png"), RED);
+        resourcePack.texture(Key.key("creative:item/c.png"), RED);
+
+        OptimizationReport report = ResourcePackOptimizer.deduplicateTextures().optimize(resourcePack);
+        assertEquals(OptimizationReport.report(2, 0, 2L * RED.toByteArray().length), report);
+        assertNotNull(resourcePack.texture(Key.key("creative:item/a.png")));
+    }
+
+    @Test
+    @DisplayName("Test that textures with different metadata, directories or overridden by overlays are kept")
+    void test_keep() {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.texture(Key.key("creative:item/a.png"), RED);
+        resourcePack.texture(Texture.texture(
+                Key.key("creative:item/animated.png"),
+                RED,
+                Metadata.metadata().addPart(AnimationMeta.builder().frameTime(2).build()).build()
+        ));
+        resourcePack.texture(Key.key("creative:block/a.png"), RED);
+        resourcePack.texture(Key.key("creative:item/overridden.png"), RED);
+
+        Overlay overlay = Overlay.overlay("overlay");
+        overlay.texture(Key.key("creative:item/overridden.png"), BLUE);
+        resourcePack.overlay(overlay);
+
+        assertEquals(OptimizationReport.empty(), ResourcePackOptimizer.deduplicateTextures().optimize(resourcePack));
+        assertEquals(4, resourcePack.textures().size());
+    }
+
+    @Test
+    @DisplayName("Test that retained textures are kept and preferred as the canonical texture")
+    void test_retained() {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.texture(Key.key("minecraft:item/diamond.png"), RED);
+        resourcePack.texture(Key.key("minecraft:item/emerald.png"), RED);
+        resourcePack.texture(Key.key("creative:item/a.png"), RED);
+        resourcePack.model(model(Key.key("creative:item/a"), ModelTexture.ofKey(Key.key("creative:item/a"))));
+
+        OptimizationReport report = ResourcePackOptimizer.deduplicateTextures().optimize(resourcePack);
+
+        assertEquals(1, report.removedResources());
+        assertNotNull(resourcePack.texture(Key.key("minecraft:item/diamond.png")));
+        assertNotNull(resourcePack.texture(Key.key("minecraft:item/emerald.png")));
+        assertNull(resourcePack.texture(Key.key("creative:item/a.png")));
+        assertEquals(
+                ModelTexture.ofKey(Key.key("minecraft:item/diamond")),
+                resourcePack.model(Key.key("creative:item/a")).textures().layers().get(0)
+        );
+
+        // with a custom predicate, nothing is retained
+        resourcePack.texture(Key.key("creative:item/a.png"), RED);
+        ResourcePackOptimizer.deduplicateTextures(key -> false).optimize(resourcePack);
+        assertEquals(1, resourcePack.textures().size());
+        assertNotNull(resourcePack.texture(Key.key("creative:item/a.png")));
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.optimize;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.atlas.Atlas;
+import team.unnamed.creative.atlas.AtlasSource;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.blockstate.BlockState;
+import team.unnamed.creative.blockstate.MultiVariant;
+import team.unnamed.creative.blockstate.Variant;
+import team.unnamed.creative.font.Font;
+import team.unnamed.creative.font.FontProvider;
+import team.unnamed.creative.model.ItemOverride;
+import team.unnamed.creative.model.ItemPredicate;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTexture;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.overlay.Overlay;
+import team.unnamed.creative.sound.Sound;
+import team.unnamed.creative.sound.SoundEntry;
+import team.unnamed.creative.sound.SoundEvent;
+import team.unnamed.creative.sound.SoundRegistry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnreachableResourceRemovalTest {
+    private static final Writable DATA = Writable.stringUtf8("data");
+
+    private static Model model(String key, String texture, ItemOverride... overrides) {
+        return Model.model()
+                .key(Key.key(key))
+                .parent(Model.ITEM_GENERATED)
+                .textures(ModelTextures.builder().layers(Collections.singletonList(ModelTexture.ofKey(Key.key(texture)))).build())
+                .overrides(Arrays.asList(overrides))
+                .build();
+    }
+
+    private static ResourcePack createResourcePack() {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+
+        // models and textures, reachable through the vanilla stick model
+        resourcePack.model(model("minecraft:item/stick", "minecraft:item/stick", ItemOverride.of(Key.key("creative:item/sword"), ItemPredicate.customModelData(1))));
+        resourcePack.model(model("creative:item/sword", "creative:item/sword"));
+        resourcePack.texture(Key.key("creative:item/sword.png"), DATA);
+        resourcePack.model(model("creative:item/root", "creative:item/root"));
+        resourcePack.texture(Key.key("creative:item/root.png"), DATA);
+        resourcePack.model(model("creative:item/unused", "creative:item/unused"));
+        resourcePack.texture(Key.key("creative:item/unused.png"), DATA);
+        resourcePack.texture(Key.key("creative:item/orphan.png"), DATA);
+
+        // block states and atlases are always kept
+        resourcePack.blockState(BlockState.of(Key.key("creative:block"), Collections.singletonMap("", MultiVariant.of(
+                Variant.builder().model(Key.key("creative:block/block")).build()
+        ))));
+        resourcePack.model(model("creative:block/block", "creative:block/block"));
+        resourcePack.texture(Key.key("creative:block/block.png"), DATA);
+        resourcePack.texture(Key.key("creative:block/atlas.png"), DATA);
+        resourcePack.atlas(Atlas.atlas(Atlas.BLOCKS, Collections.singletonList(AtlasSource.single(Key.key("creative:block/atlas")))));
+
+        // fonts
+        resourcePack.font(Font.font(Font.MINECRAFT_DEFAULT, Collections.singletonList(FontProvider.reference(Key.key("creative:included")))));
+        resourcePack.font(Font.font(Key.key("creative:included"), Collections.singletonList(
+                FontProvider.bitMap(Key.key("creative:font/included.png"), 8, 7, Collections.singletonList("a"))
+        )));
+        resourcePack.texture(Key.key("creative:font/included.png"), DATA);
+        resourcePack.font(Font.font(Key.key("creative:chat"), Collections.singletonList(
+                FontProvider.bitMap(Key.key("creative:font/chat.png"), 8, 7, Collections.singletonList("b"))
+        )));
+        resourcePack.texture(Key.key("creative:font/chat.png"), DATA);
+        resourcePack.font(Font.font(Key.key("creative:unused"), Collections.singletonList(
+                FontProvider.bitMap(Key.key("creative:font/unused.png"), 8, 7, Collections.singletonList("c"))
+        )));
+        resourcePack.texture(Key.key("creative:font/unused.png"), DATA);
+
+        // sounds
+        resourcePack.sound(Sound.sound(Key.key("creative:sfx/used"), DATA));
+        resourcePack.sound(Sound.sound(Key.key("creative:sfx/unused"), DATA));
+        resourcePack.soundRegistry(SoundRegistry.soundRegistry("creative", Collections.singletonList(
+                SoundEvent.soundEvent()
+                        .key(Key.key("creative:event"))
+                        .sounds(SoundEntry.soundEntry().type(SoundEntry.Type.FILE).key(Key.key("creative:sfx/used")).build())
+                        .build()
+        )));
+
+        // an overlay with its own unused model
+        Overlay overlay = Overlay.overlay("overlay");
+        overlay.model(model("creative:item/unused", "creative:item/sword"));
+        overlay.model(model("creative:item/sword", "creative:item/sword_overlay"));
+        overlay.texture(Key.key("creative:item/sword_overlay.png"), DATA);
+        resourcePack.overlay(overlay);
+        return resourcePack;
+    }
+
+    @Test
+    @DisplayName("Test the references of a resource-pack reference graph")
+    void test_graph() {
+        ReferenceGraph graph = ReferenceGraph.referenceGraph(createResourcePack());
+
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        ResourceReference.model(Model.ITEM_GENERATED),
+                        ResourceReference.texture(Key.key("minecraft:item/stick.png")),
+                        ResourceReference.model(Key.key("creative:item/sword"))
+                )),
+                graph.references(ResourceReference.model(Key.key("minecraft:item/stick")))
+        );
+        // union of the root and overlay references
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        ResourceReference.model(Model.ITEM_GENERATED),
+                        ResourceReference.texture(Key.key("creative:item/sword.png")),
+                        ResourceReference.texture(Key.key("creative:item/sword_overlay.png"))
+                )),
+                graph.references(ResourceReference.model(Key.key("creative:item/sword")))
+        );
+        assertEquals(
+                Collections.singleton(ResourceReference.model(Key.key("creative:block/block"))),
+                graph.references(ResourceReference.reference(ResourceReference.Type.BLOCK_STATE, Key.key("creative:block")))
+        );
+        assertEquals(
+                Collections.singleton(ResourceReference.sound(Key.key("creative:sfx/used"))),
+                graph.references(ResourceReference.reference(ResourceReference.Type.SOUND_EVENT, Key.key("creative:event")))
+        );
+        assertTrue(graph.references(ResourceReference.texture(Key.key("creative:item/orphan.png"))).isEmpty());
+        assertTrue(graph.resources().contains(ResourceReference.texture(Key.key("creative:item/orphan.png"))));
+
+        Set<ResourceReference> reachable = graph.reachable(Collections.singleton(ResourceReference.model(Key.key("minecraft:item/stick"))));
+        assertTrue(reachable.contains(ResourceReference.texture(Key.key("creative:item/sword_overlay.png"))));
+        assertEquals(6, reachable.size());
+    }
+
+    @Test
+    @DisplayName("Test that unreachable resources are removed")
+    void test_remove() {
+        ResourcePack resourcePack = createResourcePack();
+        OptimizationReport report = ResourcePackOptimizer.removeUnreachable(Arrays.asList(
+                ResourceReference.model(Key.key("creative:item/root")),
+                ResourceReference.font(Key.key("creative:chat"))
+        )).optimize(resourcePack);
+
+        // unused model (twice), unused textures (3), unused font, unused sound
+        assertEquals(OptimizationReport.report(7, 0, 4L * "data".length()), report);
+
+        assertNull(resourcePack.model(Key.key("creative:item/unused")));
+        assertNull(resourcePack.overlay("overlay").model(Key.key("creative:item/unused")));
+        assertNull(resourcePack.texture(Key.key("creative:item/unused.png")));
+        assertNull(resourcePack.texture(Key.key("creative:item/orphan.png")));
+        assertNull(resourcePack.font(Key.key("creative:unused")));
+        assertNull(resourcePack.texture(Key.key("creative:font/unused.png")));
+        assertNull(resourcePack.sound(Key.key("creative:sfx/unused")));
+
+        assertNotNull(resourcePack.model(Key.key("minecraft:item/stick")));
+        assertNotNull(resourcePack.model(Key.key("creative:item/sword")));
+        assertNotNull(resourcePack.texture(Key.key("creative:item/sword.png")));
+        assertNotNull(resourcePack.overlay("overlay").texture(Key.key("creative:item/sword_overlay.png")));
+        assertNotNull(resourcePack.model(Key.key("creative:item/root")));
+        assertNotNull(resourcePack.texture(Key.key("creative:item/root.png")));
+        assertNotNull(resourcePack.model(Key.key("creative:block/block")));
+        assertNotNull(resourcePack.texture(Key.key("creative:block/block.png")));
+        assertNotNull(resourcePack.texture(Key.key("creative:block/atlas.png")));
+        assertNotNull(resourcePack.font(Key.key("creative:included")));
+        assertNotNull(resourcePack.texture(Key.key("creative:font/included.png")));
+        assertNotNull(resourcePack.font(Key.key("creative:chat")));
+        assertNotNull(resourcePack.texture(Key.key("creative:font/chat.png")));
+        assertNotNull(resourcePack.sound(Key.key("creative:sfx/used")));
+
+        // everything left is reachable
+        assertEquals(OptimizationReport.empty(), ResourcePackOptimizer.removeUnreachable(Arrays.asList(
+                ResourceReference.model(Key.key("creative:item/root")),
+                ResourceReference.font(Key.key("creative:chat"))
+        )).optimize(resourcePack));
+    }
+
+    @Test
+    @DisplayName("Test that textures loaded by directory atlas sources are kept")
+    void test_directory_atlas_source() {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.atlas(Atlas.atlas(Atlas.PARTICLES, Collections.singletonList(AtlasSource.directory("particle", "particle/"))));
+        resourcePack.texture(Key.key("minecraft:particle/spark.png"), DATA);
+        resourcePack.texture(Key.key("creative:particle/nested/glow.png"), DATA);
+        resourcePack.texture(Key.key("creative:particle_other/unused.png"), DATA);
+        resourcePack.texture(Key.key("creative:item/unused.png"), DATA);
+        Overlay overlay = Overlay.overlay("overlay");
+        overlay.texture(Key.key("creative:particle/overlay.png"), DATA);
+        resourcePack.overlay(overlay);
+
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        ResourceReference.texture(Key.key("minecraft:particle/spark.png")),
+                        ResourceReference.texture(Key.key("creative:particle/nested/glow.png")),
+                        ResourceReference.texture(Key.key("creative:particle/overlay.png"))
+                )),
+                ReferenceGraph.referenceGraph(resourcePack).references(ResourceReference.reference(ResourceReference.Type.ATLAS, Atlas.PARTICLES))
+        );
+
+        OptimizationReport report = ResourcePackOptimizer.removeUnreachable(Collections.emptyList()).optimize(resourcePack);
+        assertEquals(OptimizationReport.report(2, 0, 2L * "data".length()), report);
+
+        assertNotNull(resourcePack.texture(Key.key("minecraft:particle/spark.png")));
+        assertNotNull(resourcePack.texture(Key.key("creative:particle/nested/glow.png")));
+        assertNotNull(resourcePack.overlay("overlay").texture(Key.key("creative:particle/overlay.png")));
+        assertNull(resourcePack.texture(Key.key("creative:particle_other/unused.png")));
+        assertNull(resourcePack.texture(Key.key("creative:item/unused.png")));
+    }
+}
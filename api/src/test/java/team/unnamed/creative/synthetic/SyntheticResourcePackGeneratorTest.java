@@ -0,0 +1,141 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.synthetic;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.font.Font;
+import team.unnamed.creative.metadata.Metadata;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.resources.MergeStrategy;
+import team.unnamed.creative.texture.Texture;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyntheticResourcePackGeneratorTest {
+    private static final SyntheticResourcePackGenerator GENERATOR = SyntheticResourcePackGenerator.builder()
+            .seed(42L)
+            .models(95)
+            .overrideFanOut(10)
+            .textures(50)
+            .textureSize(32)
+            .blockStates(20)
+            .fontGlyphs(300)
+            .soundEvents(5)
+            .translations(30)
+            .overlays(2)
+            .build();
+
+    @Test
+    void test_shape() throws IOException {
+        final ResourcePack resourcePack = GENERATOR.generate();
+
+        // 95 models and 10 base items, the last with 5 overrides
+        assertEquals(105, resourcePack.models().size());
+        final Model lastBase = resourcePack.model(Key.key("synthetic", "item/base_9"));
+        assertNotNull(lastBase);
+        assertEquals(5, lastBase.overrides().size());
+
+        // 50 textures and two font textures (256 + 44 glyphs)
+        assertEquals(52, resourcePack.textures().size());
+        final Font font = resourcePack.font(Font.MINECRAFT_DEFAULT);
+        assertNotNull(font);
+        assertEquals(2, font.providers().size());
+
+        assertEquals(20, resourcePack.blockStates().size());
+        assertEquals(5, resourcePack.sounds().size());
+        assertEquals(30, resourcePack.language(Key.key("en_us")).translations().size());
+        assertEquals(2, resourcePack.overlays().size());
+
+        final Texture texture = resourcePack.texture(Key.key("synthetic", "item/texture_0.png"));
+        assertNotNull(texture);
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(texture.data().toByteArray()));
+        assertNotNull(image, "Generated texture is not a valid PNG");
+        assertEquals(32, image.getWidth());
+        assertEquals(32, image.getHeight());
+        assertTrue(image.getColorModel() instanceof IndexColorModel, "Generated texture is not an indexed-color PNG");
+    }
+
+    @Test
+    void test_deterministic() throws IOException {
+        final ResourcePack first = GENERATOR.generate();
+        final ResourcePack second = GENERATOR.generate();
+
+        assertEquals(new ArrayList<>(first.models()), new ArrayList<>(second.models()));
+        // block state variants don't implement equals
+        assertEquals(first.blockStates().toString(), second.blockStates().toString());
+        assertEquals(new ArrayList<>(first.fonts()), new ArrayList<>(second.fonts()));
+        assertEquals(new ArrayList<>(first.languages()), new ArrayList<>(second.languages()));
+
+        final Iterator<Texture> secondTextures = second.textures().iterator();
+        for (final Texture texture : first.textures()) {
+            final Texture other = secondTextures.next();
+            assertEquals(texture.key(), other.key());
+            assertArrayEquals(texture.data().toByteArray(), other.data().toByteArray());
+        }
+
+        final ResourcePack otherSeed = SyntheticResourcePackGenerator.builder()
+                .seed(43L)
+                .models(95)
+                .textures(50)
+                .build()
+                .generate();
+        assertNotEquals(new ArrayList<>(first.models()), new ArrayList<>(otherSeed.models()));
+    }
+
+    @Test
+    void test_merge_namespaces() {
+        final ResourcePack first = SyntheticResourcePackGenerator.builder()
+                .namespace("first")
+                .size(100)
+                .build()
+                .generate();
+        final ResourcePack second = SyntheticResourcePackGenerator.builder()
+                .namespace("second")
+                .size(100)
+                .build()
+                .generate();
+
+        // pack metadata can't be merged
+        second.metadata(Metadata.empty());
+        first.merge(second, MergeStrategy.mergeAndFailOnError());
+
+        assertEquals(220, first.models().size());
+        assertEquals(20, first.language(Key.key("en_us")).translations().size());
+        assertEquals(2, first.font(Font.MINECRAFT_DEFAULT).providers().size());
+    }
+}
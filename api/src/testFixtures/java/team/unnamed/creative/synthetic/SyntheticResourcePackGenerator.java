@@ -0,0 +1,622 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.synthetic;
+
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.atlas.Atlas;
+import team.unnamed.creative.atlas.AtlasSource;
+import team.unnamed.creative.base.CubeFace;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.blockstate.BlockState;
+import team.unnamed.creative.blockstate.MultiVariant;
+import team.unnamed.creative.blockstate.Variant;
+import team.unnamed.creative.font.Font;
+import team.unnamed.creative.font.FontProvider;
+import team.unnamed.creative.lang.Language;
+import team.unnamed.creative.metadata.overlays.OverlayEntry;
+import team.unnamed.creative.metadata.overlays.OverlaysMeta;
+import team.unnamed.creative.metadata.pack.PackFormat;
+import team.unnamed.creative.model.Element;
+import team.unnamed.creative.model.ElementFace;
+import team.unnamed.creative.model.ItemOverride;
+import team.unnamed.creative.model.ItemPredicate;
+import team.unnamed.creative.model.ItemTransform;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTexture;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.overlay.Overlay;
+import team.unnamed.creative.sound.Sound;
+import team.unnamed.creative.sound.SoundEntry;
+import team.unnamed.creative.sound.SoundEvent;
+import team.unnamed.creative.sound.SoundRegistry;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Generates large, realistic {@link ResourcePack resource-packs} of a
+ * configurable shape, used to measure how the readers, writers and
+ * merging scale with the pack size.
+ *
+ * <p>Generation is deterministic: the same generator (same seed and
+ * shape) always generates equal resource-packs.</p>
+ *
+ * <p>Generated resources use the configured namespace, except for the
+ * ones that resource-packs usually share: the {@code minecraft:blocks}
+ * atlas, the {@code minecraft:default} font and the {@code minecraft:en_us}
+ * language, so that packs generated with different namespaces can be
+ * merged.</p>
+ */
+public final class SyntheticResourcePackGenerator {
+    private static final int PACK_FORMAT = 15;
+    private static final int GLYPHS_PER_ROW = 16;
+    private static final int GLYPHS_PER_PROVIDER = GLYPHS_PER_ROW * GLYPHS_PER_ROW;
+    // private use area, U+E000 to U+F8FF
+    private static final char FIRST_GLYPH = '\uE000';
+    private static final int MAX_GLYPHS = 0xF8FF - FIRST_GLYPH + 1;
+    private static final int PALETTE_SIZE = 16;
+    private static final int SOUND_SIZE = 2048;
+    private static final String[] WORDS = {
+            "creative", "resource", "pack", "model", "texture", "sound",
+            "font", "glyph", "block", "item", "overlay", "atlas"
+    };
+
+    private final long seed;
+    private final String namespace;
+    private final int models;
+    private final int overrideFanOut;
+    private final int textures;
+    private final int textureSize;
+    private final int blockStates;
+    private final int fontGlyphs;
+    private final int soundEvents;
+    private final int translations;
+    private final int overlays;
+
+    private SyntheticResourcePackGenerator(final @NotNull Builder builder) {
+        this.seed = builder.seed;
+        this.namespace = builder.namespace;
+        this.models = builder.models;
+        this.overrideFanOut = builder.overrideFanOut;
+        this.textures = builder.textures;
+        this.textureSize = builder.textureSize;
+        this.blockStates = builder.blockStates;
+        this.fontGlyphs = builder.fontGlyphs;
+        this.soundEvents = builder.soundEvents;
+        this.translations = builder.translations;
+        this.overlays = builder.overlays;
+    }
+
+    /**
+     * Creates a new generator builder, with the default shape: a
+     * thousand models, textures and block states, and a hundred font
+     * glyphs, sound events and translations, without overlays.
+     *
+     * @return The created builder
+     */
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Generates a new resource-pack.
+     *
+     * @return The generated resource-pack
+     */
+    public @NotNull ResourcePack generate() {
+        final Random random = new Random(seed);
+        final ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(PACK_FORMAT, "Synthetic resource-pack (" + namespace + ")");
+
+        // textures
+        final List<Key> textureKeys = new ArrayList<>(textures);
+        final List<AtlasSource> sources = new ArrayList<>(textures);
+        for (int i = 0; i < textures; i++) {
+            final Key key = key("item/texture_" + i);
+            textureKeys.add(key);
+            sources.add(AtlasSource.single(key));
+            resourcePack.texture(Texture.texture(png(key), Writable.bytes(image(random, textureSize))));
+        }
+        if (!sources.isEmpty()) {
+            resourcePack.atlas(Atlas.atlas(Atlas.BLOCKS, sources));
+        }
+
+        // models, half of them are flat items, the other half cubes
+        final List<Key> modelKeys = new ArrayList<>(models);
+        for (int i = 0; i < models; i++) {
+            final Key key = key("item/model_" + i);
+            modelKeys.add(key);
+            resourcePack.model(model(random, key, textureKeys, i % 2 == 0));
+        }
+
+        // base items, with overrides pointing to the models
+        if (overrideFanOut > 0) {
+            for (int base = 0; base * overrideFanOut < models; base++) {
+                final List<ItemOverride> overrides = new ArrayList<>(overrideFanOut);
+                for (int i = 0; i < overrideFanOut && base * overrideFanOut + i < models; i++) {
+                    overrides.add(ItemOverride.of(
+                            modelKeys.get(base * overrideFanOut + i),
+                            ItemPredicate.customModelData(i + 1)
+                    ));
+                }
+                resourcePack.model(Model.model()
+                        .key(key("item/base_" + base))
+                        .parent(Model.ITEM_GENERATED)
+                        .textures(layer(textureKeys, random))
+                        .overrides(overrides)
+                        .build());
+            }
+        }
+
+        // block states
+        for (int i = 0; i < blockStates; i++) {
+            final Map<String, MultiVariant> variants = new LinkedHashMap<>();
+            for (final String facing : new String[] { "north", "east", "south", "west" }) {
+                variants.put("facing=" + facing, MultiVariant.of(Variant.builder()
+                        .model(modelKeys.isEmpty() ? Key.key("block/stone") : modelKeys.get(random.nextInt(modelKeys.size())))
+                        .y(facingRotation(facing))
+                        .build()));
+            }
+            resourcePack.blockState(BlockState.of(key("block_" + i), variants));
+        }
+
+        // font glyphs, in bitmap providers of up to 16 rows of 16 glyphs
+        if (fontGlyphs > 0) {
+            final List<FontProvider> providers = new ArrayList<>();
+            for (int start = 0, index = 0; start < fontGlyphs; start += GLYPHS_PER_PROVIDER, index++) {
+                final int count = Math.min(GLYPHS_PER_PROVIDER, fontGlyphs - start);
+                final List<String> rows = new ArrayList<>();
+                for (int row = 0; row * GLYPHS_PER_ROW < count; row++) {
+                    final StringBuilder characters = new StringBuilder(GLYPHS_PER_ROW);
+                    for (int column = 0; column < GLYPHS_PER_ROW; column++) {
+                        final int glyph = start + row * GLYPHS_PER_ROW + column;
+                        // rows must have the same length, unused glyphs are blank
+                        characters.append(glyph < fontGlyphs ? (char) (FIRST_GLYPH + glyph) : '\0');
+                    }
+                    rows.add(characters.toString());
+                }
+                final Key file = key("font/glyphs_" + index);
+                resourcePack.texture(Texture.texture(png(file), Writable.bytes(image(random, GLYPHS_PER_ROW * 8))));
+                providers.add(FontProvider.bitMap(png(file), 8, 7, rows));
+            }
+            resourcePack.font(Font.font(Font.MINECRAFT_DEFAULT, providers));
+        }
+
+        // sound events, each with its own sound file
+        if (soundEvents > 0) {
+            final List<SoundEvent> events = new ArrayList<>(soundEvents);
+            for (int i = 0; i < soundEvents; i++) {
+                final Sound sound = Sound.sound(key("event_" + i), Writable.bytes(ogg(random)));
+                resourcePack.sound(sound);
+                events.add(SoundEvent.soundEvent()
+                        .key(key("event_" + i))
+                        .subtitle("subtitles." + namespace + ".event_" + i)
+                        .sounds(SoundEntry.soundEntry(sound))
+                        .build());
+            }
+            resourcePack.soundRegistry(SoundRegistry.soundRegistry(namespace, events));
+        }
+
+        // translations
+        if (translations > 0) {
+            final Map<String, String> entries = new LinkedHashMap<>();
+            for (int i = 0; i < translations; i++) {
+                entries.put(namespace + ".translation_" + i, sentence(random));
+            }
+            resourcePack.language(Language.language(Key.key("en_us"), entries));
+        }
+
+        // overlays, each one replacing a tenth of the models
+        final List<OverlayEntry> overlayEntries = new ArrayList<>(overlays);
+        for (int i = 0; i < overlays; i++) {
+            final String directory = namespace + "_overlay_" + i;
+            final Overlay overlay = Overlay.overlay(directory);
+            for (int j = i % 10; j < models; j += 10) {
+                overlay.model(model(random, modelKeys.get(j), textureKeys, j % 2 != 0));
+            }
+            resourcePack.overlay(overlay);
+            overlayEntries.add(OverlayEntry.of(PackFormat.format(PACK_FORMAT + 1 + i), directory));
+        }
+        if (!overlayEntries.isEmpty()) {
+            resourcePack.overlaysMeta(OverlaysMeta.of(overlayEntries));
+        }
+        return resourcePack;
+    }
+
+    private @NotNull Key key(final @NotNull String value) {
+        return Key.key(namespace, value);
+    }
+
+    private static @NotNull Key png(final @NotNull Key key) {
+        return Key.key(key.namespace(), key.value() + ".png");
+    }
+
+    private static int facingRotation(final @NotNull String facing) {
+        switch (facing) {
+            case "east":
+                return 90;
+            case "south":
+                return 180;
+            case "west":
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    private static @NotNull ModelTextures layer(final @NotNull List<Key> textureKeys, final @NotNull Random random) {
+        if (textureKeys.isEmpty()) {
+            return ModelTextures.builder().build();
+        }
+        return ModelTextures.builder()
+                .layers(ModelTexture.ofKey(textureKeys.get(random.nextInt(textureKeys.size()))))
+                .build();
+    }
+
+    private static @NotNull Model model(final @NotNull Random random, final @NotNull Key key, final @NotNull List<Key> textureKeys, final boolean flat) {
+        if (flat) {
+            return Model.model()
+                    .key(key)
+                    .parent(Model.ITEM_GENERATED)
+                    .textures(layer(textureKeys, random))
+                    .build();
+        }
+
+        final Map<String, ModelTexture> variables = new LinkedHashMap<>();
+        if (!textureKeys.isEmpty()) {
+            variables.put("0", ModelTexture.ofKey(textureKeys.get(random.nextInt(textureKeys.size()))));
+            variables.put("particle", ModelTexture.ofReference("0"));
+        }
+
+        final int elementCount = 1 + random.nextInt(4);
+        final List<Element> elements = new ArrayList<>(elementCount);
+        for (int i = 0; i < elementCount; i++) {
+            final float x = random.nextInt(8);
+            final float y = random.nextInt(8);
+            final float z = random.nextInt(8);
+            final Element.Builder element = Element.element()
+                    .from(x, y, z)
+                    .to(x + 1 + random.nextInt(8), y + 1 + random.nextInt(8), z + 1 + random.nextInt(8));
+            for (final CubeFace face : CubeFace.values()) {
+                element.addFace(face, ElementFace.face()
+                        .texture("#0")
+                        .tintIndex(random.nextInt(2) - 1)
+                        .build());
+            }
+            elements.add(element.build());
+        }
+
+        final Map<ItemTransform.Type, ItemTransform> display = new EnumMap<>(ItemTransform.Type.class);
+        display.put(ItemTransform.Type.GUI, ItemTransform.transform(
+                new Vector3Float(30, 225, 0),
+                new Vector3Float(0, 0, 0),
+                new Vector3Float(0.625F, 0.625F, 0.625F)
+        ));
+        display.put(ItemTransform.Type.GROUND, ItemTransform.transform(
+                new Vector3Float(0, 0, 0),
+                new Vector3Float(0, 3, 0),
+                new Vector3Float(0.25F, 0.25F, 0.25F)
+        ));
+
+        return Model.model()
+                .key(key)
+                .textures(ModelTextures.builder().variables(variables).build())
+                .elements(elements)
+                .display(display)
+                .build();
+    }
+
+    private static @NotNull String sentence(final @NotNull Random random) {
+        final int words = 2 + random.nextInt(6);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static byte @NotNull [] ogg(final @NotNull Random random) {
+        // not a valid Ogg stream, just its capture pattern and
+        // random (incompressible, like real audio) data
+        final byte[] data = new byte[SOUND_SIZE];
+        random.nextBytes(data);
+        data[0] = 'O';
+        data[1] = 'g';
+        data[2] = 'g';
+        data[3] = 'S';
+        return data;
+    }
+
+    /**
+     * Generates a valid, square, 8-bit indexed-color PNG image, using
+     * a small random palette, like most textures.
+     */
+    private static byte @NotNull [] image(final @NotNull Random random, final int size) {
+        // opaque RGB entries, no tRNS chunk needed
+        final byte[] palette = new byte[PALETTE_SIZE * 3];
+        random.nextBytes(palette);
+
+        // each row starts with its filter type (0, none), followed
+        // by one palette index per pixel
+        final byte[] raw = new byte[size * (size + 1)];
+        int index = 0;
+        for (int y = 0; y < size; y++) {
+            raw[index++] = 0;
+            for (int x = 0; x < size; x++) {
+                raw[index++] = (byte) random.nextInt(PALETTE_SIZE);
+            }
+        }
+
+        try {
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed)) {
+                deflater.write(raw);
+            }
+
+            final ByteArrayOutputStream png = new ByteArrayOutputStream();
+            final DataOutputStream output = new DataOutputStream(png);
+            output.write(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' });
+
+            final ByteArrayOutputStream header = new ByteArrayOutputStream();
+            final DataOutputStream headerOutput = new DataOutputStream(header);
+            headerOutput.writeInt(size); // width
+            headerOutput.writeInt(size); // height
+            headerOutput.writeByte(8); // bit depth
+            headerOutput.writeByte(3); // color type, indexed
+            headerOutput.writeByte(0); // compression method
+            headerOutput.writeByte(0); // filter method
+            headerOutput.writeByte(0); // interlace method
+
+            chunk(output, "IHDR", header.toByteArray());
+            chunk(output, "PLTE", palette);
+            chunk(output, "IDAT", compressed.toByteArray());
+            chunk(output, "IEND", new byte[0]);
+            return png.toByteArray();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void chunk(final @NotNull DataOutputStream output, final @NotNull String type, final byte @NotNull [] data) throws IOException {
+        final byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        final CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        output.writeInt(data.length);
+        output.write(typeBytes);
+        output.write(data);
+        output.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Builder for {@link SyntheticResourcePackGenerator} instances.
+     */
+    public static final class Builder {
+        private long seed;
+        private String namespace = "synthetic";
+        private int models = 1000;
+        private int overrideFanOut = 10;
+        private int textures = 1000;
+        private int textureSize = 16;
+        private int blockStates = 1000;
+        private int fontGlyphs = 100;
+        private int soundEvents = 100;
+        private int translations = 100;
+        private int overlays;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the seed of the random generator, zero by default.
+         *
+         * @param seed The seed
+         * @return This builder
+         */
+        public @NotNull Builder seed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Sets the namespace of the generated resources,
+         * {@code synthetic} by default.
+         *
+         * @param namespace The namespace
+         * @return This builder
+         */
+        public @NotNull Builder namespace(final @NotNull String namespace) {
+            this.namespace = requireNonNull(namespace, "namespace");
+            return this;
+        }
+
+        /**
+         * Sets the number of generated models, not including the
+         * base item models holding the overrides.
+         *
+         * @param models The number of models
+         * @return This builder
+         */
+        public @NotNull Builder models(final int models) {
+            this.models = nonNegative(models, "models");
+            return this;
+        }
+
+        /**
+         * Sets the number of overrides per base item model, every
+         * generated model is the target of a single override. Zero
+         * to not generate base item models.
+         *
+         * @param overrideFanOut The number of overrides per base item
+         * @return This builder
+         */
+        public @NotNull Builder overrideFanOut(final int overrideFanOut) {
+            this.overrideFanOut = nonNegative(overrideFanOut, "overrideFanOut");
+            return this;
+        }
+
+        /**
+         * Sets the number of generated textures, not including the
+         * font textures.
+         *
+         * @param textures The number of textures
+         * @return This builder
+         */
+        public @NotNull Builder textures(final int textures) {
+            this.textures = nonNegative(textures, "textures");
+            return this;
+        }
+
+        /**
+         * Sets the width and height of the generated textures,
+         * in pixels, 16 by default.
+         *
+         * @param textureSize The texture size
+         * @return This builder
+         */
+        public @NotNull Builder textureSize(final int textureSize) {
+            if (textureSize < 1) {
+                throw new IllegalArgumentException("textureSize must be positive, got " + textureSize);
+            }
+            this.textureSize = textureSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of generated block states.
+         *
+         * @param blockStates The number of block states
+         * @return This builder
+         */
+        public @NotNull Builder blockStates(final int blockStates) {
+            this.blockStates = nonNegative(blockStates, "blockStates");
+            return this;
+        }
+
+        /**
+         * Sets the number of glyphs added to the default font,
+         * at most 6400 (the private use area).
+         *
+         * @param fontGlyphs The number of font glyphs
+         * @return This builder
+         */
+        public @NotNull Builder fontGlyphs(final int fontGlyphs) {
+            if (fontGlyphs > MAX_GLYPHS) {
+                throw new IllegalArgumentException("fontGlyphs must be at most " + MAX_GLYPHS + ", got " + fontGlyphs);
+            }
+            this.fontGlyphs = nonNegative(fontGlyphs, "fontGlyphs");
+            return this;
+        }
+
+        /**
+         * Sets the number of generated sound events, each
+         * one with its own sound.
+         *
+         * @param soundEvents The number of sound events
+         * @return This builder
+         */
+        public @NotNull Builder soundEvents(final int soundEvents) {
+            this.soundEvents = nonNegative(soundEvents, "soundEvents");
+            return this;
+        }
+
+        /**
+         * Sets the number of translations added to the
+         * {@code en_us} language.
+         *
+         * @param translations The number of translations
+         * @return This builder
+         */
+        public @NotNull Builder translations(final int translations) {
+            this.translations = nonNegative(translations, "translations");
+            return this;
+        }
+
+        /**
+         * Sets the number of generated overlays, each one replacing
+         * a tenth of the models.
+         *
+         * @param overlays The number of overlays
+         * @return This builder
+         */
+        public @NotNull Builder overlays(final int overlays) {
+            this.overlays = nonNegative(overlays, "overlays");
+            return this;
+        }
+
+        /**
+         * Sets the number of models, textures and block states to the
+         * given {@code size}, and the number of font glyphs, sound events
+         * and translations to a tenth of it.
+         *
+         * @param size The pack size
+         * @return This builder
+         */
+        public @NotNull Builder size(final int size) {
+            nonNegative(size, "size");
+            return models(size)
+                    .textures(size)
+                    .blockStates(size)
+                    .fontGlyphs(Math.min(size / 10, MAX_GLYPHS))
+                    .soundEvents(size / 10)
+                    .translations(size / 10);
+        }
+
+        /**
+         * Builds the generator.
+         *
+         * @return The generator
+         */
+        public @NotNull SyntheticResourcePackGenerator build() {
+            return new SyntheticResourcePackGenerator(this);
+        }
+
+        private static int nonNegative(final int value, final @NotNull String name) {
+            if (value < 0) {
+                throw new IllegalArgumentException(name + " must not be negative, got " + value);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+plugins {
+    id("creative.java-conventions")
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+description = "JMH benchmarks for the creative API and its serializers"
+
+dependencies {
+    jmh(project(":creative-serializer-minecraft"))
+    jmh(testFixtures(project(":creative-api")))
+}
+
+jmh {
+    // run a subset with, e.g. -PjmhIncludes=ReadBenchmark
+    project.findProperty("jmhIncludes")?.let { includes.set(listOf(it.toString())) }
+    // and profile with, e.g. -PjmhProfilers=gc
+    project.findProperty("jmhProfilers")?.let { profilers.set(listOf(it.toString())) }
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.serialize.minecraft.texture.PngOptimizer;
+import team.unnamed.creative.synthetic.SyntheticResourcePackGenerator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link MinecraftResourcePackWriter#build(ResourcePack)}
+ * with the sequential, parallel, incremental and PNG optimizing writers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuildBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    @Param({ "sequential", "parallel", "incremental", "optimized" })
+    public String writer;
+
+    private ResourcePack resourcePack;
+    private MinecraftResourcePackWriter packWriter;
+
+    @Setup
+    public void setup() {
+        resourcePack = SyntheticResourcePackGenerator.builder()
+                .namespace("build")
+                .size(size)
+                .build()
+                .generate();
+        switch (writer) {
+            case "sequential":
+                packWriter = MinecraftResourcePackWriter.minecraft();
+                break;
+            case "parallel":
+                packWriter = MinecraftResourcePackWriter.builder()
+                        .parallelZip(ForkJoinPool.commonPool())
+                        .build();
+                break;
+            case "incremental":
+                // nothing changes between builds, measures the best case
+                packWriter = MinecraftResourcePackWriter.builder()
+                        .incremental(true)
+                        .build();
+                break;
+            case "optimized":
+                // the optimizer cache is kept between builds, so this
+                // measures the overhead of a warm optimizer
+                packWriter = MinecraftResourcePackWriter.builder()
+                        .parallelZip(ForkJoinPool.commonPool())
+                        .pngOptimizer(PngOptimizer.pngOptimizer())
+                        .build();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown writer: " + writer);
+        }
+    }
+
+    @Benchmark
+    public BuiltResourcePack build() {
+        return packWriter.build(resourcePack);
+    }
+
+}
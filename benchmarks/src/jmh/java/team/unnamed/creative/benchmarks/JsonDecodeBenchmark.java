@@ -0,0 +1,183 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.benchmarks;
+
+import com.google.gson.stream.JsonReader;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.key.Keyed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.serialize.minecraft.GsonUtil;
+import team.unnamed.creative.serialize.minecraft.font.FontSerializer;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceSerializer;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceStreamDeserializer;
+import team.unnamed.creative.serialize.minecraft.language.LanguageSerializer;
+import team.unnamed.creative.serialize.minecraft.model.ModelSerializer;
+import team.unnamed.creative.serialize.minecraft.sound.SoundRegistrySerializer;
+import team.unnamed.creative.sound.SoundRegistry;
+import team.unnamed.creative.synthetic.SyntheticResourcePackGenerator;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks decoding every model, font, language and sound registry
+ * of a resource-pack from a {@link com.google.gson.JsonElement} tree
+ * and directly from a {@link JsonReader}.
+ *
+ * <p>Run with {@code -PjmhProfilers=gc} to compare allocations.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonDecodeBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    private List<Encoded> encodedModels;
+    private List<Encoded> encodedFonts;
+    private List<Encoded> encodedLanguages;
+    private List<Encoded> encodedSoundRegistries;
+
+    @Setup
+    public void setup() throws IOException {
+        ResourcePack resourcePack = SyntheticResourcePackGenerator.builder()
+                .namespace("decode")
+                .size(size)
+                .build()
+                .generate();
+
+        encodedModels = encode(ModelSerializer.INSTANCE, resourcePack.models());
+        encodedFonts = encode(FontSerializer.INSTANCE, resourcePack.fonts());
+        encodedLanguages = encode(LanguageSerializer.INSTANCE, resourcePack.languages());
+
+        encodedSoundRegistries = new ArrayList<>();
+        for (SoundRegistry soundRegistry : resourcePack.soundRegistries()) {
+            encodedSoundRegistries.add(new Encoded(
+                    Key.key(soundRegistry.namespace(), "sounds"),
+                    SoundRegistrySerializer.INSTANCE.serializeToJsonString(soundRegistry)
+            ));
+        }
+    }
+
+    private static <T extends Keyed> List<Encoded> encode(JsonResourceSerializer<T> serializer, Collection<T> resources) throws IOException {
+        List<Encoded> encoded = new ArrayList<>(resources.size());
+        for (T resource : resources) {
+            encoded.add(new Encoded(resource.key(), serializer.serializeToJsonString(resource)));
+        }
+        return encoded;
+    }
+
+    private static JsonReader reader(Encoded resource) {
+        JsonReader reader = new JsonReader(new StringReader(resource.json));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    private static void decodeTree(JsonResourceStreamDeserializer<?> deserializer, List<Encoded> encoded, Blackhole blackhole) throws IOException {
+        for (Encoded resource : encoded) {
+            blackhole.consume(deserializer.deserializeFromJson(GsonUtil.parseReader(reader(resource)), resource.key));
+        }
+    }
+
+    private static void decodeStreaming(JsonResourceStreamDeserializer<?> deserializer, List<Encoded> encoded, Blackhole blackhole) throws IOException {
+        for (Encoded resource : encoded) {
+            blackhole.consume(deserializer.deserializeFromJson(reader(resource), resource.key));
+        }
+    }
+
+    @Benchmark
+    public void decodeModelsTree(Blackhole blackhole) throws IOException {
+        decodeTree(ModelSerializer.INSTANCE, encodedModels, blackhole);
+    }
+
+    @Benchmark
+    public void decodeModelsStreaming(Blackhole blackhole) throws IOException {
+        decodeStreaming(ModelSerializer.INSTANCE, encodedModels, blackhole);
+    }
+
+    @Benchmark
+    public void decodeFontsTree(Blackhole blackhole) throws IOException {
+        decodeTree(FontSerializer.INSTANCE, encodedFonts, blackhole);
+    }
+
+    @Benchmark
+    public void decodeFontsStreaming(Blackhole blackhole) throws IOException {
+        decodeStreaming(FontSerializer.INSTANCE, encodedFonts, blackhole);
+    }
+
+    @Benchmark
+    public void decodeLanguagesTree(Blackhole blackhole) throws IOException {
+        decodeTree(LanguageSerializer.INSTANCE, encodedLanguages, blackhole);
+    }
+
+    @Benchmark
+    public void decodeLanguagesStreaming(Blackhole blackhole) throws IOException {
+        decodeStreaming(LanguageSerializer.INSTANCE, encodedLanguages, blackhole);
+    }
+
+    @Benchmark
+    public void decodeSoundRegistriesTree(Blackhole blackhole) {
+        for (Encoded resource : encodedSoundRegistries) {
+            blackhole.consume(SoundRegistrySerializer.INSTANCE.readFromTree(GsonUtil.parseReader(reader(resource)), resource.key.namespace()));
+        }
+    }
+
+    @Benchmark
+    public void decodeSoundRegistriesStreaming(Blackhole blackhole) throws IOException {
+        for (Encoded resource : encodedSoundRegistries) {
+            blackhole.consume(SoundRegistrySerializer.INSTANCE.readFromReader(reader(resource), resource.key.namespace()));
+        }
+    }
+
+    private static final class Encoded {
+        private final Key key;
+        private final String json;
+
+        private Encoded(Key key, String json) {
+            this.key = key;
+            this.json = json;
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.benchmarks;
+
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.serialize.minecraft.fs.FileTreeWriter;
+import team.unnamed.creative.serialize.minecraft.model.ModelSerializer;
+import team.unnamed.creative.synthetic.SyntheticResourcePackGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks writing every model of a resource-pack to a file tree
+ * with the pooled JSON encoder used by {@link MinecraftResourcePackWriter}
+ * and with a new {@link JsonWriter} per resource.
+ *
+ * <p>Run with {@code -PjmhProfilers=gc} to compare allocations.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonEncodeBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    @Param({ "pooled", "unpooled" })
+    public String encoder;
+
+    private ResourcePack resourcePack;
+
+    @Setup
+    public void setup() {
+        ResourcePack generated = SyntheticResourcePackGenerator.builder()
+                .namespace("encode")
+                .size(size)
+                .build()
+                .generate();
+        // only the models are written
+        resourcePack = ResourcePack.resourcePack();
+        for (Model model : generated.models()) {
+            resourcePack.model(model);
+        }
+    }
+
+    @Benchmark
+    public long encodeModels() throws IOException {
+        DiscardingFileTreeWriter tree = new DiscardingFileTreeWriter();
+        switch (encoder) {
+            case "pooled":
+                MinecraftResourcePackWriter.minecraft().write(tree, resourcePack);
+                break;
+            case "unpooled":
+                for (Model model : resourcePack.models()) {
+                    JsonWriter writer = new JsonWriter(new OutputStreamWriter(tree.openStream(model.key().asString()), StandardCharsets.UTF_8));
+                    ModelSerializer.INSTANCE.serializeToJson(model, writer);
+                    writer.flush();
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown encoder: " + encoder);
+        }
+        return tree.output.written;
+    }
+
+    /**
+     * A file tree that discards every file, only counting their bytes.
+     */
+    private static final class DiscardingFileTreeWriter implements FileTreeWriter {
+        private final CountingOutputStream output = new CountingOutputStream();
+
+        @Override
+        public boolean exists(String path) {
+            return false;
+        }
+
+        @Override
+        public OutputStream openStream(String path) {
+            return output;
+        }
+
+        @Override
+        public void write(String path, Writable data) {
+            try {
+                data.write(output);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long written;
+
+        @Override
+        public void write(int b) {
+            written++;
+        }
+
+        @Override
+        public void write(byte @NotNull [] b, int off, int len) {
+            written += len;
+        }
+    }
+
+}
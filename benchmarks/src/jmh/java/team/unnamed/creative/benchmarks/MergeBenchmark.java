@@ -0,0 +1,111 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.metadata.Metadata;
+import team.unnamed.creative.overlay.ResourceContainer;
+import team.unnamed.creative.resources.MergeStrategy;
+import team.unnamed.creative.synthetic.SyntheticResourcePackGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ResourceContainer#merge(ResourceContainer, MergeStrategy)}
+ * under every merge strategy. Both packs have different namespaces,
+ * so they only share the atlas, font and language, which are merged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MergeBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    @Param({ "override", "mergeAndFailOnError", "mergeAndKeepFirstOnError" })
+    public String strategy;
+
+    private MergeStrategy mergeStrategy;
+    private SyntheticResourcePackGenerator targetGenerator;
+    private ResourcePack other;
+    private ResourcePack target;
+
+    @Setup
+    public void setup() {
+        switch (strategy) {
+            case "override":
+                mergeStrategy = MergeStrategy.override();
+                break;
+            case "mergeAndFailOnError":
+                mergeStrategy = MergeStrategy.mergeAndFailOnError();
+                break;
+            case "mergeAndKeepFirstOnError":
+                mergeStrategy = MergeStrategy.mergeAndKeepFirstOnError();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+        targetGenerator = SyntheticResourcePackGenerator.builder()
+                .namespace("target")
+                .size(size)
+                .build();
+        other = SyntheticResourcePackGenerator.builder()
+                .namespace("other")
+                .seed(1L)
+                .size(size)
+                .build()
+                .generate();
+        // pack metadata can't be merged, it would fail with some strategies
+        other.metadata(Metadata.empty());
+    }
+
+    @Setup(Level.Invocation)
+    public void setupTarget() {
+        // merging modifies the target, a new one is needed every time
+        target = targetGenerator.generate();
+    }
+
+    @Benchmark
+    public ResourcePack merge() {
+        target.merge(other, mergeStrategy);
+        return target;
+    }
+
+}
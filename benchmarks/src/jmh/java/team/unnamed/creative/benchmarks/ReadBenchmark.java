@@ -0,0 +1,151 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.benchmarks;
+
+import net.kyori.adventure.key.Key;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackReader;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.serialize.minecraft.fs.FileTreeReader;
+import team.unnamed.creative.synthetic.SyntheticResourcePackGenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+
+/**
+ * Benchmarks {@link MinecraftResourcePackReader} reading the same
+ * resource-pack from a zip file (mapped or not), a zip stream and a
+ * directory, sequentially, streaming, in parallel and lazily.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBenchmark {
+
+    private static final Key MODEL_KEY = Key.key("read", "item/model_0");
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    private final MinecraftResourcePackReader reader = MinecraftResourcePackReader.minecraft();
+    private final MinecraftResourcePackReader parallelReader = MinecraftResourcePackReader.builder()
+            .parallel(ForkJoinPool.commonPool())
+            .build();
+    private final MinecraftResourcePackReader streamingReader = MinecraftResourcePackReader.builder()
+            .streaming(true)
+            .build();
+
+    private Path temp;
+    private Path zipFile;
+    private Path directory;
+    private byte[] zipBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        ResourcePack resourcePack = SyntheticResourcePackGenerator.builder()
+                .namespace("read")
+                .size(size)
+                .build()
+                .generate();
+        temp = Files.createTempDirectory("creative-read-benchmark");
+        zipFile = temp.resolve("pack.zip");
+        directory = temp.resolve("pack");
+
+        MinecraftResourcePackWriter writer = MinecraftResourcePackWriter.minecraft();
+        writer.writeToZipFile(zipFile, resourcePack);
+        writer.writeToDirectory(directory.toFile(), resourcePack);
+        zipBytes = Files.readAllBytes(zipFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Benchmarks.deleteRecursively(temp);
+    }
+
+    @Benchmark
+    public ResourcePack readZipFile() {
+        return reader.readFromZipFile(zipFile);
+    }
+
+    @Benchmark
+    public ResourcePack readMappedZipFile() throws IOException {
+        try (FileTreeReader tree = FileTreeReader.mappedZip(zipFile)) {
+            return reader.read(tree);
+        }
+    }
+
+    @Benchmark
+    public ResourcePack readZipStream() {
+        return reader.readFromInputStream(new ByteArrayInputStream(zipBytes));
+    }
+
+    @Benchmark
+    public ResourcePack readDirectory() {
+        return reader.readFromDirectory(directory.toFile());
+    }
+
+    @Benchmark
+    public ResourcePack readZipFileStreaming() {
+        return streamingReader.readFromZipFile(zipFile);
+    }
+
+    @Benchmark
+    public ResourcePack readZipFileParallel() {
+        return parallelReader.readFromZipFile(zipFile);
+    }
+
+    @Benchmark
+    public ResourcePack readDirectoryParallel() {
+        return parallelReader.readFromDirectory(directory.toFile());
+    }
+
+    @Benchmark
+    public Model readZipFileLazilyOneModel() throws IOException {
+        try (ZipFile zip = new ZipFile(zipFile.toFile())) {
+            return reader.readLazily(zip).model(MODEL_KEY);
+        }
+    }
+
+}
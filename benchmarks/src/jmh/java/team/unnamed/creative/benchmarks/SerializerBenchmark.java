@@ -0,0 +1,156 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.benchmarks;
+
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.key.Keyed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.blockstate.BlockState;
+import team.unnamed.creative.font.Font;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.serialize.minecraft.blockstate.BlockStateSerializer;
+import team.unnamed.creative.serialize.minecraft.font.FontSerializer;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceDeserializer;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceSerializer;
+import team.unnamed.creative.serialize.minecraft.model.ModelSerializer;
+import team.unnamed.creative.synthetic.SyntheticResourcePackGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding and decoding every model, block state and
+ * font of a resource-pack with their serializers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    private Collection<Model> models;
+    private Collection<BlockState> blockStates;
+    private Collection<Font> fonts;
+
+    private List<Encoded> encodedModels;
+    private List<Encoded> encodedBlockStates;
+    private List<Encoded> encodedFonts;
+
+    @Setup
+    public void setup() throws IOException {
+        ResourcePack resourcePack = SyntheticResourcePackGenerator.builder()
+                .namespace("serializer")
+                .size(size)
+                .build()
+                .generate();
+        models = resourcePack.models();
+        blockStates = resourcePack.blockStates();
+        fonts = resourcePack.fonts();
+
+        encodedModels = encode(ModelSerializer.INSTANCE, models);
+        encodedBlockStates = encode(BlockStateSerializer.INSTANCE, blockStates);
+        encodedFonts = encode(FontSerializer.INSTANCE, fonts);
+    }
+
+    private static <T extends Keyed> List<Encoded> encode(JsonResourceSerializer<T> serializer, Collection<T> resources) throws IOException {
+        List<Encoded> encoded = new ArrayList<>(resources.size());
+        for (T resource : resources) {
+            encoded.add(new Encoded(resource.key(), serializer.serializeToJsonString(resource)));
+        }
+        return encoded;
+    }
+
+    private static <T> void encode(JsonResourceSerializer<T> serializer, Collection<T> resources, Blackhole blackhole) throws IOException {
+        for (T resource : resources) {
+            blackhole.consume(serializer.serializeToJsonString(resource));
+        }
+    }
+
+    private static void decode(JsonResourceDeserializer<?> deserializer, List<Encoded> encoded, Blackhole blackhole) throws IOException {
+        for (Encoded resource : encoded) {
+            blackhole.consume(deserializer.deserializeFromJsonString(resource.json, resource.key));
+        }
+    }
+
+    @Benchmark
+    public void encodeModels(Blackhole blackhole) throws IOException {
+        encode(ModelSerializer.INSTANCE, models, blackhole);
+    }
+
+    @Benchmark
+    public void decodeModels(Blackhole blackhole) throws IOException {
+        decode(ModelSerializer.INSTANCE, encodedModels, blackhole);
+    }
+
+    @Benchmark
+    public void encodeBlockStates(Blackhole blackhole) throws IOException {
+        encode(BlockStateSerializer.INSTANCE, blockStates, blackhole);
+    }
+
+    @Benchmark
+    public void decodeBlockStates(Blackhole blackhole) throws IOException {
+        decode(BlockStateSerializer.INSTANCE, encodedBlockStates, blackhole);
+    }
+
+    @Benchmark
+    public void encodeFonts(Blackhole blackhole) throws IOException {
+        encode(FontSerializer.INSTANCE, fonts, blackhole);
+    }
+
+    @Benchmark
+    public void decodeFonts(Blackhole blackhole) throws IOException {
+        decode(FontSerializer.INSTANCE, encodedFonts, blackhole);
+    }
+
+    private static final class Encoded {
+        private final Key key;
+        private final String json;
+
+        private Encoded(Key key, String json) {
+            this.key = key;
+            this.json = json;
+        }
+    }
+
+}
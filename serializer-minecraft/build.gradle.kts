@@ -9,4 +9,5 @@ dependencies {
     api("com.google.code.gson:gson:2.10.1")
     implementation("net.kyori:adventure-text-serializer-legacy:4.14.0")
     implementation("net.kyori:adventure-text-serializer-gson:4.14.0")
-}
\ No newline at end of file
+    testImplementation(testFixtures(project(":creative-api")))
+}
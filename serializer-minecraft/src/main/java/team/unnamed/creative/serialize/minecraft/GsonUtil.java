@@ -29,6 +29,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
@@ -37,6 +38,7 @@ import team.unnamed.creative.base.Vector3Float;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.math.BigDecimal;
 
 @ApiStatus.Internal
 public final class GsonUtil {
@@ -124,6 +126,90 @@ public final class GsonUtil {
         }
     }
 
+    /*
+     * Streaming counterparts of the methods above, they read the
+     * next value from the given reader, with the same conversions
+     * a JsonElement tree does
+     */
+    public static boolean nextBoolean(JsonReader reader, boolean def) throws IOException {
+        switch (reader.peek()) {
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case STRING:
+                // invalid value!
+                return reader.nextString().equalsIgnoreCase("true") || def;
+            default:
+                reader.skipValue();
+                return def;
+        }
+    }
+
+    public static int nextInt(JsonReader reader, String key) throws IOException {
+        if (reader.peek() != JsonToken.NUMBER) {
+            throw new IllegalStateException("Field '" + key + "' must be an integer");
+        }
+        return intValue(reader.nextString());
+    }
+
+    public static float nextFloat(JsonReader reader, String key) throws IOException {
+        if (reader.peek() != JsonToken.NUMBER) {
+            throw new IllegalStateException("Field '" + key + "' must be a float");
+        }
+        return (float) Double.parseDouble(reader.nextString());
+    }
+
+    public static String nextString(JsonReader reader) throws IOException {
+        final JsonToken token = reader.peek();
+        switch (token) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return Boolean.toString(reader.nextBoolean());
+            default:
+                throw new IllegalStateException("Expected a string but was " + token + " at " + reader.getPath());
+        }
+    }
+
+    public static int nextAsInt(JsonReader reader) throws IOException {
+        return reader.peek() == JsonToken.NUMBER
+                ? intValue(reader.nextString())
+                : Integer.parseInt(nextString(reader));
+    }
+
+    public static float nextAsFloat(JsonReader reader) throws IOException {
+        return Float.parseFloat(nextString(reader));
+    }
+
+    public static double nextAsDouble(JsonReader reader) throws IOException {
+        return Double.parseDouble(nextString(reader));
+    }
+
+    public static Vector3Float readVector3Float(JsonReader reader) throws IOException {
+        reader.beginArray();
+        final float x = (float) nextAsDouble(reader);
+        final float y = (float) nextAsDouble(reader);
+        final float z = (float) nextAsDouble(reader);
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+        return new Vector3Float(x, y, z);
+    }
+
+    // the same conversion as Gson's JsonPrimitive#getAsInt
+    private static int intValue(String number) {
+        try {
+            return Integer.parseInt(number);
+        } catch (final NumberFormatException e) {
+            try {
+                return (int) Long.parseLong(number);
+            } catch (final NumberFormatException e2) {
+                return new BigDecimal(number).intValue();
+            }
+        }
+    }
+
     public static void writeVector3Float(JsonWriter writer, Vector3Float vector) throws IOException {
         writer.beginArray();
         writer.value(vector.x());
@@ -0,0 +1,95 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft;
+
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes JSON resources to a reusable, per-thread byte buffer,
+ * so that every resource is written to its entry in a single call,
+ * instead of a lot of small writes (one per token).
+ */
+final class JsonEncoder {
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    // bigger buffers are not kept, so that a single huge
+    // resource doesn't retain its memory forever
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private static final ThreadLocal<JsonEncoder> ENCODER = ThreadLocal.withInitial(JsonEncoder::new);
+
+    private final ExposedByteArrayOutputStream buffer = new ExposedByteArrayOutputStream();
+    private final Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8);
+
+    private JsonEncoder() {
+    }
+
+    static <T> void encode(
+            final @NotNull JsonResourceSerializer<T> serializer,
+            final @NotNull T object,
+            final boolean prettyPrinting,
+            final @NotNull OutputStream output
+    ) throws IOException {
+        final JsonEncoder encoder = ENCODER.get();
+        boolean reusable = false;
+        try {
+            // not closed, it would close the reused writer
+            final JsonWriter jsonWriter = new JsonWriter(encoder.writer);
+            if (prettyPrinting) {
+                jsonWriter.setIndent("  ");
+            }
+            serializer.serializeToJson(object, jsonWriter);
+            // encodes the pending characters to the buffer
+            jsonWriter.flush();
+            output.write(encoder.buffer.buffer(), 0, encoder.buffer.size());
+            reusable = encoder.buffer.buffer().length <= MAX_RETAINED_CAPACITY;
+        } finally {
+            if (reusable) {
+                encoder.buffer.reset();
+            } else {
+                // failed (the writer may hold partially encoded
+                // data) or too big, start again with a new one
+                ENCODER.remove();
+            }
+        }
+    }
+
+    private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        private ExposedByteArrayOutputStream() {
+            super(INITIAL_CAPACITY);
+        }
+
+        private byte[] buffer() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft;
+
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.key.Keyed;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.atlas.Atlas;
+import team.unnamed.creative.base.Readable;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.blockstate.BlockState;
+import team.unnamed.creative.font.Font;
+import team.unnamed.creative.lang.Language;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.overlay.ResourceContainer;
+import team.unnamed.creative.resources.MergeStrategy;
+import team.unnamed.creative.serialize.minecraft.atlas.AtlasSerializer;
+import team.unnamed.creative.serialize.minecraft.blockstate.BlockStateSerializer;
+import team.unnamed.creative.serialize.minecraft.font.FontSerializer;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceDeserializer;
+import team.unnamed.creative.serialize.minecraft.language.LanguageSerializer;
+import team.unnamed.creative.serialize.minecraft.model.ModelSerializer;
+import team.unnamed.creative.sound.Sound;
+import team.unnamed.creative.sound.SoundRegistry;
+import team.unnamed.creative.texture.Texture;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link ResourceContainer} that deserializes its JSON resources
+ * (atlases, block states, fonts, languages, models and sound registries)
+ * the first time they are requested, then keeps them in a regular
+ * container.
+ *
+ * <p>Other resources are given to the delegate container directly,
+ * since their data is already backed by the source.</p>
+ */
+abstract class LazyResourceContainer implements ResourceContainer {
+
+    private final MinecraftResourcePackReaderImpl reader;
+    private final ResourceContainer delegate;
+
+    // resources found in the source, but not deserialized yet
+    private final Map<ResourceCategory<?>, Map<Key, PendingResource>> pending = new HashMap<>();
+    private final Map<String, PendingResource> pendingSoundRegistries = new LinkedHashMap<>();
+
+    LazyResourceContainer(final @NotNull MinecraftResourcePackReaderImpl reader, final @NotNull ResourceContainer delegate) {
+        this.reader = requireNonNull(reader, "reader");
+        this.delegate = requireNonNull(delegate, "delegate");
+    }
+
+    void index(final @NotNull ResourceCategory<?> category, final @NotNull Key key, final @NotNull String path, final @NotNull Readable content) {
+        pending.computeIfAbsent(category, k -> new LinkedHashMap<>()).put(key, new PendingResource(path, content));
+    }
+
+    void indexSoundRegistry(final @NotNull String namespace, final @NotNull String path, final @NotNull Readable content) {
+        pendingSoundRegistries.put(namespace, new PendingResource(path, content));
+    }
+
+    private <T extends Keyed> void load(final @NotNull ResourceCategory<T> category, final @NotNull Key key) {
+        final Map<Key, PendingResource> resources = pending.get(category);
+        if (resources == null) {
+            return;
+        }
+        final PendingResource resource = resources.get(key);
+        if (resource == null) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        final JsonResourceDeserializer<T> deserializer = (JsonResourceDeserializer<T>) category.deserializer();
+        final T value = reader.readJson(resource.content, resource.path, reader.jsonDeserializer(deserializer, key));
+        resources.remove(key);
+        category.setter().accept(delegate, value);
+    }
+
+    private void loadAll(final @NotNull ResourceCategory<?> category) {
+        final Map<Key, PendingResource> resources = pending.get(category);
+        if (resources == null) {
+            return;
+        }
+        for (final Key key : new ArrayList<>(resources.keySet())) {
+            load(category, key);
+        }
+    }
+
+    private boolean forget(final @NotNull ResourceCategory<?> category, final @NotNull Key key) {
+        final Map<Key, PendingResource> resources = pending.get(category);
+        return resources != null && resources.remove(key) != null;
+    }
+
+    private void loadSoundRegistry(final @NotNull String namespace) {
+        final PendingResource resource = pendingSoundRegistries.get(namespace);
+        if (resource == null) {
+            return;
+        }
+        final SoundRegistry soundRegistry = reader.readJson(resource.content, resource.path, reader.soundRegistryDeserializer(namespace));
+        pendingSoundRegistries.remove(namespace);
+        delegate.soundRegistry(soundRegistry);
+    }
+
+    /**
+     * Deserializes every resource that hasn't been requested yet.
+     */
+    void loadAll() {
+        for (final ResourceCategory<?> category : new ArrayList<>(pending.keySet())) {
+            loadAll(category);
+        }
+        for (final String namespace : new ArrayList<>(pendingSoundRegistries.keySet())) {
+            loadSoundRegistry(namespace);
+        }
+    }
+
+    //#region Atlases (Keyed)
+    @Override
+    public void atlas(final @NotNull Atlas atlas) {
+        requireNonNull(atlas, "atlas");
+        forget(AtlasSerializer.CATEGORY, atlas.key());
+        delegate.atlas(atlas);
+    }
+
+    @Override
+    public @Nullable Atlas atlas(final @NotNull Key key) {
+        requireNonNull(key, "key");
+        load(AtlasSerializer.CATEGORY, key);
+        return delegate.atlas(key);
+    }
+
+    @Override
+    public boolean removeAtlas(final @NotNull Key key) {
+        requireNonNull(key, "key");
+        return forget(AtlasSerializer.CATEGORY, key) | delegate.removeAtlas(key);
+    }
+
+    @Override
+    public @NotNull Collection<Atlas> atlases() {
+        loadAll(AtlasSerializer.CATEGORY);
+        return delegate.atlases();
+    }
+    //#endregion
+
+    //#region Block States (Keyed)
+    @Override
+    public void blockState(final @NotNull BlockState state) {
+        requireNonNull(state, "state");
+        forget(BlockStateSerializer.CATEGORY, state.key());
+        delegate.blockState(state);
+    }
+
+    @Override
+    public @Nullable BlockState blockState(final @NotNull Key key) {
+        requireNonNull(key, "key");
+        load(BlockStateSerializer.CATEGORY, key);
+        return delegate.blockState(key);
+    }
+
+    @Override
+    public boolean removeBlockState(final @NotNull Key key) {
+        requireNonNull(key, "key");
+        return forget(BlockStateSerializer.CATEGORY, key) | delegate.removeBlockState(key);
+    }
+
+    @Override
+    public @NotNull Collection<BlockState> blockStates() {
+        loadAll(BlockStateSerializer.CATEGORY);
+        return delegate.blockStates();
+    }
+    //#endregion
+
+    //#region Fonts (Keyed)
+    @Override
+    public void font(final @NotNull Font font) {
+        requireNonNull(font, "font");
+        forget(FontSerializer.CATEGORY, font.key());
+        delegate.font(font);
+    }
+
+    @Override
+    public @Nullable Font font(final @NotNull Key key) {
+        requireNonNull(key, "key");
+        load(FontSerializer.CATEGORY, key);
+        return delegate.font(key);
+    }
+
+    @Override
+    public boolean removeFont(final @NotNull Key key) {
+        requireNonNull(key, "key");
+        return forget(FontSerializer.CATEGORY, key) | delegate.removeFont(key);
+    }
+
+    @Override
+    public @NotNull Collection<Font> fonts() {
+        loadAll(FontSerializer.CATEGORY);
+        return delegate.fonts();
+    }
+    //#endregion
+
+    //#region Languages (Keyed)
+    @Override
+    public void language(final @NotNull Language language) {
+        requireNonNull(language, "language");
+        forget(LanguageSerializer.CATEGORY, language.key());
+        delegate.language(language);
+    }
+
+    @Override
+    public @Nullable Language language(final @NotNull Key key) {
+        requireNonNull(key, "key");
+        load(LanguageSerializer.CATEGORY, key);
+        return delegate.language(key);
+    }
+
+    @Override
+    public boolean removeLanguage(final @NotNull Key key) {
+        requireNonNull(key, "key");
+        return forget(LanguageSerializer.CATEGORY, key) | delegate.removeLanguage(key);
+    }
+
+    @Override
+    public @NotNull Collection<Language> languages() {
+        loadAll(LanguageSerializer.CATEGORY);
+        return delegate.languages();
+    }
+    //#endregion
+
+    //#region Models (Keyed)
+    @Override
+    public void model(final @NotNull Model model) {
+        requireNonNull(model, "model");
+        forget(ModelSerializer.CATEGORY, model.key());
+        delegate.model(model);
+    }
+
+    @Override
+    public @Nullable Model model(final @NotNull Key key) {
+        requireNonNull(key, "key");
+        load(ModelSerializer.CATEGORY, key);
+        return delegate.model(key);
+    }
+
+    @Override
+    public boolean removeModel(final @NotNull Key key) {
+        requireNonNull(key, "key");
+        return forget(ModelSerializer.CATEGORY, key) | delegate.removeModel(key);
+    }
+
+    @Override
+    public @NotNull Collection<Model> models() {
+        loadAll(ModelSerializer.CATEGORY);
+        return delegate.models();
+    }
+    //#endregion
+
+    //#region Sound Registries (Namespaced)
+    @Override
+    public void soundRegistry(final @NotNull SoundRegistry soundRegistry) {
+        requireNonNull(soundRegistry, "soundRegistry");
+        pendingSoundRegistries.remove(soundRegistry.namespace());
+        delegate.soundRegistry(soundRegistry);
+    }
+
+    @Override
+    public @Nullable SoundRegistry soundRegistry(final @NotNull String namespace) {
+        requireNonNull(namespace, "namespace");
+        loadSoundRegistry(namespace);
+        return delegate.soundRegistry(namespace);
+    }
+
+    @Override
+    public boolean removeSoundRegistry(final @NotNull String namespace) {
+        requireNonNull(namespace, "namespace");
+        return pendingSoundRegistries.remove(namespace) != null | delegate.removeSoundRegistry(namespace);
+    }
+
+    @Override
+    public @NotNull Collection<SoundRegistry> soundRegistries() {
+        for (final String namespace : new ArrayList<>(pendingSoundRegistries.keySet())) {
+            loadSoundRegistry(namespace);
+        }
+        return delegate.soundRegistries();
+    }
+    //#endregion
+
+    //#region Sounds (Keyed)
+    @Override
+    public void sound(final @NotNull Sound sound) {
+        delegate.sound(sound);
+    }
+
+    @Override
+    public @Nullable Sound sound(final @NotNull Key key) {
+        return delegate.sound(key);
+    }
+
+    @Override
+    public boolean removeSound(final @NotNull Key key) {
+        return delegate.removeSound(key);
+    }
+
+    @Override
+    public @NotNull Collection<Sound> sounds() {
+        return delegate.sounds();
+    }
+    //#endregion
+
+    //#region Textures (Keyed)
+    @Override
+    public void texture(final @NotNull Texture texture) {
+        delegate.texture(texture);
+    }
+
+    @Override
+    public @Nullable Texture texture(final @NotNull Key key) {
+        return delegate.texture(key);
+    }
+
+    @Override
+    public boolean removeTexture(final @NotNull Key key) {
+        return delegate.removeTexture(key);
+    }
+
+    @Override
+    public @NotNull Collection<Texture> textures() {
+        return delegate.textures();
+    }
+    //#endregion
+
+    //#region Unknown Files (By absolute path)
+    @Override
+    public void unknownFile(final @NotNull String path, final @NotNull Writable data) {
+        delegate.unknownFile(path, data);
+    }
+
+    @Override
+    public @Nullable Writable unknownFile(final @NotNull String path) {
+        return delegate.unknownFile(path);
+    }
+
+    @Override
+    public boolean removeUnknownFile(final @NotNull String path) {
+        return delegate.removeUnknownFile(path);
+    }
+
+    @Override
+    public @NotNull Map<String, Writable> unknownFiles() {
+        return delegate.unknownFiles();
+    }
+    //#endregion
+
+    @Override
+    public void merge(final @NotNull ResourceContainer other, final @NotNull MergeStrategy strategy) {
+        // the delegate merges against what it already has
+        loadAll();
+        delegate.merge(other, strategy);
+    }
+
+    private static final class PendingResource {
+        private final String path;
+        private final Readable content;
+
+        PendingResource(final @NotNull String path, final @NotNull Readable content) {
+            this.path = path;
+            this.content = content;
+        }
+    }
+
+}
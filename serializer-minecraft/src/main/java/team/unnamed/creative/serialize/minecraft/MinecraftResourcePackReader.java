@@ -25,6 +25,7 @@ package team.unnamed.creative.serialize.minecraft;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.ResourcePack;
 import team.unnamed.creative.serialize.ResourcePackReader;
 import team.unnamed.creative.serialize.minecraft.fs.FileTreeReader;
@@ -35,6 +36,7 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
@@ -114,6 +116,52 @@ public interface MinecraftResourcePackReader extends ResourcePackReader<FileTree
         return read(FileTreeReader.directory(directory));
     }
 
+    /**
+     * Reads a {@link ResourcePack} from the given ZIP file, lazily.
+     *
+     * <p>Every entry is indexed up front, but JSON resources (models,
+     * block states, fonts, languages, atlases and sound registries) are
+     * only deserialized the first time they are requested, for example,
+     * using {@link ResourcePack#model(net.kyori.adventure.key.Key)}, and then kept. Listing
+     * resources, for example, using {@link ResourcePack#models()}, or
+     * merging, deserializes every remaining resource of that type.</p>
+     *
+     * <p>The returned resource-pack reads from the given ZIP file, so
+     * it must not be closed while the resource-pack is in use. Note that
+     * this method WILL NOT close the given {@code zipFile}.</p>
+     *
+     * <p>The default implementation reads the resource-pack eagerly,
+     * see {@link #read(FileTreeReader)}.</p>
+     *
+     * @param zipFile The ZIP file
+     * @return The lazily read resource pack
+     * @since 1.7.0
+     */
+    default @NotNull ResourcePack readLazily(final @NotNull ZipFile zipFile) {
+        requireNonNull(zipFile, "zipFile");
+        // the reader is not closed, since it would close the zip file
+        return read(FileTreeReader.zip(zipFile));
+    }
+
+    /**
+     * Reads a {@link ResourcePack} from the given directory, lazily.
+     *
+     * <p>Works like {@link #readLazily(ZipFile)}, the returned
+     * resource-pack reads from the files in the given directory,
+     * which must not change while the resource-pack is in use.</p>
+     *
+     * <p>The default implementation reads the resource-pack eagerly,
+     * see {@link #readFromDirectory(File)}.</p>
+     *
+     * @param directory The directory
+     * @return The lazily read resource pack
+     * @since 1.7.0
+     */
+    default @NotNull ResourcePack readLazily(final @NotNull File directory) {
+        requireNonNull(directory, "directory");
+        return readFromDirectory(directory);
+    }
+
     /**
      * A builder for {@link MinecraftResourcePackReader} instances.
      *
@@ -135,6 +183,42 @@ public interface MinecraftResourcePackReader extends ResourcePackReader<FileTree
         @Contract("_ -> this")
         @NotNull Builder lenient(final boolean lenient);
 
+        /**
+         * Sets the pool where JSON resources (models, block states,
+         * fonts, languages, metadata, etc.) are parsed and deserialized
+         * concurrently.
+         *
+         * <p>Entries are still iterated sequentially, and the resources
+         * are added to the resource-pack in the same order they are found,
+         * so the read resource-pack is the same regardless of the pool. If
+         * null, the default, entries are read sequentially.</p>
+         *
+         * <p>Note that, when reading from a {@link ZipInputStream}, every
+         * JSON entry must be copied to memory before being parsed.</p>
+         *
+         * @param pool The pool, null to read sequentially
+         * @return This builder
+         * @since 1.7.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder parallel(final @Nullable ForkJoinPool pool);
+
+        /**
+         * Makes the reader deserialize models, fonts, languages and
+         * sound registries directly from the JSON token stream, without
+         * building an intermediate {@link com.google.gson.JsonElement} tree.
+         *
+         * <p>The read resources are the same as when not streaming, but
+         * JSON input is always read leniently. Other JSON resources are
+         * still read as trees.</p>
+         *
+         * @param streaming Whether the reader should stream JSON resources
+         * @return This builder
+         * @since 1.7.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder streaming(final boolean streaming);
+
         /**
          * Builds a new {@link MinecraftResourcePackReader} instance.
          *
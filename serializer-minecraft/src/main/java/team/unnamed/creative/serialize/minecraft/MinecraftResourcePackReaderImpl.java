@@ -33,6 +33,7 @@ import org.intellij.lang.annotations.Subst;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Readable;
 import team.unnamed.creative.base.Writable;
 import team.unnamed.creative.metadata.Metadata;
 import team.unnamed.creative.overlay.Overlay;
@@ -40,22 +41,34 @@ import team.unnamed.creative.overlay.ResourceContainer;
 import team.unnamed.creative.serialize.minecraft.fs.FileTreeReader;
 import team.unnamed.creative.serialize.minecraft.io.BinaryResourceDeserializer;
 import team.unnamed.creative.serialize.minecraft.io.JsonResourceDeserializer;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceStreamDeserializer;
 import team.unnamed.creative.serialize.minecraft.io.ResourceDeserializer;
 import team.unnamed.creative.serialize.minecraft.metadata.MetadataSerializer;
 import team.unnamed.creative.serialize.minecraft.sound.SoundRegistrySerializer;
+import team.unnamed.creative.sound.SoundRegistry;
 import team.unnamed.creative.texture.Texture;
 import team.unnamed.creative.util.Keys;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import static java.util.Objects.requireNonNull;
 import static team.unnamed.creative.serialize.minecraft.MinecraftResourcePackStructure.*;
@@ -66,17 +79,50 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
             .build();
 
     private final boolean lenient;
+    private final @Nullable ForkJoinPool pool;
+    private final boolean streaming;
 
     private MinecraftResourcePackReaderImpl(
-            final boolean lenient
+            final boolean lenient,
+            final @Nullable ForkJoinPool pool,
+            final boolean streaming
     ) {
         this.lenient = lenient;
+        this.pool = pool;
+        this.streaming = streaming;
     }
 
     @Override
-    @SuppressWarnings("PatternValidation")
     public @NotNull ResourcePack read(final @NotNull FileTreeReader reader) {
-        ResourcePack resourcePack = ResourcePack.resourcePack();
+        return read(reader, false);
+    }
+
+    @Override
+    public @NotNull ResourcePack readLazily(final @NotNull ZipFile zipFile) {
+        requireNonNull(zipFile, "zipFile");
+        // the reader is not closed, since it would close the zip file
+        return read(new SourceFileTreeReader(FileTreeReader.zip(zipFile), path -> {
+            final ZipEntry entry = requireNonNull(zipFile.getEntry(path), path);
+            return () -> zipFile.getInputStream(entry);
+        }), true);
+    }
+
+    @Override
+    public @NotNull ResourcePack readLazily(final @NotNull File directory) {
+        requireNonNull(directory, "directory");
+        try (final FileTreeReader reader = new SourceFileTreeReader(
+                FileTreeReader.directory(directory),
+                path -> Readable.file(new File(directory, path))
+        )) {
+            return read(reader, true);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("PatternValidation")
+    private @NotNull ResourcePack read(final @NotNull FileTreeReader reader, final boolean lazy) {
+        ResourcePack resourcePack = lazy ? new LazyResourcePack(this) : ResourcePack.resourcePack();
 
         // textures that are waiting for metadata, or metadata
         // waiting for textures (because we can't know the order
@@ -84,6 +130,10 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
         // (null key means it is root resource pack)
         Map<@Nullable String, Map<Key, Texture>> incompleteTextures = new LinkedHashMap<>();
 
+        // when reading in parallel, the changes to the resource-pack,
+        // in the order the entries were found, applied at the end
+        @Nullable List<Runnable> actions = pool == null ? null : new ArrayList<>();
+
         while (reader.hasNext()) {
             String path = reader.next();
 
@@ -103,22 +153,18 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
                 switch (tokens.poll()) {
                     case PACK_METADATA_FILE: {
                         // found pack.mcmeta file, deserialize and add
-                        JsonElement element = parseJson(reader.stream());
-                        if (element == null) {
-                            continue;
-                        }
-                        Metadata metadata = MetadataSerializer.INSTANCE.readFromTree(element);
-                        resourcePack.metadata(metadata);
+                        readJson(actions, reader, path, JsonEntryDeserializer.tree(MetadataSerializer.INSTANCE::readFromTree), resourcePack::metadata);
                         continue;
                     }
                     case PACK_ICON_FILE: {
                         // found pack.png file, add
-                        resourcePack.icon(reader.content().asWritable());
+                        Writable icon = reader.content().asWritable();
+                        apply(actions, () -> resourcePack.icon(icon));
                         continue;
                     }
                     default: {
                         // unknown top level file
-                        resourcePack.unknownFile(path, reader.content().asWritable());
+                        unknownFile(actions, reader, resourcePack, path);
                         continue;
                     }
                 }
@@ -146,14 +192,14 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
                 if (tokens.isEmpty()) {
                     // this means that there is a file directly
                     // inside the "overlays" folder, this is illegal
-                    resourcePack.unknownFile(containerPath, reader.content().asWritable());
+                    unknownFile(actions, reader, resourcePack, containerPath);
                     continue;
                 }
 
                 Overlay overlay = resourcePack.overlay(overlayDir);
                 if (overlay == null) {
                     // first occurrence, register overlay
-                    overlay = Overlay.overlay(overlayDir);
+                    overlay = lazy ? new LazyOverlay(this, overlayDir) : Overlay.overlay(overlayDir);
                     resourcePack.overlay(overlay);
                 }
 
@@ -165,7 +211,7 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
             // null check to make ide happy
             if (folder == null || !folder.equals(ASSETS_FOLDER) || tokens.isEmpty()) {
                 // not assets! this is an unknown file
-                container.unknownFile(containerPath, reader.content().asWritable());
+                unknownFile(actions, reader, container, containerPath);
                 continue;
             }
 
@@ -175,14 +221,14 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
 
             if (!Keys.isValidNamespace(namespace)) {
                 // invalid namespace found
-                container.unknownFile(containerPath, reader.content().asWritable());
+                unknownFile(actions, reader, container, containerPath);
                 continue;
             }
 
             if (tokens.isEmpty()) {
                 // found a file directly inside "assets", like
                 // assets/<file>, it is not allowed
-                container.unknownFile(containerPath, reader.content().asWritable());
+                unknownFile(actions, reader, container, containerPath);
                 continue;
             }
 
@@ -192,23 +238,30 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
             // gpu_warnlist.json file
             String categoryName = tokens.poll();
 
+            // (effectively final copies, used by the actions)
+            final ResourceContainer target = container;
+            final @Nullable String targetOverlayDir = overlayDir;
+
             if (tokens.isEmpty()) {
                 // this means "category" is a file
                 // (remember: last tokens are always files)
                 if (categoryName.equals(SOUNDS_FILE)) {
                     // found a sound registry!
-                    JsonElement element = parseJson(reader.stream());
-                    if (element == null) {
+                    if (lazy) {
+                        ((LazyResourceContainer) target).indexSoundRegistry(namespace, path, reader.content());
                         continue;
                     }
-                    container.soundRegistry(SoundRegistrySerializer.INSTANCE.readFromTree(
-                            element,
-                            namespace
-                    ));
+                    readJson(
+                            actions,
+                            reader,
+                            path,
+                            soundRegistryDeserializer(namespace),
+                            target::soundRegistry
+                    );
                     continue;
                 } else {
                     // TODO: gpu_warnlist.json?
-                    container.unknownFile(containerPath, reader.content().asWritable());
+                    unknownFile(actions, reader, container, containerPath);
                     continue;
                 }
             }
@@ -223,70 +276,91 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
                 if (keyOfMetadata != null) {
                     // found metadata for texture
                     Key key = Key.key(namespace, keyOfMetadata);
-                    Metadata metadata = MetadataSerializer.INSTANCE.readFromTree(parseJson(reader.stream()));
-
-                    Map<Key, Texture> incompleteTexturesThisContainer = incompleteTextures.computeIfAbsent(overlayDir, k -> new LinkedHashMap<>());
-                    Texture texture = incompleteTexturesThisContainer.remove(key);
-                    if (texture == null) {
-                        // metadata was found first, put
-                        incompleteTexturesThisContainer.put(key, Texture.texture(key, Writable.EMPTY, metadata));
-                    } else {
-                        // texture was found before the metadata, nice!
-                        container.texture(texture.meta(metadata));
-                    }
+                    readJson(actions, reader, path, JsonEntryDeserializer.tree(MetadataSerializer.INSTANCE::readFromTree), metadata -> {
+                        Map<Key, Texture> incompleteTexturesThisContainer = incompleteTextures.computeIfAbsent(targetOverlayDir, k -> new LinkedHashMap<>());
+                        Texture texture = incompleteTexturesThisContainer.remove(key);
+                        if (texture == null) {
+                            // metadata was found first, put
+                            incompleteTexturesThisContainer.put(key, Texture.texture(key, Writable.EMPTY, metadata));
+                        } else {
+                            // texture was found before the metadata, nice!
+                            target.texture(texture.meta(metadata));
+                        }
+                    });
                 } else {
                     Key key = Key.key(namespace, categoryPath);
                     Writable data = reader.content().asWritable();
-                    Map<Key, Texture> incompleteTexturesThisContainer = incompleteTextures.computeIfAbsent(overlayDir, k -> new LinkedHashMap<>());
-                    Texture waiting = incompleteTexturesThisContainer.remove(key);
-
-                    if (waiting == null) {
-                        // found texture before metadata
-                        incompleteTexturesThisContainer.put(key, Texture.texture(key, data));
-                    } else {
-                        // metadata was found first
-                        container.texture(Texture.texture(
-                                key,
-                                data,
-                                waiting.meta()
-                        ));
-                    }
+                    apply(actions, () -> {
+                        Map<Key, Texture> incompleteTexturesThisContainer = incompleteTextures.computeIfAbsent(targetOverlayDir, k -> new LinkedHashMap<>());
+                        Texture waiting = incompleteTexturesThisContainer.remove(key);
+
+                        if (waiting == null) {
+                            // found texture before metadata
+                            incompleteTexturesThisContainer.put(key, Texture.texture(key, data));
+                        } else {
+                            // metadata was found first
+                            target.texture(Texture.texture(
+                                    key,
+                                    data,
+                                    waiting.meta()
+                            ));
+                        }
+                    });
                 }
             } else {
                 @SuppressWarnings("rawtypes")
                 ResourceCategory category = ResourceCategories.getByFolder(categoryName);
                 if (category == null) {
                     // unknown category
-                    container.unknownFile(containerPath, reader.content().asWritable());
+                    unknownFile(actions, reader, container, containerPath);
                     continue;
                 }
                 String keyValue = withoutExtension(categoryPath, category.extension());
                 if (keyValue == null) {
                     // wrong extension
-                    container.unknownFile(containerPath, reader.content().asWritable());
+                    unknownFile(actions, reader, container, containerPath);
                     continue;
                 }
                 Key key = Key.key(namespace, keyValue);
+                ResourceDeserializer<?> deserializer = category.deserializer();
+                if (lazy && deserializer instanceof JsonResourceDeserializer) {
+                    // deserialized when requested
+                    ((LazyResourceContainer) target).index(category, key, path, reader.content());
+                    continue;
+                }
+                if (deserializer instanceof JsonResourceDeserializer) {
+                    //noinspection unchecked
+                    readJson(
+                            actions,
+                            reader,
+                            path,
+                            jsonDeserializer((JsonResourceDeserializer<Object>) deserializer, key),
+                            resource -> category.setter().accept(target, resource)
+                    );
+                    continue;
+                }
                 try {
-                    ResourceDeserializer<?> deserializer = category.deserializer();
                     Object resource;
                     if (deserializer instanceof BinaryResourceDeserializer) {
                         resource = ((BinaryResourceDeserializer<?>) deserializer)
                                 .deserializeBinary(reader.content().asWritable(), key);
-                    } else if (deserializer instanceof JsonResourceDeserializer) {
-                        resource = ((JsonResourceDeserializer<?>) deserializer)
-                                .deserializeFromJson(parseJson(reader.stream()), key);
                     } else {
                         resource = deserializer.deserialize(reader.stream(), key);
                     }
                     //noinspection unchecked
-                    category.setter().accept(container, resource);
+                    apply(actions, () -> category.setter().accept(target, resource));
                 } catch (IOException e) {
                     throw new UncheckedIOException("Failed to deserialize resource at: '" + path + "'", e);
                 }
             }
         }
 
+        if (actions != null) {
+            for (Runnable action : actions) {
+                action.run();
+            }
+        }
+
         for (Map.Entry<String, Map<Key, Texture>> entry : incompleteTextures.entrySet()) {
             @Subst("dir")
             @Nullable String overlayDir = entry.getKey();
@@ -311,26 +385,175 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
         return resourcePack;
     }
 
-    private static @Nullable String withoutExtension(String string, String extension) {
-        if (string.endsWith(extension)) {
-            return string.substring(0, string.length() - extension.length());
+    /**
+     * Applies the given change to the resource-pack now or, when
+     * reading in parallel, after the previously found entries.
+     */
+    private static void apply(final @Nullable List<Runnable> actions, final @NotNull Runnable action) {
+        if (actions == null) {
+            action.run();
         } else {
-            // string doesn't end with extension
-            return null;
+            actions.add(action);
         }
     }
 
-    private @NotNull JsonElement parseJson(final @NotNull InputStream input) {
+    private static void unknownFile(
+            final @Nullable List<Runnable> actions,
+            final @NotNull FileTreeReader reader,
+            final @NotNull ResourceContainer container,
+            final @NotNull String path
+    ) {
+        final Writable data = reader.content().asWritable();
+        apply(actions, () -> container.unknownFile(path, data));
+    }
+
+    /**
+     * Parses and deserializes the current JSON entry, in the pool when
+     * reading in parallel, and then gives the result to the given action,
+     * see {@link #apply(List, Runnable)}.
+     */
+    private <T> void readJson(
+            final @Nullable List<Runnable> actions,
+            final @NotNull FileTreeReader reader,
+            final @NotNull String path,
+            final @NotNull JsonEntryDeserializer<T> deserializer,
+            final @NotNull Consumer<T> action
+    ) {
+        if (actions == null) {
+            action.accept(readJson(reader.stream(), path, deserializer));
+            return;
+        }
+
+        // the content remains valid after moving to the next entry
+        final Readable content = reader.content();
+        final CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> readJson(content, path, deserializer), pool);
+        actions.add(() -> action.accept(join(future)));
+    }
+
+    <T> @NotNull T readJson(final @NotNull Readable content, final @NotNull String path, final @NotNull JsonEntryDeserializer<T> deserializer) {
+        try {
+            return readJson(content.open(), path, deserializer);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to read resource at: '" + path + "'", e);
+        }
+    }
+
+    private <T> @NotNull T readJson(final @NotNull InputStream input, final @NotNull String path, final @NotNull JsonEntryDeserializer<T> deserializer) {
         try (final JsonReader jsonReader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
-            jsonReader.setLenient(lenient);
-            return GsonUtil.parseReader(jsonReader);
+            // the tree parser is always lenient, so streaming deserializers
+            // must be too in order to accept the same input
+            jsonReader.setLenient(lenient || streaming);
+            return deserializer.deserialize(jsonReader);
         } catch (final IOException e) {
-            throw new UncheckedIOException("Failed to close JSON reader", e);
+            throw new UncheckedIOException("Failed to deserialize resource at: '" + path + "'", e);
+        }
+    }
+
+    /**
+     * Returns the deserializer for JSON resources of the given key, reading
+     * directly from the {@link JsonReader} if the reader is streaming and
+     * the resource deserializer supports it.
+     */
+    <T> @NotNull JsonEntryDeserializer<T> jsonDeserializer(final @NotNull JsonResourceDeserializer<T> deserializer, final @NotNull Key key) {
+        if (streaming && deserializer instanceof JsonResourceStreamDeserializer) {
+            final JsonResourceStreamDeserializer<T> streamDeserializer = (JsonResourceStreamDeserializer<T>) deserializer;
+            return jsonReader -> streamDeserializer.deserializeFromJson(jsonReader, key);
+        }
+        return JsonEntryDeserializer.tree(element -> deserializer.deserializeFromJson(element, key));
+    }
+
+    @NotNull JsonEntryDeserializer<SoundRegistry> soundRegistryDeserializer(final @NotNull String namespace) {
+        if (streaming) {
+            return jsonReader -> SoundRegistrySerializer.INSTANCE.readFromReader(jsonReader, namespace);
+        }
+        return JsonEntryDeserializer.tree(element -> SoundRegistrySerializer.INSTANCE.readFromTree(element, namespace));
+    }
+
+    private static <T> T join(final @NotNull CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            // rethrow the original exception, as the sequential reader would
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    interface JsonEntryDeserializer<T> {
+        T deserialize(final @NotNull JsonReader reader) throws IOException;
+
+        static <T> @NotNull JsonEntryDeserializer<T> tree(final @NotNull TreeDeserializer<T> deserializer) {
+            return reader -> deserializer.deserialize(GsonUtil.parseReader(reader));
+        }
+    }
+
+    @FunctionalInterface
+    interface TreeDeserializer<T> {
+        T deserialize(final @NotNull JsonElement element) throws IOException;
+    }
+
+    /**
+     * A {@link FileTreeReader} that takes the entries' content from
+     * the given source, e.g. to avoid copying them.
+     */
+    private static final class SourceFileTreeReader implements FileTreeReader {
+        private final FileTreeReader reader;
+        private final Function<String, Readable> source;
+        private @Nullable String current;
+
+        SourceFileTreeReader(final @NotNull FileTreeReader reader, final @NotNull Function<String, Readable> source) {
+            this.reader = reader;
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return reader.hasNext();
+        }
+
+        @Override
+        public String next() {
+            return current = reader.next();
+        }
+
+        @Override
+        public @NotNull InputStream stream() {
+            return reader.stream();
+        }
+
+        @Override
+        public @NotNull Readable content() {
+            if (current == null) {
+                throw new IllegalStateException("No current entry, call next() first");
+            }
+            return source.apply(current);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static @Nullable String withoutExtension(String string, String extension) {
+        if (string.endsWith(extension)) {
+            return string.substring(0, string.length() - extension.length());
+        } else {
+            // string doesn't end with extension
+            return null;
         }
     }
 
     static final class BuilderImpl implements Builder {
         private boolean lenient = false;
+        private @Nullable ForkJoinPool pool;
+        private boolean streaming = false;
 
         @Override
         public @NotNull Builder lenient(final boolean lenient) {
@@ -338,9 +561,21 @@ final class MinecraftResourcePackReaderImpl implements MinecraftResourcePackRead
             return this;
         }
 
+        @Override
+        public @NotNull Builder parallel(final @Nullable ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder streaming(final boolean streaming) {
+            this.streaming = streaming;
+            return this;
+        }
+
         @Override
         public @NotNull MinecraftResourcePackReader build() {
-            return new MinecraftResourcePackReaderImpl(lenient);
+            return new MinecraftResourcePackReaderImpl(lenient, pool, streaming);
         }
     }
 
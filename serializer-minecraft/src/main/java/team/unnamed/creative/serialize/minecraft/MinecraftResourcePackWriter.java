@@ -25,26 +25,31 @@ package team.unnamed.creative.serialize.minecraft;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.BuiltResourcePack;
 import team.unnamed.creative.ResourcePack;
 import team.unnamed.creative.base.Writable;
 import team.unnamed.creative.serialize.ResourcePackWriter;
 import team.unnamed.creative.serialize.minecraft.fs.FileTreeWriter;
+import team.unnamed.creative.serialize.minecraft.texture.PngOptimizer;
 
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.zip.ZipOutputStream;
 
+import static java.util.Objects.requireNonNull;
+
 public interface MinecraftResourcePackWriter extends ResourcePackWriter<FileTreeWriter> {
     /**
      * Returns the standard {@link MinecraftResourcePackWriter} instance.
@@ -73,9 +78,26 @@ public interface MinecraftResourcePackWriter extends ResourcePackWriter<FileTree
     @Override
     void write(final @NotNull FileTreeWriter tree, final @NotNull ResourcePack resourcePack);
 
+    /**
+     * Creates the file tree used to write zip archives to the
+     * given output stream, by the {@code build} and {@code writeToZipFile}
+     * methods, the tree closes the given output stream when closed.
+     *
+     * <p>By default, entries are compressed sequentially, using a
+     * {@link ZipOutputStream}, see {@link Builder#parallelZip(ForkJoinPool)}</p>
+     *
+     * @param output The output stream
+     * @return The zip file tree
+     * @since 1.7.0
+     */
+    default @NotNull FileTreeWriter zipTree(final @NotNull OutputStream output) {
+        requireNonNull(output, "output");
+        return FileTreeWriter.zip(new ZipOutputStream(output));
+    }
+
     default void writeToZipFile(Path path, ResourcePack resourcePack) {
-        try (ZipOutputStream outputStream = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
-            write(FileTreeWriter.zip(outputStream), resourcePack);
+        try (FileTreeWriter writer = zipTree(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            write(writer, resourcePack);
         } catch (FileNotFoundException e) {
             throw new IllegalStateException("Failed to write resource pack to zip file: File not found: " + path, e);
         } catch (IOException e) {
@@ -92,37 +114,104 @@ public interface MinecraftResourcePackWriter extends ResourcePackWriter<FileTree
     }
 
     default BuiltResourcePack build(ResourcePack resourcePack) {
-        MessageDigest digest;
-        try {
-            digest = MessageDigest.getInstance("SHA-1");
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("Cannot find SHA-1 algorithm");
-        }
+        MessageDigest digest = MinecraftResourcePackWriterImpl.sha1();
         ByteArrayOutputStream output = new ByteArrayOutputStream();
 
         // write resource to zip
-        try (FileTreeWriter writer = FileTreeWriter.zip(new ZipOutputStream(new DigestOutputStream(output, digest)))) {
+        try (FileTreeWriter writer = zipTree(new DigestOutputStream(output, digest))) {
             write(writer, resourcePack);
         }
 
         byte[] bytes = output.toByteArray();
-        String hash;
-
-        // stringify SHA-1 hash
-        {
-            byte[] hashBytes = digest.digest();
-            StringBuilder builder = new StringBuilder(hashBytes.length * 2);
-            for (byte b : hashBytes) {
-                int part1 = (b >> 4) & 0xF;
-                int part2 = b & 0xF;
-                builder
-                        .append(Character.forDigit(part1, 16))
-                        .append(Character.forDigit(part2, 16));
+        String hash = MinecraftResourcePackWriterImpl.hex(digest.digest());
+        return BuiltResourcePack.of(Writable.bytes(bytes), hash);
+    }
+
+    /**
+     * Builds the given resource-pack into a zip file at the given
+     * path, hashing it while it is written, so that the zip is
+     * never held in memory.
+     *
+     * <p>The zip is written to a temporary file in the same directory,
+     * which then atomically replaces the given file, so that a failed
+     * build never leaves a partial zip behind, and packs previously
+     * built to the same path can still be served while rebuilding,
+     * on platforms where open files can be replaced.</p>
+     *
+     * <p>The returned pack data is backed by the file, so the
+     * file must not be modified or deleted while the pack is in
+     * use. Resource-pack servers send file-backed packs without
+     * loading them into memory.</p>
+     *
+     * @param resourcePack The resource-pack to build
+     * @param file         The target zip file, created or replaced
+     * @return The file-backed built resource-pack
+     * @since 1.7.0
+     */
+    default @NotNull BuiltResourcePack build(final @NotNull ResourcePack resourcePack, final @NotNull Path file) {
+        requireNonNull(resourcePack, "resourcePack");
+        requireNonNull(file, "file");
+        final Path target = file.toAbsolutePath();
+        final Path temp;
+        try {
+            temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create temporary file for resource pack zip file: " + file, e);
+        }
+
+        final MessageDigest digest = MinecraftResourcePackWriterImpl.sha1();
+        boolean moved = false;
+        try {
+            try (FileTreeWriter writer = zipTree(new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), MinecraftResourcePackWriterImpl.FILE_BUFFER_LENGTH),
+                    digest
+            ))) {
+                write(writer, resourcePack);
+            }
+            MinecraftResourcePackWriterImpl.replace(temp, target);
+            moved = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write resource pack to zip file: " + file, e);
+        } finally {
+            if (!moved) {
+                MinecraftResourcePackWriterImpl.deleteQuietly(temp);
             }
-            hash = builder.toString();
         }
 
-        return BuiltResourcePack.of(Writable.bytes(bytes), hash);
+        return BuiltResourcePack.of(file, MinecraftResourcePackWriterImpl.hex(digest.digest()));
+    }
+
+    /**
+     * Builds the given resource-pack into a new temporary zip file,
+     * see {@link #build(ResourcePack, Path)}.
+     *
+     * <p>The caller owns the file, and should delete it once the
+     * pack is no longer used, e.g. after replacing it on a reload,
+     * see {@link BuiltResourcePack#file()}. The file is deleted if
+     * the build fails.</p>
+     *
+     * @param resourcePack The resource-pack to build
+     * @return The file-backed built resource-pack
+     * @since 1.7.0
+     */
+    default @NotNull BuiltResourcePack buildToTempFile(final @NotNull ResourcePack resourcePack) {
+        requireNonNull(resourcePack, "resourcePack");
+        Path file;
+        try {
+            file = Files.createTempFile("creative-resource-pack-", ".zip");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create temporary resource pack file", e);
+        }
+        boolean built = false;
+        try {
+            final BuiltResourcePack pack = build(resourcePack, file);
+            built = true;
+            return pack;
+        } finally {
+            if (!built) {
+                MinecraftResourcePackWriterImpl.deleteQuietly(file);
+            }
+        }
     }
 
     default BuiltResourcePack build(Consumer<ResourcePack> consumer) {
@@ -148,6 +237,62 @@ public interface MinecraftResourcePackWriter extends ResourcePackWriter<FileTree
          */
         @NotNull Builder prettyPrinting(final boolean prettyPrinting);
 
+        /**
+         * Sets the pool where zip entries are compressed concurrently
+         * when building zip archives, see {@link #zipTree(OutputStream)}.
+         *
+         * <p>The output is the same regardless of the pool parallelism,
+         * but different from the one of the sequential writer. If null,
+         * the default, entries are compressed sequentially.</p>
+         *
+         * @param pool The pool, null to compress sequentially
+         * @return This builder
+         * @since 1.7.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder parallelZip(final @Nullable ForkJoinPool pool);
+
+        /**
+         * Sets whether the built writer rebuilds zip archives
+         * incrementally, optional, defaults to false.
+         *
+         * <p>Incremental writers keep the compressed entries of the
+         * last built zip archive, and reuse the entries that didn't
+         * change, without compressing them again. Entries are compared
+         * by a digest of their data, so resources are still serialized
+         * on every build.</p>
+         *
+         * <p>Incremental writers compress entries in parallel, on the
+         * {@link #parallelZip(ForkJoinPool) set pool} or the common pool
+         * if none is set. They are stateful, so they must be reused for
+         * successive builds of the same resource-pack, and builds must
+         * not run concurrently.</p>
+         *
+         * @param incremental Whether to rebuild incrementally
+         * @return This builder
+         * @since 1.7.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder incremental(final boolean incremental);
+
+        /**
+         * Sets the optimizer used to losslessly recompress the
+         * texture images before writing them, optional, defaults
+         * to null (textures are written as they are).
+         *
+         * <p>Textures are optimized in parallel, on the
+         * {@link #parallelZip(ForkJoinPool) set pool} or the common
+         * pool if none is set. The optimizer caches the optimized
+         * images, so it should be reused across builds.</p>
+         *
+         * @param pngOptimizer The PNG optimizer, null to disable
+         * @return This builder
+         * @see PngOptimizer#pngOptimizer()
+         * @since 1.7.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder pngOptimizer(final @Nullable PngOptimizer pngOptimizer);
+
         /**
          * Builds a new {@link MinecraftResourcePackWriter} instance.
          *
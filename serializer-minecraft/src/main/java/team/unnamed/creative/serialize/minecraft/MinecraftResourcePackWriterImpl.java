@@ -23,27 +23,45 @@
  */
 package team.unnamed.creative.serialize.minecraft;
 
-import com.google.gson.stream.JsonWriter;
 import net.kyori.adventure.key.Keyed;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.ResourcePack;
 import team.unnamed.creative.base.Writable;
 import team.unnamed.creative.metadata.Metadata;
 import team.unnamed.creative.overlay.Overlay;
 import team.unnamed.creative.overlay.ResourceContainer;
 import team.unnamed.creative.serialize.minecraft.fs.FileTreeWriter;
+import team.unnamed.creative.serialize.minecraft.fs.ZipEntryCache;
+import team.unnamed.creative.serialize.minecraft.fs.ZipEntryLifecycleHandler;
 import team.unnamed.creative.serialize.minecraft.io.JsonResourceSerializer;
 import team.unnamed.creative.serialize.minecraft.io.ResourceSerializer;
 import team.unnamed.creative.serialize.minecraft.metadata.MetadataSerializer;
 import team.unnamed.creative.serialize.minecraft.sound.SoundRegistrySerializer;
+import team.unnamed.creative.serialize.minecraft.texture.PngOptimizer;
 import team.unnamed.creative.sound.SoundRegistry;
 import team.unnamed.creative.texture.Texture;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipOutputStream;
 
+import static java.util.Objects.requireNonNull;
 import static team.unnamed.creative.serialize.minecraft.MinecraftResourcePackStructure.*;
 
 final class MinecraftResourcePackWriterImpl implements MinecraftResourcePackWriter {
@@ -51,10 +69,38 @@ final class MinecraftResourcePackWriterImpl implements MinecraftResourcePackWrit
             .prettyPrinting(false)
             .build();
 
+    // buffer used when writing zip files to disk
+    static final int FILE_BUFFER_LENGTH = 64 * 1024;
+
     private final boolean prettyPrinting;
+    private final @Nullable ForkJoinPool parallelZipPool;
+    private final @Nullable ZipEntryCache cache;
+    private final @Nullable PngOptimizer pngOptimizer;
 
-    private MinecraftResourcePackWriterImpl(final boolean prettyPrinting) {
+    private MinecraftResourcePackWriterImpl(
+            final boolean prettyPrinting,
+            final @Nullable ForkJoinPool parallelZipPool,
+            final @Nullable ZipEntryCache cache,
+            final @Nullable PngOptimizer pngOptimizer
+    ) {
         this.prettyPrinting = prettyPrinting;
+        this.parallelZipPool = parallelZipPool;
+        this.cache = cache;
+        this.pngOptimizer = pngOptimizer;
+    }
+
+    @Override
+    public @NotNull FileTreeWriter zipTree(final @NotNull OutputStream output) {
+        requireNonNull(output, "output");
+        if (cache != null) {
+            // caching requires entries to be compressed independently
+            final ForkJoinPool pool = parallelZipPool == null ? ForkJoinPool.commonPool() : parallelZipPool;
+            return FileTreeWriter.parallelZip(output, ZipEntryLifecycleHandler.DEFAULT, pool, cache);
+        }
+        if (parallelZipPool == null) {
+            return FileTreeWriter.zip(new ZipOutputStream(output));
+        }
+        return FileTreeWriter.parallelZip(output, ZipEntryLifecycleHandler.DEFAULT, parallelZipPool);
     }
 
     public <T extends Keyed> void writeFullCategory(
@@ -81,7 +127,7 @@ final class MinecraftResourcePackWriterImpl implements MinecraftResourcePackWrit
         }
     }
 
-    private void writeWithBasePath(FileTreeWriter target, ResourceContainer container, String basePath) {
+    private void writeWithBasePath(FileTreeWriter target, ResourceContainer container, String basePath, Map<Writable, Writable> textureData) {
         // write resources from most categories
         for (ResourceCategory<?> category : ResourceCategories.categories()) {
             writeFullCategory(basePath, container, target, category);
@@ -94,9 +140,10 @@ final class MinecraftResourcePackWriterImpl implements MinecraftResourcePackWrit
 
         // write textures
         for (Texture texture : container.textures()) {
+            final Writable data = texture.data();
             target.write(
                     basePath + MinecraftResourcePackStructure.pathOf(texture),
-                    texture.data()
+                    textureData.getOrDefault(data, data)
             );
 
             Metadata metadata = texture.meta();
@@ -128,27 +175,114 @@ final class MinecraftResourcePackWriterImpl implements MinecraftResourcePackWrit
             writeToJson(target, MetadataSerializer.INSTANCE, metadata, PACK_METADATA_FILE);
         }
 
-        writeWithBasePath(target, resourcePack, "");
+        final Map<Writable, Writable> textureData = optimizeTextures(resourcePack);
+        writeWithBasePath(target, resourcePack, "", textureData);
 
         // write from overlays
         for (Overlay overlay : resourcePack.overlays()) {
-            writeWithBasePath(target, overlay, OVERLAYS_FOLDER + '/' + overlay.directory() + '/');
+            writeWithBasePath(target, overlay, OVERLAYS_FOLDER + '/' + overlay.directory() + '/', textureData);
         }
     }
 
+    /**
+     * Optimizes the data of every texture in the given resource-pack
+     * and its overlays in parallel, if a {@link PngOptimizer} is set.
+     *
+     * @return The optimized data, by original data
+     */
+    private @NotNull Map<Writable, Writable> optimizeTextures(final @NotNull ResourcePack resourcePack) {
+        final PngOptimizer optimizer = this.pngOptimizer;
+        if (optimizer == null) {
+            return Collections.emptyMap();
+        }
+
+        final List<ResourceContainer> containers = new ArrayList<>();
+        containers.add(resourcePack);
+        containers.addAll(resourcePack.overlays());
+
+        final ForkJoinPool pool = parallelZipPool == null ? ForkJoinPool.commonPool() : parallelZipPool;
+        final Map<Writable, CompletableFuture<Writable>> tasks = new IdentityHashMap<>();
+        for (ResourceContainer container : containers) {
+            for (Texture texture : container.textures()) {
+                final Writable data = texture.data();
+                tasks.computeIfAbsent(data, k -> CompletableFuture.supplyAsync(() -> optimizer.optimize(data), pool));
+            }
+        }
+
+        final Map<Writable, Writable> optimized = new IdentityHashMap<>(tasks.size());
+        for (Map.Entry<Writable, CompletableFuture<Writable>> task : tasks.entrySet()) {
+            try {
+                optimized.put(task.getKey(), task.getValue().join());
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw e;
+            }
+        }
+        return optimized;
+    }
+
     private <T> void writeToJson(FileTreeWriter writer, JsonResourceSerializer<T> serializer, T object, String path) {
-        try (JsonWriter jsonWriter = new JsonWriter(writer.openWriter(path))) {
-            if (prettyPrinting) {
-                jsonWriter.setIndent("  ");
+        // resources may be mutated between builds, so cached trees
+        // identify the entry by a digest of the serialized data
+        writer.write(path, output -> {
+            try {
+                JsonEncoder.encode(serializer, object, prettyPrinting, output);
+            } catch (IOException e) {
+                throw new IOException("Failed to write to " + path, e);
             }
-            serializer.serializeToJson(object, jsonWriter);
-        } catch (IOException e) {
-            throw new UncheckedIOException("Failed to write to " + path, e);
+        });
+    }
+
+    /**
+     * Moves the given file to the given target, replacing it atomically
+     * if supported, so that readers of the target never see a partial
+     * file, and readers of the replaced file keep reading it.
+     */
+    static void replace(final @NotNull Path source, final @NotNull Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static void deleteQuietly(final @NotNull Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // the original failure is more relevant
+        }
+    }
+
+    static @NotNull MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot find SHA-1 algorithm");
         }
     }
 
+    static @NotNull String hex(byte @NotNull [] hashBytes) {
+        // stringify SHA-1 hash
+        StringBuilder builder = new StringBuilder(hashBytes.length * 2);
+        for (byte b : hashBytes) {
+            int part1 = (b >> 4) & 0xF;
+            int part2 = b & 0xF;
+            builder
+                    .append(Character.forDigit(part1, 16))
+                    .append(Character.forDigit(part2, 16));
+        }
+        return builder.toString();
+    }
+
     static final class BuilderImpl implements Builder {
         private boolean prettyPrinting;
+        private ForkJoinPool parallelZipPool;
+        private boolean incremental;
+        private PngOptimizer pngOptimizer;
 
         @Override
         public @NotNull Builder prettyPrinting(final boolean prettyPrinting) {
@@ -156,9 +290,32 @@ final class MinecraftResourcePackWriterImpl implements MinecraftResourcePackWrit
             return this;
         }
 
+        @Override
+        public @NotNull Builder parallelZip(final @Nullable ForkJoinPool pool) {
+            this.parallelZipPool = pool;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder incremental(final boolean incremental) {
+            this.incremental = incremental;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder pngOptimizer(final @Nullable PngOptimizer pngOptimizer) {
+            this.pngOptimizer = pngOptimizer;
+            return this;
+        }
+
         @Override
         public @NotNull MinecraftResourcePackWriter build() {
-            return new MinecraftResourcePackWriterImpl(prettyPrinting);
+            return new MinecraftResourcePackWriterImpl(
+                    prettyPrinting,
+                    parallelZipPool,
+                    incremental ? ZipEntryCache.zipEntryCache() : null,
+                    pngOptimizer
+            );
         }
     }
 }
@@ -26,8 +26,11 @@ package team.unnamed.creative.serialize.minecraft.font;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.base.Vector2Float;
 import team.unnamed.creative.font.BitMapFontProvider;
 import team.unnamed.creative.font.Font;
@@ -41,8 +44,8 @@ import team.unnamed.creative.overlay.ResourceContainer;
 import team.unnamed.creative.serialize.minecraft.GsonUtil;
 import team.unnamed.creative.serialize.minecraft.ResourceCategory;
 import team.unnamed.creative.serialize.minecraft.base.KeySerializer;
-import team.unnamed.creative.serialize.minecraft.io.JsonResourceDeserializer;
 import team.unnamed.creative.serialize.minecraft.io.JsonResourceSerializer;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceStreamDeserializer;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -50,7 +53,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-public final class FontSerializer implements JsonResourceSerializer<Font>, JsonResourceDeserializer<Font> {
+public final class FontSerializer implements JsonResourceSerializer<Font>, JsonResourceStreamDeserializer<Font> {
 
     public static final FontSerializer INSTANCE;
     public static final ResourceCategory<Font> CATEGORY;
@@ -97,37 +100,85 @@ public final class FontSerializer implements JsonResourceSerializer<Font>, JsonR
         List<FontProvider> providers = new ArrayList<>();
         for (JsonElement providerNode : objectNode.getAsJsonArray("providers")) {
             JsonObject providerObjectNode = providerNode.getAsJsonObject();
-            String type = providerObjectNode.get("type").getAsString();
-            switch (type) {
-                case "bitmap": {
-                    providers.add(readBitMap(providerObjectNode));
-                    break;
-                }
-                case "legacy_unicode": {
-                    providers.add(readLegacyUnicode(providerObjectNode));
-                    break;
-                }
-                case "space": {
-                    providers.add(readSpace(providerObjectNode));
-                    break;
-                }
-                case "ttf": {
-                    providers.add(readTrueType(providerObjectNode));
-                    break;
-                }
-                case "reference": {
-                    providers.add(readReference(providerObjectNode));
-                    break;
+            providers.add(readProvider(providerObjectNode, null, null));
+        }
+        return Font.of(key, providers);
+    }
+
+    @Override
+    public Font deserializeFromJson(JsonReader reader, Key key) throws IOException {
+        List<FontProvider> providers = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("providers")) {
+                reader.skipValue();
+                continue;
+            }
+            providers = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                providers.add(readProvider(reader));
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+        if (providers == null) {
+            throw new IllegalStateException("Font '" + key + "' has no providers");
+        }
+        return Font.of(key, providers);
+    }
+
+    private static FontProvider readProvider(JsonReader reader) throws IOException {
+        // the "type" may come after any other property, so the
+        // (potentially big) character lists and advances are read
+        // directly, and the rest is read as a tree
+        JsonObject node = new JsonObject();
+        List<String> characters = null;
+        Map<String, Integer> advances = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("chars") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                characters = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    characters.add(GsonUtil.nextString(reader));
                 }
-                case "unihex": {
-                    providers.add(readUnihex(providerObjectNode));
-                    break;
+                reader.endArray();
+            } else if (name.equals("advances") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                advances = new LinkedHashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    advances.put(reader.nextName(), GsonUtil.nextAsInt(reader));
                 }
-                default:
-                    throw new IllegalStateException("Unknown font provider type: " + type);
+                reader.endObject();
+            } else {
+                node.add(name, GsonUtil.parseReader(reader));
             }
         }
-        return Font.of(key, providers);
+        reader.endObject();
+        return readProvider(node, characters, advances);
+    }
+
+    private static FontProvider readProvider(JsonObject node, @Nullable List<String> characters, @Nullable Map<String, Integer> advances) {
+        String type = node.get("type").getAsString();
+        switch (type) {
+            case "bitmap":
+                return readBitMap(node, characters);
+            case "legacy_unicode":
+                return readLegacyUnicode(node);
+            case "space":
+                return advances == null ? readSpace(node) : FontProvider.space(advances);
+            case "ttf":
+                return readTrueType(node);
+            case "reference":
+                return readReference(node);
+            case "unihex":
+                return readUnihex(node);
+            default:
+                throw new IllegalStateException("Unknown font provider type: " + type);
+        }
     }
 
     private static void writeBitMap(JsonWriter writer, BitMapFontProvider provider) throws IOException {
@@ -152,10 +203,12 @@ public final class FontSerializer implements JsonResourceSerializer<Font>, JsonR
                 .endObject();
     }
 
-    private static BitMapFontProvider readBitMap(JsonObject node) {
-        List<String> characters = new ArrayList<>();
-        for (JsonElement line : node.getAsJsonArray("chars")) {
-            characters.add(line.getAsString());
+    private static BitMapFontProvider readBitMap(JsonObject node, @Nullable List<String> characters) {
+        if (characters == null) {
+            characters = new ArrayList<>();
+            for (JsonElement line : node.getAsJsonArray("chars")) {
+                characters.add(line.getAsString());
+            }
         }
 
         return FontProvider.bitMap()
@@ -30,6 +30,7 @@ import team.unnamed.creative.base.Readable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
@@ -103,6 +104,28 @@ public interface FileTreeReader extends AutoCloseable {
         return new ZipFileTreeReader(zipFile);
     }
 
+    /**
+     * Creates a new {@link FileTreeReader} that memory-maps the zip
+     * file at the given path.
+     *
+     * <p>The zip central directory is read up front, and the entries
+     * are read from the mapped file, so their {@link #content() content}
+     * remains valid after closing the reader without being copied to
+     * memory. Note that the file must not be modified while its content
+     * is in use.</p>
+     *
+     * <p>Only zip files up to 2GiB, without encryption, and with stored
+     * or deflated entries are supported.</p>
+     *
+     * @param path The zip file path
+     * @return The created file tree reader
+     * @throws IOException If the file can't be opened or isn't a valid zip file
+     * @since 1.7.0
+     */
+    static @NotNull FileTreeReader mappedZip(final @NotNull Path path) throws IOException {
+        return MappedZipFileTreeReader.open(path);
+    }
+
     static FileTreeReader directory(File root) {
         return new DirectoryFileTreeReader(root);
     }
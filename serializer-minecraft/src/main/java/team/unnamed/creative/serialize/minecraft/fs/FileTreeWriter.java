@@ -32,10 +32,13 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * Represents a file tree, which may be implemented by a
  * real file system with real files, or ZIP files
@@ -94,6 +97,26 @@ public interface FileTreeWriter extends AutoCloseable {
      */
     void write(String path, Writable data);
 
+    /**
+     * Writes the given data to the given path, the data is
+     * identified by the given fingerprint, e.g. a digest of it.
+     *
+     * <p>File trees that cache their entries (see {@link ZipEntryCache})
+     * may reuse the entry written in a previous build to the same path
+     * with an equal fingerprint, without writing the given data. So
+     * the fingerprint must be equal only for equal data, and must not
+     * change once given, mutable objects such as resources are not
+     * valid fingerprints.</p>
+     *
+     * @param path The file path
+     * @param fingerprint The data fingerprint
+     * @param data The file data
+     * @since 1.7.0
+     */
+    default void write(String path, Object fingerprint, Writable data) {
+        write(path, data);
+    }
+
     /**
      * Finishes writing the file tree without
      * closing the underlying resource, if any
@@ -206,4 +229,69 @@ public interface FileTreeWriter extends AutoCloseable {
         return zip(zipStream, ZipEntryLifecycleHandler.DEFAULT);
     }
 
+    /**
+     * Creates a new {@link FileTreeWriter} instance that writes
+     * a zip archive to the given output stream, deflating the
+     * entries concurrently on the given pool.
+     *
+     * <p>Entries are written in the order they were added, so
+     * the archive is always the same, regardless of the pool
+     * parallelism. {@link #finish()} waits for all the entries
+     * and writes the central directory, {@link #close()} also
+     * closes the given output stream.</p>
+     *
+     * <p>ZIP64 archives (larger than 4GiB or with more than
+     * 65535 entries) are not supported.</p>
+     *
+     * @param output The output stream
+     * @param entryLifecycleHandler The ZIP archive entry lifecycle handler
+     * @param pool The pool where entries are compressed
+     * @return The file tree for the given output stream
+     * @since 1.7.0
+     */
+    static FileTreeWriter parallelZip(OutputStream output, ZipEntryLifecycleHandler entryLifecycleHandler, ForkJoinPool pool) {
+        requireNonNull(output, "output");
+        requireNonNull(entryLifecycleHandler, "entryLifecycleHandler");
+        requireNonNull(pool, "pool");
+        return new ParallelZipFileTreeWriter(output, entryLifecycleHandler, pool, null);
+    }
+
+    /**
+     * Creates a new {@link FileTreeWriter} instance that writes
+     * a zip archive to the given output stream, deflating the
+     * entries concurrently on the given pool, and reusing the
+     * unchanged entries from the given cache, which is updated
+     * with the new entries.
+     *
+     * <p>See {@link #parallelZip(OutputStream, ZipEntryLifecycleHandler, ForkJoinPool)}</p>
+     *
+     * @param output The output stream
+     * @param entryLifecycleHandler The ZIP archive entry lifecycle handler
+     * @param pool The pool where entries are compressed
+     * @param cache The compressed entry cache
+     * @return The file tree for the given output stream
+     * @since 1.7.0
+     */
+    static FileTreeWriter parallelZip(OutputStream output, ZipEntryLifecycleHandler entryLifecycleHandler, ForkJoinPool pool, ZipEntryCache cache) {
+        requireNonNull(output, "output");
+        requireNonNull(entryLifecycleHandler, "entryLifecycleHandler");
+        requireNonNull(pool, "pool");
+        requireNonNull(cache, "cache");
+        return new ParallelZipFileTreeWriter(output, entryLifecycleHandler, pool, cache);
+    }
+
+    /**
+     * Creates a new {@link FileTreeWriter} instance that writes
+     * a zip archive to the given output stream, deflating the
+     * entries concurrently on the {@link ForkJoinPool#commonPool() common pool},
+     * see {@link #parallelZip(OutputStream, ZipEntryLifecycleHandler, ForkJoinPool)}
+     *
+     * @param output The output stream
+     * @return The file tree for the given output stream
+     * @since 1.7.0
+     */
+    static FileTreeWriter parallelZip(OutputStream output) {
+        return parallelZip(output, ZipEntryLifecycleHandler.DEFAULT, ForkJoinPool.commonPool());
+    }
+
 }
@@ -0,0 +1,467 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.base.Readable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link FileTreeReader} that memory-maps a zip file and reads its
+ * central directory into a compact index.
+ *
+ * <p>Entries are exposed as slices of the mapped file, stored entries
+ * are read without copying them and deflated entries are inflated on
+ * demand. The mapping outlives {@link #close()}, so the created
+ * {@link Readable} objects remain valid without being copied to the
+ * heap.</p>
+ */
+final class MappedZipFileTreeReader implements FileTreeReader {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int LOCAL_HEADER_LENGTH = 30;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_LENGTH = 22;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_END_LENGTH = 56;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    // the index, one element per (non-directory) entry,
+    // in the central directory order
+    private final String[] names;
+    private final int[] methods;
+    private final int[] localHeaderOffsets;
+    private final int[] compressedSizes;
+    private final int[] sizes;
+
+    private int cursor = -1;
+    private @Nullable InputStream currentStream;
+
+    private MappedZipFileTreeReader(final @NotNull FileChannel channel, final @NotNull ByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+
+        final int end = findEnd(buffer);
+        long entryCount = buffer.getShort(end + 10) & 0xFFFF;
+        long centralDirectoryOffset = buffer.getInt(end + 16) & 0xFFFFFFFFL;
+
+        final int locator = end - ZIP64_LOCATOR_LENGTH;
+        if (locator >= 0 && buffer.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+            final int zip64End = checkedOffset(buffer.getLong(locator + 8));
+            checkRange(buffer, zip64End, ZIP64_END_LENGTH, "ZIP64 end of central directory record");
+            if (buffer.getInt(zip64End) != ZIP64_END_SIGNATURE) {
+                throw new ZipException("Invalid ZIP64 end of central directory record");
+            }
+            entryCount = buffer.getLong(zip64End + 32);
+            centralDirectoryOffset = buffer.getLong(zip64End + 48);
+        }
+
+        int position = checkedOffset(centralDirectoryOffset);
+        if (position > buffer.limit()) {
+            throw new ZipException("Invalid central directory offset: " + position);
+        }
+        // every entry takes at least one header, check the declared
+        // count before allocating anything from it
+        if (entryCount < 0 || entryCount > (buffer.limit() - position) / CENTRAL_HEADER_LENGTH) {
+            throw new ZipException("Invalid entry count: " + entryCount);
+        }
+
+        final int count = (int) entryCount;
+        final String[] names = new String[count];
+        final int[] methods = new int[count];
+        final int[] localHeaderOffsets = new int[count];
+        final int[] compressedSizes = new int[count];
+        final int[] sizes = new int[count];
+
+        int files = 0;
+        for (int i = 0; i < count; i++) {
+            checkRange(buffer, position, CENTRAL_HEADER_LENGTH, "central directory header");
+            if (buffer.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid central directory header at " + position);
+            }
+            final int flags = buffer.getShort(position + 8) & 0xFFFF;
+            final int method = buffer.getShort(position + 10) & 0xFFFF;
+            long compressedSize = buffer.getInt(position + 20) & 0xFFFFFFFFL;
+            long size = buffer.getInt(position + 24) & 0xFFFFFFFFL;
+            final int nameLength = buffer.getShort(position + 28) & 0xFFFF;
+            final int extraLength = buffer.getShort(position + 30) & 0xFFFF;
+            final int commentLength = buffer.getShort(position + 32) & 0xFFFF;
+            long localHeaderOffset = buffer.getInt(position + 42) & 0xFFFFFFFFL;
+            checkRange(buffer, position + CENTRAL_HEADER_LENGTH, (long) nameLength + extraLength + commentLength, "central directory header");
+
+            final String name = string(buffer, position + CENTRAL_HEADER_LENGTH, nameLength);
+
+            // ZIP64 extra field, only has the values that didn't fit
+            int extra = position + CENTRAL_HEADER_LENGTH + nameLength;
+            final int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                final int id = buffer.getShort(extra) & 0xFFFF;
+                final int length = buffer.getShort(extra + 2) & 0xFFFF;
+                final int fieldEnd = extra + 4 + length;
+                if (fieldEnd > extraEnd) {
+                    throw new ZipException("Invalid extra field for entry: " + name);
+                }
+                if (id == ZIP64_EXTRA_ID) {
+                    int field = extra + 4;
+                    if (size == ZIP64_MAGIC) {
+                        size = zip64Value(buffer, field, fieldEnd, name);
+                        field += 8;
+                    }
+                    if (compressedSize == ZIP64_MAGIC) {
+                        compressedSize = zip64Value(buffer, field, fieldEnd, name);
+                        field += 8;
+                    }
+                    if (localHeaderOffset == ZIP64_MAGIC) {
+                        localHeaderOffset = zip64Value(buffer, field, fieldEnd, name);
+                    }
+                }
+                extra += 4 + length;
+            }
+
+            position = extraEnd + commentLength;
+
+            if (name.endsWith("/")) {
+                // directory
+                continue;
+            }
+            if ((flags & 1) != 0) {
+                throw new ZipException("Encrypted entries are not supported: " + name);
+            }
+            if (method == ZipEntry.STORED && size != compressedSize) {
+                throw new ZipException("Invalid size for stored entry: " + name);
+            }
+            checkRange(buffer, localHeaderOffset, LOCAL_HEADER_LENGTH + compressedSize, "entry: " + name);
+
+            names[files] = name;
+            methods[files] = method;
+            localHeaderOffsets[files] = checkedOffset(localHeaderOffset);
+            compressedSizes[files] = checkedOffset(compressedSize);
+            sizes[files] = checkedOffset(size);
+            files++;
+        }
+
+        if (files == count) {
+            this.names = names;
+            this.methods = methods;
+            this.localHeaderOffsets = localHeaderOffsets;
+            this.compressedSizes = compressedSizes;
+            this.sizes = sizes;
+        } else {
+            // trim the directories out
+            this.names = Arrays.copyOf(names, files);
+            this.methods = Arrays.copyOf(methods, files);
+            this.localHeaderOffsets = Arrays.copyOf(localHeaderOffsets, files);
+            this.compressedSizes = Arrays.copyOf(compressedSizes, files);
+            this.sizes = Arrays.copyOf(sizes, files);
+        }
+    }
+
+    static @NotNull MappedZipFileTreeReader open(final @NotNull Path path) throws IOException {
+        requireNonNull(path, "path");
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Zip file is too large to be mapped: " + path + " (" + length + " bytes)");
+            }
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            return new MappedZipFileTreeReader(channel, buffer);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static int findEnd(final @NotNull ByteBuffer buffer) throws ZipException {
+        // the end of central directory record is at the end of the
+        // file, followed by a variable-length comment
+        final int last = buffer.limit() - END_LENGTH;
+        final int first = Math.max(0, last - MAX_COMMENT_LENGTH);
+        for (int position = last; position >= first; position--) {
+            if (buffer.getInt(position) == END_SIGNATURE
+                    && position + END_LENGTH + (buffer.getShort(position + 20) & 0xFFFF) == buffer.limit()) {
+                return position;
+            }
+        }
+        throw new ZipException("End of central directory record not found");
+    }
+
+    private static int checkedOffset(final long value) throws ZipException {
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new ZipException("Invalid zip offset or size: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Checks that the given range is inside the mapped file, as the
+     * offsets and sizes come from the (possibly truncated or corrupt)
+     * file itself.
+     */
+    private static void checkRange(final @NotNull ByteBuffer buffer, final long offset, final long length, final @NotNull String what) throws ZipException {
+        if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+            throw new ZipException("Invalid " + what + ": range [" + offset + ", " + (offset + length)
+                    + ") is outside of the file (" + buffer.limit() + " bytes)");
+        }
+    }
+
+    private static long zip64Value(final @NotNull ByteBuffer buffer, final int field, final int fieldEnd, final @NotNull String name) throws ZipException {
+        if (field + 8 > fieldEnd) {
+            throw new ZipException("Invalid ZIP64 extra field for entry: " + name);
+        }
+        return buffer.getLong(field);
+    }
+
+    private static @NotNull String string(final @NotNull ByteBuffer buffer, final int offset, final int length) {
+        final byte[] bytes = new byte[length];
+        final ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        slice.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the (compressed) data of the given entry, as a slice
+     * of the mapped file.
+     */
+    private @NotNull ByteBuffer data(final int index) throws ZipException {
+        final int header = localHeaderOffsets[index];
+        checkRange(buffer, header, LOCAL_HEADER_LENGTH, "local file header for entry: " + names[index]);
+        if (buffer.getInt(header) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("Invalid local file header for entry: " + names[index]);
+        }
+        // the local extra field may differ from the central one
+        final int nameLength = buffer.getShort(header + 26) & 0xFFFF;
+        final int extraLength = buffer.getShort(header + 28) & 0xFFFF;
+        final int start = header + LOCAL_HEADER_LENGTH + nameLength + extraLength;
+        checkRange(buffer, start, compressedSizes[index], "data for entry: " + names[index]);
+
+        final ByteBuffer data = buffer.duplicate();
+        data.limit(start + compressedSizes[index]);
+        data.position(start);
+        return data.slice();
+    }
+
+    private void closeCurrentStream() {
+        if (currentStream != null) {
+            Streams.closeUnchecked(currentStream);
+            currentStream = null;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor + 1 < names.length;
+    }
+
+    @Override
+    public @NotNull String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        closeCurrentStream();
+        return names[++cursor];
+    }
+
+    @Override
+    public @NotNull InputStream stream() {
+        if (cursor < 0) {
+            throw new IllegalStateException("No current entry, call next() first");
+        }
+        closeCurrentStream();
+        try {
+            return currentStream = content().open();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to get input stream for current entry: " + names[cursor], e);
+        }
+    }
+
+    @Override
+    public @NotNull Readable content() {
+        if (cursor < 0) {
+            throw new IllegalStateException("No current entry, call next() first");
+        }
+        return new MappedEntryReadable(cursor);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeCurrentStream();
+        // the mapping remains valid after closing the channel
+        channel.close();
+    }
+
+    private final class MappedEntryReadable implements Readable {
+        private final String name;
+        private final int method;
+        private final int size;
+        private final int index;
+
+        MappedEntryReadable(final int index) {
+            this.index = index;
+            this.name = names[index];
+            this.method = methods[index];
+            this.size = sizes[index];
+        }
+
+        @Override
+        public @NotNull InputStream open() throws IOException {
+            final ByteBuffer data = data(index);
+            switch (method) {
+                case ZipEntry.STORED:
+                    return new ByteBufferInputStream(data);
+                case ZipEntry.DEFLATED:
+                    return new InflatingInputStream(new ByteBufferInputStream(data), size);
+                default:
+                    throw new ZipException("Unsupported compression method " + method + " for entry: " + name);
+            }
+        }
+
+        @Override
+        public byte @NotNull [] readAsByteArray() {
+            if (method != ZipEntry.STORED) {
+                return Readable.super.readAsByteArray();
+            }
+            final byte[] bytes = new byte[size];
+            try {
+                data(index).get(bytes);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final @NotNull ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte @NotNull [] bytes, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    private static final class InflatingInputStream extends InflaterInputStream {
+        private final int size;
+        private boolean eof;
+        private boolean closed;
+
+        InflatingInputStream(final @NotNull InputStream input, final int size) {
+            super(input, new Inflater(true), Math.max(512, Math.min(size, 8192)));
+            this.size = size;
+        }
+
+        @Override
+        protected void fill() throws IOException {
+            if (eof) {
+                throw new EOFException("Unexpected end of deflated entry");
+            }
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                // raw deflate data may need an extra byte to finish
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            final long remaining = size - inf.getBytesWritten();
+            return remaining > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(0, remaining);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                // we created the inflater, so we release it
+                inf.end();
+                super.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,579 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.base.Writable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * A {@link FileTreeWriter} that writes a zip archive, deflating
+ * its entries concurrently on a {@link ForkJoinPool}.
+ *
+ * <p>Every entry is compressed independently into its own buffer,
+ * then the entries are written to the output in the order they were
+ * added, so the output is always the same, regardless of the pool
+ * parallelism. Entries are written as soon as they and all the
+ * previous entries are compressed, and adding entries blocks while
+ * too many are in flight, so only a few entries per pool thread are
+ * held in memory.</p>
+ *
+ * <p>Sizes and CRCs are known before the entries are written, so
+ * unlike {@link java.util.zip.ZipOutputStream}, no data descriptors
+ * are written. ZIP64 archives are not supported.</p>
+ *
+ * <p>If a {@link ZipEntryCache} is given, entries that didn't change
+ * since the previous build are reused instead of compressed.</p>
+ */
+final class ParallelZipFileTreeWriter implements FileTreeWriter {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final long DOS_TIME_BEFORE_1980 = (1 << 21) | (1 << 16);
+    private static final long MAX_ZIP32_VALUE = 0xFFFFFFFFL;
+    private static final int MAX_ZIP32_ENTRIES = 0xFFFF;
+    // entries submitted and not written yet, per pool thread
+    private static final int MAX_PENDING_PER_THREAD = 4;
+
+    private static final ThreadLocal<byte[]> DEFLATE_BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot find SHA-1 algorithm", e);
+        }
+    });
+
+    private final Set<String> names = new HashSet<>();
+    private final OutputStream output;
+    private final ZipEntryLifecycleHandler entryLifecycleHandler;
+    private final ForkJoinPool pool;
+    private final @Nullable ZipEntryCacheImpl cache;
+    private final int maxPending;
+
+    // deflaters are expensive to create, they are reused by the tasks
+    // of this writer, per compression level (indexed by level + 1), and
+    // their native memory is released when the writer is closed
+    private final List<Queue<Deflater>> deflaters;
+
+    // entries submitted for compression, in order
+    private final Deque<CompletableFuture<CompressedEntry>> pending = new ArrayDeque<>();
+    // central directory records of the written entries
+    private final List<CompressedEntry> written = new ArrayList<>();
+    private long offset;
+    private boolean finished;
+
+    private EntryOutputStream current;
+
+    ParallelZipFileTreeWriter(OutputStream output, ZipEntryLifecycleHandler entryLifecycleHandler, ForkJoinPool pool, @Nullable ZipEntryCache cache) {
+        this.output = output;
+        this.entryLifecycleHandler = entryLifecycleHandler;
+        this.pool = pool;
+        this.cache = (ZipEntryCacheImpl) cache;
+        this.maxPending = Math.max(1, pool.getParallelism()) * MAX_PENDING_PER_THREAD;
+        this.deflaters = new ArrayList<>(Deflater.BEST_COMPRESSION + 2);
+        for (int level = Deflater.DEFAULT_COMPRESSION; level <= Deflater.BEST_COMPRESSION; level++) {
+            this.deflaters.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return names.contains(path);
+    }
+
+    @Override
+    public OutputStream openStream(String path) {
+        if (!names.add(path)) {
+            throw new IllegalStateException("File " + path + " already exists!");
+        }
+        closeCurrent();
+        current = new EntryOutputStream(entryLifecycleHandler.create(path));
+        return current;
+    }
+
+    @Override
+    public void write(String path, Writable data) {
+        if (!names.add(path)) {
+            throw new IllegalStateException("File " + path + " already exists!");
+        }
+        closeCurrent();
+
+        ZipEntry entry = entryLifecycleHandler.create(path);
+        ExposedByteArrayOutputStream buffer = new ExposedByteArrayOutputStream();
+        try {
+            data.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        submit(entry, buffer, null);
+    }
+
+    @Override
+    public void write(String path, Object fingerprint, Writable data) {
+        if (cache == null) {
+            write(path, data);
+            return;
+        }
+        if (!names.add(path)) {
+            throw new IllegalStateException("File " + path + " already exists!");
+        }
+        closeCurrent();
+
+        ZipEntry entry = entryLifecycleHandler.create(path);
+        ZipEntryCacheImpl.CachedEntry cached = cache.get(path, fingerprint, methodOf(entry), levelOf(entry));
+        if (cached != null) {
+            // unchanged, data is not even serialized
+            enqueue(CompletableFuture.completedFuture(new CompressedEntry(entry, cached)));
+            return;
+        }
+
+        ExposedByteArrayOutputStream buffer = new ExposedByteArrayOutputStream();
+        try {
+            data.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        submit(entry, buffer, fingerprint);
+    }
+
+    private void closeCurrent() {
+        if (current != null) {
+            // did you forgor to close it?
+            current.close();
+            current = null;
+        }
+    }
+
+    private void submit(ZipEntry entry, ExposedByteArrayOutputStream data, @Nullable Object fingerprint) {
+        // the handler is only called from the writing thread
+        int level = levelOf(entry);
+        enqueue(CompletableFuture.supplyAsync(() -> compress(entry, level, data.buffer(), data.size(), fingerprint), pool));
+    }
+
+    private void enqueue(CompletableFuture<CompressedEntry> task) {
+        if (finished) {
+            throw new IllegalStateException("Writer already finished");
+        }
+        pending.add(task);
+        try {
+            // write the entries that are already compressed,
+            // so that they are not held in memory
+            while (!pending.isEmpty() && pending.peek().isDone()) {
+                writeEntry(pending.poll().join());
+            }
+            // and wait for the oldest ones if there are too many
+            // in flight, so that a fast producer doesn't hold all
+            // the entries in memory
+            while (pending.size() > maxPending) {
+                writeEntry(pending.poll().join());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CompressedEntry compress(ZipEntry entry, int level, byte[] data, int length, @Nullable Object fingerprint) {
+        int method = methodOf(entry);
+        if (cache != null && fingerprint == null) {
+            MessageDigest digest = DIGEST.get();
+            digest.update(data, 0, length);
+            fingerprint = new ZipEntryCacheImpl.ContentFingerprint(digest.digest());
+            ZipEntryCacheImpl.CachedEntry cached = cache.get(entry.getName(), fingerprint, method, level);
+            if (cached != null) {
+                return new CompressedEntry(entry, cached);
+            }
+        }
+
+        CompressedEntry compressed = compress(entry, level, data, length);
+        if (cache != null) {
+            cache.put(entry.getName(), new ZipEntryCacheImpl.CachedEntry(
+                    fingerprint,
+                    method,
+                    level,
+                    compressed.crc,
+                    compressed.size,
+                    compressed.data,
+                    compressed.compressedSize
+            ));
+        }
+        return compressed;
+    }
+
+    private static int methodOf(ZipEntry entry) {
+        return entry.getMethod() == ZipEntry.STORED ? ZipEntry.STORED : ZipEntry.DEFLATED;
+    }
+
+    private int levelOf(ZipEntry entry) {
+        if (methodOf(entry) == ZipEntry.STORED) {
+            return Deflater.NO_COMPRESSION;
+        }
+        int level = entryLifecycleHandler.compressionLevel(entry);
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level " + level + " for entry " + entry.getName());
+        }
+        return level;
+    }
+
+    private Deflater borrowDeflater(int level) {
+        Deflater deflater = deflaters.get(level + 1).poll();
+        return deflater == null ? new Deflater(level, true) : deflater;
+    }
+
+    private void releaseDeflater(int level, Deflater deflater) {
+        deflater.reset();
+        deflaters.get(level + 1).add(deflater);
+    }
+
+    private void endDeflaters() {
+        for (Queue<Deflater> queue : deflaters) {
+            Deflater deflater;
+            while ((deflater = queue.poll()) != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private CompressedEntry compress(ZipEntry entry, int level, byte[] data, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+
+        if (entry.getMethod() == ZipEntry.STORED) {
+            return new CompressedEntry(entry, crc.getValue(), length, data, length);
+        }
+
+        Deflater deflater = borrowDeflater(level);
+        byte[] chunk = DEFLATE_BUFFER.get();
+        ExposedByteArrayOutputStream compressed = new ExposedByteArrayOutputStream(Math.max(32, length / 2));
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int len = deflater.deflate(chunk, 0, chunk.length);
+                compressed.write(chunk, 0, len);
+            }
+        } finally {
+            releaseDeflater(level, deflater);
+        }
+        return new CompressedEntry(entry, crc.getValue(), length, compressed.buffer(), compressed.size());
+    }
+
+    private void writeEntry(CompressedEntry compressed) throws IOException {
+        ZipEntry entry = compressed.entry;
+        if (compressed.compressedSize > MAX_ZIP32_VALUE || offset > MAX_ZIP32_VALUE) {
+            throw new ZipException("ZIP64 is not supported, entry: " + entry.getName());
+        }
+        if (written.size() >= MAX_ZIP32_ENTRIES) {
+            throw new ZipException("ZIP64 is not supported, too many entries");
+        }
+
+        entry.setMethod(compressed.method());
+        entry.setCrc(compressed.crc);
+        entry.setSize(compressed.size);
+        entry.setCompressedSize(compressed.compressedSize);
+        compressed.offset = offset;
+
+        byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] extra = extraOf(entry);
+        LittleEndianBuffer header = new LittleEndianBuffer(30 + name.length + extra.length);
+        header.writeInt(LOCAL_HEADER_SIGNATURE);
+        header.writeShort(compressed.versionNeeded());
+        header.writeShort(UTF8_FLAG);
+        header.writeShort(compressed.method());
+        header.writeInt(dosTime(entry.getTime()));
+        header.writeInt(compressed.crc);
+        header.writeInt(compressed.compressedSize);
+        header.writeInt(compressed.size);
+        header.writeShort(name.length);
+        header.writeShort(extra.length);
+        header.write(name);
+        header.write(extra);
+
+        output.write(header.bytes);
+        output.write(compressed.data, 0, compressed.compressedSize);
+        offset += header.bytes.length + compressed.compressedSize;
+
+        // release the data, only the headers are kept
+        compressed.data = null;
+        written.add(compressed);
+        entryLifecycleHandler.onClose(entry);
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long start = offset;
+        for (CompressedEntry compressed : written) {
+            ZipEntry entry = compressed.entry;
+            byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+            byte[] extra = extraOf(entry);
+            byte[] comment = entry.getComment() == null ? new byte[0] : entry.getComment().getBytes(StandardCharsets.UTF_8);
+            LittleEndianBuffer header = new LittleEndianBuffer(46 + name.length + extra.length + comment.length);
+            header.writeInt(CENTRAL_HEADER_SIGNATURE);
+            header.writeShort(compressed.versionNeeded()); // version made by
+            header.writeShort(compressed.versionNeeded());
+            header.writeShort(UTF8_FLAG);
+            header.writeShort(compressed.method());
+            header.writeInt(dosTime(entry.getTime()));
+            header.writeInt(compressed.crc);
+            header.writeInt(compressed.compressedSize);
+            header.writeInt(compressed.size);
+            header.writeShort(name.length);
+            header.writeShort(extra.length);
+            header.writeShort(comment.length);
+            header.writeShort(0); // disk number start
+            header.writeShort(0); // internal file attributes
+            header.writeInt(0); // external file attributes
+            header.writeInt(compressed.offset);
+            header.write(name);
+            header.write(extra);
+            header.write(comment);
+            output.write(header.bytes);
+            offset += header.bytes.length;
+        }
+
+        long size = offset - start;
+        if (start > MAX_ZIP32_VALUE || size > MAX_ZIP32_VALUE) {
+            throw new ZipException("ZIP64 is not supported, archive too large");
+        }
+        LittleEndianBuffer end = new LittleEndianBuffer(22);
+        end.writeInt(END_SIGNATURE);
+        end.writeShort(0); // number of this disk
+        end.writeShort(0); // disk where the central directory starts
+        end.writeShort(written.size());
+        end.writeShort(written.size());
+        end.writeInt(size);
+        end.writeInt(start);
+        end.writeShort(0); // comment length
+        output.write(end.bytes);
+        offset += end.bytes.length;
+    }
+
+    private static byte[] extraOf(ZipEntry entry) {
+        byte[] extra = entry.getExtra();
+        return extra == null ? new byte[0] : extra;
+    }
+
+    private static long dosTime(long time) {
+        if (time == -1) {
+            time = System.currentTimeMillis();
+        }
+        // same conversion as ZipOutputStream, using the default time-zone
+        LocalDateTime date = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        int year = date.getYear();
+        if (year < 1980) {
+            return DOS_TIME_BEFORE_1980;
+        }
+        return ((long) (year - 1980) << 25)
+                | ((long) date.getMonthValue() << 21)
+                | ((long) date.getDayOfMonth() << 16)
+                | ((long) date.getHour() << 11)
+                | ((long) date.getMinute() << 5)
+                | ((long) date.getSecond() >> 1);
+    }
+
+    @Override
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        closeCurrent();
+        finished = true;
+        try {
+            while (!pending.isEmpty()) {
+                writeEntry(pending.poll().join());
+            }
+            // every entry is compressed
+            endDeflaters();
+            writeCentralDirectory();
+            output.flush();
+            if (cache != null) {
+                // evict the entries that were not written in this build
+                cache.retain(names);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            finish();
+        } finally {
+            // if finishing failed, wait for the tasks still using deflaters
+            for (CompletableFuture<CompressedEntry> task : pending) {
+                try {
+                    task.join();
+                } catch (RuntimeException ignored) {
+                }
+            }
+            pending.clear();
+            endDeflaters();
+            try {
+                output.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class CompressedEntry {
+        private final ZipEntry entry;
+        private final long crc;
+        private final long size;
+        private byte[] data;
+        private final int compressedSize;
+        private long offset;
+
+        private CompressedEntry(ZipEntry entry, long crc, long size, byte[] data, int compressedSize) {
+            this.entry = entry;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+            this.compressedSize = compressedSize;
+        }
+
+        private CompressedEntry(ZipEntry entry, ZipEntryCacheImpl.CachedEntry cached) {
+            this(entry, cached.crc, cached.size, cached.data, cached.compressedSize);
+        }
+
+        private int method() {
+            return methodOf(entry);
+        }
+
+        private int versionNeeded() {
+            return method() == ZipEntry.STORED ? 10 : 20;
+        }
+    }
+
+    private static final class LittleEndianBuffer {
+        private final byte[] bytes;
+        private int position;
+
+        private LittleEndianBuffer(int length) {
+            this.bytes = new byte[length];
+        }
+
+        private void writeShort(int value) {
+            bytes[position++] = (byte) value;
+            bytes[position++] = (byte) (value >>> 8);
+        }
+
+        private void writeInt(long value) {
+            writeShort((int) (value & 0xFFFF));
+            writeShort((int) ((value >>> 16) & 0xFFFF));
+        }
+
+        private void write(byte[] data) {
+            System.arraycopy(data, 0, bytes, position, data.length);
+            position += data.length;
+        }
+    }
+
+    private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        private ExposedByteArrayOutputStream() {
+            super();
+        }
+
+        private ExposedByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        private byte[] buffer() {
+            // avoids copying the data, the stream is not used anymore
+            return buf;
+        }
+    }
+
+    private final class EntryOutputStream extends OutputStream {
+
+        private final ZipEntry entry;
+        private final ExposedByteArrayOutputStream buffer = new ExposedByteArrayOutputStream();
+        private boolean closed;
+
+        private EntryOutputStream(ZipEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void write(byte @NotNull [] b, int off, int len) throws IOException {
+            ensureValid();
+            buffer.write(b, off, len);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureValid();
+            buffer.write(b);
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                submit(entry, buffer, null);
+            }
+        }
+
+        private void ensureValid() throws IOException {
+            if (closed) {
+                if (current != this) {
+                    // !!! A new entry output stream was opened,
+                    // we are not anymore the current entry os
+                    throw new IOException("A new output stream has been " +
+                            "opened, this one is no longer usable");
+                }
+                throw new IOException("Stream closed");
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A cache of compressed zip entries, used by the
+ * {@link FileTreeWriter#parallelZip(java.io.OutputStream, ZipEntryLifecycleHandler, java.util.concurrent.ForkJoinPool, ZipEntryCache) parallel zip writer}
+ * to skip compressing the entries that didn't change since the
+ * previous build.
+ *
+ * <p>Entries are identified by their path and a fingerprint, which
+ * is the one given to
+ * {@link FileTreeWriter#write(String, Object, team.unnamed.creative.base.Writable)},
+ * or a digest of the entry data for any other entry. Entries are
+ * only reused if they use the same compression method and level.</p>
+ *
+ * <p>A cache is meant to be used for successive builds of the same
+ * resource-pack, one at a time. Only the entries of the last build
+ * are kept.</p>
+ *
+ * @since 1.7.0
+ */
+@ApiStatus.NonExtendable
+public interface ZipEntryCache {
+    /**
+     * Creates a new, empty {@link ZipEntryCache}.
+     *
+     * @return The created cache
+     * @since 1.7.0
+     */
+    static @NotNull ZipEntryCache zipEntryCache() {
+        return new ZipEntryCacheImpl();
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return The number of cached entries
+     * @since 1.7.0
+     */
+    int size();
+
+    /**
+     * Returns the number of entries that were reused
+     * from the cache, since the cache was created.
+     *
+     * @return The number of cache hits
+     * @since 1.7.0
+     */
+    long hits();
+
+    /**
+     * Removes all the cached entries.
+     *
+     * @since 1.7.0
+     */
+    void clear();
+}
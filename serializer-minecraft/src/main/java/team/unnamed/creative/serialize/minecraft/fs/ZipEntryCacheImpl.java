@@ -0,0 +1,123 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class ZipEntryCacheImpl implements ZipEntryCache {
+    private final ConcurrentMap<String, CachedEntry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+
+    @Nullable CachedEntry get(final @NotNull String path, final @NotNull Object fingerprint, final int method, final int level) {
+        final CachedEntry entry = entries.get(path);
+        if (entry != null && entry.method == method && entry.level == level && entry.fingerprint.equals(fingerprint)) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        return null;
+    }
+
+    void put(final @NotNull String path, final @NotNull CachedEntry entry) {
+        entries.put(path, entry);
+    }
+
+    void retain(final @NotNull Set<String> paths) {
+        entries.keySet().retainAll(paths);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public long hits() {
+        return hits.get();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "ZipEntryCache{" +
+                "size=" + entries.size() +
+                ", hits=" + hits.get() +
+                '}';
+    }
+
+    static final class CachedEntry {
+        final Object fingerprint;
+        final int method;
+        final int level;
+        final long crc;
+        final long size;
+        final byte[] data;
+        final int compressedSize;
+
+        CachedEntry(Object fingerprint, int method, int level, long crc, long size, byte[] data, int compressedSize) {
+            this.fingerprint = fingerprint;
+            this.method = method;
+            this.level = level;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+            this.compressedSize = compressedSize;
+        }
+    }
+
+    /**
+     * Fingerprint of entries identified by their data.
+     */
+    static final class ContentFingerprint {
+        private final byte[] digest;
+        private final int hashCode;
+
+        ContentFingerprint(byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ContentFingerprint)) return false;
+            return Arrays.equals(digest, ((ContentFingerprint) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
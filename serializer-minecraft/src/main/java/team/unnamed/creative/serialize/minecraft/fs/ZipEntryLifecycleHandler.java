@@ -23,14 +23,26 @@
  */
 package team.unnamed.creative.serialize.minecraft.fs;
 
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 
 /**
  * Handler of {@link ZipEntry} lifecycle when using {@link FileTreeWriter}
  * implementation for ZIPs, can handle ZipEntry creation and post-closing
+ *
+ * <p>It also determines how each entry is compressed: entries created
+ * with the {@link ZipEntry#STORED} method are written uncompressed (the
+ * writers compute their size and CRC), and the other entries are deflated
+ * using the level given by {@link #compressionLevel(ZipEntry)}.</p>
  */
 public interface ZipEntryLifecycleHandler {
 
+    /**
+     * The default handler, creates entries with a fixed time, so that
+     * the resulting archive is always the same, stores the already
+     * compressed files (PNG textures and OGG sounds) and deflates
+     * JSON files with the best compression level.
+     */
     ZipEntryLifecycleHandler DEFAULT = new ZipEntryLifecycleHandler() {
 
         @Override
@@ -39,12 +51,27 @@ public interface ZipEntryLifecycleHandler {
             // ensures that the resulting zip file is always
             // the exact same (because of hashes)
             entry.setTime(0L);
+            // deflating already compressed data takes time
+            // and doesn't make it any smaller
+            if (path.endsWith(".png") || path.endsWith(".ogg")) {
+                entry.setMethod(ZipEntry.STORED);
+            }
             // tip: if you want to make the resource pack
             // harder to open, you can set an asi extra field
             // using ZipEntry#setExtra(byte[])
             return entry;
         }
 
+        @Override
+        public int compressionLevel(ZipEntry entry) {
+            String name = entry.getName();
+            if (name.endsWith(".json") || name.endsWith(".mcmeta")) {
+                // text compresses really well
+                return Deflater.BEST_COMPRESSION;
+            }
+            return Deflater.DEFAULT_COMPRESSION;
+        }
+
     };
 
     /**
@@ -58,6 +85,22 @@ public interface ZipEntryLifecycleHandler {
         return new ZipEntry(path);
     }
 
+    /**
+     * Determines the level used to deflate the given entry,
+     * created by {@link #create(String)}, from
+     * {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION},
+     * or {@link Deflater#DEFAULT_COMPRESSION}
+     *
+     * <p>Not called for {@link ZipEntry#STORED} entries.</p>
+     *
+     * @param entry The entry
+     * @return The compression level for the entry
+     * @since 1.7.0
+     */
+    default int compressionLevel(ZipEntry entry) {
+        return Deflater.DEFAULT_COMPRESSION;
+    }
+
     /**
      * Called after the {@link ZipEntry} is closed, useful
      * if you want to add some details to the entry
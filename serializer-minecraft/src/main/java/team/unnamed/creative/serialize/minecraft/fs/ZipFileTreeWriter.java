@@ -26,11 +26,13 @@ package team.unnamed.creative.serialize.minecraft.fs;
 import org.jetbrains.annotations.NotNull;
 import team.unnamed.creative.base.Writable;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -67,8 +69,13 @@ final class ZipFileTreeWriter implements FileTreeWriter {
             }
 
             ZipEntry entry = entryLifecycleHandler.create(path);
-            output.putNextEntry(entry);
-            current = new ZipEntryOutputStream(entry);
+            if (entry.getMethod() == ZipEntry.STORED) {
+                // size and CRC must be known before, buffer it
+                current = new ZipEntryOutputStream(entry, new ByteArrayOutputStream());
+            } else {
+                putNextEntry(entry);
+                current = new ZipEntryOutputStream(entry, null);
+            }
             return current; // should be closed when any other method is called
         } catch (IOException e) {
             throw new UncheckedIOException(e);
@@ -89,9 +96,21 @@ final class ZipFileTreeWriter implements FileTreeWriter {
 
             // no-need to create a ZipEntryOutputStream
             ZipEntry entry = entryLifecycleHandler.create(path);
-            output.putNextEntry(entry);
-            data.write(output);
-            names.add(path);
+            if (entry.getMethod() == ZipEntry.STORED) {
+                // size and CRC must be known before, compute them in a
+                // first pass and stream the data in a second one, the
+                // ZipOutputStream fails if both passes don't match
+                CrcOutputStream crc = new CrcOutputStream();
+                data.write(crc);
+                entry.setSize(crc.size);
+                entry.setCompressedSize(crc.size);
+                entry.setCrc(crc.crc.getValue());
+                output.putNextEntry(entry);
+                data.write(output);
+            } else {
+                putNextEntry(entry);
+                data.write(output);
+            }
             output.closeEntry();
             entryLifecycleHandler.onClose(entry);
         } catch (IOException e) {
@@ -99,6 +118,24 @@ final class ZipFileTreeWriter implements FileTreeWriter {
         }
     }
 
+    private void putNextEntry(ZipEntry entry) throws IOException {
+        // applies to the next entry, since the deflater is reset
+        // when the previous entry is closed
+        output.setLevel(entryLifecycleHandler.compressionLevel(entry));
+        output.putNextEntry(entry);
+    }
+
+    private void putStoredEntry(ZipEntry entry, ByteArrayOutputStream data) throws IOException {
+        byte[] bytes = data.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        entry.setSize(bytes.length);
+        entry.setCompressedSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        output.putNextEntry(entry);
+        output.write(bytes);
+    }
+
     @Override
     public void finish() {
         try {
@@ -125,42 +162,75 @@ final class ZipFileTreeWriter implements FileTreeWriter {
         }
     }
 
+    /**
+     * An {@link OutputStream} that discards the written data,
+     * only computing its size and CRC-32.
+     */
+    private static final class CrcOutputStream extends OutputStream {
+
+        private final CRC32 crc = new CRC32();
+        private long size;
+
+        @Override
+        public void write(int b) {
+            crc.update(b);
+            size++;
+        }
+
+        @Override
+        public void write(byte @NotNull [] b, int off, int len) {
+            crc.update(b, off, len);
+            size += len;
+        }
+
+    }
+
     private class ZipEntryOutputStream extends OutputStream {
 
         private ZipEntry entry;
+        // data of STORED entries, written when closed
+        private final ByteArrayOutputStream buffer;
         private boolean closed;
 
-        private ZipEntryOutputStream(ZipEntry entry) {
+        private ZipEntryOutputStream(ZipEntry entry, ByteArrayOutputStream buffer) {
             this.entry = entry;
+            this.buffer = buffer;
+        }
+
+        private OutputStream target() {
+            return buffer == null ? output : buffer;
         }
 
         @Override
         public void write(byte @NotNull [] b) throws IOException {
             ensureValid();
-            output.write(b);
+            target().write(b);
         }
 
         @Override
         public void write(byte @NotNull [] b, int off, int len) throws IOException {
             ensureValid();
-            output.write(b, off, len);
+            target().write(b, off, len);
         }
 
         @Override
         public void write(int b) throws IOException {
             ensureValid();
-            output.write(b);
+            target().write(b);
         }
 
         @Override
         public void flush() throws IOException {
             ensureValid();
-            output.flush();
+            target().flush();
         }
 
         @Override
         public void close() throws IOException {
             if (!closed) {
+                if (buffer != null) {
+                    putStoredEntry(entry, buffer);
+                }
                 output.closeEntry();
                 entryLifecycleHandler.onClose(entry);
                 entry = null;
@@ -0,0 +1,57 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.io;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import net.kyori.adventure.key.Key;
+
+import java.io.IOException;
+
+/**
+ * A {@link JsonResourceDeserializer} that can also read resources
+ * directly from a {@link JsonReader}, without building a
+ * {@link JsonElement} tree first.
+ *
+ * <p>Both methods must return equal resources for the same JSON
+ * input.</p>
+ *
+ * @param <T> The resource type
+ * @since 1.7.0
+ */
+public interface JsonResourceStreamDeserializer<T> extends JsonResourceDeserializer<T> {
+
+    /**
+     * Reads the next JSON value from the given reader as a resource
+     * with the given key.
+     *
+     * @param reader The JSON reader
+     * @param key The resource key
+     * @return The read resource
+     * @throws IOException If reading fails
+     * @since 1.7.0
+     */
+    T deserializeFromJson(JsonReader reader, Key key) throws IOException;
+
+}
@@ -25,19 +25,21 @@ package team.unnamed.creative.serialize.minecraft.language;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import net.kyori.adventure.key.Key;
 import team.unnamed.creative.lang.Language;
 import team.unnamed.creative.overlay.ResourceContainer;
+import team.unnamed.creative.serialize.minecraft.GsonUtil;
 import team.unnamed.creative.serialize.minecraft.ResourceCategory;
-import team.unnamed.creative.serialize.minecraft.io.JsonResourceDeserializer;
 import team.unnamed.creative.serialize.minecraft.io.JsonResourceSerializer;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceStreamDeserializer;
 
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
-public final class LanguageSerializer implements JsonResourceSerializer<Language>, JsonResourceDeserializer<Language> {
+public final class LanguageSerializer implements JsonResourceSerializer<Language>, JsonResourceStreamDeserializer<Language> {
 
     public static final LanguageSerializer INSTANCE;
     public static final ResourceCategory<Language> CATEGORY;
@@ -82,4 +84,17 @@ public final class LanguageSerializer implements JsonResourceSerializer<Language
         return Language.language(key, translations);
     }
 
+    @Override
+    public Language deserializeFromJson(JsonReader reader, Key key) throws IOException {
+        Map<String, String> translations = new LinkedHashMap<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            translations.put(reader.nextName(), GsonUtil.nextString(reader));
+        }
+        reader.endObject();
+
+        return Language.language(key, translations);
+    }
+
 }
\ No newline at end of file
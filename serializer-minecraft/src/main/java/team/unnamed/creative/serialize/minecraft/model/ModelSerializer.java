@@ -27,6 +27,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import net.kyori.adventure.key.Key;
 import org.jetbrains.annotations.ApiStatus;
@@ -50,8 +51,8 @@ import team.unnamed.creative.overlay.ResourceContainer;
 import team.unnamed.creative.serialize.minecraft.GsonUtil;
 import team.unnamed.creative.serialize.minecraft.ResourceCategory;
 import team.unnamed.creative.serialize.minecraft.base.KeySerializer;
-import team.unnamed.creative.serialize.minecraft.io.JsonResourceDeserializer;
 import team.unnamed.creative.serialize.minecraft.io.JsonResourceSerializer;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceStreamDeserializer;
 import team.unnamed.creative.texture.TextureUV;
 
 import java.io.IOException;
@@ -63,7 +64,7 @@ import java.util.Map;
 import java.util.*;
 
 @ApiStatus.Internal
-public final class ModelSerializer implements JsonResourceSerializer<Model>, JsonResourceDeserializer<Model> {
+public final class ModelSerializer implements JsonResourceSerializer<Model>, JsonResourceStreamDeserializer<Model> {
 
     private static final float MINECRAFT_UV_UNIT = 16F;
 
@@ -206,6 +207,88 @@ public final class ModelSerializer implements JsonResourceSerializer<Model>, Jso
                 .build();
     }
 
+    @Override
+    public Model deserializeFromJson(JsonReader reader, Key key) throws IOException {
+        Key parent = null;
+        Map<ItemTransform.Type, ItemTransform> display = new LinkedHashMap<>();
+        List<Element> elements = new ArrayList<>();
+        ModelTextures texture = ModelTextures.builder().build();
+        Model.GuiLight guiLight = null;
+        boolean ambientOcclusion = Model.DEFAULT_AMBIENT_OCCLUSION;
+        List<ItemOverride> overrides = new ArrayList<>();
+        List<ItemGroup> groups = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "parent":
+                    parent = Key.key(GsonUtil.nextString(reader));
+                    break;
+                case "display":
+                    display = new LinkedHashMap<>();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        ItemTransform.Type type = ItemTransform.Type.valueOf(reader.nextName().toUpperCase(Locale.ROOT));
+                        display.put(type, readItemTransform(reader));
+                    }
+                    reader.endObject();
+                    break;
+                case "elements":
+                    elements = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        elements.add(readElement(reader));
+                    }
+                    reader.endArray();
+                    break;
+                case "textures":
+                    texture = readTextures(reader);
+                    break;
+                case "gui_light":
+                    guiLight = Model.GuiLight.valueOf(GsonUtil.nextString(reader).toUpperCase(Locale.ROOT));
+                    break;
+                case "ambientocclusion":
+                    ambientOcclusion = GsonUtil.nextBoolean(reader, Model.DEFAULT_AMBIENT_OCCLUSION);
+                    break;
+                case "overrides":
+                    overrides = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        overrides.add(readItemOverride(reader));
+                    }
+                    reader.endArray();
+                    break;
+                case "groups":
+                    // rare, read as a tree
+                    groups = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        JsonElement groupNode = GsonUtil.parseReader(reader);
+                        if (groupNode.isJsonObject())
+                            groups.add(readItemGroup(groupNode));
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        return Model.model()
+                .key(key)
+                .parent(parent)
+                .display(display)
+                .elements(elements)
+                .ambientOcclusion(ambientOcclusion)
+                .textures(texture)
+                .guiLight(guiLight)
+                .overrides(overrides)
+                .groups(groups)
+                .build();
+    }
+
     private static void writeElement(JsonWriter writer, Element element) throws IOException {
         writer
                 .beginObject()
@@ -332,6 +415,95 @@ public final class ModelSerializer implements JsonResourceSerializer<Model>, Jso
                 .build();
     }
 
+    private static Element readElement(JsonReader reader) throws IOException {
+        Element.Builder element = Element.element()
+                .shade(Element.DEFAULT_SHADE);
+        Map<CubeFace, ElementFace> faces = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "from":
+                    element.from(GsonUtil.readVector3Float(reader));
+                    break;
+                case "to":
+                    element.to(GsonUtil.readVector3Float(reader));
+                    break;
+                case "rotation":
+                    element.rotation(readElementRotation(reader));
+                    break;
+                case "shade":
+                    element.shade(GsonUtil.nextBoolean(reader, Element.DEFAULT_SHADE));
+                    break;
+                case "faces":
+                    faces = new LinkedHashMap<>();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        CubeFace face = CubeFace.valueOf(reader.nextName().toUpperCase(Locale.ROOT));
+                        faces.put(face, readElementFace(reader));
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (faces == null) {
+            throw new IllegalStateException("Element without faces at " + reader.getPath());
+        }
+        return element.faces(faces).build();
+    }
+
+    private static ElementFace readElementFace(JsonReader reader) throws IOException {
+        ElementFace.Builder face = ElementFace.face()
+                .rotation(ElementFace.DEFAULT_ROTATION)
+                .tintIndex(ElementFace.DEFAULT_TINT_INDEX);
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String property = reader.nextName();
+            switch (property) {
+                case "uv": {
+                    reader.beginArray();
+                    Vector2Float from = new Vector2Float(GsonUtil.nextAsFloat(reader), GsonUtil.nextAsFloat(reader));
+                    Vector2Float to = new Vector2Float(GsonUtil.nextAsFloat(reader), GsonUtil.nextAsFloat(reader));
+                    while (reader.hasNext()) {
+                        reader.skipValue();
+                    }
+                    reader.endArray();
+                    face.uv(TextureUV.uv(
+                            from.divide(MINECRAFT_UV_UNIT),
+                            to.divide(MINECRAFT_UV_UNIT)
+                    ));
+                    break;
+                }
+                case "cullface":
+                    face.cullFace(CubeFace.valueOf(GsonUtil.nextString(reader).toUpperCase(Locale.ROOT)));
+                    break;
+                case "texture":
+                    face.texture(GsonUtil.nextString(reader));
+                    break;
+                case "rotation":
+                case "tintindex":
+                    int value = GsonUtil.nextInt(reader, property);
+                    if (property.equals("rotation")) {
+                        face.rotation(value);
+                    } else {
+                        face.tintIndex(value);
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return face.build();
+    }
+
     private static void writeElementRotation(JsonWriter writer, ElementRotation rotation) throws IOException {
         writer.beginObject()
                 .name("origin");
@@ -357,6 +529,34 @@ public final class ModelSerializer implements JsonResourceSerializer<Model>, Jso
                 .build();
     }
 
+    private static ElementRotation readElementRotation(JsonReader reader) throws IOException {
+        ElementRotation.Builder rotation = ElementRotation.builder()
+                .rescale(ElementRotation.DEFAULT_RESCALE);
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "origin":
+                    rotation.origin(GsonUtil.readVector3Float(reader));
+                    break;
+                case "axis":
+                    rotation.axis(Axis3D.valueOf(GsonUtil.nextString(reader).toUpperCase(Locale.ROOT)));
+                    break;
+                case "angle":
+                    rotation.angle(GsonUtil.nextAsFloat(reader));
+                    break;
+                case "rescale":
+                    rotation.rescale(GsonUtil.nextBoolean(reader, ElementRotation.DEFAULT_RESCALE));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return rotation.build();
+    }
+
     private static void writeItemOverride(JsonWriter writer, ItemOverride override) throws IOException {
         writer.beginObject()
                 .name("predicate").beginObject();
@@ -391,26 +591,60 @@ public final class ModelSerializer implements JsonResourceSerializer<Model>, Jso
         Key key = Key.key(objectNode.get("model").getAsString());
         List<ItemPredicate> predicates = new ArrayList<>();
         for (Map.Entry<String, JsonElement> predicateEntry : objectNode.getAsJsonObject("predicate").entrySet()) {
-            JsonElement value = predicateEntry.getValue();
-            // TODO: better transformation
-            Object object;
-            if (value.isJsonPrimitive()) {
-                JsonPrimitive primitive = value.getAsJsonPrimitive();
-                if (primitive.isNumber()) {
-                    object = primitive.getAsNumber();
-                } else if (primitive.isBoolean()) {
-                    object = primitive.getAsBoolean();
-                } else {
-                    object = primitive.getAsString();
-                }
-            } else {
-                object = value.getAsString();
+            predicates.add(ItemPredicate.custom(predicateEntry.getKey(), readPredicateValue(predicateEntry.getValue())));
+        }
+        return ItemOverride.of(key, predicates);
+    }
+
+    private static ItemOverride readItemOverride(JsonReader reader) throws IOException {
+        Key key = null;
+        List<ItemPredicate> predicates = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "model":
+                    key = Key.key(GsonUtil.nextString(reader));
+                    break;
+                case "predicate":
+                    predicates = new ArrayList<>();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+                        // (predicate values are small, read as a tree to get the same values)
+                        predicates.add(ItemPredicate.custom(name, readPredicateValue(GsonUtil.parseReader(reader))));
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
             }
-            predicates.add(ItemPredicate.custom(predicateEntry.getKey(), object));
+        }
+        reader.endObject();
+
+        if (key == null || predicates == null) {
+            throw new IllegalStateException("Item override without model or predicate at " + reader.getPath());
         }
         return ItemOverride.of(key, predicates);
     }
 
+    private static Object readPredicateValue(JsonElement value) {
+        // TODO: better transformation
+        if (value.isJsonPrimitive()) {
+            JsonPrimitive primitive = value.getAsJsonPrimitive();
+            if (primitive.isNumber()) {
+                return primitive.getAsNumber();
+            } else if (primitive.isBoolean()) {
+                return primitive.getAsBoolean();
+            } else {
+                return primitive.getAsString();
+            }
+        } else {
+            return value.getAsString();
+        }
+    }
+
     private static ItemGroup readItemGroup(JsonElement node) {
         JsonObject objectNode = node.getAsJsonObject();
         System.out.println("Reading Item Group: " + objectNode);
@@ -491,6 +725,43 @@ public final class ModelSerializer implements JsonResourceSerializer<Model>, Jso
         return ItemTransform.transform(rotation, translation, scale);
     }
 
+    private static ItemTransform readItemTransform(JsonReader reader) throws IOException {
+        Vector3Float rotation = ItemTransform.DEFAULT_ROTATION;
+        Vector3Float translation = ItemTransform.DEFAULT_TRANSLATION;
+        Vector3Float scale = ItemTransform.DEFAULT_SCALE;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "rotation":
+                    rotation = GsonUtil.readVector3Float(reader);
+                    break;
+                case "translation":
+                    translation = GsonUtil.readVector3Float(reader);
+                    // clamp translations between -80 and 80 (what Minecraft does)
+                    translation = new Vector3Float(
+                            Math.max(-80F, Math.min(80F, translation.x())),
+                            Math.max(-80F, Math.min(80F, translation.y())),
+                            Math.max(-80F, Math.min(80F, translation.z()))
+                    );
+                    break;
+                case "scale":
+                    scale = GsonUtil.readVector3Float(reader);
+                    // set max to 4 (what Minecraft does)
+                    scale = new Vector3Float(
+                            Math.min(4F, scale.x()),
+                            Math.min(4F, scale.y()),
+                            Math.min(4F, scale.z())
+                    );
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return ItemTransform.transform(rotation, translation, scale);
+    }
+
     private static void writeTextures(JsonWriter writer, ModelTextures texture) throws IOException {
         final ModelTexture particle = texture.particle();
         final List<ModelTexture> layers = texture.layers();
@@ -534,10 +805,35 @@ public final class ModelSerializer implements JsonResourceSerializer<Model>, Jso
 
         for (Map.Entry<String, JsonElement> entry : objectNode.entrySet()) {
             String key = entry.getKey();
-            String value = entry.getValue().getAsString();
-            ModelTexture texture = value.charAt(0) == '#'
-                    ? ModelTexture.ofReference(value.substring(1))
-                    : ModelTexture.ofKey(Key.key(value));
+            ModelTexture texture = readModelTexture(entry.getValue().getAsString());
+
+            if ("particle".equals(key)) {
+                particle = texture;
+            } else if (key.startsWith("layer")) {
+                int layer = Integer.parseInt(key.substring("layer".length()));
+                // TODO: Fix
+                layers.add(texture);
+            } else {
+                variables.put(key, texture);
+            }
+        }
+
+        return ModelTextures.builder()
+                .particle(particle)
+                .layers(layers)
+                .variables(variables)
+                .build();
+    }
+
+    private static ModelTextures readTextures(JsonReader reader) throws IOException {
+        ModelTexture particle = null;
+        List<ModelTexture> layers = new ArrayList<>();
+        Map<String, ModelTexture> variables = new LinkedHashMap<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            ModelTexture texture = readModelTexture(GsonUtil.nextString(reader));
 
             if ("particle".equals(key)) {
                 particle = texture;
@@ -549,6 +845,7 @@ public final class ModelSerializer implements JsonResourceSerializer<Model>, Jso
                 variables.put(key, texture);
             }
         }
+        reader.endObject();
 
         return ModelTextures.builder()
                 .particle(particle)
@@ -557,6 +854,12 @@ public final class ModelSerializer implements JsonResourceSerializer<Model>, Jso
                 .build();
     }
 
+    private static ModelTexture readModelTexture(String value) {
+        return value.charAt(0) == '#'
+                ? ModelTexture.ofReference(value.substring(1))
+                : ModelTexture.ofKey(Key.key(value));
+    }
+
     private static void writeVector3Float(JsonWriter writer, Vector3Float vector) throws IOException {
         writer.beginArray();
         writer.value(vector.x());
@@ -25,6 +25,8 @@ package team.unnamed.creative.serialize.minecraft.sound;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import net.kyori.adventure.key.Key;
 import org.intellij.lang.annotations.Subst;
@@ -173,4 +175,117 @@ public final class SoundRegistrySerializer implements JsonResourceSerializer<Sou
         return SoundRegistry.soundRegistry(namespace, soundEvents);
     }
 
+    /*
+     * Same as readFromTree, but reads the sound registry
+     * directly from the given reader
+     */
+    public SoundRegistry readFromReader(JsonReader reader, @Subst("minecraft") String namespace) throws IOException {
+        Set<SoundEvent> soundEvents = new LinkedHashSet<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            @Subst("entity.enderman.stare")
+            String eventKey = reader.nextName();
+            SoundEvent.Builder event = SoundEvent.soundEvent()
+                    .key(Key.key(namespace, eventKey));
+
+            boolean replace = SoundEvent.DEFAULT_REPLACE;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "replace":
+                        replace = GsonUtil.nextBoolean(reader, SoundEvent.DEFAULT_REPLACE);
+                        break;
+                    case "subtitle":
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                        } else {
+                            event.subtitle(GsonUtil.nextString(reader));
+                        }
+                        break;
+                    case "sounds":
+                        event.sounds(readSounds(reader));
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            event.replace(replace);
+
+            soundEvents.add(event.build());
+        }
+        reader.endObject();
+
+        return SoundRegistry.soundRegistry(namespace, soundEvents);
+    }
+
+    private static List<SoundEntry> readSounds(JsonReader reader) throws IOException {
+        List<SoundEntry> sounds = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                // everything is default, just read the name
+                sounds.add(SoundEntry.soundEntry()
+                        .key(Key.key(GsonUtil.nextString(reader)))
+                        .type(SoundEntry.Type.FILE)
+                        .build());
+                continue;
+            }
+
+            // complete sound object
+            String name = null;
+            SoundEntry.Builder sound = SoundEntry.soundEntry()
+                    .volume(SoundEntry.DEFAULT_VOLUME)
+                    .pitch(SoundEntry.DEFAULT_PITCH)
+                    .weight(SoundEntry.DEFAULT_WEIGHT)
+                    .stream(SoundEntry.DEFAULT_STREAM)
+                    .attenuationDistance(SoundEntry.DEFAULT_ATTENUATION_DISTANCE)
+                    .preload(SoundEntry.DEFAULT_PRELOAD);
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String property = reader.nextName();
+                switch (property) {
+                    case "name":
+                        name = GsonUtil.nextString(reader);
+                        break;
+                    case "volume":
+                        sound.volume(GsonUtil.nextFloat(reader, property));
+                        break;
+                    case "pitch":
+                        sound.pitch(GsonUtil.nextFloat(reader, property));
+                        break;
+                    case "weight":
+                        sound.weight(GsonUtil.nextInt(reader, property));
+                        break;
+                    case "stream":
+                        sound.stream(GsonUtil.nextBoolean(reader, SoundEntry.DEFAULT_STREAM));
+                        break;
+                    case "attenuation_distance":
+                        sound.attenuationDistance(GsonUtil.nextInt(reader, property));
+                        break;
+                    case "preload":
+                        sound.preload(GsonUtil.nextBoolean(reader, SoundEntry.DEFAULT_PRELOAD));
+                        break;
+                    case "type":
+                        sound.type(SoundEntry.Type.valueOf(GsonUtil.nextString(reader).toUpperCase(Locale.ROOT)));
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+
+            if (name == null) {
+                throw new IllegalStateException("Sound entry without name at " + reader.getPath());
+            }
+            sounds.add(sound.key(Key.key(name)).build());
+        }
+        reader.endArray();
+        return sounds;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,661 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.texture;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A minimal PNG decoder and encoder used to losslessly re-encode
+ * images, see {@link PngOptimizer}.
+ *
+ * <p>Only non-interlaced images are supported.</p>
+ */
+final class Png {
+    private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+    // chunk types
+    private static final int IHDR = 0x49484452;
+    private static final int PLTE = 0x504C5445;
+    private static final int TRNS = 0x74524E53;
+    private static final int IDAT = 0x49444154;
+    private static final int IEND = 0x49454E44;
+
+    // color types
+    private static final int GRAY = 0;
+    private static final int RGB = 2;
+    private static final int PALETTE = 3;
+    private static final int GRAY_ALPHA = 4;
+    private static final int RGBA = 6;
+
+    // images needing more memory to be decoded (i.e. larger than
+    // 2048x2048) are left as they are, since several images are
+    // optimized at the same time
+    private static final long MAX_DATA_LENGTH = 16L * 1024 * 1024;
+
+    private final int width;
+    private final int height;
+    private final int colorType;
+    private final int bitDepth;
+    private final byte[] raw;
+    private final byte @Nullable [] palette;
+    private final byte @Nullable [] transparency;
+
+    private Png(
+            final int width,
+            final int height,
+            final int colorType,
+            final int bitDepth,
+            final byte @NotNull [] raw,
+            final byte @Nullable [] palette,
+            final byte @Nullable [] transparency
+    ) {
+        this.width = width;
+        this.height = height;
+        this.colorType = colorType;
+        this.bitDepth = bitDepth;
+        this.raw = raw;
+        this.palette = palette;
+        this.transparency = transparency;
+    }
+
+    /**
+     * Re-encodes the given PNG image with the smallest lossless
+     * color type and bit depth, the best filters and the maximum
+     * compression level, dropping ancillary chunks.
+     *
+     * @param data The PNG image
+     * @return The optimized image, or null if it is not smaller,
+     * or the image isn't supported
+     */
+    static byte @Nullable [] optimize(final byte @NotNull [] data) {
+        final Png png = decode(data);
+        if (png == null) {
+            return null;
+        }
+
+        byte[] best;
+        if (!png.reducible()) {
+            // 16-bit samples that can't be reduced, keep the format
+            best = png.encode();
+        } else {
+            final int[] pixels = png.pixels();
+            if (pixels == null) {
+                // invalid image, keep the original data
+                return null;
+            }
+            best = null;
+            for (final Png candidate : candidates(png.width, png.height, pixels)) {
+                final byte[] encoded = candidate.encode();
+                if (best == null || encoded.length < best.length) {
+                    best = encoded;
+                }
+            }
+        }
+        return best != null && best.length < data.length ? best : null;
+    }
+
+    private static @Nullable Png decode(final byte @NotNull [] data) {
+        if (data.length < SIGNATURE.length || !Arrays.equals(Arrays.copyOf(data, SIGNATURE.length), SIGNATURE)) {
+            return null;
+        }
+
+        int width = 0;
+        int height = 0;
+        int colorType = -1;
+        int bitDepth = 0;
+        byte[] palette = null;
+        byte[] transparency = null;
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        boolean end = false;
+
+        int position = SIGNATURE.length;
+        while (!end && position + 12 <= data.length) {
+            final int length = readInt(data, position);
+            if (length < 0 || length > data.length - position - 12) {
+                return null;
+            }
+            final int type = readInt(data, position + 4);
+            final int start = position + 8;
+            switch (type) {
+                case IHDR:
+                    if (length != 13) {
+                        return null;
+                    }
+                    width = readInt(data, start);
+                    height = readInt(data, start + 4);
+                    bitDepth = data[start + 8] & 0xFF;
+                    colorType = data[start + 9] & 0xFF;
+                    if (data[start + 10] != 0 || data[start + 11] != 0 || data[start + 12] != 0) {
+                        // unknown compression or filter method, or interlaced
+                        return null;
+                    }
+                    break;
+                case PLTE:
+                    palette = Arrays.copyOfRange(data, start, start + length);
+                    break;
+                case TRNS:
+                    transparency = Arrays.copyOfRange(data, start, start + length);
+                    break;
+                case IDAT:
+                    compressed.write(data, start, length);
+                    break;
+                case IEND:
+                    end = true;
+                    break;
+                default:
+                    // ancillary chunks (dropped) have the fifth bit of their
+                    // first byte set, unknown critical chunks can't be dropped
+                    if ((type & 0x20000000) == 0) {
+                        return null;
+                    }
+                    break;
+            }
+            position = start + length + 4;
+        }
+
+        final int channels = channels(colorType);
+        if (!end || width <= 0 || height <= 0 || channels == 0 || !isValidBitDepth(colorType, bitDepth)) {
+            return null;
+        }
+        if (colorType == PALETTE) {
+            if (palette == null || palette.length == 0 || palette.length % 3 != 0) {
+                return null;
+            }
+        } else {
+            // suggested palettes aren't needed
+            palette = null;
+            if (colorType == GRAY_ALPHA || colorType == RGBA) {
+                transparency = null;
+            }
+        }
+
+        final long rowLength = ((long) width * channels * bitDepth + 7) / 8;
+        final long filteredLength = (rowLength + 1) * height;
+        // images with a low bit depth use much more memory once
+        // converted to 8-bit ARGB pixels
+        if (filteredLength > MAX_DATA_LENGTH || (long) width * height * 4 > MAX_DATA_LENGTH) {
+            return null;
+        }
+        final byte[] filtered = inflate(compressed.toByteArray(), (int) filteredLength);
+        if (filtered == null) {
+            return null;
+        }
+        final byte[] raw = unfilter(filtered, (int) rowLength, height, bytesPerPixel(channels, bitDepth));
+        if (raw == null) {
+            return null;
+        }
+        return new Png(width, height, colorType, bitDepth, raw, palette, transparency);
+    }
+
+    /**
+     * Determines whether this image can be converted to 8-bit
+     * samples losslessly, i.e. it has no 16-bit samples, or their
+     * low byte always equals their high byte.
+     */
+    private boolean reducible() {
+        if (bitDepth == 16) {
+            for (int i = 0; i < raw.length; i += 2) {
+                if (raw[i] != raw[i + 1]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the 8-bit ARGB pixels of this {@link #reducible()}
+     * image, or null if it is invalid (e.g. it uses a palette
+     * index outside the palette).
+     */
+    private int @Nullable [] pixels() {
+        final int channels = channels(colorType);
+        final int rowLength = raw.length / height;
+        final int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            final int row = y * rowLength;
+            for (int x = 0; x < width; x++) {
+                final int index = x * channels;
+                int alpha = 0xFF;
+                final int red;
+                final int green;
+                final int blue;
+                switch (colorType) {
+                    case GRAY: {
+                        final int gray = sample(row, index);
+                        if (transparency != null && transparency.length >= 2 && gray == readShort(transparency, 0)) {
+                            alpha = 0;
+                        }
+                        red = green = blue = to8Bit(gray);
+                        break;
+                    }
+                    case RGB: {
+                        final int r = sample(row, index);
+                        final int g = sample(row, index + 1);
+                        final int b = sample(row, index + 2);
+                        if (transparency != null && transparency.length >= 6
+                                && r == readShort(transparency, 0)
+                                && g == readShort(transparency, 2)
+                                && b == readShort(transparency, 4)) {
+                            alpha = 0;
+                        }
+                        red = to8Bit(r);
+                        green = to8Bit(g);
+                        blue = to8Bit(b);
+                        break;
+                    }
+                    case PALETTE: {
+                        final int entry = sample(row, index);
+                        if (entry * 3 + 2 >= palette.length) {
+                            return null;
+                        }
+                        red = palette[entry * 3] & 0xFF;
+                        green = palette[entry * 3 + 1] & 0xFF;
+                        blue = palette[entry * 3 + 2] & 0xFF;
+                        if (transparency != null && entry < transparency.length) {
+                            alpha = transparency[entry] & 0xFF;
+                        }
+                        break;
+                    }
+                    case GRAY_ALPHA:
+                        red = green = blue = to8Bit(sample(row, index));
+                        alpha = to8Bit(sample(row, index + 1));
+                        break;
+                    default:
+                        red = to8Bit(sample(row, index));
+                        green = to8Bit(sample(row, index + 1));
+                        blue = to8Bit(sample(row, index + 2));
+                        alpha = to8Bit(sample(row, index + 3));
+                        break;
+                }
+                pixels[y * width + x] = alpha << 24 | red << 16 | green << 8 | blue;
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Returns the sample at the given index of the row
+     * starting at the given position, in this image bit depth.
+     */
+    private int sample(final int row, final int index) {
+        switch (bitDepth) {
+            case 16:
+                return readShort(raw, row + index * 2);
+            case 8:
+                return raw[row + index] & 0xFF;
+            default: {
+                final int bit = index * bitDepth;
+                final int shift = 8 - bitDepth - (bit & 7);
+                return (raw[row + (bit >>> 3)] >>> shift) & ((1 << bitDepth) - 1);
+            }
+        }
+    }
+
+    private int to8Bit(final int sample) {
+        switch (bitDepth) {
+            case 16:
+                return sample >>> 8;
+            case 8:
+                return sample;
+            default:
+                return sample * 255 / ((1 << bitDepth) - 1);
+        }
+    }
+
+    /**
+     * Returns the lossless encodings for the given pixels: an indexed
+     * one if there are 256 colors or less, and the smallest true color one.
+     */
+    private static @NotNull List<Png> candidates(final int width, final int height, final int @NotNull [] pixels) {
+        boolean gray = true;
+        boolean opaque = true;
+        Map<Integer, Integer> colors = new LinkedHashMap<>();
+        for (final int pixel : pixels) {
+            final int red = (pixel >>> 16) & 0xFF;
+            gray &= red == ((pixel >>> 8) & 0xFF) && red == (pixel & 0xFF);
+            opaque &= (pixel >>> 24) == 0xFF;
+            if (colors != null && !colors.containsKey(pixel)) {
+                if (colors.size() == 256) {
+                    colors = null;
+                } else {
+                    colors.put(pixel, colors.size());
+                }
+            }
+        }
+
+        final List<Png> candidates = new ArrayList<>(2);
+        if (colors != null) {
+            candidates.add(indexed(width, height, pixels, colors));
+        }
+        if (gray && opaque) {
+            candidates.add(gray(width, height, pixels));
+        } else {
+            final int channels = gray ? 2 : opaque ? 3 : 4;
+            final byte[] raw = new byte[pixels.length * channels];
+            int position = 0;
+            for (final int pixel : pixels) {
+                raw[position++] = (byte) (pixel >>> 16);
+                if (!gray) {
+                    raw[position++] = (byte) (pixel >>> 8);
+                    raw[position++] = (byte) pixel;
+                }
+                if (!opaque) {
+                    raw[position++] = (byte) (pixel >>> 24);
+                }
+            }
+            candidates.add(new Png(width, height, gray ? GRAY_ALPHA : opaque ? RGB : RGBA, 8, raw, null, null));
+        }
+        return candidates;
+    }
+
+    private static @NotNull Png indexed(final int width, final int height, final int @NotNull [] pixels, final @NotNull Map<Integer, Integer> colors) {
+        // translucent colors go first, so that the transparency
+        // chunk only includes them
+        final List<Integer> ordered = new ArrayList<>(colors.size());
+        for (final int color : colors.keySet()) {
+            if ((color >>> 24) != 0xFF) {
+                ordered.add(color);
+            }
+        }
+        final int translucent = ordered.size();
+        for (final int color : colors.keySet()) {
+            if ((color >>> 24) == 0xFF) {
+                ordered.add(color);
+            }
+        }
+
+        final byte[] palette = new byte[ordered.size() * 3];
+        final byte[] transparency = translucent == 0 ? null : new byte[translucent];
+        for (int i = 0; i < ordered.size(); i++) {
+            final int color = ordered.get(i);
+            colors.put(color, i);
+            palette[i * 3] = (byte) (color >>> 16);
+            palette[i * 3 + 1] = (byte) (color >>> 8);
+            palette[i * 3 + 2] = (byte) color;
+            if (i < translucent) {
+                transparency[i] = (byte) (color >>> 24);
+            }
+        }
+
+        final int size = ordered.size();
+        final int bitDepth = size <= 2 ? 1 : size <= 4 ? 2 : size <= 16 ? 4 : 8;
+        final byte[] raw = pack(width, height, bitDepth, i -> colors.get(pixels[i]));
+        return new Png(width, height, PALETTE, bitDepth, raw, palette, transparency);
+    }
+
+    private static @NotNull Png gray(final int width, final int height, final int @NotNull [] pixels) {
+        // the lowest bit depth that represents every gray level exactly
+        int bitDepth = 1;
+        for (final int pixel : pixels) {
+            final int gray = pixel & 0xFF;
+            while (bitDepth < 8 && gray % (255 / ((1 << bitDepth) - 1)) != 0) {
+                bitDepth <<= 1;
+            }
+        }
+        final int step = 255 / ((1 << bitDepth) - 1);
+        return new Png(width, height, GRAY, bitDepth, pack(width, height, bitDepth, i -> (pixels[i] & 0xFF) / step), null, null);
+    }
+
+    /**
+     * Packs one sample per pixel, with the given bit depth.
+     */
+    private static byte @NotNull [] pack(final int width, final int height, final int bitDepth, final @NotNull SampleFunction samples) {
+        final int rowLength = (width * bitDepth + 7) / 8;
+        final byte[] raw = new byte[rowLength * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int bit = x * bitDepth;
+                raw[y * rowLength + (bit >>> 3)] |= (byte) (samples.sample(y * width + x) << (8 - bitDepth - (bit & 7)));
+            }
+        }
+        return raw;
+    }
+
+    @FunctionalInterface
+    private interface SampleFunction {
+        int sample(final int pixel);
+    }
+
+    private byte @NotNull [] encode() {
+        final int rowLength = raw.length / height;
+        final int bytesPerPixel = bytesPerPixel(channels(colorType), bitDepth);
+
+        // try with no filters and with the filter that minimizes the
+        // sum of absolute differences of each row, keep the smallest
+        final byte[] unfiltered = deflate(filter(raw, rowLength, height, bytesPerPixel, false));
+        final byte[] adaptive = deflate(filter(raw, rowLength, height, bytesPerPixel, true));
+        final byte[] compressed = adaptive.length < unfiltered.length ? adaptive : unfiltered;
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(compressed.length + 128);
+        output.write(SIGNATURE, 0, SIGNATURE.length);
+        final byte[] header = new byte[13];
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = (byte) bitDepth;
+        header[9] = (byte) colorType;
+        writeChunk(output, IHDR, header);
+        if (palette != null) {
+            writeChunk(output, PLTE, palette);
+        }
+        if (transparency != null) {
+            writeChunk(output, TRNS, transparency);
+        }
+        writeChunk(output, IDAT, compressed);
+        writeChunk(output, IEND, new byte[0]);
+        return output.toByteArray();
+    }
+
+    private static byte @NotNull [] filter(
+            final byte @NotNull [] raw,
+            final int rowLength,
+            final int height,
+            final int bytesPerPixel,
+            final boolean adaptive
+    ) {
+        final byte[] filtered = new byte[(rowLength + 1) * height];
+        final byte[] candidate = new byte[rowLength];
+        for (int y = 0; y < height; y++) {
+            final int row = y * rowLength;
+            final int target = y * (rowLength + 1);
+            if (!adaptive) {
+                System.arraycopy(raw, row, filtered, target + 1, rowLength);
+                continue;
+            }
+            long bestSum = Long.MAX_VALUE;
+            for (int type = 0; type <= 4; type++) {
+                long sum = 0;
+                for (int x = 0; x < rowLength; x++) {
+                    final int value = raw[row + x] & 0xFF;
+                    final int a = x >= bytesPerPixel ? raw[row + x - bytesPerPixel] & 0xFF : 0;
+                    final int b = y > 0 ? raw[row - rowLength + x] & 0xFF : 0;
+                    final int c = x >= bytesPerPixel && y > 0 ? raw[row - rowLength + x - bytesPerPixel] & 0xFF : 0;
+                    final byte result = (byte) (value - predict(type, a, b, c));
+                    candidate[x] = result;
+                    sum += Math.abs(result);
+                }
+                if (sum < bestSum) {
+                    bestSum = sum;
+                    filtered[target] = (byte) type;
+                    System.arraycopy(candidate, 0, filtered, target + 1, rowLength);
+                }
+            }
+        }
+        return filtered;
+    }
+
+    private static byte @Nullable [] unfilter(final byte @NotNull [] filtered, final int rowLength, final int height, final int bytesPerPixel) {
+        final byte[] raw = new byte[rowLength * height];
+        for (int y = 0; y < height; y++) {
+            final int source = y * (rowLength + 1);
+            final int type = filtered[source] & 0xFF;
+            if (type > 4) {
+                return null;
+            }
+            final int row = y * rowLength;
+            for (int x = 0; x < rowLength; x++) {
+                final int a = x >= bytesPerPixel ? raw[row + x - bytesPerPixel] & 0xFF : 0;
+                final int b = y > 0 ? raw[row - rowLength + x] & 0xFF : 0;
+                final int c = x >= bytesPerPixel && y > 0 ? raw[row - rowLength + x - bytesPerPixel] & 0xFF : 0;
+                raw[row + x] = (byte) (filtered[source + 1 + x] + predict(type, a, b, c));
+            }
+        }
+        return raw;
+    }
+
+    private static int predict(final int type, final int a, final int b, final int c) {
+        switch (type) {
+            case 1:
+                return a;
+            case 2:
+                return b;
+            case 3:
+                return (a + b) >>> 1;
+            case 4: {
+                final int p = a + b - c;
+                final int pa = Math.abs(p - a);
+                final int pb = Math.abs(p - b);
+                final int pc = Math.abs(p - c);
+                return pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+            }
+            default:
+                return 0;
+        }
+    }
+
+    private static byte @Nullable [] inflate(final byte @NotNull [] compressed, final int length) {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            final byte[] data = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                final int read = inflater.inflate(data, offset, length - offset);
+                if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    // truncated data
+                    return null;
+                }
+                offset += read;
+            }
+            return data;
+        } catch (final DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte @NotNull [] deflate(final byte @NotNull [] data) {
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2 + 64);
+            final byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                final int length = deflater.deflate(buffer);
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeChunk(final @NotNull ByteArrayOutputStream output, final int type, final byte @NotNull [] data) {
+        final byte[] header = new byte[8];
+        writeInt(header, 0, data.length);
+        writeInt(header, 4, type);
+        output.write(header, 0, 8);
+        output.write(data, 0, data.length);
+
+        final CRC32 crc = new CRC32();
+        crc.update(header, 4, 4);
+        crc.update(data, 0, data.length);
+        final byte[] trailer = new byte[4];
+        writeInt(trailer, 0, (int) crc.getValue());
+        output.write(trailer, 0, 4);
+    }
+
+    private static int channels(final int colorType) {
+        switch (colorType) {
+            case GRAY:
+            case PALETTE:
+                return 1;
+            case GRAY_ALPHA:
+                return 2;
+            case RGB:
+                return 3;
+            case RGBA:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean isValidBitDepth(final int colorType, final int bitDepth) {
+        switch (colorType) {
+            case GRAY:
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 || bitDepth == 16;
+            case PALETTE:
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8;
+            default:
+                return bitDepth == 8 || bitDepth == 16;
+        }
+    }
+
+    private static int bytesPerPixel(final int channels, final int bitDepth) {
+        return Math.max(1, channels * bitDepth / 8);
+    }
+
+    private static int readInt(final byte @NotNull [] data, final int position) {
+        return (data[position] & 0xFF) << 24
+                | (data[position + 1] & 0xFF) << 16
+                | (data[position + 2] & 0xFF) << 8
+                | (data[position + 3] & 0xFF);
+    }
+
+    private static int readShort(final byte @NotNull [] data, final int position) {
+        return (data[position] & 0xFF) << 8 | (data[position + 1] & 0xFF);
+    }
+
+    private static void writeInt(final byte @NotNull [] data, final int position, final int value) {
+        data[position] = (byte) (value >>> 24);
+        data[position + 1] = (byte) (value >>> 16);
+        data[position + 2] = (byte) (value >>> 8);
+        data[position + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.texture;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.base.Writable;
+
+/**
+ * A lossless PNG optimizer, it re-encodes images with the smallest
+ * color type and bit depth that represents every pixel exactly
+ * (e.g. indexed or grayscale), picks the best row filters, uses the
+ * maximum deflate level and drops ancillary chunks, like text or
+ * color profiles, which are ignored by the game.
+ *
+ * <p>Decoded pixels are always preserved. Images that can't be
+ * safely re-encoded (interlaced images, images with unknown critical
+ * chunks or invalid images) and images that don't get smaller are
+ * returned as they are.</p>
+ *
+ * <p>Optimized images are cached by the digest of their original
+ * data, so unchanged textures are only optimized once across
+ * successive builds. The cache is bounded by the size of the cached
+ * data, the least recently used images are evicted first, and only
+ * the digest of the images that can't be optimized is kept.
+ * Optimizers are thread-safe.</p>
+ *
+ * @see team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter.Builder#pngOptimizer(PngOptimizer)
+ * @since 1.7.0
+ */
+@ApiStatus.NonExtendable
+public interface PngOptimizer {
+    /**
+     * Creates a new {@link PngOptimizer} with an empty cache,
+     * holding up to 64 MiB of optimized images.
+     *
+     * @return The created optimizer
+     * @since 1.7.0
+     */
+    static @NotNull PngOptimizer pngOptimizer() {
+        return pngOptimizer(64L * 1024 * 1024);
+    }
+
+    /**
+     * Creates a new {@link PngOptimizer} with an empty cache,
+     * holding up to the given amount of bytes (approximately).
+     *
+     * @param maxCachedBytes The maximum cache size, in bytes,
+     *                       zero to disable caching
+     * @return The created optimizer
+     * @since 1.7.0
+     */
+    static @NotNull PngOptimizer pngOptimizer(final long maxCachedBytes) {
+        return new PngOptimizerImpl(maxCachedBytes);
+    }
+
+    /**
+     * Optimizes the given PNG image.
+     *
+     * @param png The PNG image data
+     * @return The optimized image data, or the given data if
+     * it can't be optimized
+     * @since 1.7.0
+     */
+    byte @NotNull [] optimize(final byte @NotNull [] png);
+
+    /**
+     * Optimizes the given PNG image.
+     *
+     * @param png The PNG image
+     * @return The optimized image, or the given image if
+     * it can't be optimized
+     * @throws java.io.UncheckedIOException If reading the image fails
+     * @since 1.7.0
+     */
+    @NotNull Writable optimize(final @NotNull Writable png);
+
+    /**
+     * Returns the number of cached images.
+     *
+     * @return The number of cached images
+     * @since 1.7.0
+     */
+    int size();
+
+    /**
+     * Removes all the cached images.
+     *
+     * @since 1.7.0
+     */
+    void clear();
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.texture;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.base.Writable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+final class PngOptimizerImpl implements PngOptimizer {
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot find SHA-1 algorithm", e);
+        }
+    });
+
+    // marks the images that can't be optimized, so that their
+    // data isn't retained
+    private static final byte[] NOT_OPTIMIZABLE = new byte[0];
+    // approximate memory used by every entry, besides its data
+    private static final long ENTRY_COST = 128L;
+
+    private final long maxCachedBytes;
+
+    // digest of the original data -> optimized data, in access
+    // order, guarded by itself
+    private final LinkedHashMap<ByteBuffer, byte[]> cache = new LinkedHashMap<>(16, 0.75F, true);
+    private long cachedBytes;
+
+    PngOptimizerImpl(final long maxCachedBytes) {
+        if (maxCachedBytes < 0) {
+            throw new IllegalArgumentException("Negative maximum cached bytes: " + maxCachedBytes);
+        }
+        this.maxCachedBytes = maxCachedBytes;
+    }
+
+    @Override
+    public byte @NotNull [] optimize(final byte @NotNull [] png) {
+        requireNonNull(png, "png");
+        final ByteBuffer key = ByteBuffer.wrap(DIGEST.get().digest(png));
+        final byte[] cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            return cached == NOT_OPTIMIZABLE ? png : cached;
+        }
+
+        // optimized outside the lock, images are optimized in parallel
+        final byte[] optimized = Png.optimize(png);
+        cache(key, optimized == null ? NOT_OPTIMIZABLE : optimized);
+        return optimized == null ? png : optimized;
+    }
+
+    private void cache(final @NotNull ByteBuffer key, final byte @NotNull [] value) {
+        synchronized (cache) {
+            final byte[] previous = cache.put(key, value);
+            if (previous != null) {
+                cachedBytes -= ENTRY_COST + previous.length;
+            }
+            cachedBytes += ENTRY_COST + value.length;
+
+            // evict the least recently used images
+            final Iterator<Map.Entry<ByteBuffer, byte[]>> iterator = cache.entrySet().iterator();
+            while (cachedBytes > maxCachedBytes && iterator.hasNext()) {
+                cachedBytes -= ENTRY_COST + iterator.next().getValue().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public @NotNull Writable optimize(final @NotNull Writable png) {
+        requireNonNull(png, "png");
+        final byte[] data;
+        try {
+            data = png.toByteArray();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to read PNG image", e);
+        }
+        final byte[] optimized = optimize(data);
+        return optimized == data ? png : Writable.bytes(optimized);
+    }
+
+    @Override
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "PngOptimizer{" +
+                "size=" + size() +
+                ", maxCachedBytes=" + maxCachedBytes +
+                '}';
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft;
+
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTexture;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceSerializer;
+import team.unnamed.creative.serialize.minecraft.model.ModelSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static net.kyori.adventure.key.Key.key;
+
+class JsonEncoderTest {
+
+    private static List<Model> models(int count) {
+        List<Model> models = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            models.add(Model.model()
+                    .key(key("creative:item/model_" + i))
+                    .parent(Model.ITEM_GENERATED)
+                    .textures(ModelTextures.builder()
+                            .layers(ModelTexture.ofKey(key("creative:item/texture_" + i)))
+                            .build())
+                    .build());
+        }
+        return models;
+    }
+
+    // the previous path, a new writer over the entry stream for every resource
+    private static <T> void encodeUnbuffered(JsonResourceSerializer<T> serializer, T object, boolean prettyPrinting, OutputStream output) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (prettyPrinting) {
+            jsonWriter.setIndent("  ");
+        }
+        serializer.serializeToJson(object, jsonWriter);
+        jsonWriter.flush();
+    }
+
+    @Test
+    @DisplayName("Test that the pooled encoder writes the same data in a single call")
+    void test_same_output() throws IOException {
+        for (boolean prettyPrinting : new boolean[] { false, true }) {
+            for (Model model : models(10)) {
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                encodeUnbuffered(ModelSerializer.INSTANCE, model, prettyPrinting, expected);
+
+                CountingOutputStream actual = new CountingOutputStream();
+                JsonEncoder.encode(ModelSerializer.INSTANCE, model, prettyPrinting, actual);
+                Assertions.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+                Assertions.assertEquals(1, actual.writes);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test that a failed encoding doesn't leak data to the next one")
+    void test_failure() throws IOException {
+        Model model = models(1).get(0);
+        JsonResourceSerializer<Model> failing = (object, writer) -> {
+            writer.beginObject().name("partial").value(String.join("", Collections.nCopies(10_000, "ñ")));
+            throw new IOException("Failed!");
+        };
+        Assertions.assertThrows(IOException.class, () -> JsonEncoder.encode(failing, model, false, new ByteArrayOutputStream()));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        encodeUnbuffered(ModelSerializer.INSTANCE, model, false, expected);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        JsonEncoder.encode(ModelSerializer.INSTANCE, model, false, actual);
+        Assertions.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    private static final class CountingOutputStream extends ByteArrayOutputStream {
+        private int writes;
+
+        @Override
+        public synchronized void write(int b) {
+            writes++;
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.base.Readable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+class MappedZipFileTreeReaderTest implements FileTreeReaderTest {
+    @Override
+    public @NotNull FileTreeReader createReader() throws IOException {
+        return FileTreeReader.mappedZip(Paths.get("src/test/resources/ziptree.zip"));
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        // half random, half compressible
+        for (int i = 0; i < length / 2; i++) {
+            bytes[i] = (byte) random.nextInt();
+        }
+        return bytes;
+    }
+
+    @Test
+    @DisplayName("Test that stored and deflated entries can be read after closing the reader")
+    void test_entries(@TempDir Path directory) throws IOException {
+        Random random = new Random(17);
+        Map<String, byte[]> expected = new LinkedHashMap<>();
+        Path file = directory.resolve("entries.zip");
+        try (OutputStream output = Files.newOutputStream(file); ZipOutputStream zip = new ZipOutputStream(output)) {
+            zip.setComment("A zip comment");
+            zip.putNextEntry(new ZipEntry("folder/"));
+            zip.closeEntry();
+            for (int i = 0; i < 50; i++) {
+                String name = "folder/entry_" + i + ".bin";
+                byte[] data = randomBytes(random, random.nextInt(100_000));
+                ZipEntry entry = new ZipEntry(name);
+                if (i % 2 == 0) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(data.length);
+                    entry.setCrc(crc.getValue());
+                }
+                zip.putNextEntry(entry);
+                zip.write(data);
+                zip.closeEntry();
+                expected.put(name, data);
+            }
+            zip.putNextEntry(new ZipEntry("empty.txt"));
+            zip.closeEntry();
+            expected.put("empty.txt", new byte[0]);
+        }
+
+        Map<String, Readable> contents = new LinkedHashMap<>();
+        try (FileTreeReader reader = FileTreeReader.mappedZip(file)) {
+            while (reader.hasNext()) {
+                String name = reader.next();
+                Assertions.assertArrayEquals(expected.get(name), Readable.copyInputStream(reader.stream()).readAsByteArray(), name);
+                contents.put(name, reader.content());
+            }
+        }
+
+        // the order is the central directory order, without directories
+        Assertions.assertEquals(expected.keySet().toString(), contents.keySet().toString());
+        for (Map.Entry<String, Readable> entry : contents.entrySet()) {
+            Assertions.assertArrayEquals(expected.get(entry.getKey()), entry.getValue().readAsByteArray(), entry.getKey());
+            Assertions.assertArrayEquals(expected.get(entry.getKey()), Readable.copyInputStream(entry.getValue().open()).readAsByteArray(), entry.getKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that invalid zip files are rejected")
+    void test_invalid(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("invalid.zip");
+        Files.write(file, "This is not a zip file, but it is long enough to look for one".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertThrows(ZipException.class, () -> FileTreeReader.mappedZip(file));
+    }
+
+    private static byte[] singleEntryZip() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(output)) {
+            zip.putNextEntry(new ZipEntry("entry.txt"));
+            zip.write("Hello, world!".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return output.toByteArray();
+    }
+
+    private static int indexOf(byte[] bytes, int signature) {
+        for (int i = 0; i + 4 <= bytes.length; i++) {
+            if ((bytes[i] & 0xFF | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF) << 16 | (bytes[i + 3] & 0xFF) << 24) == signature) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Signature not found");
+    }
+
+    private static void putShort(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+    }
+
+    @Test
+    @DisplayName("Test that offsets and sizes outside of the file are rejected")
+    void test_out_of_bounds(@TempDir Path directory) throws IOException {
+        // central directory header pointing to a local header past the end
+        byte[] bytes = singleEntryZip();
+        int central = indexOf(bytes, 0x02014b50);
+        putShort(bytes, central + 42, 0xFFFF);
+        Path badOffset = directory.resolve("bad-offset.zip");
+        Files.write(badOffset, bytes);
+        Assertions.assertThrows(ZipException.class, () -> FileTreeReader.mappedZip(badOffset));
+
+        // central directory header with a name longer than the file
+        bytes = singleEntryZip();
+        central = indexOf(bytes, 0x02014b50);
+        putShort(bytes, central + 28, 0xFFFF);
+        Path badName = directory.resolve("bad-name.zip");
+        Files.write(badName, bytes);
+        Assertions.assertThrows(ZipException.class, () -> FileTreeReader.mappedZip(badName));
+
+        // end of central directory record declaring more entries than
+        // the central directory can hold, rejected before reading them
+        bytes = singleEntryZip();
+        int end = indexOf(bytes, 0x06054b50);
+        putShort(bytes, end + 10, 0xFFFF);
+        Path badCount = directory.resolve("bad-count.zip");
+        Files.write(badCount, bytes);
+        ZipException exception = Assertions.assertThrows(ZipException.class, () -> FileTreeReader.mappedZip(badCount));
+        Assertions.assertEquals("Invalid entry count: 65535", exception.getMessage());
+
+        // local header with an extra field longer than the file, only
+        // detected when the entry is read
+        bytes = singleEntryZip();
+        putShort(bytes, 28, 0xFFFF);
+        Path badLocalHeader = directory.resolve("bad-local-header.zip");
+        Files.write(badLocalHeader, bytes);
+        try (FileTreeReader reader = FileTreeReader.mappedZip(badLocalHeader)) {
+            Assertions.assertEquals("entry.txt", reader.next());
+            Readable content = reader.content();
+            Assertions.assertThrows(ZipException.class, content::open);
+        }
+    }
+}
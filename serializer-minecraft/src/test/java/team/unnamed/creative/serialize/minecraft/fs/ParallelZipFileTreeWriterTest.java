@@ -0,0 +1,94 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelZipFileTreeWriterTest implements FileTreeWriterTest {
+
+    private @TempDir Path tempDir;
+
+    private Path zipPath() {
+        return tempDir.resolve("test-output.zip");
+    }
+
+    @Override
+    public FileTreeWriter createWriter() throws IOException {
+        return FileTreeWriter.parallelZip(
+                Files.newOutputStream(zipPath()),
+                ZipEntryLifecycleHandler.DEFAULT,
+                ForkJoinPool.commonPool()
+        );
+    }
+
+    @Override
+    public void assertWritten() throws IOException {
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("file.txt", "Hello there");
+        expected.put("emptyfile.txt", "");
+        expected.put("binaryfile.bin", new String(new byte[]{(byte) 0xB0, 0x0B}, StandardCharsets.ISO_8859_1));
+        expected.put("file.json", "{\"libraryMainDeveloper\":\"yusshu\",\"license\":\"MIT\",\"year\":2023}");
+        expected.put("dir/file.txt", "File in directory");
+        expected.put("dir/subdir/noext", "File without extension in subdirectory");
+
+        // entries are written in the order they were added
+        Map<String, String> actual = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(zipPath().toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                try (InputStream input = zip.getInputStream(entry)) {
+                    actual.put(entry.getName(), new String(readBytes(input), StandardCharsets.ISO_8859_1));
+                }
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    private static byte[] readBytes(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.fs;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.base.Writable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+class ZipCompressionPolicyTest {
+
+    private static final String JSON = "{\"parent\":\"item/generated\",\"textures\":{\"layer0\":\"item/diamond\"}}";
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0x0D};
+
+    private @TempDir Path tempDir;
+
+    private static void writeEntries(FileTreeWriter writer) throws IOException {
+        writer.write("assets/minecraft/textures/item/diamond.png", Writable.bytes(PNG));
+        try (OutputStream output = writer.openStream("assets/minecraft/sounds/click.ogg")) {
+            output.write(PNG);
+        }
+        writer.write("assets/minecraft/models/item/diamond.json", Writable.stringUtf8(JSON));
+        try (OutputStream output = writer.openStream("pack.mcmeta")) {
+            output.write(JSON.getBytes(StandardCharsets.UTF_8));
+        }
+        writer.write("credits.txt", Writable.stringUtf8("Unnamed Team"));
+    }
+
+    private static void assertEntry(ZipFile zip, String name, int method, byte[] expected) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        Assertions.assertNotNull(entry, "Missing entry " + name);
+        Assertions.assertEquals(method, entry.getMethod(), "Unexpected method for " + name);
+        try (InputStream input = zip.getInputStream(entry)) {
+            Assertions.assertArrayEquals(expected, Writable.copyInputStream(input).toByteArray());
+        }
+    }
+
+    private static void assertDefaultPolicy(Path path) throws IOException {
+        byte[] json = JSON.getBytes(StandardCharsets.UTF_8);
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            assertEntry(zip, "assets/minecraft/textures/item/diamond.png", ZipEntry.STORED, PNG);
+            assertEntry(zip, "assets/minecraft/sounds/click.ogg", ZipEntry.STORED, PNG);
+            assertEntry(zip, "assets/minecraft/models/item/diamond.json", ZipEntry.DEFLATED, json);
+            assertEntry(zip, "pack.mcmeta", ZipEntry.DEFLATED, json);
+            assertEntry(zip, "credits.txt", ZipEntry.DEFLATED, "Unnamed Team".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the default policy stores PNG and OGG files using the zip writer")
+    void test_default_policy_zip() throws IOException {
+        Path path = tempDir.resolve("zip.zip");
+        try (FileTreeWriter writer = FileTreeWriter.zip(new ZipOutputStream(Files.newOutputStream(path)))) {
+            writeEntries(writer);
+        }
+        assertDefaultPolicy(path);
+    }
+
+    @Test
+    @DisplayName("Test that the default policy stores PNG and OGG files using the parallel zip writer")
+    void test_default_policy_parallel_zip() throws IOException {
+        Path path = tempDir.resolve("parallel.zip");
+        try (FileTreeWriter writer = FileTreeWriter.parallelZip(Files.newOutputStream(path))) {
+            writeEntries(writer);
+        }
+        assertDefaultPolicy(path);
+    }
+
+    @Test
+    @DisplayName("Test that the compression level is taken from the handler")
+    void test_compression_level() throws IOException {
+        String text = String.join("", Collections.nCopies(200, "creative "));
+        ZipEntryLifecycleHandler noCompression = new ZipEntryLifecycleHandler() {
+            @Override
+            public int compressionLevel(ZipEntry entry) {
+                return Deflater.NO_COMPRESSION;
+            }
+        };
+
+        Path sequential = tempDir.resolve("sequential.zip");
+        try (FileTreeWriter writer = FileTreeWriter.zip(new ZipOutputStream(Files.newOutputStream(sequential)), noCompression)) {
+            writer.write("text.txt", Writable.stringUtf8(text));
+        }
+        Path parallel = tempDir.resolve("parallel.zip");
+        try (FileTreeWriter writer = FileTreeWriter.parallelZip(Files.newOutputStream(parallel), noCompression, ForkJoinPool.commonPool())) {
+            writer.write("text.txt", Writable.stringUtf8(text));
+        }
+
+        for (Path path : new Path[] { sequential, parallel }) {
+            try (ZipFile zip = new ZipFile(path.toFile())) {
+                ZipEntry entry = zip.getEntry("text.txt");
+                Assertions.assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+                // not compressed at all
+                Assertions.assertTrue(entry.getCompressedSize() >= entry.getSize());
+                assertEntry(zip, "text.txt", ZipEntry.DEFLATED, text.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test that stored entries are written twice and both writes are checked")
+    void test_stored_writable_passes() throws IOException {
+        AtomicInteger writes = new AtomicInteger();
+        try (OutputStream file = Files.newOutputStream(tempDir.resolve("stored.zip"))) {
+            // not closed, the failed entry is left incomplete
+            FileTreeWriter writer = FileTreeWriter.zip(new ZipOutputStream(file));
+            writer.write("diamond.png", output -> {
+                writes.incrementAndGet();
+                output.write(PNG);
+            });
+            // a writable that does not write the same data every time
+            Assertions.assertThrows(UncheckedIOException.class, () -> writer.write("emerald.png",
+                    output -> output.write(writes.incrementAndGet())));
+        }
+        Assertions.assertEquals(4, writes.get());
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.resourcepack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static net.kyori.adventure.key.Key.key;
+
+class FileBackedBuildTest {
+
+    private static ResourcePack createResourcePack() {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(15, "File-backed resource pack");
+        resourcePack.texture(Texture.texture(key("creative:test.png"), Writable.bytes(new byte[]{1, 2, 3, 4})));
+        resourcePack.unknownFile("assets/creative/data.txt", Writable.stringUtf8("Hello world!"));
+        return resourcePack;
+    }
+
+    @Test
+    @DisplayName("Test that building to a file produces the same pack as building in memory")
+    void test_build_to_file(@TempDir Path directory) throws IOException {
+        ResourcePack resourcePack = createResourcePack();
+        Path file = directory.resolve("pack.zip");
+
+        BuiltResourcePack inMemory = MinecraftResourcePackWriter.minecraft().build(resourcePack);
+        BuiltResourcePack fileBacked = MinecraftResourcePackWriter.minecraft().build(resourcePack, file);
+
+        Assertions.assertNull(inMemory.file());
+        Assertions.assertEquals(file, fileBacked.file());
+        Assertions.assertEquals(inMemory.hash(), fileBacked.hash());
+        Assertions.assertArrayEquals(inMemory.data().toByteArray(), Files.readAllBytes(file));
+        Assertions.assertArrayEquals(inMemory.data().toByteArray(), fileBacked.data().toByteArray());
+    }
+
+    @Test
+    @DisplayName("Test that rebuilding to a file replaces it, and failed builds leave it untouched")
+    void test_rebuild_to_file(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("pack.zip");
+        MinecraftResourcePackWriter.minecraft().build(createResourcePack(), file);
+
+        ResourcePack changed = createResourcePack();
+        changed.unknownFile("assets/creative/other.txt", Writable.stringUtf8("Changed"));
+        BuiltResourcePack rebuilt = MinecraftResourcePackWriter.minecraft().build(changed, file);
+        Assertions.assertEquals(MinecraftResourcePackWriter.minecraft().build(changed).hash(), rebuilt.hash());
+        byte[] data = Files.readAllBytes(file);
+
+        ResourcePack failing = createResourcePack();
+        failing.unknownFile("assets/creative/failing.txt", output -> {
+            throw new IOException("Expected failure");
+        });
+        Assertions.assertThrows(RuntimeException.class, () -> MinecraftResourcePackWriter.minecraft().build(failing, file));
+
+        // no partial zip, no temporary files left
+        Assertions.assertArrayEquals(data, Files.readAllBytes(file));
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that packs can be built to temporary files")
+    void test_build_to_temp_file() throws IOException {
+        BuiltResourcePack pack = MinecraftResourcePackWriter.minecraft().buildToTempFile(createResourcePack());
+        Path file = pack.file();
+        Assertions.assertNotNull(file);
+        try {
+            Assertions.assertTrue(Files.size(file) > 0);
+            Assertions.assertEquals(MinecraftResourcePackWriter.minecraft().build(createResourcePack()).hash(), pack.hash());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.resourcepack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.model.ItemOverride;
+import team.unnamed.creative.model.ItemPredicate;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.model.ModelTexture;
+import team.unnamed.creative.model.ModelTextures;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.serialize.minecraft.fs.FileTreeWriter;
+import team.unnamed.creative.serialize.minecraft.fs.ZipEntryCache;
+import team.unnamed.creative.serialize.minecraft.fs.ZipEntryLifecycleHandler;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ForkJoinPool;
+
+import static net.kyori.adventure.key.Key.key;
+
+class IncrementalBuildTest {
+
+    private static ResourcePack createResourcePack(String changedTexture) {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(15, "Incremental resource pack");
+        for (int i = 0; i < 50; i++) {
+            resourcePack.model(Model.model()
+                    .key(key("creative:item/model_" + i))
+                    .parent(Model.ITEM_GENERATED)
+                    .textures(ModelTextures.builder()
+                            .layers(ModelTexture.ofKey(key("creative:item/texture_" + i)))
+                            .build())
+                    .build());
+            resourcePack.texture(Texture.texture(key("creative:item/texture_" + i + ".png"), Writable.stringUtf8("texture " + i)));
+        }
+        resourcePack.texture(Texture.texture(key("creative:item/changed.png"), Writable.stringUtf8(changedTexture)));
+        return resourcePack;
+    }
+
+    @Test
+    @DisplayName("Test that incremental builds reuse unchanged entries and match full builds")
+    void test_incremental() {
+        MinecraftResourcePackWriter incremental = MinecraftResourcePackWriter.builder()
+                .incremental(true)
+                .build();
+        MinecraftResourcePackWriter full = MinecraftResourcePackWriter.builder()
+                .parallelZip(ForkJoinPool.commonPool())
+                .build();
+
+        BuiltResourcePack first = incremental.build(createResourcePack("first"));
+        Assertions.assertEquals(full.build(createResourcePack("first")).hash(), first.hash());
+
+        // same pack, all the entries are reused
+        BuiltResourcePack same = incremental.build(createResourcePack("first"));
+        Assertions.assertEquals(first.hash(), same.hash());
+
+        // one changed entry
+        BuiltResourcePack changed = incremental.build(createResourcePack("second"));
+        Assertions.assertNotEquals(first.hash(), changed.hash());
+        Assertions.assertEquals(full.build(createResourcePack("second")).hash(), changed.hash());
+    }
+
+    @Test
+    @DisplayName("Test that incremental builds detect resources mutated in place")
+    void test_mutated_resource() {
+        MinecraftResourcePackWriter incremental = MinecraftResourcePackWriter.builder()
+                .incremental(true)
+                .build();
+        MinecraftResourcePackWriter full = MinecraftResourcePackWriter.builder()
+                .parallelZip(ForkJoinPool.commonPool())
+                .build();
+
+        ResourcePack resourcePack = createResourcePack("first");
+        BuiltResourcePack first = incremental.build(resourcePack);
+
+        Model model = resourcePack.model(key("creative:item/model_0"));
+        Assertions.assertNotNull(model);
+        model.overrides().add(ItemOverride.of(key("creative:item/model_1"), ItemPredicate.customModelData(1)));
+
+        BuiltResourcePack mutated = incremental.build(resourcePack);
+        Assertions.assertNotEquals(first.hash(), mutated.hash());
+        Assertions.assertEquals(full.build(resourcePack).hash(), mutated.hash());
+    }
+
+    private static byte[] writeTree(ZipEntryCache cache, String changed) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (FileTreeWriter tree = FileTreeWriter.parallelZip(output, ZipEntryLifecycleHandler.DEFAULT, ForkJoinPool.commonPool(), cache)) {
+            tree.write("a.txt", Writable.stringUtf8("first entry"));
+            tree.write("b.txt", Writable.stringUtf8("second entry"));
+            tree.write("c.txt", Writable.stringUtf8(changed));
+        }
+        return output.toByteArray();
+    }
+
+    @Test
+    @DisplayName("Test that the zip entry cache is hit for unchanged entries")
+    void test_cache_hits() {
+        ZipEntryCache cache = ZipEntryCache.zipEntryCache();
+        byte[] first = writeTree(cache, "third entry");
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertEquals(0, cache.hits());
+
+        Assertions.assertArrayEquals(first, writeTree(cache, "third entry"));
+        Assertions.assertEquals(3, cache.hits());
+
+        writeTree(cache, "changed entry");
+        Assertions.assertEquals(5, cache.hits());
+        Assertions.assertEquals(3, cache.size());
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+    }
+
+}
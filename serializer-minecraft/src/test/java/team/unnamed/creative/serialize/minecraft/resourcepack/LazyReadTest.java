@@ -0,0 +1,139 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.resourcepack;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.overlay.Overlay;
+import team.unnamed.creative.resources.MergeStrategy;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackReader;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.synthetic.SyntheticResourcePackGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.zip.ZipFile;
+
+class LazyReadTest {
+
+    private static final Key BROKEN_MODEL_KEY = Key.key("synthetic:item/broken");
+
+    private static ResourcePack createResourcePack() {
+        ResourcePack resourcePack = SyntheticResourcePackGenerator.builder()
+                .seed(3)
+                .size(100)
+                .overlays(2)
+                .build()
+                .generate();
+        // only fails when deserialized
+        resourcePack.unknownFile("assets/synthetic/models/item/broken.json", Writable.stringUtf8("{ \"parent\": [] }"));
+        return resourcePack;
+    }
+
+    private static void assertSameResources(ResourcePack expected, ResourcePack actual) {
+        for (Model model : expected.models()) {
+            Assertions.assertEquals(model, actual.model(model.key()));
+        }
+        Assertions.assertEquals(new HashSet<>(expected.models()), new HashSet<>(actual.models()));
+        Assertions.assertEquals(new HashSet<>(expected.fonts()), new HashSet<>(actual.fonts()));
+        Assertions.assertEquals(new HashSet<>(expected.languages()), new HashSet<>(actual.languages()));
+        Assertions.assertEquals(new HashSet<>(expected.soundRegistries()), new HashSet<>(actual.soundRegistries()));
+        Assertions.assertEquals(expected.overlays().size(), actual.overlays().size());
+        for (Overlay overlay : expected.overlays()) {
+            Overlay actualOverlay = actual.overlay(overlay.directory());
+            Assertions.assertNotNull(actualOverlay);
+            Assertions.assertEquals(new HashSet<>(overlay.models()), new HashSet<>(actualOverlay.models()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test that a lazily read zip file deserializes resources on demand")
+    void test_zip_file(@TempDir Path directory) throws IOException {
+        ResourcePack resourcePack = createResourcePack();
+        Path file = directory.resolve("pack.zip");
+        MinecraftResourcePackWriter.minecraft().writeToZipFile(file, resourcePack);
+        resourcePack.removeUnknownFile("assets/synthetic/models/item/broken.json");
+        Path clean = directory.resolve("clean.zip");
+        MinecraftResourcePackWriter.minecraft().writeToZipFile(clean, resourcePack);
+        ResourcePack eager = MinecraftResourcePackReader.minecraft().readFromZipFile(clean);
+
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            ResourcePack lazy = MinecraftResourcePackReader.minecraft().readLazily(zipFile);
+
+            // the broken model is only found when requested
+            Key key = Key.key("synthetic:item/model_0");
+            Assertions.assertEquals(eager.model(key), lazy.model(key));
+            Assertions.assertThrows(RuntimeException.class, () -> lazy.model(BROKEN_MODEL_KEY));
+
+            // once removed, every other resource can be listed
+            Assertions.assertTrue(lazy.removeModel(BROKEN_MODEL_KEY));
+            Assertions.assertNull(lazy.model(BROKEN_MODEL_KEY));
+            assertSameResources(eager, lazy);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that a lazily read directory can be written back without changes")
+    void test_directory(@TempDir Path directory) {
+        ResourcePack resourcePack = createResourcePack();
+        resourcePack.removeUnknownFile("assets/synthetic/models/item/broken.json");
+        File folder = directory.resolve("pack").toFile();
+        MinecraftResourcePackWriter.minecraft().writeToDirectory(folder, resourcePack);
+
+        ResourcePack eager = MinecraftResourcePackReader.minecraft().readFromDirectory(folder);
+        ResourcePack lazy = MinecraftResourcePackReader.minecraft().readLazily(folder);
+        Assertions.assertEquals(
+                MinecraftResourcePackWriter.minecraft().build(eager).hash(),
+                MinecraftResourcePackWriter.minecraft().build(lazy).hash()
+        );
+        assertSameResources(eager, lazy);
+    }
+
+    @Test
+    @DisplayName("Test that setting a resource replaces the one not read yet")
+    void test_replace(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("pack.zip");
+        MinecraftResourcePackWriter.minecraft().writeToZipFile(file, createResourcePack());
+
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            ResourcePack lazy = MinecraftResourcePackReader.minecraft().readLazily(zipFile);
+            lazy.model(Model.model().key(BROKEN_MODEL_KEY).build());
+            Assertions.assertEquals(Model.model().key(BROKEN_MODEL_KEY).build(), lazy.model(BROKEN_MODEL_KEY));
+
+            // merging reads every resource
+            ResourcePack merged = ResourcePack.resourcePack();
+            merged.merge(lazy, MergeStrategy.override());
+            Assertions.assertEquals(lazy.models().size(), merged.models().size());
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.resourcepack;
+
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.blockstate.BlockState;
+import team.unnamed.creative.metadata.Metadata;
+import team.unnamed.creative.metadata.animation.AnimationMeta;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackReader;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.serialize.minecraft.fs.FileTreeReader;
+import team.unnamed.creative.synthetic.SyntheticResourcePackGenerator;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+class ParallelReadTest {
+
+    private static final Key ANIMATED_KEY = Key.key("creative:animated.png");
+
+    private static ResourcePack createResourcePack() {
+        ResourcePack resourcePack = SyntheticResourcePackGenerator.builder()
+                .seed(7)
+                .size(300)
+                .build()
+                .generate();
+        resourcePack.texture(Texture.texture(
+                ANIMATED_KEY,
+                Writable.stringUtf8("not really a png"),
+                Metadata.metadata().addPart(AnimationMeta.builder().frameTime(2).build()).build()
+        ));
+        return resourcePack;
+    }
+
+    private static MinecraftResourcePackReader parallel(ForkJoinPool pool) {
+        return MinecraftResourcePackReader.builder().parallel(pool).build();
+    }
+
+    private static void assertSameResources(ResourcePack expected, ResourcePack actual) throws IOException {
+        Assertions.assertEquals(expected.models().size(), actual.models().size());
+        for (Model model : expected.models()) {
+            Assertions.assertEquals(model, actual.model(model.key()));
+        }
+        Assertions.assertEquals(new HashSet<>(expected.fonts()), new HashSet<>(actual.fonts()));
+        Assertions.assertEquals(new HashSet<>(expected.languages()), new HashSet<>(actual.languages()));
+        Assertions.assertEquals(new HashSet<>(expected.soundRegistries()), new HashSet<>(actual.soundRegistries()));
+        Assertions.assertEquals(new HashSet<>(expected.atlases()), new HashSet<>(actual.atlases()));
+        Assertions.assertEquals(expected.blockStates().size(), actual.blockStates().size());
+        for (BlockState blockState : expected.blockStates()) {
+            Assertions.assertEquals(String.valueOf(blockState), String.valueOf(actual.blockState(blockState.key())));
+        }
+        Assertions.assertEquals(expected.overlays().size(), actual.overlays().size());
+        Assertions.assertEquals(expected.textures().size(), actual.textures().size());
+        for (Texture texture : expected.textures()) {
+            Texture read = actual.texture(texture.key());
+            Assertions.assertNotNull(read, () -> "Missing texture " + texture.key());
+            Assertions.assertArrayEquals(texture.data().toByteArray(), read.data().toByteArray());
+            Assertions.assertEquals(texture.meta(), read.meta());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that reading a zip file in parallel gives the same resources")
+    void test_zip_file(@TempDir Path directory) throws IOException {
+        ResourcePack resourcePack = createResourcePack();
+        Path file = directory.resolve("pack.zip");
+        MinecraftResourcePackWriter.minecraft().writeToZipFile(file, resourcePack);
+
+        ResourcePack sequential;
+        try (FileTreeReader reader = FileTreeReader.zip(new ZipFile(file.toFile()))) {
+            sequential = MinecraftResourcePackReader.minecraft().read(reader);
+        }
+        ResourcePack parallel;
+        try (FileTreeReader reader = FileTreeReader.zip(new ZipFile(file.toFile()))) {
+            parallel = parallel(ForkJoinPool.commonPool()).read(reader);
+        }
+
+        Assertions.assertEquals(resourcePack.models().size(), sequential.models().size());
+        assertSameResources(sequential, parallel);
+        Assertions.assertNotNull(parallel.texture(ANIMATED_KEY).meta().meta(AnimationMeta.class));
+    }
+
+    @Test
+    @DisplayName("Test that reading a zip stream and a directory in parallel gives the same resources")
+    void test_stream_and_directory(@TempDir Path directory) throws IOException {
+        ResourcePack resourcePack = createResourcePack();
+        byte[] zip = MinecraftResourcePackWriter.minecraft().build(resourcePack).data().toByteArray();
+        MinecraftResourcePackWriter.minecraft().writeToDirectory(directory.toFile(), resourcePack);
+
+        ResourcePack sequential;
+        try (FileTreeReader reader = FileTreeReader.zip(new ZipInputStream(new ByteArrayInputStream(zip)))) {
+            sequential = MinecraftResourcePackReader.minecraft().read(reader);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            try (FileTreeReader reader = FileTreeReader.zip(new ZipInputStream(new ByteArrayInputStream(zip)))) {
+                assertSameResources(sequential, parallel(pool).read(reader));
+            }
+            try (FileTreeReader reader = FileTreeReader.directory(directory.toFile())) {
+                assertSameResources(sequential, parallel(pool).read(reader));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test that parallel read failures are reported as in sequential reads")
+    void test_failure() throws IOException {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.unknownFile("assets/creative/models/broken.json", Writable.stringUtf8("{ \"parent\": 5 "));
+        byte[] zip = MinecraftResourcePackWriter.minecraft().build(resourcePack).data().toByteArray();
+
+        try (FileTreeReader reader = FileTreeReader.zip(new ZipInputStream(new ByteArrayInputStream(zip)))) {
+            Assertions.assertThrows(RuntimeException.class, () -> parallel(ForkJoinPool.commonPool()).read(reader));
+        }
+    }
+
+}
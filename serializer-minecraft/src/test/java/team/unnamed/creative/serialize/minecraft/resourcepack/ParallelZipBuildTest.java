@@ -0,0 +1,122 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.resourcepack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackReader;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.serialize.minecraft.fs.FileTreeReader;
+import team.unnamed.creative.texture.Texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static net.kyori.adventure.key.Key.key;
+
+class ParallelZipBuildTest {
+
+    private static ResourcePack createResourcePack() {
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(15, "Parallel resource pack");
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            byte[] data = new byte[random.nextInt(4096)];
+            // half random (incompressible), half zeros
+            for (int j = 0; j < data.length / 2; j++) {
+                data[j] = (byte) random.nextInt();
+            }
+            resourcePack.texture(Texture.texture(key("creative:texture_" + i + ".png"), Writable.bytes(data)));
+            resourcePack.unknownFile("assets/creative/data_" + i + ".txt", Writable.stringUtf8("File number " + i));
+        }
+        return resourcePack;
+    }
+
+    private static BuiltResourcePack build(ForkJoinPool pool) {
+        return MinecraftResourcePackWriter.builder()
+                .parallelZip(pool)
+                .build()
+                .build(createResourcePack());
+    }
+
+    @Test
+    @DisplayName("Test that parallel zip output does not depend on the pool parallelism")
+    void test_deterministic() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool multiple = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(build(single).hash(), build(multiple).hash());
+            Assertions.assertEquals(build(multiple).hash(), build(multiple).hash());
+        } finally {
+            single.shutdown();
+            multiple.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test that parallel zip output has a valid central directory")
+    void test_central_directory(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("pack.zip");
+        MinecraftResourcePackWriter.builder()
+                .parallelZip(ForkJoinPool.commonPool())
+                .build()
+                .writeToZipFile(file, createResourcePack());
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            // pack.mcmeta, 500 textures and 500 unknown files
+            Assertions.assertEquals(1001, zip.size());
+            ZipEntry entry = zip.getEntry("assets/creative/data_7.txt");
+            Assertions.assertNotNull(entry);
+            Assertions.assertEquals("File number 7", Writable.copyInputStream(zip.getInputStream(entry)).toUTF8String());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that parallel zip output can be read back")
+    void test_read_back() throws IOException {
+        BuiltResourcePack pack = build(ForkJoinPool.commonPool());
+        ResourcePack expected = createResourcePack();
+        try (FileTreeReader reader = FileTreeReader.zip(new ZipInputStream(new ByteArrayInputStream(pack.data().toByteArray())))) {
+            ResourcePack read = MinecraftResourcePackReader.minecraft().read(reader);
+            Assertions.assertEquals(expected.textures().size(), read.textures().size());
+            Assertions.assertEquals(expected.unknownFiles().size(), read.unknownFiles().size());
+            for (Texture texture : expected.textures()) {
+                Texture readTexture = read.texture(texture.key());
+                Assertions.assertNotNull(readTexture);
+                Assertions.assertArrayEquals(texture.data().toByteArray(), readTexture.data().toByteArray());
+            }
+        }
+    }
+
+}
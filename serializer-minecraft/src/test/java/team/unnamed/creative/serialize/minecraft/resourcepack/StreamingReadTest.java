@@ -0,0 +1,129 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.resourcepack;
+
+import com.google.gson.stream.JsonReader;
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.model.Model;
+import team.unnamed.creative.serialize.minecraft.GsonUtil;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackReader;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.serialize.minecraft.font.FontSerializer;
+import team.unnamed.creative.serialize.minecraft.fs.FileTreeReader;
+import team.unnamed.creative.serialize.minecraft.io.JsonResourceStreamDeserializer;
+import team.unnamed.creative.serialize.minecraft.language.LanguageSerializer;
+import team.unnamed.creative.serialize.minecraft.model.ModelSerializer;
+import team.unnamed.creative.serialize.minecraft.sound.SoundRegistrySerializer;
+import team.unnamed.creative.synthetic.SyntheticResourcePackGenerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.zip.ZipFile;
+
+class StreamingReadTest {
+
+    private static <T> void assertSameDeserialization(JsonResourceStreamDeserializer<T> deserializer, String resource, Key key) throws IOException {
+        T tree;
+        try (InputStream input = StreamingReadTest.class.getClassLoader().getResourceAsStream(resource)) {
+            Assertions.assertNotNull(input, () -> "Missing resource " + resource);
+            tree = deserializer.deserializeFromJson(GsonUtil.parseReader(new InputStreamReader(input, StandardCharsets.UTF_8)), key);
+        }
+        T streamed;
+        try (InputStream input = StreamingReadTest.class.getClassLoader().getResourceAsStream(resource)) {
+            Assertions.assertNotNull(input);
+            JsonReader reader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            reader.setLenient(true);
+            streamed = deserializer.deserializeFromJson(reader, key);
+        }
+        Assertions.assertEquals(tree, streamed, () -> "Different result for " + resource);
+    }
+
+    @Test
+    @DisplayName("Test that streaming deserializers read the same test resources as tree deserializers")
+    void test_resources() throws IOException {
+        for (String name : new String[] { "cross", "cube", "cube_all", "door_top_left_open" }) {
+            assertSameDeserialization(ModelSerializer.INSTANCE, "model/" + name + ".json", Key.key("creative", name));
+        }
+        for (String name : new String[] { "alt", "default", "illageralt", "uniform", "include/space", "include/unifont" }) {
+            assertSameDeserialization(FontSerializer.INSTANCE, "font/" + name + ".json", Key.key("creative", name));
+        }
+        assertSameDeserialization(LanguageSerializer.INSTANCE, "en_us_lang.json", Key.key("creative", "en_us"));
+    }
+
+    @Test
+    @DisplayName("Test that streaming sound registry deserialization reads the same as the tree one")
+    void test_sound_registry() throws IOException {
+        String json = "{" +
+                "\"ambient.cave\": { \"replace\": true, \"subtitle\": \"subtitles.ambient.cave\", \"sounds\": [" +
+                "\"ambient/cave/cave1\"," +
+                "{ \"name\": \"ambient/cave/cave2\", \"volume\": 0.5, \"pitch\": 2, \"weight\": 3, \"stream\": true, \"type\": \"file\" }" +
+                "] }," +
+                "\"block.stone.break\": { \"sounds\": [ { \"name\": \"block.stone.hit\", \"type\": \"event\", \"unknown\": [1, 2] } ] }" +
+                "}";
+        Assertions.assertEquals(
+                SoundRegistrySerializer.INSTANCE.readFromTree(GsonUtil.parseString(json), "creative"),
+                SoundRegistrySerializer.INSTANCE.readFromReader(new JsonReader(new StringReader(json)), "creative")
+        );
+    }
+
+    @Test
+    @DisplayName("Test that a streaming reader reads the same resource-pack as the default reader")
+    void test_read(@TempDir Path directory) throws IOException {
+        ResourcePack resourcePack = SyntheticResourcePackGenerator.builder()
+                .seed(11)
+                .size(300)
+                .build()
+                .generate();
+        Path file = directory.resolve("pack.zip");
+        MinecraftResourcePackWriter.minecraft().writeToZipFile(file, resourcePack);
+
+        ResourcePack tree;
+        try (FileTreeReader reader = FileTreeReader.zip(new ZipFile(file.toFile()))) {
+            tree = MinecraftResourcePackReader.minecraft().read(reader);
+        }
+        ResourcePack streamed;
+        try (FileTreeReader reader = FileTreeReader.zip(new ZipFile(file.toFile()))) {
+            streamed = MinecraftResourcePackReader.builder().streaming(true).build().read(reader);
+        }
+
+        Assertions.assertEquals(resourcePack.models().size(), streamed.models().size());
+        for (Model model : tree.models()) {
+            Assertions.assertEquals(model, streamed.model(model.key()));
+        }
+        Assertions.assertEquals(new HashSet<>(tree.fonts()), new HashSet<>(streamed.fonts()));
+        Assertions.assertEquals(new HashSet<>(tree.languages()), new HashSet<>(streamed.languages()));
+        Assertions.assertEquals(new HashSet<>(tree.soundRegistries()), new HashSet<>(streamed.soundRegistries()));
+    }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.serialize.minecraft.texture;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackReader;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.texture.Texture;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static net.kyori.adventure.key.Key.key;
+
+class PngOptimizerTest {
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    /**
+     * Inserts a tEXt chunk after the IHDR chunk of the given image.
+     */
+    private static byte[] withTextChunk(byte[] png, String text) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int headerEnd = 8 + 8 + 13 + 4;
+        output.write(png, 0, headerEnd);
+        writeChunk(output, "tEXt", ("Comment\0" + text).getBytes(StandardCharsets.ISO_8859_1));
+        output.write(png, headerEnd, png.length - headerEnd);
+        return output.toByteArray();
+    }
+
+    private static void writeChunk(ByteArrayOutputStream output, String name, byte[] data) {
+        byte[] type = name.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(data);
+        writeInt(output, data.length);
+        output.write(type, 0, type.length);
+        output.write(data, 0, data.length);
+        writeInt(output, (int) crc.getValue());
+    }
+
+    private static void writeInt(ByteArrayOutputStream output, int value) {
+        output.write(value >>> 24);
+        output.write(value >>> 16);
+        output.write(value >>> 8);
+        output.write(value);
+    }
+
+    private static void assertSamePixels(byte[] expected, byte[] actual) throws IOException {
+        BufferedImage expectedImage = ImageIO.read(new ByteArrayInputStream(expected));
+        BufferedImage actualImage = ImageIO.read(new ByteArrayInputStream(actual));
+        Assertions.assertEquals(expectedImage.getWidth(), actualImage.getWidth());
+        Assertions.assertEquals(expectedImage.getHeight(), actualImage.getHeight());
+        for (int y = 0; y < expectedImage.getHeight(); y++) {
+            for (int x = 0; x < expectedImage.getWidth(); x++) {
+                Assertions.assertEquals(
+                        Integer.toHexString(argb(expectedImage, x, y)),
+                        Integer.toHexString(argb(actualImage, x, y)),
+                        "Pixel at " + x + ", " + y
+                );
+            }
+        }
+    }
+
+    /**
+     * Returns the 8-bit ARGB color of a pixel, gray images are read
+     * from their raster since {@link BufferedImage#getRGB} applies
+     * a gamma conversion to them.
+     */
+    private static int argb(BufferedImage image, int x, int y) {
+        ColorModel colorModel = image.getColorModel();
+        if (colorModel instanceof IndexColorModel || colorModel.getNumColorComponents() != 1) {
+            return image.getRGB(x, y);
+        }
+        WritableRaster raster = image.getRaster();
+        int max = (1 << colorModel.getComponentSize(0)) - 1;
+        int gray = raster.getSample(x, y, 0) * 255 / max;
+        int alpha = colorModel.hasAlpha() ? raster.getSample(x, y, 1) * 255 / max : 0xFF;
+        return alpha << 24 | gray << 16 | gray << 8 | gray;
+    }
+
+    @Test
+    @DisplayName("Test that images with few colors are losslessly reduced")
+    void test_few_colors() throws IOException {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        int[] colors = { 0x00000000, 0x80FF0000, 0xFF00FF00, 0xFF0000FF, 0xFFFFFFFF };
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                image.setRGB(x, y, colors[(x * 7 + y * 3) % colors.length]);
+            }
+        }
+        byte[] original = withTextChunk(encode(image), "a comment that is ignored by the game");
+        byte[] optimized = PngOptimizer.pngOptimizer().optimize(original);
+
+        Assertions.assertTrue(optimized.length < original.length, "Optimized image must be smaller");
+        assertSamePixels(original, optimized);
+    }
+
+    @Test
+    @DisplayName("Test that gray, opaque and translucent true color images keep their pixels")
+    void test_true_color() throws IOException {
+        Random random = new Random(7);
+        BufferedImage gray = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage opaque = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+        BufferedImage translucent = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 32; y++) {
+            for (int x = 0; x < 32; x++) {
+                int level = (x * 8 + y) & 0xFF;
+                gray.setRGB(x, y, 0xFF000000 | level << 16 | level << 8 | level);
+                opaque.setRGB(x, y, random.nextInt());
+                translucent.setRGB(x, y, random.nextInt());
+            }
+        }
+
+        PngOptimizer optimizer = PngOptimizer.pngOptimizer();
+        for (BufferedImage image : new BufferedImage[] { gray, opaque, translucent }) {
+            byte[] original = encode(image);
+            byte[] optimized = optimizer.optimize(original);
+            Assertions.assertTrue(optimized.length <= original.length, "Optimized image must not be larger");
+            assertSamePixels(original, optimized);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that 16-bit images with 8-bit precision are reduced")
+    void test_16_bit() throws IOException {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_USHORT_GRAY);
+        WritableRaster raster = image.getRaster();
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                raster.setSample(x, y, 0, ((x + y) * 8) * 257);
+            }
+        }
+        byte[] original = encode(image);
+        byte[] optimized = PngOptimizer.pngOptimizer().optimize(original);
+
+        Assertions.assertTrue(optimized.length < original.length, "Optimized image must be smaller");
+        Assertions.assertEquals(8, optimized[24], "Bit depth must be reduced");
+        assertSamePixels(original, optimized);
+    }
+
+    @Test
+    @DisplayName("Test that invalid images are returned as they are")
+    void test_invalid() {
+        PngOptimizer optimizer = PngOptimizer.pngOptimizer();
+        byte[] data = "not a png".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertSame(data, optimizer.optimize(data));
+
+        Writable writable = Writable.bytes(data);
+        Assertions.assertSame(writable, optimizer.optimize(writable));
+    }
+
+    @Test
+    @DisplayName("Test that images using a palette index outside the palette are returned as they are")
+    void test_invalid_palette_index() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }, 0, 8);
+        // 2x1, 8-bit indexed color
+        writeChunk(output, "IHDR", new byte[] { 0, 0, 0, 2, 0, 0, 0, 1, 8, 3, 0, 0, 0 });
+        // a single palette entry, while the second pixel uses index 5
+        writeChunk(output, "PLTE", new byte[] { (byte) 0xFF, 0, 0 });
+        Deflater deflater = new Deflater();
+        deflater.setInput(new byte[] { 0, 0, 5 });
+        deflater.finish();
+        byte[] compressed = new byte[64];
+        int length = deflater.deflate(compressed);
+        deflater.end();
+        writeChunk(output, "IDAT", Arrays.copyOf(compressed, length));
+        writeChunk(output, "IEND", new byte[0]);
+
+        // the comment would make any re-encoded image smaller
+        byte[] data = withTextChunk(output.toByteArray(), "a comment that is ignored by the game");
+        Assertions.assertSame(data, PngOptimizer.pngOptimizer().optimize(data));
+    }
+
+    @Test
+    @DisplayName("Test that images too large to be decoded are returned as they are")
+    void test_too_large() throws IOException {
+        // small once encoded, but its pixels would take 16 MiB
+        BufferedImage image = new BufferedImage(2049, 2049, BufferedImage.TYPE_BYTE_BINARY);
+        byte[] data = withTextChunk(encode(image), "a comment that is ignored by the game");
+        Assertions.assertSame(data, PngOptimizer.pngOptimizer().optimize(data));
+    }
+
+    @Test
+    @DisplayName("Test that optimized images are cached")
+    void test_cache() throws IOException {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        byte[] original = encode(image);
+
+        PngOptimizer optimizer = PngOptimizer.pngOptimizer();
+        byte[] optimized = optimizer.optimize(original);
+        Assertions.assertEquals(1, optimizer.size());
+        Assertions.assertSame(optimized, optimizer.optimize(original.clone()));
+        Assertions.assertEquals(1, optimizer.size());
+
+        optimizer.clear();
+        Assertions.assertEquals(0, optimizer.size());
+    }
+
+    @Test
+    @DisplayName("Test that the cache is bounded")
+    void test_cache_bound() throws IOException {
+        PngOptimizer uncached = PngOptimizer.pngOptimizer(0);
+        PngOptimizer bounded = PngOptimizer.pngOptimizer(1024);
+        for (int i = 0; i < 32; i++) {
+            BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(0, 0, 0xFF000000 | i);
+            byte[] original = withTextChunk(encode(image), "comment");
+
+            byte[] optimized = uncached.optimize(original);
+            Assertions.assertTrue(optimized.length < original.length, "Optimized image must be smaller");
+            assertSamePixels(original, optimized);
+            Assertions.assertArrayEquals(optimized, bounded.optimize(original));
+        }
+        Assertions.assertEquals(0, uncached.size());
+        Assertions.assertTrue(bounded.size() > 0 && bounded.size() < 32, "Cache must be bounded");
+    }
+
+    @Test
+    @DisplayName("Test that the writer optimizes textures")
+    void test_writer() throws IOException {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        for (int i = 0; i < 16; i++) {
+            image.setRGB(i, i, 0xFFFF0000);
+        }
+        byte[] original = withTextChunk(encode(image), "comment");
+
+        ResourcePack resourcePack = ResourcePack.resourcePack();
+        resourcePack.packMeta(15, "Optimized resource pack");
+        resourcePack.texture(Texture.texture(key("creative:item/diagonal.png"), Writable.bytes(original)));
+
+        BuiltResourcePack built = MinecraftResourcePackWriter.builder()
+                .pngOptimizer(PngOptimizer.pngOptimizer())
+                .build()
+                .build(resourcePack);
+        ResourcePack read = MinecraftResourcePackReader.minecraft().readFromInputStream(new ByteArrayInputStream(built.data().toByteArray()));
+
+        Texture texture = read.texture(key("creative:item/diagonal.png"));
+        Assertions.assertNotNull(texture);
+        byte[] written = texture.data().toByteArray();
+        Assertions.assertTrue(written.length < original.length, "Written texture must be optimized");
+        assertSamePixels(original, written);
+    }
+
+}
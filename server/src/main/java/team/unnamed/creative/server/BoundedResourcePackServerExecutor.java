@@ -0,0 +1,160 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class BoundedResourcePackServerExecutor implements ResourcePackServerExecutor {
+    // set while a rejected task is being run by the submitter thread
+    private static final ThreadLocal<Boolean> RUNNING_REJECTED = new ThreadLocal<>();
+    // set while the submitter thread handles rejections by itself
+    private static final ThreadLocal<Boolean> THROWING_REJECTED = new ThreadLocal<>();
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    BoundedResourcePackServerExecutor(final int threads, final int queueCapacity) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive, got " + threads);
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive, got " + queueCapacity);
+        }
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new DaemonThreadFactory(),
+                new RejectionHandler()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Determines whether the current thread is running a task that
+     * was rejected by a saturated executor, in which case the request
+     * must be answered as fast as possible, without its body.
+     *
+     * @return True if the current task was rejected
+     */
+    static boolean isRunningRejected() {
+        return RUNNING_REJECTED.get() != null;
+    }
+
+    @Override
+    public void execute(final @NotNull Runnable command) {
+        executor.execute(command);
+    }
+
+    /**
+     * Executes the given task, or throws if this executor is saturated,
+     * instead of running it in the current thread.
+     *
+     * @param command The task to execute
+     * @throws RejectedExecutionException If this executor is saturated
+     */
+    void executeOrThrow(final @NotNull Runnable command) {
+        THROWING_REJECTED.set(Boolean.TRUE);
+        try {
+            executor.execute(command);
+        } finally {
+            THROWING_REJECTED.remove();
+        }
+    }
+
+    @Override
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int queuedCount() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "BoundedResourcePackServerExecutor{" +
+                "threads=" + executor.getMaximumPoolSize() +
+                ", active=" + activeCount() +
+                ", queued=" + queuedCount() +
+                ", rejected=" + rejectedCount() +
+                '}';
+    }
+
+    private final class RejectionHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(final @NotNull Runnable task, final @NotNull ThreadPoolExecutor executor) {
+            rejected.incrementAndGet();
+            if (THROWING_REJECTED.get() != null) {
+                throw new RejectedExecutionException("Executor saturated");
+            }
+
+            // the task must still run (it is the only one that can answer
+            // the request), throwing here would leak the connection, so it
+            // is run here, flagged, and the server answers with a 503 status
+            RUNNING_REJECTED.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                RUNNING_REJECTED.remove();
+            }
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+        private final int pool = POOL_COUNT.incrementAndGet();
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public @NotNull Thread newThread(final @NotNull Runnable runnable) {
+            final Thread thread = new Thread(runnable, "creative-resource-pack-server-" + pool + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import com.sun.net.httpserver.Headers;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A connection accepted by a {@link NioResourcePackServer}, reads
+ * the requests sent through it, which may be pipelined, and passes
+ * them to the server dispatcher, one after another.
+ *
+ * <p>Connections are run by the server executor only while they
+ * have requests to answer, they are {@link NioResourcePackServer#park parked}
+ * in the server selector while idle.</p>
+ */
+final class NioConnection implements Runnable {
+    // time to wait for the next request of a kept-alive connection,
+    // while parked, so it doesn't hold any thread
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // time to wait for the rest of a request once it started, while
+    // holding an executor thread
+    private static final int READ_TIMEOUT_MILLIS = 10_000;
+    private static final int MAX_LINE_LENGTH = 8 * 1024;
+    private static final int MAX_HEADERS = 100;
+    // request bodies larger than this are not drained to keep
+    // the connection alive, the connection is closed instead
+    private static final long MAX_DRAINED_BODY = 64 * 1024;
+
+    private final NioResourcePackServer server;
+    private final SocketChannel channel;
+    private final InputStream input;
+    private final InetSocketAddress localAddress;
+    private final InetSocketAddress remoteAddress;
+
+    // buffered input, shared by all the requests of the connection,
+    // so that pipelined requests aren't lost
+    private final byte[] buffer = new byte[MAX_LINE_LENGTH];
+    private int position;
+    private int limit;
+
+    private volatile boolean idle = true;
+    private volatile long parkedAt;
+
+    NioConnection(final @NotNull NioResourcePackServer server, final @NotNull SocketChannel channel) throws IOException {
+        this.server = requireNonNull(server, "server");
+        this.channel = requireNonNull(channel, "channel");
+        channel.socket().setTcpNoDelay(true);
+        // the socket adaptor streams honor the timeout, unlike the channel
+        channel.socket().setSoTimeout(READ_TIMEOUT_MILLIS);
+        this.input = channel.socket().getInputStream();
+        this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+        this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+    }
+
+    @Override
+    public void run() {
+        boolean parked = false;
+        try {
+            while (!server.stopping()) {
+                if (!handleNext()) {
+                    break;
+                }
+                if (position == limit) {
+                    // no pipelined request buffered, wait for the
+                    // next one without holding this thread
+                    parked = server.park(this);
+                    break;
+                }
+            }
+        } catch (final SocketTimeoutException ignored) {
+            // request not completed in time
+        } catch (final IOException ignored) {
+            // client disconnected or sent garbage
+        } finally {
+            if (!parked) {
+                close();
+                server.remove(this);
+            }
+        }
+    }
+
+    /**
+     * Marks this connection as idle, waiting in the server selector
+     * for its next request.
+     */
+    void parked() {
+        idle = true;
+        parkedAt = System.nanoTime();
+    }
+
+    /**
+     * Determines whether this connection has been parked for too
+     * long, and should be closed.
+     */
+    boolean expired(final long now) {
+        return now - parkedAt >= IDLE_TIMEOUT_NANOS;
+    }
+
+    /**
+     * Reads and answers the next request.
+     *
+     * @return True if the connection can be reused
+     * @throws IOException If reading or writing fails
+     */
+    private boolean handleNext() throws IOException {
+        idle = true;
+        String requestLine;
+        do {
+            // robustness, ignore empty lines before the request-line
+            requestLine = readLine();
+            if (requestLine == null) {
+                return false;
+            }
+        } while (requestLine.isEmpty());
+        idle = false;
+
+        final String[] parts = requestLine.split(" ");
+        if (parts.length != 3 || !parts[2].startsWith("HTTP/1.")) {
+            sendError(400, false);
+            return false;
+        }
+
+        final String method = parts[0];
+        final String protocol = parts[2];
+        final URI uri;
+        try {
+            uri = new URI(parts[1]);
+        } catch (final URISyntaxException e) {
+            sendError(400, false);
+            return false;
+        }
+
+        final Headers headers = readHeaders();
+        if (headers == null) {
+            sendError(400, false);
+            return false;
+        }
+
+        if (headers.containsKey("Transfer-Encoding")) {
+            // resource-pack requests have no body
+            sendError(501, false);
+            return false;
+        }
+
+        long contentLength = 0;
+        final String contentLengthHeader = headers.getFirst("Content-Length");
+        if (contentLengthHeader != null) {
+            try {
+                contentLength = Long.parseLong(contentLengthHeader.trim());
+            } catch (final NumberFormatException e) {
+                contentLength = -1;
+            }
+            if (contentLength < 0) {
+                sendError(400, false);
+                return false;
+            }
+        }
+
+        final String connectionHeader = headers.getFirst("Connection");
+        final boolean keepAlive = protocol.equals("HTTP/1.0")
+                ? "keep-alive".equalsIgnoreCase(connectionHeader)
+                : !"close".equalsIgnoreCase(connectionHeader);
+
+        final String path = uri.getPath();
+        if (path == null || !path.startsWith(server.path())) {
+            final boolean reusable = keepAlive && contentLength <= MAX_DRAINED_BODY;
+            sendError(404, reusable);
+            return reusable && skip(contentLength);
+        }
+
+        final RequestBody body = new RequestBody(contentLength);
+        final NioHttpExchange exchange = new NioHttpExchange(
+                this,
+                method,
+                uri,
+                protocol,
+                headers,
+                body,
+                keepAlive
+        );
+
+        try {
+            server.dispatcher().dispatch(exchange);
+        } catch (final RuntimeException e) {
+            // unexpected handler failure, the state of the
+            // response is unknown, so the connection is dropped
+            return false;
+        } finally {
+            exchange.close();
+        }
+
+        return exchange.reusable() && skip(body.remaining);
+    }
+
+    private @Nullable Headers readHeaders() throws IOException {
+        final Headers headers = new Headers();
+        for (int count = 0; ; count++) {
+            final String line = readLine();
+            if (line == null) {
+                throw new IOException("Connection closed while reading headers");
+            }
+            if (line.isEmpty()) {
+                return headers;
+            }
+            final int colon = line.indexOf(':');
+            if (count >= MAX_HEADERS || colon <= 0) {
+                return null;
+            }
+            headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+        }
+    }
+
+    /**
+     * Reads a line ended by CRLF (or only LF).
+     *
+     * @return The read line, without its terminator, or null if
+     * the connection was closed before reading any byte
+     * @throws IOException If reading fails or the line is too long
+     */
+    private @Nullable String readLine() throws IOException {
+        final StringBuilder line = new StringBuilder();
+        while (true) {
+            if (position == limit && !fill()) {
+                if (line.length() == 0) {
+                    return null;
+                }
+                throw new IOException("Connection closed while reading a line");
+            }
+            final int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            line.append(new String(buffer, start, position - start, StandardCharsets.ISO_8859_1));
+            if (line.length() > MAX_LINE_LENGTH) {
+                throw new IOException("Line too long");
+            }
+            if (position < limit) {
+                // skip '\n'
+                position++;
+                final int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+        }
+    }
+
+    /**
+     * Answers with a "503 Service Unavailable" status and closes
+     * this connection, used when the server is saturated.
+     */
+    void reject() {
+        final String head = "HTTP/1.1 503 " + NioHttpExchange.reasonPhrase(503) + "\r\n"
+                + "Retry-After: 5\r\n"
+                + "Content-Length: 0\r\n"
+                + "Connection: close\r\n"
+                + "\r\n";
+        try {
+            write(ByteBuffer.wrap(head.getBytes(StandardCharsets.ISO_8859_1)));
+        } catch (final IOException ignored) {
+            // client disconnected
+        } finally {
+            close();
+        }
+    }
+
+    private boolean fill() throws IOException {
+        final int read = input.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    /**
+     * Skips the given amount of request body bytes.
+     *
+     * @return True if skipped, false if too many bytes to be
+     * skipped, or if the connection was closed
+     */
+    private boolean skip(long count) throws IOException {
+        if (count > MAX_DRAINED_BODY) {
+            return false;
+        }
+        while (count > 0) {
+            if (position == limit && !fill()) {
+                return false;
+            }
+            final int skipped = (int) Math.min(count, limit - position);
+            position += skipped;
+            count -= skipped;
+        }
+        return true;
+    }
+
+    private void sendError(final int code, final boolean keepAlive) throws IOException {
+        final String head = "HTTP/1.1 " + code + ' ' + NioHttpExchange.reasonPhrase(code) + "\r\n"
+                + "Content-Length: 0\r\n"
+                + (keepAlive ? "" : "Connection: close\r\n")
+                + "\r\n";
+        write(ByteBuffer.wrap(head.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    void write(final @NotNull ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @NotNull SocketChannel channel() {
+        return channel;
+    }
+
+    @NotNull InetSocketAddress localAddress() {
+        return localAddress;
+    }
+
+    @NotNull InetSocketAddress remoteAddress() {
+        return remoteAddress;
+    }
+
+    @NotNull NioResourcePackServer server() {
+        return server;
+    }
+
+    void closeIfIdle() {
+        if (idle) {
+            close();
+        }
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (final IOException ignored) {
+        }
+    }
+
+    /**
+     * The body of a request, reads from the connection buffer,
+     * never past the request Content-Length.
+     */
+    private final class RequestBody extends InputStream {
+        private long remaining;
+
+        RequestBody(final long length) {
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte @NotNull [] bytes, final int offset, final int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            if (position == limit && !fill()) {
+                throw new IOException("Connection closed while reading the request body");
+            }
+            final int read = (int) Math.min(Math.min(length, remaining), limit - position);
+            System.arraycopy(buffer, position, bytes, offset, read);
+            position += read;
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(remaining, limit - position);
+        }
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpPrincipal;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.server.util.ChannelSink;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link HttpExchange} for requests read by a {@link NioConnection},
+ * so that request handlers work with any server backend.
+ *
+ * <p>The response body is written straight to the connection channel,
+ * it is not buffered, and it implements {@link ChannelSink}, so payloads
+ * may be transferred without copying them through the heap.</p>
+ */
+final class NioHttpExchange extends HttpExchange {
+    // channels copy heap buffers to a temporary direct buffer
+    // as large as the written region, so writes are bounded
+    private static final int MAX_WRITE_LENGTH = 64 * 1024;
+
+    private final NioConnection connection;
+    private final String method;
+    private final URI uri;
+    private final String protocol;
+    private final Headers requestHeaders;
+    private final Headers responseHeaders = new Headers();
+    private final InputStream originalRequestBody;
+    private final ResponseBody originalResponseBody = new ResponseBody();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final boolean keepAlive;
+
+    private InputStream requestBody;
+    private OutputStream responseBody;
+    private @Nullable BodyStream body;
+    private int responseCode = -1;
+    private boolean closed;
+
+    NioHttpExchange(
+            final @NotNull NioConnection connection,
+            final @NotNull String method,
+            final @NotNull URI uri,
+            final @NotNull String protocol,
+            final @NotNull Headers requestHeaders,
+            final @NotNull InputStream requestBody,
+            final boolean keepAlive
+    ) {
+        this.connection = requireNonNull(connection, "connection");
+        this.method = requireNonNull(method, "method");
+        this.uri = requireNonNull(uri, "uri");
+        this.protocol = requireNonNull(protocol, "protocol");
+        this.requestHeaders = requireNonNull(requestHeaders, "requestHeaders");
+        this.originalRequestBody = requireNonNull(requestBody, "requestBody");
+        this.requestBody = requestBody;
+        this.responseBody = originalResponseBody;
+        this.keepAlive = keepAlive;
+    }
+
+    @Override
+    public @NotNull Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public @NotNull Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public @NotNull URI getRequestURI() {
+        return uri;
+    }
+
+    @Override
+    public @NotNull String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public @NotNull HttpContext getHttpContext() {
+        return new Context();
+    }
+
+    @Override
+    public @NotNull InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public @NotNull OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(final int code, final long length) throws IOException {
+        if (body != null) {
+            throw new IOException("Headers already sent");
+        }
+
+        final boolean noBody = length == -1
+                || method.equals("HEAD")
+                || code == 204
+                || code == 304
+                || code < 200;
+
+        final StringBuilder head = new StringBuilder(256)
+                .append("HTTP/1.1 ").append(code).append(' ').append(reasonPhrase(code)).append("\r\n");
+        if (length > 0) {
+            responseHeaders.set("Content-Length", Long.toString(length));
+        } else if (length == 0 && !noBody) {
+            responseHeaders.set("Transfer-Encoding", "chunked");
+        } else if (code != 204 && code != 304) {
+            responseHeaders.set("Content-Length", "0");
+        }
+        if (!keepAlive) {
+            responseHeaders.set("Connection", "close");
+        }
+        for (final Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            for (final String value : header.getValue()) {
+                head.append(header.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        head.append("\r\n");
+
+        responseCode = code;
+        if (noBody) {
+            body = new EmptyBody();
+        } else if (length == 0) {
+            body = new ChunkedBody();
+        } else {
+            body = new FixedLengthBody(length);
+        }
+        connection.write(ByteBuffer.wrap(head.toString().getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    @Override
+    public @NotNull InetSocketAddress getRemoteAddress() {
+        return connection.remoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public @NotNull InetSocketAddress getLocalAddress() {
+        return connection.localAddress();
+    }
+
+    @Override
+    public @NotNull String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public @Nullable Object getAttribute(final @NotNull String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(final @NotNull String name, final @Nullable Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams(final @Nullable InputStream requestBody, final @Nullable OutputStream responseBody) {
+        if (requestBody != null) {
+            this.requestBody = requestBody;
+        }
+        if (responseBody != null) {
+            this.responseBody = responseBody;
+        }
+    }
+
+    @Override
+    public @Nullable HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            originalRequestBody.close();
+            if (body != null) {
+                body.close();
+            }
+        } catch (final IOException ignored) {
+            // not reusable, see reusable()
+        }
+    }
+
+    /**
+     * Determines whether the connection can be used for the
+     * next request, i.e. whether the response was completely
+     * sent and the client didn't ask to close the connection.
+     *
+     * @return True if the connection can be reused
+     */
+    boolean reusable() {
+        return keepAlive && body != null && body.complete();
+    }
+
+    static @NotNull String reasonPhrase(final int code) {
+        switch (code) {
+            case 200: return "OK";
+            case 204: return "No Content";
+            case 206: return "Partial Content";
+            case 304: return "Not Modified";
+            case 400: return "Bad Request";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 416: return "Range Not Satisfiable";
+            case 429: return "Too Many Requests";
+            case 500: return "Internal Server Error";
+            case 501: return "Not Implemented";
+            case 503: return "Service Unavailable";
+            default: return "";
+        }
+    }
+
+    /**
+     * The response body stream returned by {@link #getResponseBody()},
+     * may be obtained before the headers are sent, just like with the
+     * JDK HTTP server.
+     */
+    private final class ResponseBody extends OutputStream implements ChannelSink {
+        private @NotNull BodyStream body() throws IOException {
+            if (body == null) {
+                throw new IOException("Response headers not sent yet");
+            }
+            return body;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            body().write(b);
+        }
+
+        @Override
+        public void write(final byte @NotNull [] bytes, final int offset, final int length) throws IOException {
+            body().write(bytes, offset, length);
+        }
+
+        @Override
+        public void write(final @NotNull ByteBuffer buffer) throws IOException {
+            body().write(buffer);
+        }
+
+        @Override
+        public void transferFrom(final @NotNull FileChannel file, final long position, final long count) throws IOException {
+            body().transferFrom(file, position, count);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (body != null) {
+                body.close();
+            }
+        }
+    }
+
+    private abstract class BodyStream extends OutputStream implements ChannelSink {
+        protected boolean closed;
+
+        @Override
+        public final void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public final void write(final byte @NotNull [] bytes, final int offset, final int length) throws IOException {
+            if (offset < 0 || length < 0 || offset + length > bytes.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+            for (int off = offset; off < offset + length; off += MAX_WRITE_LENGTH) {
+                buffer.limit(Math.min(offset + length, off + MAX_WRITE_LENGTH));
+                buffer.position(off);
+                write(buffer);
+            }
+        }
+
+        protected final void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+        }
+
+        protected final void transfer(final @NotNull FileChannel file, long position, long count) throws IOException {
+            while (count > 0) {
+                final long transferred = file.transferTo(position, count, connection.channel());
+                if (transferred <= 0) {
+                    throw new EOFException("File is shorter than expected");
+                }
+                position += transferred;
+                count -= transferred;
+            }
+        }
+
+        abstract boolean complete();
+    }
+
+    private final class FixedLengthBody extends BodyStream {
+        private long remaining;
+
+        FixedLengthBody(final long length) {
+            this.remaining = length;
+        }
+
+        private void consume(final long count) throws IOException {
+            ensureOpen();
+            if (count > remaining) {
+                throw new IOException("Too many bytes to write, " + remaining + " remaining");
+            }
+            remaining -= count;
+        }
+
+        @Override
+        public void write(final @NotNull ByteBuffer buffer) throws IOException {
+            consume(buffer.remaining());
+            connection.write(buffer);
+        }
+
+        @Override
+        public void transferFrom(final @NotNull FileChannel file, final long position, final long count) throws IOException {
+            consume(count);
+            transfer(file, position, count);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        boolean complete() {
+            return remaining == 0;
+        }
+    }
+
+    private final class ChunkedBody extends BodyStream {
+        private boolean complete;
+
+        private void writeChunkSize(final long size) throws IOException {
+            final String line = Long.toHexString(size) + "\r\n";
+            connection.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+
+        private void writeLineEnd() throws IOException {
+            connection.write(ByteBuffer.wrap(new byte[]{'\r', '\n'}));
+        }
+
+        @Override
+        public void write(final @NotNull ByteBuffer buffer) throws IOException {
+            ensureOpen();
+            if (!buffer.hasRemaining()) {
+                // an empty chunk would end the body
+                return;
+            }
+            writeChunkSize(buffer.remaining());
+            connection.write(buffer);
+            writeLineEnd();
+        }
+
+        @Override
+        public void transferFrom(final @NotNull FileChannel file, final long position, final long count) throws IOException {
+            ensureOpen();
+            if (count == 0) {
+                return;
+            }
+            writeChunkSize(count);
+            transfer(file, position, count);
+            writeLineEnd();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writeChunkSize(0);
+            writeLineEnd();
+            complete = true;
+        }
+
+        @Override
+        boolean complete() {
+            return complete;
+        }
+    }
+
+    private final class EmptyBody extends BodyStream {
+        @Override
+        public void write(final @NotNull ByteBuffer buffer) throws IOException {
+            if (buffer.hasRemaining()) {
+                throw new IOException("Response has no body");
+            }
+        }
+
+        @Override
+        public void transferFrom(final @NotNull FileChannel file, final long position, final long count) throws IOException {
+            if (count > 0) {
+                throw new IOException("Response has no body");
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        boolean complete() {
+            return true;
+        }
+    }
+
+    private final class Context extends HttpContext {
+        @Override
+        public @Nullable HttpHandler getHandler() {
+            return null;
+        }
+
+        @Override
+        public void setHandler(final @NotNull HttpHandler handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull String getPath() {
+            return connection.server().path();
+        }
+
+        @Override
+        public @Nullable HttpServer getServer() {
+            // not backed by an HttpServer
+            return null;
+        }
+
+        @Override
+        public @NotNull Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public @NotNull List<Filter> getFilters() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public @Nullable Authenticator setAuthenticator(final @Nullable Authenticator authenticator) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @Nullable Authenticator getAuthenticator() {
+            return null;
+        }
+    }
+}
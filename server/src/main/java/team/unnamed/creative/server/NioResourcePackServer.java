@@ -0,0 +1,378 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link ResourcePackServer} implementation built on {@link java.nio}
+ * channels, see {@link ResourcePackServerBackend#NIO}.
+ *
+ * <p>A single selector thread accepts the connections and waits for
+ * their requests. Once a request can be read, the connection is given
+ * to the executor, which reads and answers its requests in blocking
+ * mode, one after another, until it is idle again. Idle (kept-alive)
+ * connections go back to the selector, so they never hold an executor
+ * thread.</p>
+ */
+final class NioResourcePackServer implements ResourcePackServer {
+    // time to wait before accepting again after a failure, e.g.
+    // when running out of file descriptors
+    private static final long ACCEPT_RETRY_MILLIS = 100L;
+    // interval of the idle connections expiration checks
+    private static final long SWEEP_INTERVAL_MILLIS = 1000L;
+
+    private final ServerSocketChannel channel;
+    private final Selector selector;
+    // idle connections to be registered by the selector thread
+    private final Queue<NioConnection> parked = new ConcurrentLinkedQueue<>();
+    private final InetSocketAddress address;
+    private final String path;
+    private final RequestDispatcher dispatcher;
+    private final Executor executor;
+    private final @Nullable ResourcePackServerExecutor ownedExecutor;
+    private final Set<NioConnection> connections = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean stopping;
+    private @Nullable Thread acceptor;
+
+    NioResourcePackServer(
+            final @NotNull InetSocketAddress address,
+            final int backlog,
+            final @NotNull String path,
+            final @NotNull RequestDispatcher dispatcher,
+            final @Nullable Executor executor
+    ) throws IOException {
+        requireNonNull(address, "address");
+        this.path = requireNonNull(path, "path");
+        this.dispatcher = requireNonNull(dispatcher, "dispatcher");
+        if (executor == null) {
+            // connections can't be handled in the acceptor thread,
+            // so there is always an executor
+            this.ownedExecutor = ResourcePackServerExecutor.recommended();
+            this.executor = ownedExecutor;
+        } else {
+            this.ownedExecutor = null;
+            this.executor = executor;
+        }
+
+        this.channel = ServerSocketChannel.open();
+        Selector selector = null;
+        try {
+            channel.bind(address, backlog);
+            this.address = (InetSocketAddress) channel.getLocalAddress();
+            channel.configureBlocking(false);
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (final IOException e) {
+            if (selector != null) {
+                selector.close();
+            }
+            channel.close();
+            throw e;
+        }
+        this.selector = selector;
+    }
+
+    @Override
+    @Deprecated
+    public @NotNull HttpServer httpServer() {
+        throw new UnsupportedOperationException("This server uses the " + ResourcePackServerBackend.NIO + " backend, not an HttpServer");
+    }
+
+    @Override
+    public @NotNull InetSocketAddress address() {
+        return address;
+    }
+
+    @NotNull String path() {
+        return path;
+    }
+
+    @NotNull RequestDispatcher dispatcher() {
+        return dispatcher;
+    }
+
+    boolean stopping() {
+        return stopping;
+    }
+
+    void remove(final @NotNull NioConnection connection) {
+        connections.remove(connection);
+    }
+
+    /**
+     * Gives an idle connection back to the selector thread, so that
+     * it is dispatched again when its next request can be read.
+     *
+     * @return False if the connection can't be parked and must be
+     * closed by the caller
+     */
+    boolean park(final @NotNull NioConnection connection) {
+        if (stopping) {
+            return false;
+        }
+        try {
+            // channels must be non-blocking to be registered
+            connection.channel().configureBlocking(false);
+        } catch (final IOException e) {
+            return false;
+        }
+        connection.parked();
+        parked.add(connection);
+        selector.wakeup();
+        return true;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (acceptor != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        acceptor = new Thread(this::select, "ResourcePackServer-NIO-selector");
+        acceptor.start();
+    }
+
+    private void select() {
+        long lastSweep = System.nanoTime();
+        try {
+            while (!stopping) {
+                registerParked();
+                selector.select(SWEEP_INTERVAL_MILLIS);
+                if (stopping) {
+                    break;
+                }
+                final Set<SelectionKey> selected = selector.selectedKeys();
+                while (!selected.isEmpty()) {
+                    processSelected(selected);
+                }
+
+                final long now = System.nanoTime();
+                if (TimeUnit.NANOSECONDS.toMillis(now - lastSweep) >= SWEEP_INTERVAL_MILLIS) {
+                    lastSweep = now;
+                    closeExpired(now);
+                }
+            }
+        } catch (final IOException | ClosedSelectorException ignored) {
+            // stopped
+        } finally {
+            try {
+                // also deregisters (and finishes closing) the channels
+                selector.close();
+            } catch (final IOException ignored) {
+            }
+        }
+    }
+
+    private void registerParked() {
+        NioConnection connection;
+        while ((connection = parked.poll()) != null) {
+            try {
+                connection.channel().register(selector, SelectionKey.OP_READ, connection);
+            } catch (final ClosedChannelException e) {
+                // closed while parking, e.g. when stopping
+                connections.remove(connection);
+            }
+        }
+    }
+
+    private void processSelected(final @NotNull Set<SelectionKey> selected) throws IOException {
+        final List<NioConnection> readable = new ArrayList<>();
+        final Iterator<SelectionKey> iterator = selected.iterator();
+        while (iterator.hasNext()) {
+            final SelectionKey key = iterator.next();
+            iterator.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+            } else if (key.isReadable()) {
+                key.cancel();
+                readable.add((NioConnection) key.attachment());
+            }
+        }
+
+        if (readable.isEmpty()) {
+            return;
+        }
+        // cancelled keys are only deregistered by the next selection,
+        // and channels can't be made blocking while registered, this
+        // may select other keys, which are processed right after
+        selector.selectNow();
+        for (final NioConnection connection : readable) {
+            dispatch(connection);
+        }
+    }
+
+    private void accept() {
+        while (true) {
+            final SocketChannel client;
+            try {
+                client = channel.accept();
+            } catch (final IOException e) {
+                // e.g. too many open files, transient, so it is not
+                // reported, wait for connections to be closed and
+                // keep accepting
+                try {
+                    Thread.sleep(ACCEPT_RETRY_MILLIS);
+                } catch (final InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            if (client == null) {
+                // no more pending connections
+                return;
+            }
+
+            final NioConnection connection;
+            try {
+                connection = new NioConnection(this, client);
+                client.configureBlocking(false);
+                client.register(selector, SelectionKey.OP_READ, connection);
+            } catch (final IOException e) {
+                closeQuietly(client);
+                continue;
+            }
+            connection.parked();
+            connections.add(connection);
+        }
+    }
+
+    private void dispatch(final @NotNull NioConnection connection) {
+        try {
+            connection.channel().configureBlocking(true);
+        } catch (final IOException e) {
+            connection.close();
+            connections.remove(connection);
+            return;
+        }
+
+        try {
+            if (executor instanceof BoundedResourcePackServerExecutor) {
+                // never run the connection in this thread, it would
+                // stop selecting until the connection is idle
+                ((BoundedResourcePackServerExecutor) executor).executeOrThrow(connection);
+            } else {
+                executor.execute(connection);
+            }
+        } catch (final RejectedExecutionException e) {
+            connections.remove(connection);
+            connection.reject();
+        }
+    }
+
+    private void closeExpired(final long now) {
+        for (final SelectionKey key : selector.keys()) {
+            final Object attachment = key.attachment();
+            if (attachment instanceof NioConnection && ((NioConnection) attachment).expired(now)) {
+                final NioConnection connection = (NioConnection) attachment;
+                key.cancel();
+                connection.close();
+                connections.remove(connection);
+            }
+        }
+    }
+
+    @Override
+    public void stop(final int delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Negative delay: " + delay);
+        }
+        stopping = true;
+        selector.wakeup();
+        closeQuietly(channel);
+
+        // wait for the exchanges in progress, idle connections
+        // are closed right away
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(delay);
+        while (true) {
+            for (final NioConnection connection : connections) {
+                connection.closeIfIdle();
+            }
+            if (connections.isEmpty() || System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        for (final NioConnection connection : connections) {
+            connection.close();
+        }
+        connections.clear();
+
+        final Thread acceptor;
+        synchronized (this) {
+            acceptor = this.acceptor;
+        }
+        if (acceptor != null) {
+            try {
+                acceptor.join(1000L);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private static void closeQuietly(final @NotNull Channel channel) {
+        try {
+            channel.close();
+        } catch (final IOException ignored) {
+        }
+    }
+}
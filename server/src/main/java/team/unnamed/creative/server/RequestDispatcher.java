@@ -0,0 +1,123 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.server.handler.ResourcePackRequestHandler;
+import team.unnamed.creative.server.metrics.CompletedRequest;
+import team.unnamed.creative.server.metrics.ResourcePackServerListener;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+import team.unnamed.creative.server.util.BandwidthLimiter;
+import team.unnamed.creative.server.util.CountingOutputStream;
+import team.unnamed.creative.server.util.ResourcePackDownloadRequestParser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Handles the exchanges accepted by any of the server
+ * backends, parsing the Minecraft client request and
+ * passing it to the user handler.
+ */
+final class RequestDispatcher {
+    private final ResourcePackRequestHandler handler;
+    private final BandwidthLimiter bandwidthLimiter;
+    private final ResourcePackServerListener listener;
+
+    RequestDispatcher(
+            final @NotNull ResourcePackRequestHandler handler,
+            final @NotNull BandwidthLimiter bandwidthLimiter,
+            final @NotNull ResourcePackServerListener listener
+    ) {
+        this.handler = requireNonNull(handler, "handler");
+        this.bandwidthLimiter = requireNonNull(bandwidthLimiter, "bandwidthLimiter");
+        this.listener = requireNonNull(listener, "listener");
+    }
+
+    void dispatch(final @NotNull HttpExchange exchange) throws IOException {
+        final long start = System.nanoTime();
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.close();
+            return;
+        }
+
+        final Headers headers = exchange.getRequestHeaders();
+        final ResourcePackDownloadRequest request = ResourcePackDownloadRequestParser.parse(headers);
+        final boolean listening = listener != ResourcePackServerListener.noop();
+        if (listening) {
+            listener.onRequestStart(request);
+        }
+
+        OutputStream limitedResponseBody = null;
+        CountingOutputStream countingResponseBody = null;
+        try {
+            if (BoundedResourcePackServerExecutor.isRunningRejected()) {
+                // the executor is saturated and this is running in the
+                // dispatcher thread, answer quickly and let the client retry
+                exchange.getResponseHeaders().set("Retry-After", "5");
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            if (bandwidthLimiter.limited()) {
+                limitedResponseBody = bandwidthLimiter.limit(exchange.getResponseBody(), request == null ? null : request.uuid());
+                exchange.setStreams(null, limitedResponseBody);
+            }
+            if (listening) {
+                countingResponseBody = CountingOutputStream.of(exchange.getResponseBody());
+                exchange.setStreams(null, countingResponseBody);
+            }
+
+            handler.onRequest(request, exchange);
+        } finally {
+            exchange.close();
+            if (limitedResponseBody != null) {
+                // no-op if closed by the handler or the exchange, still
+                // required to release the limits if they didn't
+                try {
+                    limitedResponseBody.close();
+                } catch (final IOException ignored) {
+                }
+            }
+            if (listening) {
+                final long end = System.nanoTime();
+                final Object packHash = exchange.getAttribute(ResourcePackServerListener.PACK_HASH_ATTRIBUTE);
+                final boolean written = countingResponseBody != null && countingResponseBody.written();
+                listener.onRequestEnd(CompletedRequest.completed(
+                        request,
+                        exchange.getResponseCode(),
+                        packHash instanceof String ? (String) packHash : null,
+                        countingResponseBody == null ? 0L : countingResponseBody.count(),
+                        written ? Duration.ofNanos(countingResponseBody.firstWriteNanos() - start) : null,
+                        Duration.ofNanos(end - start)
+                ));
+            }
+        }
+    }
+}
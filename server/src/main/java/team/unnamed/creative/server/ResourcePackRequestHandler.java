@@ -28,10 +28,13 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.server.metrics.ResourcePackServerListener;
 import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+import team.unnamed.creative.server.util.PackPayload;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -112,16 +115,22 @@ public interface ResourcePackRequestHandler extends team.unnamed.creative.server
     }
 
     static ResourcePackRequestHandler of(BuiltResourcePack pack, boolean validOnly) {
+        final PackPayload payload;
+        try {
+            payload = PackPayload.of(pack);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read resource-pack data", e);
+        }
         return new ResourcePackRequestHandler() {
 
             @Override
             public void onRequest(@Nullable ResourcePackRequest request, HttpExchange exchange) throws IOException {
                 if (request != null || !validOnly) {
-                    byte[] data = pack.data().toByteArray();
+                    exchange.setAttribute(ResourcePackServerListener.PACK_HASH_ATTRIBUTE, pack.hash());
                     exchange.getResponseHeaders().set("Content-Type", "application/zip");
-                    exchange.sendResponseHeaders(200, data.length);
+                    exchange.sendResponseHeaders(200, payload.length());
                     try (OutputStream responseStream = exchange.getResponseBody()) {
-                        responseStream.write(data);
+                        payload.writeTo(responseStream);
                     }
                 } else {
                     ResourcePackRequestHandler.super.onInvalidRequest(exchange);
@@ -32,6 +32,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.BuiltResourcePack;
 import team.unnamed.creative.server.handler.ResourcePackRequestHandler;
+import team.unnamed.creative.server.metrics.ResourcePackServerListener;
+import team.unnamed.creative.server.metrics.ResourcePackServerMetrics;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
@@ -172,7 +174,10 @@ public interface ResourcePackServer {
          * if the executor is not specified or if it's set to null, then
          * a default implementation is used, which uses the thread
          * which was created by the {@link ResourcePackServer#start()}
-         * method.</p>
+         * method, i.e. a single slow client will stall all the others.</p>
+         *
+         * <p>See {@link ResourcePackServerExecutor#recommended()} for an
+         * executor suitable for serving many clients at once.</p>
          *
          * @param executor The server's executor
          * @return This builder
@@ -181,6 +186,20 @@ public interface ResourcePackServer {
         @Contract("_ -> this")
         @NotNull Builder executor(final @Nullable Executor executor);
 
+        /**
+         * Sets the server's backend, optional, defaults to
+         * {@link ResourcePackServerBackend#HTTP_SERVER}.
+         *
+         * <p>Note that HTTPS is only supported by the
+         * {@link ResourcePackServerBackend#HTTP_SERVER} backend.</p>
+         *
+         * @param backend The server's backend
+         * @return This builder
+         * @since 1.7.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder backend(final @NotNull ResourcePackServerBackend backend);
+
         /**
          * Sets the server's HTTPS configurator, optional.
          * If not set, the server will default to a HTTP
@@ -250,6 +269,63 @@ public interface ResourcePackServer {
         @Contract("_ -> this")
         @NotNull Builder backlog(final int backlog);
 
+        /**
+         * Sets the maximum rate at which a single download
+         * is sent, optional.
+         *
+         * <p>If the given value is less than or equal to
+         * zero, then there is no limit</p>
+         *
+         * @param bytesPerSecond The maximum rate, in bytes per second
+         * @return This builder, for chaining
+         * @since 1.7.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder connectionBandwidth(final long bytesPerSecond);
+
+        /**
+         * Sets the maximum rate at which downloads are sent to a
+         * single player (identified by the UUID sent by Minecraft
+         * clients), shared by all the player downloads, optional.
+         *
+         * <p>If the given value is less than or equal to
+         * zero, then there is no limit</p>
+         *
+         * @param bytesPerSecond The maximum rate, in bytes per second
+         * @return This builder, for chaining
+         * @since 1.7.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder playerBandwidth(final long bytesPerSecond);
+
+        /**
+         * Sets the maximum rate at which all downloads are sent,
+         * optional, useful to leave room for the game traffic when
+         * many players download the resource-pack at once.
+         *
+         * <p>The rate is fairly shared between the active downloads.
+         * If the given value is less than or equal to zero, then
+         * there is no limit</p>
+         *
+         * @param bytesPerSecond The maximum rate, in bytes per second
+         * @return This builder, for chaining
+         * @since 1.7.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder globalBandwidth(final long bytesPerSecond);
+
+        /**
+         * Sets the server's request listener, optional, notified
+         * of every handled request, e.g. to collect metrics
+         * using {@link ResourcePackServerMetrics}.
+         *
+         * @param listener The server's request listener
+         * @return This builder, for chaining
+         * @since 1.7.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder listener(final @NotNull ResourcePackServerListener listener);
+
         /**
          * Sets the server's request handler, required,
          * may also be set by using {@link #pack}.
@@ -327,6 +403,8 @@ public interface ResourcePackServer {
          *
          * @return The built {@link ResourcePackServer} instance
          * @throws IOException If bind fails
+         * @throws IllegalStateException If HTTPS was configured for a
+         *                               backend that doesn't support it
          * @since 1.0.0
          */
         @Contract("-> new")
@@ -0,0 +1,58 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+/**
+ * The implementations a {@link ResourcePackServer} can use
+ * to accept connections and send responses.
+ *
+ * <p>Request handlers work the same way with any backend,
+ * since all of them use {@link com.sun.net.httpserver.HttpExchange}
+ * to represent the requests.</p>
+ *
+ * @since 1.7.0
+ */
+public enum ResourcePackServerBackend {
+    /**
+     * The JDK HTTP server ({@link com.sun.net.httpserver.HttpServer}),
+     * the default backend, supports HTTPS.
+     *
+     * @since 1.7.0
+     */
+    HTTP_SERVER,
+
+    /**
+     * A standalone backend built on {@link java.nio} channels,
+     * supports keep-alive and pipelined requests and sends
+     * file-backed packs using {@link java.nio.channels.FileChannel#transferTo},
+     * does not support HTTPS.
+     *
+     * <p>Connections are handled in tasks given to the server
+     * executor, a default executor is created if none is set,
+     * see {@link ResourcePackServerExecutor#recommended()}</p>
+     *
+     * @since 1.7.0
+     */
+    NIO
+}
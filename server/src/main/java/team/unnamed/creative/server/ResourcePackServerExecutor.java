@@ -0,0 +1,147 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * An {@link Executor} profile for {@link ResourcePackServer}s, which
+ * handles every request in its own task, so that slow clients can't
+ * stall others, and reports its load.
+ *
+ * <p>Instances can be set using {@link ResourcePackServer.Builder#executor(Executor)}.
+ * They are not shut down when the server stops, since they may be
+ * shared by many servers, use {@link #shutdown()} for that.</p>
+ *
+ * @since 1.7.0
+ */
+public interface ResourcePackServerExecutor extends Executor {
+    /**
+     * Creates a new executor that runs every request in a new
+     * virtual thread, only available when running on Java 21 or
+     * newer.
+     *
+     * <p>Note that, before Java 24, virtual threads blocked while
+     * writing a response to a slow client pin their carrier thread,
+     * see {@link #recommended()}.</p>
+     *
+     * @return The created executor
+     * @throws UnsupportedOperationException If virtual threads are
+     *                                       not supported by the
+     *                                       current runtime
+     * @see #virtualThreadsSupported()
+     * @since 1.7.0
+     */
+    @Contract("-> new")
+    static @NotNull ResourcePackServerExecutor virtualThreads() {
+        return new VirtualThreadResourcePackServerExecutor();
+    }
+
+    /**
+     * Creates a new executor backed by a fixed number of (daemon)
+     * threads and a bounded queue of pending requests.
+     *
+     * <p>When all the threads are busy and the queue is full, new
+     * requests are rejected with a "503 Service Unavailable" response,
+     * which is written by the server's dispatcher thread, and are
+     * counted in {@link #rejectedCount()}.</p>
+     *
+     * @param threads       The number of threads, must be positive
+     * @param queueCapacity The maximum number of pending requests,
+     *                      must be positive
+     * @return The created executor
+     * @since 1.7.0
+     */
+    @Contract("_, _ -> new")
+    static @NotNull ResourcePackServerExecutor bounded(final int threads, final int queueCapacity) {
+        return new BoundedResourcePackServerExecutor(threads, queueCapacity);
+    }
+
+    /**
+     * Creates a new executor using the recommended profile for the
+     * current runtime: virtual threads when running on Java 24 or
+     * newer, or a bounded pool of 256 threads and 1024 queued requests
+     * otherwise.
+     *
+     * <p>Virtual threads are not used on Java 21 to 23, even though
+     * they are supported, because the JDK HTTP server writes responses
+     * while holding a monitor, which pins the carrier thread, so a few
+     * slow clients would stall every other download.</p>
+     *
+     * @return The created executor
+     * @since 1.7.0
+     */
+    @Contract("-> new")
+    static @NotNull ResourcePackServerExecutor recommended() {
+        return VirtualThreadResourcePackServerExecutor.RECOMMENDED ? virtualThreads() : bounded(256, 1024);
+    }
+
+    /**
+     * Determines whether the current runtime supports
+     * virtual threads (Java 21 or newer).
+     *
+     * @return True if virtual threads are supported
+     * @since 1.7.0
+     */
+    static boolean virtualThreadsSupported() {
+        return VirtualThreadResourcePackServerExecutor.SUPPORTED;
+    }
+
+    /**
+     * Returns the number of requests currently being handled.
+     *
+     * @return The number of active requests
+     * @since 1.7.0
+     */
+    int activeCount();
+
+    /**
+     * Returns the number of requests waiting to be handled.
+     *
+     * @return The number of queued requests
+     * @since 1.7.0
+     */
+    int queuedCount();
+
+    /**
+     * Returns the total number of rejected requests, i.e. requests
+     * that were answered with "503 Service Unavailable" because this
+     * executor was saturated.
+     *
+     * @return The number of rejected requests
+     * @since 1.7.0
+     */
+    long rejectedCount();
+
+    /**
+     * Shuts down this executor, already submitted requests are
+     * still handled, but new ones are rejected.
+     *
+     * @since 1.7.0
+     */
+    void shutdown();
+}
@@ -23,16 +23,14 @@
  */
 package team.unnamed.creative.server;
 
-import com.sun.net.httpserver.Headers;
-import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import com.sun.net.httpserver.HttpsConfigurator;
 import com.sun.net.httpserver.HttpsServer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.server.handler.ResourcePackRequestHandler;
-import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
-import team.unnamed.creative.server.util.ResourcePackDownloadRequestParser;
+import team.unnamed.creative.server.metrics.ResourcePackServerListener;
+import team.unnamed.creative.server.util.BandwidthLimiter;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -43,16 +41,15 @@ import static java.util.Objects.requireNonNull;
 final class ResourcePackServerImpl implements ResourcePackServer {
 
     private final HttpServer server;
-    private final ResourcePackRequestHandler handler;
 
     ResourcePackServerImpl(
             final @NotNull HttpServer server,
             final @NotNull String path,
-            final @NotNull ResourcePackRequestHandler handler
+            final @NotNull RequestDispatcher dispatcher
     ) {
         this.server = requireNonNull(server, "server");
-        this.handler = requireNonNull(handler, "handler");
-        this.server.createContext(requireNonNull(path, "path"), this::handleRequest);
+        requireNonNull(dispatcher, "dispatcher");
+        this.server.createContext(requireNonNull(path, "path"), dispatcher::dispatch);
     }
 
     @Override
@@ -76,22 +73,6 @@ final class ResourcePackServerImpl implements ResourcePackServer {
         server.stop(delay);
     }
 
-    private void handleRequest(final @NotNull HttpExchange exchange) throws IOException {
-        if (!"GET".equals(exchange.getRequestMethod())) {
-            exchange.close();
-            return;
-        }
-
-        final Headers headers = exchange.getRequestHeaders();
-        final ResourcePackDownloadRequest request = ResourcePackDownloadRequestParser.parse(headers);
-
-        try {
-            handler.onRequest(request, exchange);
-        } finally {
-            exchange.close();
-        }
-    }
-
     static final class BuilderImpl implements Builder {
         private InetSocketAddress address;
         private Executor executor;
@@ -99,6 +80,12 @@ final class ResourcePackServerImpl implements ResourcePackServer {
         private ResourcePackRequestHandler handler;
         private String path = "/";
         private HttpServerFactory serverFactory = HttpServer::create;
+        private boolean secure;
+        private ResourcePackServerBackend backend = ResourcePackServerBackend.HTTP_SERVER;
+        private long connectionBandwidth;
+        private long playerBandwidth;
+        private long globalBandwidth;
+        private ResourcePackServerListener listener = ResourcePackServerListener.noop();
 
         @Override
         public @NotNull Builder address(final @NotNull InetSocketAddress address) {
@@ -115,6 +102,7 @@ final class ResourcePackServerImpl implements ResourcePackServer {
         @Override
         public @NotNull Builder secure(final @NotNull HttpsConfigurator httpsConfigurator) {
             requireNonNull(httpsConfigurator, "httpsConfigurator");
+            this.secure = true;
             this.serverFactory = (address, backlog) -> {
                 HttpsServer server = HttpsServer.create(address, backlog);
                 server.setHttpsConfigurator(httpsConfigurator);
@@ -123,6 +111,12 @@ final class ResourcePackServerImpl implements ResourcePackServer {
             return this;
         }
 
+        @Override
+        public @NotNull Builder backend(final @NotNull ResourcePackServerBackend backend) {
+            this.backend = requireNonNull(backend, "backend");
+            return this;
+        }
+
         @Override
         public @NotNull Builder backlog(final int backlog) {
             this.backlog = backlog;
@@ -141,11 +135,46 @@ final class ResourcePackServerImpl implements ResourcePackServer {
             return this;
         }
 
+        @Override
+        public @NotNull Builder connectionBandwidth(final long bytesPerSecond) {
+            this.connectionBandwidth = bytesPerSecond;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder playerBandwidth(final long bytesPerSecond) {
+            this.playerBandwidth = bytesPerSecond;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder globalBandwidth(final long bytesPerSecond) {
+            this.globalBandwidth = bytesPerSecond;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder listener(final @NotNull ResourcePackServerListener listener) {
+            this.listener = requireNonNull(listener, "listener");
+            return this;
+        }
+
         @Override
         public @NotNull ResourcePackServer build() throws IOException {
-            final HttpServer server = serverFactory.create(address, backlog);
-            server.setExecutor(executor);
-            return new ResourcePackServerImpl(server, path, handler);
+            final BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(connectionBandwidth, playerBandwidth, globalBandwidth);
+            final RequestDispatcher dispatcher = new RequestDispatcher(handler, bandwidthLimiter, listener);
+            switch (backend) {
+                case NIO:
+                    if (secure) {
+                        throw new IllegalStateException("HTTPS is not supported by the " + backend + " backend");
+                    }
+                    return new NioResourcePackServer(address, backlog, path, dispatcher, executor);
+                case HTTP_SERVER:
+                default:
+                    final HttpServer server = serverFactory.create(address, backlog);
+                    server.setExecutor(executor);
+                    return new ResourcePackServerImpl(server, path, dispatcher);
+            }
         }
     }
 
@@ -0,0 +1,117 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class VirtualThreadResourcePackServerExecutor implements ResourcePackServerExecutor {
+    // looked up reflectively, since we target Java 8
+    private static final @Nullable Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findFactory();
+    static final boolean SUPPORTED = NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+
+    // before Java 24 (JEP 491), blocking inside synchronized blocks pins the
+    // carrier thread, and the JDK HTTP server writes responses inside them,
+    // so a few hundred slow clients would starve every carrier thread
+    static final boolean RECOMMENDED = SUPPORTED && javaVersion() >= 24;
+
+    private final ExecutorService executor;
+    private final AtomicInteger active = new AtomicInteger();
+
+    VirtualThreadResourcePackServerExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this runtime (Java "
+                    + System.getProperty("java.version") + "), Java 21 or newer is required");
+        }
+        try {
+            this.executor = (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (final ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    private static int javaVersion() {
+        final String version = System.getProperty("java.specification.version", "1.8");
+        try {
+            return version.startsWith("1.")
+                    ? Integer.parseInt(version.substring(2))
+                    : Integer.parseInt(version);
+        } catch (final NumberFormatException ignored) {
+            return 8;
+        }
+    }
+
+    private static @Nullable Method findFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (final NoSuchMethodException ignored) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(final @NotNull Runnable command) {
+        executor.execute(() -> {
+            active.incrementAndGet();
+            try {
+                command.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    public int activeCount() {
+        return active.get();
+    }
+
+    @Override
+    public int queuedCount() {
+        // every task starts immediately in its own thread
+        return 0;
+    }
+
+    @Override
+    public long rejectedCount() {
+        return 0;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "VirtualThreadResourcePackServerExecutor{" +
+                "active=" + activeCount() +
+                '}';
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Enum of HTTP content codings that the built-in handlers can
+ * use to serve resource-packs.
+ *
+ * <p>Encoded variants are computed once, when the handler is
+ * created, and are only served to clients that accept them via
+ * the {@code Accept-Encoding} request header.</p>
+ *
+ * @since 1.7.0
+ */
+public enum ContentEncoding {
+    /**
+     * The "gzip" content coding (RFC 1952).
+     *
+     * @since 1.7.0
+     */
+    GZIP("gzip") {
+        @Override
+        @NotNull OutputStream encode(final @NotNull OutputStream output) throws IOException {
+            return new GZIPOutputStream(output) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            };
+        }
+    },
+
+    /**
+     * The "deflate" content coding, a zlib (RFC 1950) wrapped
+     * deflate stream.
+     *
+     * @since 1.7.0
+     */
+    DEFLATE("deflate") {
+        @Override
+        @NotNull OutputStream encode(final @NotNull OutputStream output) {
+            return new DeflaterOutputStream(output, new Deflater(Deflater.BEST_COMPRESSION));
+        }
+    };
+
+    private final String token;
+
+    ContentEncoding(final @NotNull String token) {
+        this.token = token;
+    }
+
+    /**
+     * Returns the content coding token, as used in the
+     * {@code Content-Encoding} and {@code Accept-Encoding}
+     * headers.
+     *
+     * @return The content coding token
+     * @since 1.7.0
+     */
+    public @NotNull String token() {
+        return token;
+    }
+
+    /**
+     * Wraps the given output stream so that data written
+     * to it is encoded with this content coding.
+     *
+     * @param output The target output stream
+     * @return The encoding output stream
+     * @throws IOException If wrapping fails
+     */
+    abstract @NotNull OutputStream encode(final @NotNull OutputStream output) throws IOException;
+}
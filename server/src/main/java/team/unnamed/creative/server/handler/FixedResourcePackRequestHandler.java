@@ -30,37 +30,34 @@ import team.unnamed.creative.BuiltResourcePack;
 import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Objects;
 
 final class FixedResourcePackRequestHandler implements ResourcePackRequestHandler {
     private final BuiltResourcePack pack;
     private final boolean validOnly;
 
-    FixedResourcePackRequestHandler(final @NotNull BuiltResourcePack pack, final boolean validOnly) {
+    // the pack data, materialized once and shared by every response
+    private final ServedPack served;
+
+    FixedResourcePackRequestHandler(
+            final @NotNull BuiltResourcePack pack,
+            final boolean validOnly,
+            final @NotNull Collection<ContentEncoding> encodings
+    ) {
         this.pack = Objects.requireNonNull(pack, "pack");
         this.validOnly = validOnly;
+        this.served = new ServedPack(pack, encodings);
     }
 
     @Override
     public void onRequest(final @Nullable ResourcePackDownloadRequest request, final @NotNull HttpExchange exchange) throws IOException {
         if (request == null && validOnly) {
-            final byte[] data = "Please use a Minecraft client\n".getBytes(StandardCharsets.UTF_8);
-            exchange.getResponseHeaders().set("Content-Type", "text/plain");
-            exchange.sendResponseHeaders(400, data.length);
-            try (final OutputStream responseStream = exchange.getResponseBody()) {
-                responseStream.write(data);
-            }
+            PackResponses.sendInvalidRequest(exchange);
             return;
         }
 
-        final byte[] data = pack.data().toByteArray();
-        exchange.getResponseHeaders().set("Content-Type", "application/zip");
-        exchange.sendResponseHeaders(200, data.length);
-        try (final OutputStream responseStream = exchange.getResponseBody()) {
-            responseStream.write(data);
-        }
+        PackResponses.sendPack(exchange, served);
     }
 
     @Override
@@ -0,0 +1,196 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.server.metrics.ResourcePackServerListener;
+import team.unnamed.creative.server.util.ByteRange;
+import team.unnamed.creative.server.util.PackPayload;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Utility class for writing resource-pack and error responses
+ * to {@link HttpExchange}s from the built-in handlers.
+ */
+final class PackResponses {
+    private static final byte[] INVALID_REQUEST_RESPONSE = "Please use a Minecraft client\n".getBytes(StandardCharsets.UTF_8);
+
+    // caches may store the pack, but must revalidate it (using the
+    // entity tag) before reusing it, since the same URL may serve
+    // a different pack after a reload
+    private static final String CACHE_CONTROL = "public, no-cache";
+
+    private PackResponses() {
+        throw new UnsupportedOperationException("Can't instantiate utility class");
+    }
+
+    /**
+     * Sends the response for requests that were not made by a
+     * Minecraft client.
+     *
+     * @param exchange The HTTP exchange
+     * @throws IOException If writing the response fails
+     */
+    static void sendInvalidRequest(final @NotNull HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(400, INVALID_REQUEST_RESPONSE.length);
+        try (final OutputStream responseStream = exchange.getResponseBody()) {
+            responseStream.write(INVALID_REQUEST_RESPONSE);
+        }
+    }
+
+    /**
+     * Sends the given resource-pack, honoring conditional request
+     * headers ({@code If-None-Match}, {@code If-Modified-Since}) so
+     * that clients and caches holding the same pack skip the body, and
+     * range request headers ({@code Range}, {@code If-Range}) so that
+     * interrupted downloads can be resumed. The served variant is
+     * negotiated using the {@code Accept-Encoding} header.
+     *
+     * @param exchange The HTTP exchange
+     * @param pack     The served resource-pack
+     * @throws IOException If writing the response fails
+     */
+    static void sendPack(final @NotNull HttpExchange exchange, final @NotNull ServedPack pack) throws IOException {
+        final Headers requestHeaders = exchange.getRequestHeaders();
+        final Headers responseHeaders = exchange.getResponseHeaders();
+        final ServedPack.Variant variant = pack.negotiate(requestHeaders.getFirst("Accept-Encoding"));
+        final PackPayload payload = variant.payload();
+        final String entityTag = variant.entityTag();
+        final String lastModified = pack.lastModifiedDate();
+
+        exchange.setAttribute(ResourcePackServerListener.PACK_HASH_ATTRIBUTE, pack.pack().hash());
+        responseHeaders.set("ETag", entityTag);
+        responseHeaders.set("Last-Modified", lastModified);
+        responseHeaders.set("Cache-Control", CACHE_CONTROL);
+        if (pack.hasVariants()) {
+            responseHeaders.set("Vary", "Accept-Encoding");
+        }
+
+        if (notModified(requestHeaders, entityTag, pack.lastModified())) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.getResponseBody().close();
+            return;
+        }
+
+        responseHeaders.set("Content-Type", "application/zip");
+        responseHeaders.set("Accept-Ranges", "bytes");
+        if (variant.encoding() != null) {
+            responseHeaders.set("Content-Encoding", variant.encoding().token());
+        }
+
+        ByteRange range = ByteRange.parse(requestHeaders.getFirst("Range"), payload.length());
+        if (range != null) {
+            final String ifRange = requestHeaders.getFirst("If-Range");
+            if (ifRange != null && !ifRange.trim().equals(entityTag) && !ifRange.trim().equals(lastModified)) {
+                // representation changed since the client got the first
+                // part, the full representation must be sent
+                range = null;
+            }
+        }
+
+        if (range == null) {
+            sendBody(exchange, 200, payload, 0, payload.length());
+        } else if (!range.satisfiable()) {
+            responseHeaders.set("Content-Range", range.contentRange());
+            exchange.sendResponseHeaders(416, -1);
+            exchange.getResponseBody().close();
+        } else {
+            responseHeaders.set("Content-Range", range.contentRange());
+            sendBody(exchange, 206, payload, range.start(), range.length());
+        }
+    }
+
+    /**
+     * Evaluates the conditional request headers, If-None-Match takes
+     * precedence over If-Modified-Since, as specified by RFC 7232.
+     */
+    private static boolean notModified(final @NotNull Headers requestHeaders, final @NotNull String entityTag, final long lastModified) {
+        final String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            return matchesAny(ifNoneMatch, entityTag);
+        }
+
+        final String ifModifiedSince = requestHeaders.getFirst("If-Modified-Since");
+        if (ifModifiedSince != null) {
+            try {
+                final long since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant()
+                        .toEpochMilli();
+                // dates later than the server's current time are invalid
+                // and must be ignored (RFC 9110, section 13.1.3)
+                if (since > System.currentTimeMillis()) {
+                    return false;
+                }
+                return lastModified <= since;
+            } catch (final DateTimeParseException ignored) {
+                // invalid dates are ignored
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether the given list of entity tags (an If-None-Match
+     * header value) matches the given entity tag, using the weak comparison
+     * function.
+     */
+    private static boolean matchesAny(final @NotNull String entityTags, final @NotNull String entityTag) {
+        for (String candidate : entityTags.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(entityTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void sendBody(
+            final @NotNull HttpExchange exchange,
+            final int status,
+            final @NotNull PackPayload payload,
+            final long offset,
+            final long length
+    ) throws IOException {
+        // zero means "chunked" for HttpExchange, -1 means no body
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        try (final OutputStream responseStream = exchange.getResponseBody()) {
+            payload.writeTo(responseStream, offset, length);
+        }
+    }
+}
@@ -31,6 +31,8 @@ import team.unnamed.creative.BuiltResourcePack;
 import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Responsible for handling resource-pack download requests.
@@ -56,7 +58,29 @@ public interface ResourcePackRequestHandler {
      */
     @Contract("_, _ -> new")
     static @NotNull ResourcePackRequestHandler fixed(final @NotNull BuiltResourcePack pack, final boolean validOnly) {
-        return new FixedResourcePackRequestHandler(pack, validOnly);
+        return fixed(pack, validOnly, Collections.emptySet());
+    }
+
+    /**
+     * Creates a new {@link ResourcePackRequestHandler} instance
+     * that will always return the given resource-pack.
+     *
+     * <p>The given content encodings are applied to the pack data
+     * once, when this method is called, and are served to clients
+     * that accept them (via {@code Accept-Encoding}), as long as
+     * they are smaller than the pack data itself.</p>
+     *
+     * @param pack      The resource-pack to return
+     * @param validOnly Whether to only return the resource-pack
+     *                  if the request is valid (has all the values
+     *                  that a Minecraft vanilla client would send)
+     * @param encodings The content encodings to precompute
+     * @return The new handler instance
+     * @since 1.7.0
+     */
+    @Contract("_, _, _ -> new")
+    static @NotNull ResourcePackRequestHandler fixed(final @NotNull BuiltResourcePack pack, final boolean validOnly, final @NotNull Collection<ContentEncoding> encodings) {
+        return new FixedResourcePackRequestHandler(pack, validOnly, encodings);
     }
 
     /**
@@ -72,6 +96,40 @@ public interface ResourcePackRequestHandler {
         return fixed(pack, false);
     }
 
+    /**
+     * Creates a new, empty, {@link VersionedResourcePackRequestHandler}
+     * instance, that will serve the registered resource-pack whose pack
+     * format range contains the pack format of the requester client.
+     *
+     * @param validOnly Whether to only return resource-packs if the
+     *                  request is valid (has all the values that a
+     *                  Minecraft vanilla client would send)
+     * @param encodings The content encodings to precompute for every
+     *                  registered resource-pack
+     * @return The new handler instance
+     * @since 1.7.0
+     */
+    @Contract("_, _ -> new")
+    static @NotNull VersionedResourcePackRequestHandler versioned(final boolean validOnly, final @NotNull Collection<ContentEncoding> encodings) {
+        return new VersionedResourcePackRequestHandlerImpl(validOnly, encodings);
+    }
+
+    /**
+     * Creates a new, empty, {@link VersionedResourcePackRequestHandler}
+     * instance, that will serve the registered resource-pack whose pack
+     * format range contains the pack format of the requester client.
+     *
+     * @param validOnly Whether to only return resource-packs if the
+     *                  request is valid (has all the values that a
+     *                  Minecraft vanilla client would send)
+     * @return The new handler instance
+     * @since 1.7.0
+     */
+    @Contract("_ -> new")
+    static @NotNull VersionedResourcePackRequestHandler versioned(final boolean validOnly) {
+        return versioned(validOnly, Collections.emptySet());
+    }
+
     /**
      * Handles a resource pack request, the resulting resource
      * pack is written to {@link HttpExchange#getResponseBody()}
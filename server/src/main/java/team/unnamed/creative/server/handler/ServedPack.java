@@ -0,0 +1,213 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.server.util.PackPayload;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link BuiltResourcePack} prepared to be served by the built-in
+ * handlers: its data (and encoded variants of it) is materialized once,
+ * and its validators (entity tags and last modification time) are fixed
+ * at registration time.
+ */
+final class ServedPack {
+    private static final DateTimeFormatter HTTP_DATE_FORMATTER = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+
+    private final BuiltResourcePack pack;
+    private final Variant identity;
+    private final List<Variant> encoded;
+    private final long lastModified;
+    private final String lastModifiedDate;
+
+    ServedPack(final @NotNull BuiltResourcePack pack, final @NotNull Collection<ContentEncoding> encodings) {
+        this.pack = requireNonNull(pack, "pack");
+        requireNonNull(encodings, "encodings");
+        try {
+            this.identity = new Variant(null, PackPayload.of(pack), '"' + pack.hash() + '"');
+            this.encoded = encode(identity.payload, pack.hash(), encodings);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to read resource-pack data", e);
+        }
+        // HTTP dates have a precision of one second
+        this.lastModified = System.currentTimeMillis() / 1000L * 1000L;
+        this.lastModifiedDate = HTTP_DATE_FORMATTER.format(Instant.ofEpochMilli(lastModified).atZone(ZoneOffset.UTC));
+    }
+
+    ServedPack(final @NotNull BuiltResourcePack pack) {
+        this(pack, Collections.emptySet());
+    }
+
+    private static @NotNull List<Variant> encode(
+            final @NotNull PackPayload payload,
+            final @NotNull String hash,
+            final @NotNull Collection<ContentEncoding> encodings
+    ) throws IOException {
+        if (encodings.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<Variant> variants = new ArrayList<>();
+        for (final ContentEncoding encoding : EnumSet.copyOf(encodings)) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (final OutputStream encoder = encoding.encode(output)) {
+                payload.writeTo(encoder);
+            }
+            // only keep the variant if it is actually worth it
+            if (output.size() < payload.length()) {
+                variants.add(new Variant(
+                        encoding,
+                        PackPayload.bytes(output.toByteArray()),
+                        '"' + hash + '-' + encoding.token() + '"'
+                ));
+            }
+        }
+        return Collections.unmodifiableList(variants);
+    }
+
+    @NotNull BuiltResourcePack pack() {
+        return pack;
+    }
+
+    /**
+     * Determines whether there are encoded variants of this
+     * pack, i.e. whether the served representation depends on
+     * the {@code Accept-Encoding} request header.
+     *
+     * @return True if there are encoded variants
+     */
+    boolean hasVariants() {
+        return !encoded.isEmpty();
+    }
+
+    /**
+     * Selects the smallest variant acceptable by the client,
+     * according to the given {@code Accept-Encoding} header
+     * value.
+     *
+     * @param acceptEncoding The Accept-Encoding header value
+     * @return The selected variant
+     */
+    @NotNull Variant negotiate(final @Nullable String acceptEncoding) {
+        if (acceptEncoding == null || encoded.isEmpty()) {
+            return identity;
+        }
+        Variant selected = identity;
+        for (final Variant variant : encoded) {
+            if (variant.payload.length() < selected.payload.length()
+                    && accepts(acceptEncoding, variant.encoding.token())) {
+                selected = variant;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Determines whether the given Accept-Encoding header value accepts
+     * the given content coding, i.e. it is listed (or "*" is listed)
+     * with a non-zero quality value.
+     */
+    private static boolean accepts(final @NotNull String acceptEncoding, final @NotNull String token) {
+        boolean wildcard = false;
+        for (final String element : acceptEncoding.split(",")) {
+            final int paramStart = element.indexOf(';');
+            final String coding = (paramStart == -1 ? element : element.substring(0, paramStart)).trim();
+            final boolean acceptable = paramStart == -1 || quality(element.substring(paramStart + 1)) > 0;
+
+            if (coding.equalsIgnoreCase(token)) {
+                return acceptable;
+            } else if (coding.equals("*")) {
+                wildcard = acceptable;
+            }
+        }
+        return wildcard;
+    }
+
+    private static double quality(final @NotNull String parameters) {
+        for (final String parameter : parameters.split(";")) {
+            final String trimmed = parameter.trim();
+            if (trimmed.startsWith("q=") || trimmed.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2).trim());
+                } catch (final NumberFormatException ignored) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    long lastModified() {
+        return lastModified;
+    }
+
+    @NotNull String lastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    /**
+     * A representation of the served pack, either the pack data
+     * itself (identity) or a content-encoded version of it.
+     */
+    static final class Variant {
+        private final ContentEncoding encoding;
+        private final PackPayload payload;
+        private final String entityTag;
+
+        private Variant(final @Nullable ContentEncoding encoding, final @NotNull PackPayload payload, final @NotNull String entityTag) {
+            this.encoding = encoding;
+            this.payload = payload;
+            this.entityTag = entityTag;
+        }
+
+        @Nullable ContentEncoding encoding() {
+            return encoding;
+        }
+
+        @NotNull PackPayload payload() {
+            return payload;
+        }
+
+        @NotNull String entityTag() {
+            return entityTag;
+        }
+    }
+}
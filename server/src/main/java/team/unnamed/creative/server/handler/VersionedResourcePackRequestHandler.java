@@ -0,0 +1,104 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.metadata.pack.PackFormat;
+
+import java.util.Map;
+
+/**
+ * A {@link ResourcePackRequestHandler} that holds a registry of
+ * resource-packs, each one associated to a {@link PackFormat} range,
+ * and serves the pack whose range contains the pack format sent by
+ * the client ({@code X-Minecraft-Pack-Format}).
+ *
+ * <p>If no range contains the client pack format, the pack with the
+ * closest range is served. Requests not made by Minecraft clients
+ * are served the newest pack, unless the handler was created to
+ * only serve valid requests.</p>
+ *
+ * <p>The registry is immutable and replaced atomically on every
+ * modification, so modifying it never blocks, nor is blocked by,
+ * in-flight downloads, which keep serving the pack they selected.</p>
+ *
+ * @since 1.7.0
+ */
+@ApiStatus.NonExtendable
+public interface VersionedResourcePackRequestHandler extends ResourcePackRequestHandler {
+    /**
+     * Returns the registered resource-packs, by pack format range.
+     *
+     * @return The registered resource-packs
+     * @since 1.7.0
+     */
+    @NotNull @Unmodifiable Map<PackFormat, BuiltResourcePack> packs();
+
+    /**
+     * Atomically replaces all the registered resource-packs.
+     *
+     * <p>Packs are prepared (read and encoded) before the registry is
+     * replaced, packs that were already registered are reused.</p>
+     *
+     * @param packs The new resource-packs, by pack format range
+     * @throws IllegalArgumentException If any two pack format ranges overlap
+     * @since 1.7.0
+     */
+    void packs(final @NotNull Map<PackFormat, BuiltResourcePack> packs);
+
+    /**
+     * Registers a resource-pack for the given pack format range,
+     * replacing any pack registered for the exact same range.
+     *
+     * @param format The pack format range
+     * @param pack   The resource-pack
+     * @throws IllegalArgumentException If the range overlaps with
+     *                                  the range of another pack
+     * @since 1.7.0
+     */
+    void register(final @NotNull PackFormat format, final @NotNull BuiltResourcePack pack);
+
+    /**
+     * Unregisters the resource-pack for the given pack format range.
+     *
+     * @param format The pack format range
+     * @return The unregistered resource-pack, null if there was none
+     * @since 1.7.0
+     */
+    @Nullable BuiltResourcePack unregister(final @NotNull PackFormat format);
+
+    /**
+     * Returns the resource-pack that would be served to a client
+     * with the given pack format.
+     *
+     * @param packFormat The client pack format
+     * @return The resource-pack, null if there are no packs
+     * @since 1.7.0
+     */
+    @Nullable BuiltResourcePack select(final int packFormat);
+}
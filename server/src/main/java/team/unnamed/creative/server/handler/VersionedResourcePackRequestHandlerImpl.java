@@ -0,0 +1,260 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.metadata.pack.PackFormat;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.requireNonNull;
+
+final class VersionedResourcePackRequestHandlerImpl implements VersionedResourcePackRequestHandler {
+    private static final byte[] NO_PACK_RESPONSE = "No resource-pack available\n".getBytes(StandardCharsets.UTF_8);
+
+    private final boolean validOnly;
+    private final Set<ContentEncoding> encodings;
+    private final AtomicReference<Registry> registry = new AtomicReference<>(Registry.EMPTY);
+
+    VersionedResourcePackRequestHandlerImpl(final boolean validOnly, final @NotNull Collection<ContentEncoding> encodings) {
+        requireNonNull(encodings, "encodings");
+        this.validOnly = validOnly;
+        this.encodings = encodings.isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(encodings));
+    }
+
+    @Override
+    public void onRequest(final @Nullable ResourcePackDownloadRequest request, final @NotNull HttpExchange exchange) throws IOException {
+        if (request == null && validOnly) {
+            PackResponses.sendInvalidRequest(exchange);
+            return;
+        }
+
+        final Registry current = registry.get();
+        final ServedPack served = request == null ? current.newest() : current.select(request.packFormat());
+
+        if (served == null) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(404, NO_PACK_RESPONSE.length);
+            try (final OutputStream responseStream = exchange.getResponseBody()) {
+                responseStream.write(NO_PACK_RESPONSE);
+            }
+            return;
+        }
+
+        PackResponses.sendPack(exchange, served);
+    }
+
+    @Override
+    public @NotNull Map<PackFormat, BuiltResourcePack> packs() {
+        final Registry current = registry.get();
+        final Map<PackFormat, BuiltResourcePack> packs = new LinkedHashMap<>();
+        for (int i = 0; i < current.formats.length; i++) {
+            packs.put(current.formats[i], current.packs[i].pack());
+        }
+        return Collections.unmodifiableMap(packs);
+    }
+
+    @Override
+    public void packs(final @NotNull Map<PackFormat, BuiltResourcePack> packs) {
+        requireNonNull(packs, "packs");
+
+        // prepare the packs outside the update loop, they may be expensive
+        final Map<PackFormat, ServedPack> prepared = new HashMap<>();
+        final Map<PackFormat, ServedPack> existing = registry.get().asMap();
+        for (final Map.Entry<PackFormat, BuiltResourcePack> entry : packs.entrySet()) {
+            final PackFormat format = requireNonNull(entry.getKey(), "format");
+            final BuiltResourcePack pack = requireNonNull(entry.getValue(), "pack");
+            prepared.put(format, prepare(existing.get(format), pack));
+        }
+
+        Registry current;
+        Registry updated;
+        do {
+            current = registry.get();
+            final Map<PackFormat, ServedPack> registered = current.asMap();
+            final Map<PackFormat, ServedPack> served = new HashMap<>();
+            for (final Map.Entry<PackFormat, ServedPack> entry : prepared.entrySet()) {
+                // keep the pack served now if it was registered meanwhile
+                final ServedPack existingPack = registered.get(entry.getKey());
+                final ServedPack pack = entry.getValue();
+                served.put(entry.getKey(), existingPack != null && existingPack.pack().equals(pack.pack()) ? existingPack : pack);
+            }
+            // validated before swapping
+            updated = Registry.of(served);
+        } while (!registry.compareAndSet(current, updated));
+    }
+
+    @Override
+    public void register(final @NotNull PackFormat format, final @NotNull BuiltResourcePack pack) {
+        requireNonNull(format, "format");
+        requireNonNull(pack, "pack");
+
+        // prepare the pack outside the update loop, it may be expensive
+        final ServedPack served = prepare(registry.get().asMap().get(format), pack);
+        Registry current;
+        Registry updated;
+        do {
+            current = registry.get();
+            final Map<PackFormat, ServedPack> packs = current.asMap();
+            packs.put(format, served);
+            updated = Registry.of(packs);
+        } while (!registry.compareAndSet(current, updated));
+    }
+
+    @Override
+    public @Nullable BuiltResourcePack unregister(final @NotNull PackFormat format) {
+        requireNonNull(format, "format");
+        Registry current;
+        ServedPack removed;
+        do {
+            current = registry.get();
+            final Map<PackFormat, ServedPack> packs = current.asMap();
+            removed = packs.remove(format);
+            if (removed == null) {
+                return null;
+            }
+            if (registry.compareAndSet(current, Registry.of(packs))) {
+                return removed.pack();
+            }
+        } while (true);
+    }
+
+    @Override
+    public @Nullable BuiltResourcePack select(final int packFormat) {
+        final ServedPack served = registry.get().select(packFormat);
+        return served == null ? null : served.pack();
+    }
+
+    private @NotNull ServedPack prepare(final @Nullable ServedPack existing, final @NotNull BuiltResourcePack pack) {
+        if (existing != null && existing.pack().equals(pack)) {
+            return existing;
+        }
+        return new ServedPack(pack, encodings);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "VersionedResourcePackRequestHandler{" +
+                "packs=" + packs() +
+                ", validOnly=" + validOnly +
+                ", encodings=" + encodings +
+                '}';
+    }
+
+    /**
+     * Immutable registry of packs, sorted by pack format range,
+     * ranges never overlap, so they are also sorted by their
+     * maximum pack format.
+     */
+    private static final class Registry {
+        static final Registry EMPTY = new Registry(new PackFormat[0], new ServedPack[0]);
+
+        private final PackFormat[] formats;
+        private final ServedPack[] packs;
+        private final int[] mins;
+
+        private Registry(final @NotNull PackFormat @NotNull [] formats, final @NotNull ServedPack @NotNull [] packs) {
+            this.formats = formats;
+            this.packs = packs;
+            this.mins = new int[formats.length];
+            for (int i = 0; i < formats.length; i++) {
+                mins[i] = formats[i].min();
+            }
+        }
+
+        static @NotNull Registry of(final @NotNull Map<PackFormat, ServedPack> packs) {
+            if (packs.isEmpty()) {
+                return EMPTY;
+            }
+
+            final PackFormat[] formats = packs.keySet().toArray(new PackFormat[0]);
+            Arrays.sort(formats, Comparator.comparingInt(PackFormat::min));
+
+            final ServedPack[] served = new ServedPack[formats.length];
+            for (int i = 0; i < formats.length; i++) {
+                if (i > 0 && formats[i].min() <= formats[i - 1].max()) {
+                    throw new IllegalArgumentException("Pack format ranges overlap: "
+                            + formats[i - 1] + " and " + formats[i]);
+                }
+                served[i] = packs.get(formats[i]);
+            }
+            return new Registry(formats, served);
+        }
+
+        @NotNull Map<PackFormat, ServedPack> asMap() {
+            final Map<PackFormat, ServedPack> map = new HashMap<>();
+            for (int i = 0; i < formats.length; i++) {
+                map.put(formats[i], packs[i]);
+            }
+            return map;
+        }
+
+        @Nullable ServedPack newest() {
+            return packs.length == 0 ? null : packs[packs.length - 1];
+        }
+
+        @Nullable ServedPack select(final int packFormat) {
+            if (packs.length == 0) {
+                return null;
+            }
+
+            // index of the last range whose minimum is <= packFormat
+            int floor = Arrays.binarySearch(mins, packFormat);
+            if (floor < 0) {
+                floor = -floor - 2;
+            }
+
+            if (floor < 0) {
+                // below every range
+                return packs[0];
+            }
+            if (formats[floor].isInRange(packFormat) || floor == packs.length - 1) {
+                return packs[floor];
+            }
+
+            // in a gap between two ranges, select the closest one
+            final int below = packFormat - formats[floor].max();
+            final int above = formats[floor + 1].min() - packFormat;
+            return above < below ? packs[floor + 1] : packs[floor];
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.metrics;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+import java.time.Duration;
+
+/**
+ * Describes a request handled by a resource-pack server
+ * and the response sent to it.
+ *
+ * @since 1.7.0
+ */
+@ApiStatus.NonExtendable
+public interface CompletedRequest {
+    /**
+     * Creates a new {@link CompletedRequest} instance with
+     * the given values.
+     *
+     * @param request         The parsed request, null if it was
+     *                        not made by a Minecraft client
+     * @param statusCode      The response status code, -1 if no
+     *                        response was sent
+     * @param packHash        The sent pack hash, null if no pack
+     *                        was sent
+     * @param bytesSent       The number of response body bytes sent
+     * @param timeToFirstByte The time until the first response body
+     *                        byte was sent, null if none was sent
+     * @param duration        The time until the response was completed
+     * @return The created instance
+     * @since 1.7.0
+     */
+    static @NotNull CompletedRequest completed(
+            final @Nullable ResourcePackDownloadRequest request,
+            final int statusCode,
+            final @Nullable String packHash,
+            final long bytesSent,
+            final @Nullable Duration timeToFirstByte,
+            final @NotNull Duration duration
+    ) {
+        return new CompletedRequestImpl(request, statusCode, packHash, bytesSent, timeToFirstByte, duration);
+    }
+
+    /**
+     * Returns the parsed request.
+     *
+     * @return The request, null if it was not made
+     * by a Minecraft client
+     * @since 1.7.0
+     */
+    @Nullable ResourcePackDownloadRequest request();
+
+    /**
+     * Returns the response status code.
+     *
+     * @return The status code, -1 if no response was
+     * sent, e.g. if the handler failed
+     * @since 1.7.0
+     */
+    int statusCode();
+
+    /**
+     * Returns the hash of the sent resource-pack, set by the handler
+     * using the {@link ResourcePackServerListener#PACK_HASH_ATTRIBUTE}
+     * exchange attribute.
+     *
+     * <p>Note that the hash is also set for responses that didn't
+     * contain the pack data, like "304 Not Modified" responses.</p>
+     *
+     * @return The pack hash, null if unknown
+     * @since 1.7.0
+     */
+    @Nullable String packHash();
+
+    /**
+     * Returns the number of response body bytes that were sent,
+     * excluding the headers.
+     *
+     * @return The number of sent body bytes
+     * @since 1.7.0
+     */
+    long bytesSent();
+
+    /**
+     * Returns the time from the moment the request was received
+     * until the first byte of the response body was sent.
+     *
+     * @return The time to the first byte, null if the
+     * response had no body
+     * @since 1.7.0
+     */
+    @Nullable Duration timeToFirstByte();
+
+    /**
+     * Returns the time from the moment the request was received
+     * until the response was completely sent.
+     *
+     * @return The request duration
+     * @since 1.7.0
+     */
+    @NotNull Duration duration();
+}
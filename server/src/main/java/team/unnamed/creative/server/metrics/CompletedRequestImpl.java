@@ -0,0 +1,99 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+final class CompletedRequestImpl implements CompletedRequest {
+    private final ResourcePackDownloadRequest request;
+    private final int statusCode;
+    private final String packHash;
+    private final long bytesSent;
+    private final Duration timeToFirstByte;
+    private final Duration duration;
+
+    CompletedRequestImpl(
+            final @Nullable ResourcePackDownloadRequest request,
+            final int statusCode,
+            final @Nullable String packHash,
+            final long bytesSent,
+            final @Nullable Duration timeToFirstByte,
+            final @NotNull Duration duration
+    ) {
+        this.request = request;
+        this.statusCode = statusCode;
+        this.packHash = packHash;
+        this.bytesSent = bytesSent;
+        this.timeToFirstByte = timeToFirstByte;
+        this.duration = requireNonNull(duration, "duration");
+    }
+
+    @Override
+    public @Nullable ResourcePackDownloadRequest request() {
+        return request;
+    }
+
+    @Override
+    public int statusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public @Nullable String packHash() {
+        return packHash;
+    }
+
+    @Override
+    public long bytesSent() {
+        return bytesSent;
+    }
+
+    @Override
+    public @Nullable Duration timeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    @Override
+    public @NotNull Duration duration() {
+        return duration;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "CompletedRequest{" +
+                "request=" + request +
+                ", statusCode=" + statusCode +
+                ", packHash='" + packHash + '\'' +
+                ", bytesSent=" + bytesSent +
+                ", timeToFirstByte=" + timeToFirstByte +
+                ", duration=" + duration +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+/**
+ * Listens to the requests handled by a {@link team.unnamed.creative.server.ResourcePackServer},
+ * e.g. to collect metrics, see {@link ResourcePackServerMetrics}.
+ *
+ * <p>Methods are called from the threads handling the requests,
+ * concurrently, so implementations must be thread-safe and
+ * should return quickly.</p>
+ *
+ * @since 1.7.0
+ */
+public interface ResourcePackServerListener {
+    /**
+     * The name of the {@link com.sun.net.httpserver.HttpExchange}
+     * attribute holding the hash of the resource-pack sent in the
+     * response, if any.
+     *
+     * <p>It is set by the built-in handlers, custom handlers may
+     * set it too, so that the pack appears in
+     * {@link CompletedRequest#packHash()}.</p>
+     *
+     * @since 1.7.0
+     */
+    String PACK_HASH_ATTRIBUTE = "creative.pack-hash";
+
+    /**
+     * Returns a listener that ignores all the requests.
+     *
+     * @return The no-op listener
+     * @since 1.7.0
+     */
+    static @NotNull ResourcePackServerListener noop() {
+        return NoopResourcePackServerListener.INSTANCE;
+    }
+
+    /**
+     * Called when a request is received, before it is handled.
+     *
+     * @param request The parsed request, null if the request
+     *                was not made by a Minecraft client
+     * @since 1.7.0
+     */
+    default void onRequestStart(final @Nullable ResourcePackDownloadRequest request) {
+    }
+
+    /**
+     * Called when a request was handled and its response
+     * was completely sent, or failed.
+     *
+     * @param request The completed request
+     * @since 1.7.0
+     */
+    default void onRequestEnd(final @NotNull CompletedRequest request) {
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.metrics;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * A {@link ResourcePackServerListener} that aggregates the
+ * requests handled by a server into counters.
+ *
+ * <p>Values are updated concurrently and may be read at
+ * any time, from any thread.</p>
+ *
+ * @since 1.7.0
+ */
+@ApiStatus.NonExtendable
+public interface ResourcePackServerMetrics extends ResourcePackServerListener {
+    /**
+     * Creates a new {@link ResourcePackServerMetrics} instance,
+     * with all its counters set to zero.
+     *
+     * @return The created metrics
+     * @since 1.7.0
+     */
+    static @NotNull ResourcePackServerMetrics metrics() {
+        return new ResourcePackServerMetricsImpl();
+    }
+
+    /**
+     * Returns the number of completed requests.
+     *
+     * @return The number of completed requests
+     * @since 1.7.0
+     */
+    long requests();
+
+    /**
+     * Returns the number of completed requests whose
+     * response had the given status code.
+     *
+     * @param statusCode The status code
+     * @return The number of requests with the given status code
+     * @since 1.7.0
+     */
+    long requests(final int statusCode);
+
+    /**
+     * Returns the number of completed requests by
+     * response status code, -1 for requests without
+     * a response.
+     *
+     * @return A snapshot of the request counts by status code
+     * @since 1.7.0
+     */
+    @NotNull @Unmodifiable Map<Integer, Long> requestsByStatus();
+
+    /**
+     * Returns the number of requests being handled right now.
+     *
+     * @return The number of concurrent requests
+     * @since 1.7.0
+     */
+    int concurrentRequests();
+
+    /**
+     * Returns the number of received requests that were
+     * not made by a Minecraft client.
+     *
+     * @return The number of invalid requests
+     * @since 1.7.0
+     */
+    long invalidRequests();
+
+    /**
+     * Returns the fraction of received requests that were
+     * not made by a Minecraft client.
+     *
+     * @return The invalid request rate, between 0 and 1
+     * @since 1.7.0
+     */
+    double invalidRequestRate();
+
+    /**
+     * Returns the number of response body bytes sent.
+     *
+     * @return The number of sent bytes
+     * @since 1.7.0
+     */
+    long bytesSent();
+
+    /**
+     * Returns the number of successful (200 or 206) responses
+     * that sent the resource-pack with the given hash.
+     *
+     * @param packHash The pack hash
+     * @return The number of downloads of the pack
+     * @since 1.7.0
+     */
+    long downloads(final @NotNull String packHash);
+
+    /**
+     * Returns the number of successful (200 or 206) responses
+     * by sent resource-pack hash.
+     *
+     * @return A snapshot of the download counts by pack hash
+     * @since 1.7.0
+     */
+    @NotNull @Unmodifiable Map<String, Long> downloadsByPack();
+
+    /**
+     * Returns the average time to the first response body
+     * byte, of the responses that had a body.
+     *
+     * @return The average time to the first byte, zero if
+     * there were no responses with a body
+     * @since 1.7.0
+     */
+    @NotNull Duration averageTimeToFirstByte();
+
+    /**
+     * Returns the average time until responses were
+     * completely sent.
+     *
+     * @return The average request duration, zero if
+     * there were no completed requests
+     * @since 1.7.0
+     */
+    @NotNull Duration averageDuration();
+}
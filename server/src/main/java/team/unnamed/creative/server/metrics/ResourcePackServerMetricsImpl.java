@@ -0,0 +1,169 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+final class ResourcePackServerMetricsImpl implements ResourcePackServerMetrics {
+    private final LongAdder received = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final ConcurrentMap<Integer, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> byPack = new ConcurrentHashMap<>();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder firstByteCount = new LongAdder();
+    private final LongAdder firstByteNanos = new LongAdder();
+    private final LongAdder durationNanos = new LongAdder();
+
+    @Override
+    public void onRequestStart(final @Nullable ResourcePackDownloadRequest request) {
+        received.increment();
+        if (request == null) {
+            invalid.increment();
+        }
+        concurrent.incrementAndGet();
+    }
+
+    @Override
+    public void onRequestEnd(final @NotNull CompletedRequest request) {
+        requireNonNull(request, "request");
+        concurrent.decrementAndGet();
+        completed.increment();
+
+        final int statusCode = request.statusCode();
+        byStatus.computeIfAbsent(statusCode, k -> new LongAdder()).increment();
+
+        final String packHash = request.packHash();
+        if (packHash != null && (statusCode == 200 || statusCode == 206)) {
+            byPack.computeIfAbsent(packHash, k -> new LongAdder()).increment();
+        }
+
+        bytesSent.add(request.bytesSent());
+        final Duration timeToFirstByte = request.timeToFirstByte();
+        if (timeToFirstByte != null) {
+            firstByteCount.increment();
+            firstByteNanos.add(timeToFirstByte.toNanos());
+        }
+        durationNanos.add(request.duration().toNanos());
+    }
+
+    @Override
+    public long requests() {
+        return completed.sum();
+    }
+
+    @Override
+    public long requests(final int statusCode) {
+        final LongAdder count = byStatus.get(statusCode);
+        return count == null ? 0L : count.sum();
+    }
+
+    @Override
+    public @NotNull @Unmodifiable Map<Integer, Long> requestsByStatus() {
+        return snapshot(byStatus);
+    }
+
+    @Override
+    public int concurrentRequests() {
+        return concurrent.get();
+    }
+
+    @Override
+    public long invalidRequests() {
+        return invalid.sum();
+    }
+
+    @Override
+    public double invalidRequestRate() {
+        final long received = this.received.sum();
+        return received == 0L ? 0D : (double) invalid.sum() / received;
+    }
+
+    @Override
+    public long bytesSent() {
+        return bytesSent.sum();
+    }
+
+    @Override
+    public long downloads(final @NotNull String packHash) {
+        requireNonNull(packHash, "packHash");
+        final LongAdder count = byPack.get(packHash);
+        return count == null ? 0L : count.sum();
+    }
+
+    @Override
+    public @NotNull @Unmodifiable Map<String, Long> downloadsByPack() {
+        return snapshot(byPack);
+    }
+
+    @Override
+    public @NotNull Duration averageTimeToFirstByte() {
+        return average(firstByteNanos, firstByteCount);
+    }
+
+    @Override
+    public @NotNull Duration averageDuration() {
+        return average(durationNanos, completed);
+    }
+
+    private static @NotNull Duration average(final @NotNull LongAdder totalNanos, final @NotNull LongAdder count) {
+        final long n = count.sum();
+        return n == 0L ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / n);
+    }
+
+    private static <K> Map<K, Long> snapshot(final @NotNull Map<K, LongAdder> counters) {
+        final Map<K, Long> snapshot = new HashMap<>();
+        counters.forEach((key, count) -> snapshot.put(key, count.sum()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "ResourcePackServerMetrics{" +
+                "requests=" + requests() +
+                ", requestsByStatus=" + requestsByStatus() +
+                ", concurrentRequests=" + concurrentRequests() +
+                ", invalidRequests=" + invalidRequests() +
+                ", bytesSent=" + bytesSent() +
+                ", downloadsByPack=" + downloadsByPack() +
+                ", averageTimeToFirstByte=" + averageTimeToFirstByte() +
+                ", averageDuration=" + averageDuration() +
+                '}';
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Limits the rate at which response bodies are written, per
+ * connection, per player and globally, using {@link TokenBucket}s.
+ *
+ * <p>Every limit is optional, a value less than or equal to zero
+ * means that there is no limit.</p>
+ */
+@ApiStatus.Internal
+public final class BandwidthLimiter {
+    // maximum amount of bytes written at once, small so that clients
+    // sharing a bucket take turns often
+    private static final int MAX_CHUNK_LENGTH = 16 * 1024;
+
+    private final long connectionRate;
+    private final long playerRate;
+    private final @Nullable TokenBucket global;
+    private final Map<UUID, PlayerBucket> players = new ConcurrentHashMap<>();
+
+    public BandwidthLimiter(final long connectionRate, final long playerRate, final long globalRate) {
+        this.connectionRate = connectionRate;
+        this.playerRate = playerRate;
+        this.global = globalRate > 0 ? bucket(globalRate) : null;
+    }
+
+    /**
+     * Determines whether this limiter has at least one limit.
+     *
+     * @return True if there is at least one limit
+     */
+    public boolean limited() {
+        return connectionRate > 0 || playerRate > 0 || global != null;
+    }
+
+    private static @NotNull TokenBucket bucket(final long rate) {
+        // allow bursts of a quarter of second
+        return new TokenBucket(rate, Math.max(MAX_CHUNK_LENGTH, rate / 4));
+    }
+
+    /**
+     * Wraps the given response body stream, so that writes to it are
+     * limited. The returned stream must be closed to release the per
+     * player limit, closing it more than once has no effect.
+     *
+     * @param output The response body stream
+     * @param player The requester player, null if unknown
+     * @return The limited stream
+     */
+    public @NotNull OutputStream limit(final @NotNull OutputStream output, final @Nullable UUID player) {
+        requireNonNull(output, "output");
+        final List<TokenBucket> buckets = new ArrayList<>(3);
+        if (connectionRate > 0) {
+            buckets.add(bucket(connectionRate));
+        }
+        PlayerBucket playerBucket = null;
+        if (playerRate > 0 && player != null) {
+            playerBucket = players.compute(player, (uuid, existing) -> {
+                if (existing == null) {
+                    existing = new PlayerBucket(bucket(playerRate));
+                }
+                existing.references++;
+                return existing;
+            });
+            buckets.add(playerBucket.bucket);
+        }
+        if (global != null) {
+            buckets.add(global);
+        }
+        return new LimitedOutputStream(output, buckets, player, playerBucket);
+    }
+
+    private void release(final @NotNull UUID player) {
+        players.computeIfPresent(player, (uuid, existing) -> --existing.references == 0 ? null : existing);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "BandwidthLimiter{" +
+                "connectionRate=" + connectionRate +
+                ", playerRate=" + playerRate +
+                ", global=" + global +
+                '}';
+    }
+
+    private static final class PlayerBucket {
+        private final TokenBucket bucket;
+        // only modified inside ConcurrentHashMap#compute
+        private int references;
+
+        PlayerBucket(final @NotNull TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    private final class LimitedOutputStream extends FilterOutputStream {
+        private final TokenBucket[] buckets;
+        private final int chunkLength;
+        private final @Nullable UUID player;
+        private @Nullable PlayerBucket playerBucket;
+        private boolean closed;
+
+        LimitedOutputStream(
+                final @NotNull OutputStream output,
+                final @NotNull List<TokenBucket> buckets,
+                final @Nullable UUID player,
+                final @Nullable PlayerBucket playerBucket
+        ) {
+            super(output);
+            this.buckets = buckets.toArray(new TokenBucket[0]);
+            this.player = player;
+            this.playerBucket = playerBucket;
+            long chunkLength = MAX_CHUNK_LENGTH;
+            for (final TokenBucket bucket : this.buckets) {
+                chunkLength = Math.min(chunkLength, bucket.capacity());
+            }
+            this.chunkLength = (int) chunkLength;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            acquire(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(final byte @NotNull [] b, final int off, final int len) throws IOException {
+            int written = 0;
+            while (written < len) {
+                final int chunk = Math.min(chunkLength, len - written);
+                acquire(chunk);
+                out.write(b, off + written, chunk);
+                written += chunk;
+            }
+        }
+
+        private void acquire(final int amount) throws IOException {
+            for (final TokenBucket bucket : buckets) {
+                bucket.acquire(amount);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                if (playerBucket != null) {
+                    playerBucket = null;
+                    release(requireNonNull(player));
+                }
+            }
+        }
+    }
+}
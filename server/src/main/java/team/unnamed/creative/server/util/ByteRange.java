@@ -0,0 +1,178 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents a single byte range requested using the HTTP
+ * {@code Range} header (RFC 7233).
+ */
+@ApiStatus.Internal
+public final class ByteRange {
+    private static final String UNIT_PREFIX = "bytes=";
+
+    private final long start;
+    private final long end;
+    private final long totalLength;
+
+    private ByteRange(final long start, final long end, final long totalLength) {
+        this.start = start;
+        this.end = end;
+        this.totalLength = totalLength;
+    }
+
+    /**
+     * Parses the given {@code Range} header value for a representation
+     * of the given length.
+     *
+     * <p>Returns null if the header must be ignored, i.e. when it is
+     * not present, malformed, uses a unit other than bytes or requests
+     * multiple ranges, in which case the full representation should be
+     * sent.</p>
+     *
+     * @param header      The raw header value
+     * @param totalLength The full representation length
+     * @return The parsed range, or null if it must be ignored
+     */
+    public static @Nullable ByteRange parse(final @Nullable String header, final long totalLength) {
+        if (header == null) {
+            return null;
+        }
+
+        final String value = header.trim();
+        if (!value.regionMatches(true, 0, UNIT_PREFIX, 0, UNIT_PREFIX.length())) {
+            return null;
+        }
+
+        final String spec = value.substring(UNIT_PREFIX.length()).trim();
+        if (spec.indexOf(',') != -1) {
+            // multiple ranges are not supported
+            return null;
+        }
+
+        final int dash = spec.indexOf('-');
+        if (dash == -1) {
+            return null;
+        }
+
+        final String rawFirst = spec.substring(0, dash).trim();
+        final String rawLast = spec.substring(dash + 1).trim();
+
+        try {
+            if (rawFirst.isEmpty()) {
+                // suffix range, "bytes=-500", the last 500 bytes
+                final long suffixLength = parseNonNegative(rawLast);
+                if (suffixLength == 0 || totalLength == 0) {
+                    // an empty representation can't satisfy a suffix
+                    // range either (RFC 9110, section 14.1.1)
+                    return unsatisfiable(totalLength);
+                }
+                return new ByteRange(Math.max(0, totalLength - suffixLength), totalLength - 1, totalLength);
+            }
+
+            final long first = parseNonNegative(rawFirst);
+            final long last = rawLast.isEmpty() ? Long.MAX_VALUE : parseNonNegative(rawLast);
+
+            if (last < first) {
+                return null;
+            }
+            if (first >= totalLength) {
+                return unsatisfiable(totalLength);
+            }
+            return new ByteRange(first, Math.min(last, totalLength - 1), totalLength);
+        } catch (final NumberFormatException ignored) {
+            return null;
+        }
+    }
+
+    private static long parseNonNegative(final @NotNull String s) {
+        final long value = Long.parseLong(s);
+        if (value < 0) {
+            throw new NumberFormatException("Negative value: " + s);
+        }
+        return value;
+    }
+
+    private static @NotNull ByteRange unsatisfiable(final long totalLength) {
+        return new ByteRange(-1, -1, totalLength);
+    }
+
+    /**
+     * Determines whether this range can be served, if not, a
+     * "416 Range Not Satisfiable" response should be sent.
+     *
+     * @return True if this range is satisfiable
+     */
+    public boolean satisfiable() {
+        return start >= 0;
+    }
+
+    /**
+     * Returns the first byte position of this range, inclusive.
+     *
+     * @return The range start
+     */
+    public long start() {
+        return start;
+    }
+
+    /**
+     * Returns the last byte position of this range, inclusive.
+     *
+     * @return The range end
+     */
+    public long end() {
+        return end;
+    }
+
+    /**
+     * Returns the number of bytes in this range.
+     *
+     * @return The range length
+     */
+    public long length() {
+        return satisfiable() ? end - start + 1 : 0;
+    }
+
+    /**
+     * Returns the value for the {@code Content-Range} response
+     * header describing this range.
+     *
+     * @return The content range header value
+     */
+    public @NotNull String contentRange() {
+        if (!satisfiable()) {
+            return "bytes */" + totalLength;
+        }
+        return "bytes " + start + '-' + end + '/' + totalLength;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return contentRange();
+    }
+}
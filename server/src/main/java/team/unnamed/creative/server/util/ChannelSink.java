@@ -0,0 +1,59 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Implemented by response body streams that write directly
+ * to a channel, allowing {@link PackPayload}s to skip copying
+ * their data through intermediate heap arrays.
+ */
+@ApiStatus.Internal
+public interface ChannelSink {
+    /**
+     * Writes all the remaining bytes of the given buffer.
+     *
+     * @param buffer The buffer to write
+     * @throws IOException If writing fails
+     */
+    void write(final @NotNull ByteBuffer buffer) throws IOException;
+
+    /**
+     * Transfers a region of the given file, using
+     * {@link FileChannel#transferTo}, which may avoid
+     * copying data through user space at all.
+     *
+     * @param file     The file channel
+     * @param position The region start position
+     * @param count    The region length
+     * @throws IOException If transferring fails
+     */
+    void transferFrom(final @NotNull FileChannel file, final long position, final long count) throws IOException;
+}
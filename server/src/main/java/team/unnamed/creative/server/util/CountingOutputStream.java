@@ -0,0 +1,132 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An output stream that counts the bytes written through it and
+ * records when the first one was written.
+ *
+ * <p>Use {@link #of(OutputStream)} to create instances, so that
+ * {@link ChannelSink} streams stay channel sinks when wrapped.</p>
+ */
+@ApiStatus.Internal
+public class CountingOutputStream extends FilterOutputStream {
+    private long count;
+    private long firstWriteNanos;
+    private boolean written;
+
+    private CountingOutputStream(final @NotNull OutputStream out) {
+        super(requireNonNull(out, "out"));
+    }
+
+    /**
+     * Wraps the given output stream.
+     *
+     * @param out The wrapped stream
+     * @return The counting stream
+     */
+    public static @NotNull CountingOutputStream of(final @NotNull OutputStream out) {
+        return out instanceof ChannelSink ? new Sink(out) : new CountingOutputStream(out);
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return The number of written bytes
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns whether any byte was written.
+     *
+     * @return True if written
+     */
+    public boolean written() {
+        return written;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} of the first write.
+     *
+     * @return The first write time, meaningless if
+     * {@link #written()} is false
+     */
+    public long firstWriteNanos() {
+        return firstWriteNanos;
+    }
+
+    protected final void record(final long length) {
+        if (length <= 0) {
+            return;
+        }
+        if (!written) {
+            written = true;
+            firstWriteNanos = System.nanoTime();
+        }
+        count += length;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        record(1);
+        out.write(b);
+    }
+
+    @Override
+    public void write(final byte @NotNull [] b, final int off, final int len) throws IOException {
+        record(len);
+        out.write(b, off, len);
+    }
+
+    private static final class Sink extends CountingOutputStream implements ChannelSink {
+        private Sink(final @NotNull OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final @NotNull ByteBuffer buffer) throws IOException {
+            record(buffer.remaining());
+            ((ChannelSink) out).write(buffer);
+        }
+
+        @Override
+        public void transferFrom(final @NotNull FileChannel file, final long position, final long count) throws IOException {
+            record(count);
+            ((ChannelSink) out).transferFrom(file, position, count);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.BuiltResourcePack;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds the bytes of a served resource-pack exactly once, so
+ * that they can be written to any number of responses without
+ * copying or re-building them for every request.
+ *
+ * <p>The data is either kept in a heap array, whose regions are
+ * written directly to the response streams, or in a memory-mapped
+ * file, which is copied through a per-thread buffer. Either way,
+ * it is written in fixed-size chunks.</p>
+ *
+ * <p>When written to a {@link ChannelSink}, the data is written
+ * to the channel directly, and memory-mapped files are transferred
+ * by the kernel, using {@link FileChannel#transferTo}.</p>
+ */
+@ApiStatus.Internal
+public final class PackPayload {
+    // the JDK HTTP server copies every write into a connection buffer
+    // that grows to twice the written length, so writes must be bounded
+    private static final int CHUNK_LENGTH = 16 * 1024;
+    private static final ThreadLocal<byte[]> CHUNK = ThreadLocal.withInitial(() -> new byte[CHUNK_LENGTH]);
+
+    private final ByteBuffer buffer;
+    private final @Nullable Path path;
+
+    private PackPayload(final @NotNull ByteBuffer buffer, final @Nullable Path path) {
+        this.buffer = requireNonNull(buffer, "buffer");
+        this.path = path;
+    }
+
+    /**
+     * Creates a payload wrapping the given bytes, the array
+     * is not copied, so it must not be modified after this
+     * call.
+     *
+     * @param bytes The payload bytes
+     * @return The created payload
+     */
+    public static @NotNull PackPayload bytes(final byte @NotNull [] bytes) {
+        requireNonNull(bytes, "bytes");
+        return new PackPayload(ByteBuffer.wrap(bytes), null);
+    }
+
+    /**
+     * Creates a payload holding the data of the given
+     * resource-pack, the data is read only once, here.
+     *
+     * <p>File-backed packs ({@link BuiltResourcePack#file()})
+     * are memory-mapped instead of read.</p>
+     *
+     * @param pack The resource-pack
+     * @return The created payload
+     * @throws IOException If reading the pack data fails
+     */
+    public static @NotNull PackPayload of(final @NotNull BuiltResourcePack pack) throws IOException {
+        requireNonNull(pack, "pack");
+        final Path file = pack.file();
+        if (file != null) {
+            return map(file);
+        }
+        return bytes(pack.data().toByteArray());
+    }
+
+    /**
+     * Creates a payload that memory-maps the file at the given
+     * path, the file must not be modified while the payload is
+     * in use.
+     *
+     * @param path The file path
+     * @return The created payload
+     * @throws IOException If mapping the file fails
+     */
+    public static @NotNull PackPayload map(final @NotNull Path path) throws IOException {
+        requireNonNull(path, "path");
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to be mapped: " + path + " (" + size + " bytes)");
+            }
+            return new PackPayload(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), path);
+        }
+    }
+
+    /**
+     * Returns the length of this payload, in bytes.
+     *
+     * @return The payload length
+     */
+    public long length() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Writes the whole payload to the given output stream.
+     *
+     * @param output The target output stream
+     * @throws IOException If writing fails
+     */
+    public void writeTo(final @NotNull OutputStream output) throws IOException {
+        writeTo(output, 0, length());
+    }
+
+    /**
+     * Writes a region of this payload to the given output stream.
+     *
+     * @param output The target output stream
+     * @param offset The region start offset
+     * @param length The region length
+     * @throws IOException If writing fails
+     */
+    public void writeTo(final @NotNull OutputStream output, final long offset, final long length) throws IOException {
+        requireNonNull(output, "output");
+        if (offset < 0 || length < 0 || offset + length > length()) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", payload length: " + length());
+        }
+
+        if (output instanceof ChannelSink) {
+            writeTo((ChannelSink) output, offset, length);
+            return;
+        }
+
+        if (buffer.hasArray()) {
+            final byte[] array = buffer.array();
+            final int end = buffer.arrayOffset() + (int) (offset + length);
+            for (int off = buffer.arrayOffset() + (int) offset; off < end; off += CHUNK_LENGTH) {
+                output.write(array, off, Math.min(CHUNK_LENGTH, end - off));
+            }
+            return;
+        }
+
+        final byte[] chunk = CHUNK.get();
+        final ByteBuffer view = buffer.duplicate();
+        view.position((int) offset);
+        view.limit((int) (offset + length));
+        while (view.hasRemaining()) {
+            final int len = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, len);
+            output.write(chunk, 0, len);
+        }
+    }
+
+    private void writeTo(final @NotNull ChannelSink sink, final long offset, final long length) throws IOException {
+        if (path != null) {
+            // let the kernel copy the file to the channel (sendfile)
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                sink.transferFrom(channel, offset, length);
+            }
+            return;
+        }
+
+        // heap buffers are copied to a temporary direct buffer by
+        // channels, so they are written in chunks
+        final ByteBuffer view = buffer.duplicate();
+        final int end = (int) (offset + length);
+        for (int off = (int) offset; off < end; off += CHUNK_LENGTH) {
+            view.limit(Math.min(end, off + CHUNK_LENGTH));
+            view.position(off);
+            sink.write(view);
+        }
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "PackPayload{" +
+                "length=" + length() +
+                ", mapped=" + !buffer.hasArray() +
+                '}';
+    }
+}
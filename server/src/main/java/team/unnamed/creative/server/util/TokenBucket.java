@@ -0,0 +1,122 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A token bucket, used to limit the rate at which bytes are sent.
+ *
+ * <p>Tokens are acquired while holding a fair lock, so waiting
+ * threads are served in arrival order, and, as long as they acquire
+ * small amounts at a time, the rate is fairly shared between them.</p>
+ */
+@ApiStatus.Internal
+public final class TokenBucket {
+    private final long rate;
+    private final long capacity;
+    private final ReentrantLock lock = new ReentrantLock(true);
+
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Creates a new, full, token bucket.
+     *
+     * @param rate     The refill rate, in tokens per second
+     * @param capacity The bucket capacity, i.e. the maximum burst
+     */
+    public TokenBucket(final long rate, final long capacity) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive, got " + rate);
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.rate = rate;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Returns the bucket capacity, the maximum amount of tokens
+     * that can be acquired at once.
+     *
+     * @return The bucket capacity
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Acquires the given amount of tokens, waiting until they
+     * are available.
+     *
+     * @param amount The amount of tokens, at most {@link #capacity()}
+     * @throws InterruptedIOException If interrupted while waiting
+     */
+    public void acquire(final long amount) throws InterruptedIOException {
+        if (amount > capacity) {
+            throw new IllegalArgumentException("Can't acquire " + amount + " tokens at once, capacity is " + capacity);
+        }
+        try {
+            lock.lockInterruptibly();
+            try {
+                refill();
+                while (tokens < amount) {
+                    // the lock is held while waiting, other threads
+                    // wait for it in order
+                    TimeUnit.NANOSECONDS.sleep((long) Math.ceil((amount - tokens) * 1_000_000_000D / rate));
+                    refill();
+                }
+                tokens -= amount;
+            } finally {
+                lock.unlock();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+        }
+    }
+
+    private void refill() {
+        final long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * rate / 1_000_000_000D);
+        lastRefill = now;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "TokenBucket{" +
+                "rate=" + rate +
+                ", capacity=" + capacity +
+                '}';
+    }
+}
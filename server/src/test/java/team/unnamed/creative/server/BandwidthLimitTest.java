@@ -0,0 +1,156 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class BandwidthLimitTest {
+
+    private static final int PACK_LENGTH = 512 * 1024;
+
+    private static BuiltResourcePack pack() {
+        byte[] data = new byte[PACK_LENGTH];
+        new Random(0).nextBytes(data);
+        return BuiltResourcePack.of(Writable.bytes(data), "0123456789abcdef0123456789abcdef01234567");
+    }
+
+    /**
+     * Downloads the pack from the given server and returns the elapsed
+     * time, in milliseconds.
+     */
+    private static long download(ResourcePackServer server, String uuid) throws IOException {
+        long start = System.nanoTime();
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.address().getPort() + "/").openConnection();
+        connection.setRequestProperty("X-Minecraft-UUID", uuid);
+        connection.setRequestProperty("X-Minecraft-Username", "Yusshu");
+        connection.setRequestProperty("X-Minecraft-Pack-Format", "8");
+        connection.setRequestProperty("X-Minecraft-Version", "1.18.2");
+        connection.setRequestProperty("X-Minecraft-Version-ID", "1.18.2");
+        long total = 0;
+        try (InputStream input = connection.getInputStream()) {
+            byte[] buf = new byte[8192];
+            int read;
+            while ((read = input.read(buf)) != -1) {
+                total += read;
+            }
+        }
+        Assertions.assertEquals(PACK_LENGTH, total);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    @DisplayName("Test that a single download is limited by the connection bandwidth")
+    void test_connection_bandwidth() throws IOException {
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(0)
+                .pack(pack())
+                .connectionBandwidth(256 * 1024)
+                .build();
+        server.start();
+        try {
+            // 512 KiB at 256 KiB/s with a burst of 64 KiB, ~1.75 seconds
+            long elapsed = download(server, "30b9e3deb4b64d37943af5747f710ca6");
+            Assertions.assertTrue(elapsed >= 1500, "Download took " + elapsed + "ms");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the global bandwidth is fairly shared between downloads")
+    void test_global_bandwidth() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(0)
+                .executor(executor)
+                .pack(pack())
+                .globalBandwidth(512 * 1024)
+                .build();
+        server.start();
+        try {
+            // 2 * 512 KiB at 512 KiB/s, ~1.75 seconds for both
+            CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> downloadUnchecked(server, "30b9e3deb4b64d37943af5747f710ca6"));
+            CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> downloadUnchecked(server, "0f1c3e4f29b44e9c8a8b0a7e4a3e2d11"));
+            long firstElapsed = first.get(30, TimeUnit.SECONDS);
+            long secondElapsed = second.get(30, TimeUnit.SECONDS);
+
+            Assertions.assertTrue(Math.max(firstElapsed, secondElapsed) >= 1500, "Downloads took " + firstElapsed + "ms and " + secondElapsed + "ms");
+            // fairness: both downloads progress at the same rate, so
+            // they finish at about the same time
+            Assertions.assertTrue(Math.abs(firstElapsed - secondElapsed) < 500, "Downloads took " + firstElapsed + "ms and " + secondElapsed + "ms");
+        } finally {
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the player bandwidth is shared by all the player downloads")
+    void test_player_bandwidth() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(0)
+                .executor(executor)
+                .pack(pack())
+                .playerBandwidth(512 * 1024)
+                .build();
+        server.start();
+        try {
+            String uuid = "30b9e3deb4b64d37943af5747f710ca6";
+            CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> downloadUnchecked(server, uuid));
+            CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> downloadUnchecked(server, uuid));
+            long elapsed = Math.max(first.get(30, TimeUnit.SECONDS), second.get(30, TimeUnit.SECONDS));
+            Assertions.assertTrue(elapsed >= 1500, "Downloads took " + elapsed + "ms");
+
+            // a different player is not affected
+            Assertions.assertTrue(download(server, "0f1c3e4f29b44e9c8a8b0a7e4a3e2d11") < 1500);
+        } finally {
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    private static long downloadUnchecked(ResourcePackServer server, String uuid) {
+        try {
+            return download(server, uuid);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
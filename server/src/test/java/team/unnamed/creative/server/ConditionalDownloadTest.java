@@ -0,0 +1,93 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+class ConditionalDownloadTest extends LocalHttpTestBase {
+
+    @Test
+    @DisplayName("Test that validators are sent with the resource-pack")
+    void test_validators() throws IOException {
+        HttpURLConnection connection = openAsClient("/");
+
+        Assertions.assertArrayEquals(resourcePack.data().toByteArray(), readBody(connection));
+        Assertions.assertEquals('"' + resourcePack.hash() + '"', connection.getHeaderField("ETag"));
+        Assertions.assertNotNull(connection.getHeaderField("Last-Modified"));
+        Assertions.assertNotNull(connection.getHeaderField("Cache-Control"));
+    }
+
+    @Test
+    @DisplayName("Test that a matching If-None-Match header results in 304 Not Modified")
+    void test_if_none_match() throws IOException {
+        HttpURLConnection connection = openAsClient("/");
+        connection.setRequestProperty("If-None-Match", "\"other\", W/\"" + resourcePack.hash() + '"');
+
+        Assertions.assertEquals(304, connection.getResponseCode());
+        Assertions.assertEquals('"' + resourcePack.hash() + '"', connection.getHeaderField("ETag"));
+    }
+
+    @Test
+    @DisplayName("Test that a different If-None-Match header results in the full pack")
+    void test_if_none_match_changed() throws IOException {
+        HttpURLConnection connection = openAsClient("/");
+        connection.setRequestProperty("If-None-Match", "\"some-old-hash\"");
+
+        Assertions.assertArrayEquals(resourcePack.data().toByteArray(), readBody(connection));
+        Assertions.assertEquals(200, connection.getResponseCode());
+    }
+
+    @Test
+    @DisplayName("Test that If-Modified-Since is honored")
+    void test_if_modified_since() throws IOException {
+        HttpURLConnection first = openAsClient("/");
+        Assertions.assertArrayEquals(resourcePack.data().toByteArray(), readBody(first));
+        String lastModified = first.getHeaderField("Last-Modified");
+        Assertions.assertNotNull(lastModified);
+
+        HttpURLConnection unchanged = openAsClient("/");
+        unchanged.setRequestProperty("If-Modified-Since", lastModified);
+        Assertions.assertEquals(304, unchanged.getResponseCode());
+
+        HttpURLConnection earlier = openAsClient("/");
+        earlier.setIfModifiedSince(System.currentTimeMillis() - 3_600_000L);
+        Assertions.assertArrayEquals(resourcePack.data().toByteArray(), readBody(earlier));
+        Assertions.assertEquals(200, earlier.getResponseCode());
+    }
+
+    @Test
+    @DisplayName("Test that If-Modified-Since dates in the future are ignored")
+    void test_if_modified_since_future() throws IOException {
+        HttpURLConnection future = openAsClient("/");
+        future.setIfModifiedSince(System.currentTimeMillis() + 3_600_000L);
+        Assertions.assertArrayEquals(resourcePack.data().toByteArray(), readBody(future));
+        Assertions.assertEquals(200, future.getResponseCode());
+    }
+
+}
@@ -0,0 +1,273 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+class ExecutorLoadTest {
+
+    private static final int SLOW_READERS = 200;
+
+    private static BuiltResourcePack pack() {
+        // big enough to never fit in the socket buffers
+        byte[] data = new byte[8 * 1024 * 1024];
+        new Random(0).nextBytes(data);
+        return BuiltResourcePack.of(Writable.bytes(data), "0123456789abcdef0123456789abcdef01234567");
+    }
+
+    private static List<Socket> connectSlowReaders(InetSocketAddress address, int count) throws IOException {
+        List<Socket> sockets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Socket socket = new Socket();
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress("localhost", address.getPort()));
+            OutputStream output = socket.getOutputStream();
+            output.write("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+            // never read the response
+            sockets.add(socket);
+        }
+        return sockets;
+    }
+
+    private static HttpURLConnection open(InetSocketAddress address) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + address.getPort() + "/").openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(10000);
+        return connection;
+    }
+
+    @Test
+    @DisplayName("Test that slow clients do not stall other downloads")
+    void test_slow_readers() throws Exception {
+        BuiltResourcePack pack = pack();
+        ResourcePackServerExecutor executor = ResourcePackServerExecutor.recommended();
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(0)
+                .executor(executor)
+                .pack(pack)
+                .build();
+        server.start();
+
+        List<Socket> slowReaders = connectSlowReaders(server.address(), SLOW_READERS);
+        try {
+            // wait until the slow readers are being served
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (executor.activeCount() < SLOW_READERS && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertTrue(executor.activeCount() >= SLOW_READERS,
+                    "Slow readers are not being served: " + executor.activeCount() + " active threads");
+
+            int downloads = 5;
+            long start = System.nanoTime();
+            for (int i = 0; i < downloads; i++) {
+                HttpURLConnection connection = open(server.address());
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                try (InputStream input = connection.getInputStream()) {
+                    byte[] buf = new byte[8192];
+                    int read;
+                    while ((read = input.read(buf)) != -1) {
+                        output.write(buf, 0, read);
+                    }
+                }
+                Assertions.assertEquals(200, connection.getResponseCode());
+                Assertions.assertEquals(8 * 1024 * 1024, output.size());
+            }
+            // the downloads aren't queued behind the slow readers
+            long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+            Assertions.assertTrue(elapsedSeconds < 30, "Downloads took " + elapsedSeconds + " seconds");
+            Assertions.assertEquals(0, executor.rejectedCount());
+        } finally {
+            for (Socket socket : slowReaders) {
+                socket.close();
+            }
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test that requests exceeding a saturated bounded executor are rejected")
+    void test_rejection() throws Exception {
+        ResourcePackServerExecutor executor = ResourcePackServerExecutor.bounded(2, 1);
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(0)
+                .executor(executor)
+                .pack(pack())
+                .build();
+        server.start();
+
+        List<Socket> slowReaders = connectSlowReaders(server.address(), 3);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((executor.activeCount() < 2 || executor.queuedCount() < 1) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertTrue(executor.activeCount() >= 2 && executor.queuedCount() >= 1,
+                    "Executor is not saturated by the slow readers");
+
+            HttpURLConnection connection = open(server.address());
+            Assertions.assertEquals(503, connection.getResponseCode());
+            Assertions.assertEquals("5", connection.getHeaderField("Retry-After"));
+            Assertions.assertEquals(1, executor.rejectedCount());
+        } finally {
+            for (Socket socket : slowReaders) {
+                socket.close();
+            }
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Sends a request through the given kept-alive socket and reads
+     * its response, returning the status code.
+     */
+    private static int request(Socket socket) throws IOException {
+        OutputStream output = socket.getOutputStream();
+        output.write("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+
+        InputStream input = socket.getInputStream();
+        StringBuilder head = new StringBuilder();
+        while (!head.toString().endsWith("\r\n\r\n")) {
+            int read = input.read();
+            Assertions.assertNotEquals(-1, read, "Connection closed");
+            head.append((char) read);
+        }
+        int contentLength = 0;
+        for (String line : head.toString().split("\r\n")) {
+            if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+        for (int i = 0; i < contentLength; i++) {
+            Assertions.assertNotEquals(-1, input.read(), "Connection closed");
+        }
+        return Integer.parseInt(head.substring(9, 12));
+    }
+
+    @Test
+    @DisplayName("Test that idle kept-alive NIO connections do not hold executor threads")
+    void test_nio_idle_connections() throws Exception {
+        ResourcePackServerExecutor executor = ResourcePackServerExecutor.bounded(2, 1);
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(0)
+                .backend(ResourcePackServerBackend.NIO)
+                .executor(executor)
+                .pack(BuiltResourcePack.of(Writable.bytes(new byte[1024]), "0123456789abcdef0123456789abcdef01234567"))
+                .build();
+        server.start();
+
+        List<Socket> idle = new ArrayList<>();
+        try {
+            // more idle connections than threads and queue slots
+            for (int i = 0; i < 10; i++) {
+                Socket socket = new Socket("localhost", server.address().getPort());
+                socket.setSoTimeout(10000);
+                idle.add(socket);
+                Assertions.assertEquals(200, request(socket));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (executor.activeCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(0, executor.activeCount(), "Idle connections hold executor threads");
+
+            // still served by new and idle connections
+            HttpURLConnection connection = open(server.address());
+            Assertions.assertEquals(200, connection.getResponseCode());
+            for (Socket socket : idle) {
+                Assertions.assertEquals(200, request(socket));
+            }
+            Assertions.assertEquals(0, executor.rejectedCount());
+        } finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the NIO backend rejects connections without blocking the selector")
+    void test_nio_rejection() throws Exception {
+        ResourcePackServerExecutor executor = ResourcePackServerExecutor.bounded(2, 1);
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(0)
+                .backend(ResourcePackServerBackend.NIO)
+                .executor(executor)
+                .pack(pack())
+                .build();
+        server.start();
+
+        List<Socket> slowReaders = connectSlowReaders(server.address(), 3);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((executor.activeCount() < 2 || executor.queuedCount() < 1) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertTrue(executor.activeCount() >= 2 && executor.queuedCount() >= 1,
+                    "Executor is not saturated by the slow readers");
+
+            // every connection is rejected right away, so the
+            // selector keeps accepting while saturated
+            for (int i = 0; i < 3; i++) {
+                HttpURLConnection connection = open(server.address());
+                Assertions.assertEquals(503, connection.getResponseCode());
+                Assertions.assertEquals("5", connection.getHeaderField("Retry-After"));
+                Assertions.assertEquals("close", connection.getHeaderField("Connection"));
+            }
+            Assertions.assertEquals(3, executor.rejectedCount());
+        } finally {
+            for (Socket socket : slowReaders) {
+                socket.close();
+            }
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+}
@@ -64,6 +64,25 @@ class LocalHttpTestBase {
                 .openConnection();
     }
 
+    HttpURLConnection openAsClient(String path) throws IOException {
+        HttpURLConnection connection = open(path);
+        connection.setRequestMethod("GET");
+        connection.setRequestProperty("X-Minecraft-UUID", "30b9e3deb4b64d37943af5747f710ca6");
+        connection.setRequestProperty("X-Minecraft-Username", "Yusshu");
+        connection.setRequestProperty("X-Minecraft-Pack-Format", "8");
+        connection.setRequestProperty("X-Minecraft-Version", "1.18.2");
+        connection.setRequestProperty("X-Minecraft-Version-ID", "1.18.2");
+        return connection;
+    }
+
+    byte[] readBody(HttpURLConnection connection) throws IOException {
+        try (InputStream input = connection.getInputStream()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            stream(input, output);
+            return output.toByteArray();
+        }
+    }
+
     void stream(InputStream input, OutputStream output) throws IOException {
         byte[] buf = new byte[1024];
         int read;
@@ -0,0 +1,147 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.server.metrics.CompletedRequest;
+import team.unnamed.creative.server.metrics.ResourcePackServerListener;
+import team.unnamed.creative.server.metrics.ResourcePackServerMetrics;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class MetricsTest {
+
+    @Test
+    @DisplayName("Test that metrics are collected with the HTTP server backend")
+    void test_http_server_metrics() throws IOException {
+        testMetrics(ResourcePackServerBackend.HTTP_SERVER);
+    }
+
+    @Test
+    @DisplayName("Test that metrics are collected with the NIO backend")
+    void test_nio_metrics() throws IOException {
+        testMetrics(ResourcePackServerBackend.NIO);
+    }
+
+    private void testMetrics(ResourcePackServerBackend backend) throws IOException {
+        BuiltResourcePack resourcePack = MinecraftResourcePackWriter.minecraft().build(pack ->
+                pack.packMeta(8, "Resource pack!"));
+        int length = resourcePack.data().toByteArray().length;
+        ResourcePackServerMetrics metrics = ResourcePackServerMetrics.metrics();
+        // requests are recorded right after their response is sent,
+        // so the client may see the response before
+        CountDownLatch recorded = new CountDownLatch(4);
+        ResourcePackServer server = ResourcePackServer.server()
+                .address(new InetSocketAddress("localhost", 0))
+                .backend(backend)
+                .pack(resourcePack, true)
+                .listener(new ResourcePackServerListener() {
+                    @Override
+                    public void onRequestStart(@Nullable ResourcePackDownloadRequest request) {
+                        metrics.onRequestStart(request);
+                    }
+
+                    @Override
+                    public void onRequestEnd(@NotNull CompletedRequest request) {
+                        metrics.onRequestEnd(request);
+                        recorded.countDown();
+                    }
+                })
+                .build();
+        server.start();
+        try {
+            Assertions.assertEquals(200, download(server, null));
+            Assertions.assertEquals(200, download(server, null));
+            Assertions.assertEquals(304, download(server, '"' + resourcePack.hash() + '"'));
+
+            HttpURLConnection invalid = (HttpURLConnection) new URL("http://localhost:" + server.address().getPort() + "/")
+                    .openConnection();
+            Assertions.assertEquals(400, invalid.getResponseCode());
+            read(invalid.getErrorStream());
+            Assertions.assertTrue(recorded.await(5, TimeUnit.SECONDS), "Requests not recorded");
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        } finally {
+            server.stop(0);
+        }
+
+        Assertions.assertEquals(4, metrics.requests());
+        Assertions.assertEquals(2, metrics.requests(200));
+        Assertions.assertEquals(1, metrics.requests(304));
+        Assertions.assertEquals(1, metrics.requests(400));
+        Assertions.assertEquals(0, metrics.concurrentRequests());
+        Assertions.assertEquals(1, metrics.invalidRequests());
+        Assertions.assertEquals(0.25D, metrics.invalidRequestRate());
+        Assertions.assertEquals(2L * length + "Please use a Minecraft client\n".length(), metrics.bytesSent());
+        Assertions.assertEquals(2, metrics.downloads(resourcePack.hash()));
+        Assertions.assertEquals(1, metrics.downloadsByPack().size());
+        Assertions.assertTrue(metrics.averageDuration().compareTo(Duration.ZERO) > 0);
+        Assertions.assertTrue(metrics.averageTimeToFirstByte().compareTo(Duration.ZERO) > 0);
+    }
+
+    private static int download(ResourcePackServer server, String ifNoneMatch) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.address().getPort() + "/")
+                .openConnection();
+        connection.setRequestProperty("X-Minecraft-UUID", "30b9e3deb4b64d37943af5747f710ca6");
+        connection.setRequestProperty("X-Minecraft-Username", "Yusshu");
+        connection.setRequestProperty("X-Minecraft-Pack-Format", "8");
+        connection.setRequestProperty("X-Minecraft-Version", "1.18.2");
+        connection.setRequestProperty("X-Minecraft-Version-ID", "1.18.2");
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        int status = connection.getResponseCode();
+        if (status == 200) {
+            read(connection.getInputStream());
+        }
+        return status;
+    }
+
+    private static void read(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int read;
+            while ((read = in.read(buf)) != -1) {
+                output.write(buf, 0, read);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,281 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.ResourcePack;
+import team.unnamed.creative.serialize.minecraft.MinecraftResourcePackWriter;
+import team.unnamed.creative.server.handler.ResourcePackRequestHandler;
+import team.unnamed.creative.server.util.PackPayload;
+
+import javax.net.ssl.SSLContext;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+class NioBackendTest {
+
+    private static final String CLIENT_HEADERS = "X-Minecraft-UUID: 30b9e3deb4b64d37943af5747f710ca6\r\n"
+            + "X-Minecraft-Username: Yusshu\r\n"
+            + "X-Minecraft-Pack-Format: 8\r\n"
+            + "X-Minecraft-Version: 1.18.2\r\n"
+            + "X-Minecraft-Version-ID: 1.18.2\r\n";
+
+    private static BuiltResourcePack resourcePack;
+    private static ResourcePackServer server;
+
+    @BeforeAll
+    static void setup() throws IOException {
+        resourcePack = MinecraftResourcePackWriter.minecraft().build(resourcePack ->
+                resourcePack.packMeta(8, "Resource pack!"));
+        server = ResourcePackServer.server()
+                .address(new InetSocketAddress("localhost", 0))
+                .backend(ResourcePackServerBackend.NIO)
+                .pack(resourcePack, true)
+                .build();
+        server.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Test that the NIO backend serves packs to Minecraft clients")
+    void test_download() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.address().getPort() + "/")
+                .openConnection();
+        connection.setRequestProperty("X-Minecraft-UUID", "30b9e3deb4b64d37943af5747f710ca6");
+        connection.setRequestProperty("X-Minecraft-Username", "Yusshu");
+        connection.setRequestProperty("X-Minecraft-Pack-Format", "8");
+        connection.setRequestProperty("X-Minecraft-Version", "1.18.2");
+        connection.setRequestProperty("X-Minecraft-Version-ID", "1.18.2");
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertEquals('"' + resourcePack.hash() + '"', connection.getHeaderField("ETag"));
+        try (InputStream input = connection.getInputStream()) {
+            Assertions.assertArrayEquals(resourcePack.data().toByteArray(), readAll(input));
+        }
+    }
+
+    @Test
+    @DisplayName("Test that pipelined requests are answered in order through the same connection")
+    void test_keep_alive_and_pipelining() throws IOException {
+        byte[] data = resourcePack.data().toByteArray();
+        try (Socket socket = new Socket("localhost", server.address().getPort())) {
+            String requests = "GET / HTTP/1.1\r\nHost: localhost\r\n" + CLIENT_HEADERS + "\r\n"
+                    + "GET / HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                    + "GET / HTTP/1.1\r\nHost: localhost\r\nRange: bytes=0-9\r\n" + CLIENT_HEADERS + "\r\n";
+            OutputStream output = socket.getOutputStream();
+            output.write(requests.getBytes(StandardCharsets.ISO_8859_1));
+            output.flush();
+
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+
+            Response first = Response.read(input);
+            Assertions.assertEquals(200, first.status);
+            Assertions.assertArrayEquals(data, first.body);
+
+            // not a Minecraft client
+            Response second = Response.read(input);
+            Assertions.assertEquals(400, second.status);
+
+            Response third = Response.read(input);
+            Assertions.assertEquals(206, third.status);
+            Assertions.assertArrayEquals(Arrays.copyOf(data, 10), third.body);
+
+            // the connection is still open
+            output.write(("GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n" + CLIENT_HEADERS + "\r\n")
+                    .getBytes(StandardCharsets.ISO_8859_1));
+            Response last = Response.read(input);
+            Assertions.assertEquals(200, last.status);
+            Assertions.assertEquals("close", last.headers.get("connection"));
+            Assertions.assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that memory-mapped payloads are transferred by the NIO backend")
+    void test_file_transfer(@TempDir Path directory) throws IOException {
+        byte[] data = new byte[3 * 1024 * 1024 + 123];
+        new Random(7).nextBytes(data);
+        Path file = directory.resolve("pack.zip");
+        Files.write(file, data);
+        PackPayload payload = PackPayload.map(file);
+        ResourcePackRequestHandler handler = (request, exchange) -> {
+            exchange.sendResponseHeaders(200, payload.length());
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                payload.writeTo(responseBody);
+            }
+        };
+
+        ResourcePackServer fileServer = ResourcePackServer.server()
+                .address(new InetSocketAddress("localhost", 0))
+                .backend(ResourcePackServerBackend.NIO)
+                .handler(handler)
+                .build();
+        fileServer.start();
+        try (Socket socket = new Socket("localhost", fileServer.address().getPort())) {
+            socket.getOutputStream().write("GET / HTTP/1.1\r\n\r\nGET / HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            Assertions.assertArrayEquals(data, Response.read(input).body);
+            Assertions.assertArrayEquals(data, Response.read(input).body);
+        } finally {
+            fileServer.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that file-backed packs are served by the NIO backend")
+    void test_file_backed_pack(@TempDir Path directory) throws IOException {
+        BuiltResourcePack filePack = MinecraftResourcePackWriter.minecraft().build(
+                ResourcePack.resourcePack(),
+                directory.resolve("pack.zip")
+        );
+        ResourcePackServer fileServer = ResourcePackServer.server()
+                .address(new InetSocketAddress("localhost", 0))
+                .backend(ResourcePackServerBackend.NIO)
+                .pack(filePack)
+                .build();
+        fileServer.start();
+        try (Socket socket = new Socket("localhost", fileServer.address().getPort())) {
+            socket.getOutputStream().write("GET / HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            Response response = Response.read(new BufferedInputStream(socket.getInputStream()));
+            Assertions.assertEquals(200, response.status);
+            Assertions.assertArrayEquals(Files.readAllBytes(directory.resolve("pack.zip")), response.body);
+        } finally {
+            fileServer.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that requests outside the server path are not found")
+    void test_not_found() throws IOException {
+        ResourcePackServer pathServer = ResourcePackServer.server()
+                .address(new InetSocketAddress("localhost", 0))
+                .backend(ResourcePackServerBackend.NIO)
+                .path("/pack")
+                .pack(resourcePack)
+                .build();
+        pathServer.start();
+        try (Socket socket = new Socket("localhost", pathServer.address().getPort())) {
+            socket.getOutputStream().write("GET /other HTTP/1.1\r\n\r\nGET /pack/a.zip HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            Assertions.assertEquals(404, Response.read(input).status);
+            Assertions.assertEquals(200, Response.read(input).status);
+        } finally {
+            pathServer.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that HTTPS can't be used with the NIO backend")
+    void test_secure_unsupported() throws Exception {
+        ResourcePackServer.Builder builder = ResourcePackServer.server()
+                .address(new InetSocketAddress("localhost", 0))
+                .backend(ResourcePackServerBackend.NIO)
+                .secure(SSLContext.getDefault())
+                .pack(resourcePack);
+        Assertions.assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int read;
+        while ((read = input.read(buf)) != -1) {
+            output.write(buf, 0, read);
+        }
+        return output.toByteArray();
+    }
+
+    private static final class Response {
+        private final int status;
+        private final Map<String, String> headers;
+        private final byte[] body;
+
+        private Response(int status, Map<String, String> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        static Response read(InputStream input) throws IOException {
+            String statusLine = readLine(input);
+            int status = Integer.parseInt(statusLine.split(" ")[1]);
+            Map<String, String> headers = new HashMap<>();
+            String line;
+            while (!(line = readLine(input)).isEmpty()) {
+                int colon = line.indexOf(':');
+                headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+            }
+            String contentLength = headers.get("content-length");
+            byte[] body = new byte[contentLength == null ? 0 : Integer.parseInt(contentLength)];
+            int offset = 0;
+            while (offset < body.length) {
+                int read = input.read(body, offset, body.length - offset);
+                if (read == -1) {
+                    throw new IOException("Unexpected end of response body");
+                }
+                offset += read;
+            }
+            return new Response(status, headers, body);
+        }
+
+        private static String readLine(InputStream input) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = input.read()) != '\n') {
+                if (c == -1) {
+                    throw new IOException("Unexpected end of response");
+                }
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            return line.toString();
+        }
+    }
+
+}
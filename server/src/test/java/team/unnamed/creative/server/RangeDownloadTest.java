@@ -0,0 +1,80 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Arrays;
+
+class RangeDownloadTest extends LocalHttpTestBase {
+
+    @Test
+    @DisplayName("Test that an interrupted download can be resumed")
+    void test_resume() throws IOException {
+        byte[] data = resourcePack.data().toByteArray();
+        int offset = data.length / 2;
+
+        HttpURLConnection connection = openAsClient("/");
+        connection.setRequestProperty("Range", "bytes=" + offset + "-");
+        connection.setRequestProperty("If-Range", '"' + resourcePack.hash() + '"');
+
+        byte[] received = readBody(connection);
+        Assertions.assertEquals(206, connection.getResponseCode());
+        Assertions.assertEquals(
+                "bytes " + offset + "-" + (data.length - 1) + "/" + data.length,
+                connection.getHeaderField("Content-Range")
+        );
+        Assertions.assertArrayEquals(Arrays.copyOfRange(data, offset, data.length), received);
+    }
+
+    @Test
+    @DisplayName("Test that a stale If-Range validator makes the server send the full pack")
+    void test_stale_if_range() throws IOException {
+        HttpURLConnection connection = openAsClient("/");
+        connection.setRequestProperty("Range", "bytes=10-");
+        connection.setRequestProperty("If-Range", "\"some-old-hash\"");
+
+        byte[] received = readBody(connection);
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertEquals('"' + resourcePack.hash() + '"', connection.getHeaderField("ETag"));
+        Assertions.assertArrayEquals(resourcePack.data().toByteArray(), received);
+    }
+
+    @Test
+    @DisplayName("Test that unsatisfiable ranges are rejected")
+    void test_unsatisfiable() throws IOException {
+        int length = resourcePack.data().toByteArray().length;
+
+        HttpURLConnection connection = openAsClient("/");
+        connection.setRequestProperty("Range", "bytes=" + length + "-");
+
+        Assertions.assertEquals(416, connection.getResponseCode());
+        Assertions.assertEquals("bytes */" + length, connection.getHeaderField("Content-Range"));
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+class FixedResourcePackRequestHandlerTest {
+
+    private static final int PACK_LENGTH = 4 * 1024 * 1024;
+
+    private static final ResourcePackDownloadRequest REQUEST = ResourcePackDownloadRequest.request(
+            UUID.fromString("30b9e3de-b4b6-4d37-943a-f5747f710ca6"),
+            "Yusshu",
+            "1.20.2",
+            "1.20.2",
+            18
+    );
+
+    private static BuiltResourcePack pack() {
+        byte[] data = new byte[PACK_LENGTH];
+        new Random(0).nextBytes(data);
+        return BuiltResourcePack.of(Writable.bytes(data), "0123456789abcdef0123456789abcdef01234567");
+    }
+
+    @Test
+    @DisplayName("Test that the served data matches the pack data")
+    void test_served_data() throws IOException {
+        BuiltResourcePack pack = pack();
+        ResourcePackRequestHandler handler = ResourcePackRequestHandler.fixed(pack);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MockHttpExchange exchange = new MockHttpExchange(output);
+        handler.onRequest(REQUEST, exchange);
+
+        Assertions.assertEquals(200, exchange.getResponseCode());
+        Assertions.assertEquals(PACK_LENGTH, exchange.getResponseLength());
+        Assertions.assertArrayEquals(pack.data().toByteArray(), output.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Test that serving a pack does not copy its data per request")
+    void test_constant_allocation_per_request() throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assumptions.assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        ResourcePackRequestHandler handler = ResourcePackRequestHandler.fixed(pack());
+        OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+
+        // warm up
+        for (int i = 0; i < 10; i++) {
+            handler.onRequest(REQUEST, new MockHttpExchange(discard));
+        }
+
+        int requests = 100;
+        long threadId = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < requests; i++) {
+            handler.onRequest(REQUEST, new MockHttpExchange(discard));
+        }
+        long allocatedPerRequest = (allocations.getThreadAllocatedBytes(threadId) - before) / requests;
+
+        Assertions.assertTrue(
+                allocatedPerRequest < 16 * 1024,
+                "Allocated " + allocatedPerRequest + " bytes per request, for a pack of " + PACK_LENGTH + " bytes"
+        );
+    }
+
+    @Test
+    @DisplayName("Test that precomputed encodings are negotiated using Accept-Encoding")
+    void test_encoding_negotiation() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            text.append("{\"parent\":\"item/generated\",\"index\":").append(i).append("}\n");
+        }
+        BuiltResourcePack pack = BuiltResourcePack.of(Writable.stringUtf8(text.toString()), "0123456789abcdef0123456789abcdef01234567");
+        byte[] data = pack.data().toByteArray();
+        ResourcePackRequestHandler handler = ResourcePackRequestHandler.fixed(pack, false, EnumSet.allOf(ContentEncoding.class));
+
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            MockHttpExchange exchange = new MockHttpExchange(output).header("Accept-Encoding", "gzip");
+            handler.onRequest(REQUEST, exchange);
+
+            Assertions.assertEquals("gzip", exchange.getResponseHeaders().getFirst("Content-Encoding"));
+            Assertions.assertEquals("Accept-Encoding", exchange.getResponseHeaders().getFirst("Vary"));
+            Assertions.assertTrue(output.size() < data.length);
+            try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+                Assertions.assertArrayEquals(data, readAll(input));
+            }
+        }
+
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            MockHttpExchange exchange = new MockHttpExchange(output).header("Accept-Encoding", "gzip;q=0, deflate");
+            handler.onRequest(REQUEST, exchange);
+
+            Assertions.assertEquals("deflate", exchange.getResponseHeaders().getFirst("Content-Encoding"));
+            try (InputStream input = new InflaterInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+                Assertions.assertArrayEquals(data, readAll(input));
+            }
+        }
+
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            MockHttpExchange exchange = new MockHttpExchange(output);
+            handler.onRequest(REQUEST, exchange);
+
+            Assertions.assertNull(exchange.getResponseHeaders().getFirst("Content-Encoding"));
+            Assertions.assertArrayEquals(data, output.toByteArray());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that encoded variants larger than the pack are not served")
+    void test_incompressible_pack() throws IOException {
+        BuiltResourcePack pack = pack();
+        ResourcePackRequestHandler handler = ResourcePackRequestHandler.fixed(pack, false, EnumSet.allOf(ContentEncoding.class));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MockHttpExchange exchange = new MockHttpExchange(output).header("Accept-Encoding", "gzip, deflate");
+        handler.onRequest(REQUEST, exchange);
+
+        Assertions.assertNull(exchange.getResponseHeaders().getFirst("Content-Encoding"));
+        Assertions.assertArrayEquals(pack.data().toByteArray(), output.toByteArray());
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        int read;
+        while ((read = input.read(buf)) != -1) {
+            output.write(buf, 0, read);
+        }
+        return output.toByteArray();
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.handler;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.BuiltResourcePack;
+import team.unnamed.creative.base.Writable;
+import team.unnamed.creative.metadata.pack.PackFormat;
+import team.unnamed.creative.server.request.ResourcePackDownloadRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+class VersionedResourcePackRequestHandlerTest {
+
+    private static BuiltResourcePack pack(String name) {
+        return BuiltResourcePack.of(Writable.stringUtf8(name), name);
+    }
+
+    private static ResourcePackDownloadRequest request(int packFormat) {
+        return ResourcePackDownloadRequest.request(
+                UUID.fromString("30b9e3de-b4b6-4d37-943a-f5747f710ca6"),
+                "Yusshu",
+                "1.20.2",
+                "1.20.2",
+                packFormat
+        );
+    }
+
+    private static String serve(ResourcePackRequestHandler handler, ResourcePackDownloadRequest request) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        handler.onRequest(request, new MockHttpExchange(output));
+        return output.toString("UTF-8");
+    }
+
+    @Test
+    @DisplayName("Test that the pack is selected by the client pack format")
+    void test_selection() throws IOException {
+        VersionedResourcePackRequestHandler handler = ResourcePackRequestHandler.versioned(false);
+        handler.register(PackFormat.format(9, 9, 12), pack("legacy"));
+        handler.register(PackFormat.format(15, 13, 15), pack("trails"));
+        handler.register(PackFormat.format(22, 18, 22), pack("modern"));
+
+        Assertions.assertEquals("legacy", serve(handler, request(9)));
+        Assertions.assertEquals("legacy", serve(handler, request(12)));
+        Assertions.assertEquals("trails", serve(handler, request(13)));
+        Assertions.assertEquals("modern", serve(handler, request(18)));
+        Assertions.assertEquals("modern", serve(handler, request(22)));
+
+        // out of every range, the closest is selected
+        Assertions.assertEquals("legacy", serve(handler, request(6)));
+        Assertions.assertEquals("trails", serve(handler, request(16)));
+        Assertions.assertEquals("modern", serve(handler, request(17)));
+        Assertions.assertEquals("modern", serve(handler, request(40)));
+
+        // non-Minecraft requests get the newest pack
+        Assertions.assertEquals("modern", serve(handler, null));
+    }
+
+    @Test
+    @DisplayName("Test that the registry can be replaced and modified")
+    void test_registry_modification() throws IOException {
+        VersionedResourcePackRequestHandler handler = ResourcePackRequestHandler.versioned(false);
+        Assertions.assertNull(handler.select(15));
+
+        Map<PackFormat, BuiltResourcePack> packs = new HashMap<>();
+        packs.put(PackFormat.format(15), pack("first"));
+        handler.packs(packs);
+        Assertions.assertEquals("first", serve(handler, request(15)));
+
+        BuiltResourcePack second = pack("second");
+        handler.register(PackFormat.format(15), second);
+        Assertions.assertEquals("second", serve(handler, request(15)));
+        Assertions.assertEquals(1, handler.packs().size());
+
+        Assertions.assertSame(second, handler.unregister(PackFormat.format(15)));
+        Assertions.assertNull(handler.unregister(PackFormat.format(15)));
+        Assertions.assertTrue(handler.packs().isEmpty());
+
+        MockHttpExchange exchange = new MockHttpExchange(new ByteArrayOutputStream());
+        handler.onRequest(request(15), exchange);
+        Assertions.assertEquals(404, exchange.getResponseCode());
+    }
+
+    @Test
+    @DisplayName("Test that overlapping pack format ranges are rejected")
+    void test_overlapping_ranges() {
+        VersionedResourcePackRequestHandler handler = ResourcePackRequestHandler.versioned(true);
+        handler.register(PackFormat.format(15, 13, 15), pack("trails"));
+
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> handler.register(PackFormat.format(18, 15, 18), pack("modern"))
+        );
+        Assertions.assertEquals(1, handler.packs().size());
+    }
+
+    @Test
+    @DisplayName("Test that invalid requests are rejected when only valid requests are served")
+    void test_valid_only() throws IOException {
+        VersionedResourcePackRequestHandler handler = ResourcePackRequestHandler.versioned(true);
+        handler.register(PackFormat.format(15), pack("trails"));
+
+        MockHttpExchange exchange = new MockHttpExchange(new ByteArrayOutputStream());
+        handler.onRequest(null, exchange);
+        Assertions.assertEquals(400, exchange.getResponseCode());
+    }
+
+}
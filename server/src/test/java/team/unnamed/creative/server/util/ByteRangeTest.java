@@ -0,0 +1,91 @@
+/*
+ * This file is part of creative, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.creative.server.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeTest {
+    @Test
+    @DisplayName("Test that satisfiable byte ranges are correctly parsed")
+    void test_satisfiable() {
+        final ByteRange closed = ByteRange.parse("bytes=0-499", 1000);
+        assertNotNull(closed);
+        assertTrue(closed.satisfiable());
+        assertEquals(0, closed.start());
+        assertEquals(499, closed.end());
+        assertEquals(500, closed.length());
+        assertEquals("bytes 0-499/1000", closed.contentRange());
+
+        final ByteRange open = ByteRange.parse("bytes=900-", 1000);
+        assertNotNull(open);
+        assertEquals(900, open.start());
+        assertEquals(999, open.end());
+
+        final ByteRange suffix = ByteRange.parse("bytes=-100", 1000);
+        assertNotNull(suffix);
+        assertEquals(900, suffix.start());
+        assertEquals(999, suffix.end());
+
+        final ByteRange clamped = ByteRange.parse("bytes=500-5000", 1000);
+        assertNotNull(clamped);
+        assertEquals(999, clamped.end());
+
+        final ByteRange largeSuffix = ByteRange.parse("bytes=-5000", 1000);
+        assertNotNull(largeSuffix);
+        assertEquals(0, largeSuffix.start());
+    }
+
+    @Test
+    @DisplayName("Test that unsatisfiable byte ranges are detected")
+    void test_unsatisfiable() {
+        final ByteRange pastEnd = ByteRange.parse("bytes=1000-", 1000);
+        assertNotNull(pastEnd);
+        assertFalse(pastEnd.satisfiable());
+        assertEquals("bytes */1000", pastEnd.contentRange());
+
+        final ByteRange emptySuffix = ByteRange.parse("bytes=-0", 1000);
+        assertNotNull(emptySuffix);
+        assertFalse(emptySuffix.satisfiable());
+
+        final ByteRange suffixOfEmpty = ByteRange.parse("bytes=-500", 0);
+        assertNotNull(suffixOfEmpty);
+        assertFalse(suffixOfEmpty.satisfiable());
+        assertEquals(0, suffixOfEmpty.length());
+        assertEquals("bytes */0", suffixOfEmpty.contentRange());
+    }
+
+    @Test
+    @DisplayName("Test that malformed and unsupported ranges are ignored")
+    void test_ignored() {
+        assertNull(ByteRange.parse(null, 1000));
+        assertNull(ByteRange.parse("items=0-10", 1000));
+        assertNull(ByteRange.parse("bytes=10-5", 1000));
+        assertNull(ByteRange.parse("bytes=abc-", 1000));
+        assertNull(ByteRange.parse("bytes=0-10,20-30", 1000));
+        assertNull(ByteRange.parse("bytes=10", 1000));
+    }
+}
@@ -7,6 +7,7 @@ rootProject.name = "creative-parent"
 includePrefixed("api")
 includePrefixed("server")
 includePrefixed("serializer-minecraft")
+includePrefixed("benchmarks")
 
 fun includePrefixed(name: String) {
     val kebabName = name.replace(':', '-')